@@ -0,0 +1,124 @@
+package app.benchmarks;
+
+import app.EncodingConfig;
+import app.models.Model;
+import app.models.Permission;
+import app.models.Person;
+import app.models.Role;
+import app.models.serializers.PresentationFilter;
+import app.pojos.pages.PageDataRequest;
+import app.pojos.pages.PageDataResponse;
+import app.pojos.responses.success.SuccessResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization time of a Person page (with first level relations like "/people/Page?complete=true") in each
+ * response encoding, the payload size of every encoding is printed when the trial starts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"JSON", "JSON_GZIP", "JSON_DEFLATE", "SMILE", "CBOR"})
+    private String encoding;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+
+    private SuccessResponse page;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // same configuration than the application ObjectMapper (JacksonConfig and spring.jackson.* properties)
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .modules(new JavaTimeModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .mixIn(Model.class, PresentationFilter.ModelMixin.class);
+        JsonFactory factory = encoding.equals("SMILE") ? new SmileFactory() : encoding.equals("CBOR") ? new CBORFactory() : new JsonFactory();
+        writer = EncodingConfig.createMapper(builder, factory)
+                .writer(new SimpleFilterProvider().addFilter(PresentationFilter.ID, PresentationFilter.FIRST_LEVEL_RELATIONS));
+        page = createPage(pageSize);
+
+        System.out.println();
+        System.out.println(encoding + " payload: " + serialize().length + " bytes");
+    }
+
+    /**
+     * Write the page as the response body
+     */
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (OutputStream outputStream = encode(body)) {
+            writer.writeValue(outputStream, page);
+        }
+        return body.toByteArray();
+    }
+
+    private OutputStream encode(OutputStream body) throws IOException {
+        switch (encoding) {
+            case "JSON_GZIP":
+                return new GZIPOutputStream(body);
+            case "JSON_DEFLATE":
+                return new DeflaterOutputStream(body);
+            default:
+                return body;
+        }
+    }
+
+    /**
+     * Create a page of people like the ones returned by PersonCtrl.page
+     *
+     * @param size people in the page
+     * @return success response
+     */
+    private SuccessResponse createPage(int size) {
+        Random random = new Random(1);
+        List<Permission> permissions = IntStream.range(0, 20).mapToObj(i -> {
+            Permission permission = new Permission("PERMISSION_" + i, "Description of permission " + i);
+            permission.setId(UUID.randomUUID().toString());
+            return permission;
+        }).collect(Collectors.toList());
+        List<Role> roles = IntStream.range(0, 5).mapToObj(i -> {
+            Role role = new Role("ROLE_" + i, "Description of role " + i, new HashSet<>(permissions.subList(i * 4, i * 4 + 4)));
+            role.setId(UUID.randomUUID().toString());
+            return role;
+        }).collect(Collectors.toList());
+
+        List<Person> people = IntStream.range(0, size).mapToObj(i -> {
+            Person person = new Person("Name " + i, "Last Name " + i, LocalDate.of(1980, 1, 1).plusDays(random.nextInt(10000)),
+                    random.nextInt(3), i % 2 == 0 ? Person.SEX.M : Person.SEX.F, "person" + i + "@mail.com",
+                    new HashSet<>(Arrays.asList(roles.get(random.nextInt(roles.size())), roles.get(random.nextInt(roles.size())))));
+            person.setId(UUID.randomUUID().toString());
+            return person;
+        }).collect(Collectors.toList());
+
+        PageDataRequest dataRequest = new PageDataRequest(0, size, "ASC", Collections.singletonList("name"), null);
+        return new SuccessResponse(people, new PageDataResponse(1000 / size, 1000L, dataRequest), "token");
+    }
+}
@@ -0,0 +1,92 @@
+package app.benchmarks;
+
+import app.models.converters.UUIDBinaryType;
+import app.models.generators.OrderedUUIDGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of the previous id strategy (random uuid2 as VARCHAR(36)) against the current one
+ * (time ordered UUID as BINARY(16)), each row also has a foreign key like the join tables do.
+ * Uses H2 by default, run against MySQL with -Djdbc.url=... -Djdbc.username=... -Djdbc.password=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"UUID2_VARCHAR", "ORDERED_BINARY"})
+    private String strategy;
+
+    private Connection connection;
+
+    private PreparedStatement insert;
+
+    private Object parentId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("jdbc.url", "jdbc:h2:mem:benchmark"),
+                System.getProperty("jdbc.username", "sa"), System.getProperty("jdbc.password", ""));
+        String type = isBinary() ? "BINARY(16)" : "VARCHAR(36)";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS benchmark_child");
+            statement.execute("DROP TABLE IF EXISTS benchmark_parent");
+            statement.execute("CREATE TABLE benchmark_parent (id " + type + " NOT NULL PRIMARY KEY)");
+            statement.execute("CREATE TABLE benchmark_child (id " + type + " NOT NULL PRIMARY KEY, parent_id " + type
+                    + " NOT NULL, name VARCHAR(255), FOREIGN KEY (parent_id) REFERENCES benchmark_parent (id))");
+        }
+
+        parentId = nextId();
+        try (PreparedStatement parent = connection.prepareStatement("INSERT INTO benchmark_parent (id) VALUES (?)")) {
+            parent.setObject(1, parentId);
+            parent.executeUpdate();
+        }
+        insert = connection.prepareStatement("INSERT INTO benchmark_child (id, parent_id, name) VALUES (?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        insert.close();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE benchmark_child");
+            statement.execute("DROP TABLE benchmark_parent");
+        }
+        connection.close();
+    }
+
+    /**
+     * Insert a batch of rows, the table keeps growing between invocations like a real primary key index
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, nextId());
+            insert.setObject(2, parentId);
+            insert.setString(3, "name");
+            insert.addBatch();
+        }
+        return insert.executeBatch();
+    }
+
+    private boolean isBinary() {
+        return "ORDERED_BINARY".equals(strategy);
+    }
+
+    private Object nextId() {
+        return isBinary() ? UUIDBinaryType.toBytes(OrderedUUIDGenerator.next().toString()) : UUID.randomUUID().toString();
+    }
+}
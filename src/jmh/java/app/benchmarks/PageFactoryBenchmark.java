@@ -0,0 +1,122 @@
+package app.benchmarks;
+
+import app.factories.implementations.PageFactoryImpl;
+import app.models.Person;
+import app.models.QPerson;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import com.querydsl.core.types.Predicate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters of every /page call: JPA Specifications (MySQL), QueryDSL Predicate (Mongo) and PageRequest.
+ * Specifications are lazy, so the benchmark also builds the JPA predicate with a real Hibernate CriteriaBuilder
+ * (metamodel only, H2 in memory and no tables), that's where each filter value is parsed.
+ * Filters mix strings, numbers, dates and date times, MANY has all of them together
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PageFactoryBenchmark {
+
+    @Param({"STRINGS", "NUMBERS", "DATES", "MANY"})
+    private String filters;
+
+    private PageFactoryImpl pageFactory;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private List<FilterRequest> filtersRequest;
+
+    private List<String> sort;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pageFactory = new PageFactoryImpl();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:page-benchmark", "sa", "");
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan("app.models");
+        entityManagerFactory.afterPropertiesSet();
+        entityManager = entityManagerFactory.getObject().createEntityManager();
+
+        // operations are already upper case, so cleanOperation doesn't change them between invocations
+        List<FilterRequest> strings = Arrays.asList(new FilterRequest("name", "ar", "LIKE"),
+                new FilterRequest("lastName", "Arg", "STARTSWITH"), new FilterRequest("sex", "M", "EQ"));
+        List<FilterRequest> numbers = Arrays.asList(new FilterRequest("civilStatus", "1", "GET"),
+                new FilterRequest("version", "5", "LT"));
+        List<FilterRequest> dates = Arrays.asList(new FilterRequest("birthday", "1990-01-01", "GT"),
+                new FilterRequest("createdAt", "2017-09-01T10:15:30Z", "LET"));
+        switch (filters) {
+            case "STRINGS":
+                filtersRequest = strings;
+                sort = Arrays.asList("name", "lastName");
+                break;
+            case "NUMBERS":
+                filtersRequest = numbers;
+                sort = Arrays.asList("civilStatus");
+                break;
+            case "DATES":
+                filtersRequest = dates;
+                sort = Arrays.asList("birthday");
+                break;
+            default:
+                filtersRequest = Arrays.asList(strings.get(0), strings.get(1), strings.get(2), numbers.get(0), numbers.get(1),
+                        dates.get(0), dates.get(1), new FilterRequest("email", "@gmail.com", "ENDSWITH"),
+                        new FilterRequest("name", "Edgar", "NE"), new FilterRequest("civilStatus", "3", "LET"),
+                        new FilterRequest("birthday", "2000-12-31", "LT"), new FilterRequest("updatedAt", "2017-09-01T10:15:30Z", "GET"));
+                sort = Arrays.asList("name", "lastName", "birthday", "createdAt");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.destroy();
+    }
+
+    /**
+     * Create the Specifications and let JPA build the predicate like findAll does (MySQL /page)
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public javax.persistence.criteria.Predicate getSpecifications() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        return pageFactory.getSpecifications(filtersRequest).toPredicate(query.from(Person.class), query, cb);
+    }
+
+    /**
+     * Create the QueryDSL Predicate (Mongo /page)
+     */
+    @Benchmark
+    public Predicate getPredicate() {
+        return pageFactory.getPredicate(filtersRequest, QPerson.person);
+    }
+
+    /**
+     * Clean a new page request and create its PageRequest (both databases)
+     */
+    @Benchmark
+    public PageRequest pageRequest() {
+        return pageFactory.pageRequest(new PageDataRequest(2, 20, "desc", sort, filtersRequest));
+    }
+}
@@ -0,0 +1,224 @@
+package app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compare JMH results and a load test report against the committed baseline (gradle perfGate), it prints every metric
+ * with its change and fails (exit code 1) when any of them is worse than its baseline value by more than its tolerance
+ * or when a baseline metric wasn't measured.
+ * <p>
+ * Baseline metrics have a value, unit, direction (higherIsBetter) and tolerance (0.25 allows 25% worse values), metrics
+ * that aren't in the baseline are only displayed. With --update the baseline is rewritten with the current values,
+ * keeping the tolerances already set and dropping the metrics that weren't measured (baselines depend on the machine,
+ * so they must be created where the gate runs)
+ * <p>
+ * Usage: PerformanceGate baseline.json jmh.json loadtest.json [--update]
+ */
+public class PerformanceGate {
+
+    // default tolerances of new metrics, latency percentiles are at most 1/16 higher than the recorded values
+    private static final double BENCHMARK_TOLERANCE = 0.25;
+
+    private static final double THROUGHPUT_TOLERANCE = 0.3;
+
+    private static final double LATENCY_TOLERANCE = 0.5;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: PerformanceGate baseline.json jmh.json loadtest.json [--update]");
+            System.exit(2);
+        }
+
+        File baselineFile = new File(args[0]);
+        Map<String, Metric> baseline = baselineFile.exists() ? readBaseline(baselineFile) : new TreeMap<>();
+        Map<String, Metric> current = new TreeMap<>();
+        current.putAll(readBenchmarks(new File(args[1])));
+        current.putAll(readLoadTest(new File(args[2])));
+
+        if (args.length > 3 && args[3].equals("--update")) {
+            current.forEach((name, metric) -> {
+                if (baseline.containsKey(name)) {
+                    metric.tolerance = baseline.get(name).tolerance;
+                }
+            });
+            writeBaseline(baselineFile, current);
+            System.out.println("Baseline " + baselineFile.getAbsolutePath() + " updated with " + current.size() + " metrics");
+            return;
+        }
+
+        List<String> regressions = compare(baseline, current);
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println(regressions.size() + " performance regressions or missing metrics:");
+            regressions.forEach(r -> System.out.println("  " + r));
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.println("No performance regressions.");
+    }
+
+    /**
+     * Print every metric with its change against the baseline
+     *
+     * @param baseline baseline metrics by name
+     * @param current  measured metrics by name
+     * @return description of the metrics that regressed
+     */
+    static List<String> compare(Map<String, Metric> baseline, Map<String, Metric> current) {
+        List<String> regressions = new ArrayList<>();
+        System.out.println(String.format("%-96s %14s %14s %9s %9s  %s", "Metric", "Baseline", "Current", "Change", "Tolerance", "Result"));
+
+        Set<String> names = new TreeSet<>(baseline.keySet());
+        names.addAll(current.keySet());
+        names.forEach(name -> {
+            Metric expected = baseline.get(name);
+            Metric actual = current.get(name);
+            String result;
+            if (expected == null) {
+                result = "NEW";
+            } else if (actual == null) {
+                // a renamed or removed benchmark or endpoint must be dropped from the baseline with --update
+                result = "NOT RUN";
+                regressions.add(String.format("%s: %s -> not run (remove it from the baseline with --update)", name,
+                        format(expected.value, expected.unit)));
+            } else if (expected.isRegression(actual.value)) {
+                result = "REGRESSION";
+                regressions.add(String.format("%s: %s -> %s (%s, tolerance %.0f%%)", name, format(expected.value, expected.unit),
+                        format(actual.value, actual.unit), change(expected, actual), expected.tolerance * 100));
+            } else {
+                result = "OK";
+            }
+
+            System.out.println(String.format("%-96s %14s %14s %9s %9s  %s", name,
+                    expected != null ? format(expected.value, expected.unit) : "",
+                    actual != null ? format(actual.value, actual.unit) : "",
+                    expected != null && actual != null ? change(expected, actual) : "",
+                    expected != null ? String.format("%.0f%%", expected.tolerance * 100) : "", result));
+        });
+        return regressions;
+    }
+
+    /**
+     * Read the primary metric of each benchmark and parameters combination in a JMH JSON result
+     *
+     * @param file JMH result (-rf json)
+     * @return metrics named "jmh Benchmark.method (param=value, ...)"
+     */
+    static Map<String, Metric> readBenchmarks(File file) throws IOException {
+        Map<String, Metric> metrics = new TreeMap<>();
+        for (JsonNode result : MAPPER.readTree(file)) {
+            String benchmark = result.get("benchmark").asText();
+            StringBuilder name = new StringBuilder("jmh ").append(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+            if (result.has("params")) {
+                Map<String, String> params = new TreeMap<>();
+                result.get("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+                name.append(" ").append(params.toString().replace('{', '(').replace('}', ')'));
+            }
+
+            JsonNode primary = result.get("primaryMetric");
+            // throughput modes are operations per time, the rest are time per operation
+            boolean higherIsBetter = result.get("mode").asText().equals("thrpt");
+            metrics.put(name.toString(), new Metric(primary.get("score").asDouble(), primary.get("scoreUnit").asText(), higherIsBetter, BENCHMARK_TOLERANCE));
+        }
+        return metrics;
+    }
+
+    /**
+     * Read the throughput, errors and latency percentiles of a load test report
+     *
+     * @param file LoadTest report
+     * @return metrics named "loadtest ..."
+     */
+    static Map<String, Metric> readLoadTest(File file) throws IOException {
+        Map<String, Metric> metrics = new TreeMap<>();
+        JsonNode report = MAPPER.readTree(file);
+        metrics.put("loadtest throughput", new Metric(report.get("throughput").asDouble(), "req/s", true, THROUGHPUT_TOLERANCE));
+        // errors baseline is 0, so any error fails
+        metrics.put("loadtest errors", new Metric(report.get("errors").asDouble(), "errors", false, 0));
+        for (JsonNode endpoint : report.get("endpoints")) {
+            for (String percentile : new String[]{"p50", "p99"}) {
+                metrics.put("loadtest " + endpoint.get("endpoint").asText() + " " + percentile,
+                        new Metric(endpoint.get(percentile).asDouble(), "ms", false, LATENCY_TOLERANCE));
+            }
+        }
+        return metrics;
+    }
+
+    static Map<String, Metric> readBaseline(File file) throws IOException {
+        Map<String, Metric> metrics = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = MAPPER.readTree(file).get("metrics").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode metric = field.getValue();
+            metrics.put(field.getKey(), new Metric(metric.get("value").asDouble(), metric.get("unit").asText(),
+                    metric.get("higherIsBetter").asBoolean(), metric.get("tolerance").asDouble()));
+        }
+        return metrics;
+    }
+
+    private static void writeBaseline(File file, Map<String, Metric> metrics) throws IOException {
+        ObjectNode baseline = MAPPER.createObjectNode();
+        ObjectNode values = baseline.putObject("metrics");
+        metrics.forEach((name, metric) -> {
+            ObjectNode node = values.putObject(name);
+            node.put("value", Math.round(metric.value * 1000) / 1000.0);
+            node.put("unit", metric.unit);
+            node.put("higherIsBetter", metric.higherIsBetter);
+            node.put("tolerance", metric.tolerance);
+        });
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, baseline);
+    }
+
+    private static String change(Metric expected, Metric actual) {
+        if (expected.value == 0) {
+            return actual.value == 0 ? "0%" : "new";
+        }
+        return String.format("%+.1f%%", (actual.value - expected.value) / expected.value * 100);
+    }
+
+    private static String format(double value, String unit) {
+        return String.format("%.3f %s", value, unit);
+    }
+
+    static class Metric {
+
+        private final double value;
+
+        private final String unit;
+
+        private final boolean higherIsBetter;
+
+        private double tolerance;
+
+        Metric(double value, String unit, boolean higherIsBetter, double tolerance) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * Check if a measured value is worse than this baseline by more than the tolerance
+         *
+         * @param current measured value
+         * @return true if it regressed
+         */
+        boolean isRegression(double current) {
+            return higherIsBetter ? current < value * (1 - tolerance) : current > value * (1 + tolerance);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package app.benchmarks;
+
+import app.EncodingConfig;
+import app.models.Model;
+import app.models.Permission;
+import app.models.Person;
+import app.models.Role;
+import app.models.serializers.PresentationFilter;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import app.pojos.pages.PageDataResponse;
+import app.pojos.responses.success.SuccessResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * JSON serialization of Person -> Role -> Permission pages wrapped in a SuccessResponse with the PresentationFilter
+ * that PresentationService.prepare selects (plain, complete and all_relations), and deserialization of the
+ * PageDataRequest body of every /Page call. The payload size of every graph is printed when the trial starts
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializationBenchmark {
+
+    /**
+     * Write a page of people as the response body
+     */
+    @Benchmark
+    public byte[] serializePage(Graph graph) throws IOException {
+        return graph.writer.writeValueAsBytes(graph.page);
+    }
+
+    /**
+     * Read a /Page request body
+     */
+    @Benchmark
+    public PageDataRequest deserializePageDataRequest(Request request) throws IOException {
+        return request.reader.readValue(request.body);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Graph {
+
+        @Param({"PLAIN", "COMPLETE", "ALL_RELATIONS"})
+        private String presentation;
+
+        @Param({"1", "20", "100"})
+        private int people;
+
+        // 30 is generator.max-permissions-per-role
+        @Param({"4", "30"})
+        private int permissionsPerRole;
+
+        private ObjectWriter writer;
+
+        private SuccessResponse page;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            PresentationFilter filter = PresentationFilter.of(presentation.equals("COMPLETE"), presentation.equals("ALL_RELATIONS"));
+            writer = createMapper().writer(new SimpleFilterProvider().addFilter(PresentationFilter.ID, filter));
+            page = createPage();
+
+            System.out.println();
+            System.out.println(presentation + " " + people + " people " + permissionsPerRole + " permissions per role payload: "
+                    + serialize().length + " bytes");
+        }
+
+        private byte[] serialize() throws IOException {
+            return writer.writeValueAsBytes(page);
+        }
+
+        /**
+         * Create a page of people like the ones returned by PersonCtrl.page, roles and permissions are shared
+         * between people like entities loaded in the same persistence context
+         *
+         * @return success response
+         */
+        private SuccessResponse createPage() {
+            Random random = new Random(1);
+            List<Permission> permissions = IntStream.range(0, 200).mapToObj(i -> {
+                Permission permission = new Permission("PERMISSION_" + i, "Description of permission " + i);
+                permission.setId(UUID.randomUUID().toString());
+                return permission;
+            }).collect(Collectors.toList());
+            List<Role> roles = IntStream.range(0, 10).mapToObj(i -> {
+                Collections.shuffle(permissions, random);
+                Role role = new Role("ROLE_" + i, "Description of role " + i, new HashSet<>(permissions.subList(0, permissionsPerRole)));
+                role.setId(UUID.randomUUID().toString());
+                return role;
+            }).collect(Collectors.toList());
+
+            List<Person> content = IntStream.range(0, people).mapToObj(i -> {
+                Person person = new Person("Name " + i, "Last Name " + i, LocalDate.of(1980, 1, 1).plusDays(random.nextInt(10000)),
+                        random.nextInt(3), i % 2 == 0 ? Person.SEX.M : Person.SEX.F, "person" + i + "@mail.com",
+                        new HashSet<>(Arrays.asList(roles.get(random.nextInt(roles.size())), roles.get(random.nextInt(roles.size())))));
+                person.setId(UUID.randomUUID().toString());
+                return person;
+            }).collect(Collectors.toList());
+
+            PageDataRequest dataRequest = new PageDataRequest(0, people, "ASC", Collections.singletonList("name"), null);
+            return new SuccessResponse(content, new PageDataResponse(1000 / people, 1000L, dataRequest), "token");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Request {
+
+        // not "filters", so -p filters=... of PageFactoryBenchmark doesn't apply here
+        @Param({"0", "3", "12"})
+        private int requestFilters;
+
+        private ObjectReader reader;
+
+        private byte[] body;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            ObjectMapper mapper = createMapper();
+            reader = mapper.readerFor(PageDataRequest.class);
+
+            String[][] values = {{"name", "ar", "LIKE"}, {"birthday", "1990-01-01", "GT"}, {"civilStatus", "1", "EQ"},
+                    {"lastName", "Smi", "STARTSWITH"}, {"email", "@mail.com", "ENDSWITH"}, {"sex", "M", "NE"}};
+            List<FilterRequest> filterRequests = IntStream.range(0, requestFilters)
+                    .mapToObj(i -> new FilterRequest(values[i % values.length][0], values[i % values.length][1], values[i % values.length][2]))
+                    .collect(Collectors.toList());
+            body = mapper.writeValueAsBytes(new PageDataRequest(2, 20, "DESC", Arrays.asList("name", "lastName"), filterRequests));
+        }
+    }
+
+    /**
+     * Create an ObjectMapper with the application configuration (JacksonConfig and spring.jackson.* properties)
+     *
+     * @return JSON mapper
+     */
+    private static ObjectMapper createMapper() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .modules(new JavaTimeModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .mixIn(Model.class, PresentationFilter.ModelMixin.class);
+        return EncodingConfig.createMapper(builder, new JsonFactory());
+    }
+}
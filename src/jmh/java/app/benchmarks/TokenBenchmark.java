@@ -0,0 +1,115 @@
+package app.benchmarks;
+
+import app.factories.implementations.ResponseFactoryImpl;
+import app.metrics.SecurityTimings;
+import app.security.AuthenticationProviderImpl;
+import app.security.jwt.JWTTokenService;
+import app.security.pojos.LoggedUser;
+import app.security.services.implementations.SecurityServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Token hot path of every authenticated request: create, parse (signature check and user deserialization),
+ * AuthenticationProvider (parse and granted authorities) and the token refresh of every success response.
+ * The token grows with the logged user permissions, so they go from 1 to 500
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TokenBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    private int permissions;
+
+    private JWTTokenService tokenService;
+
+    private AuthenticationProviderImpl authenticationProvider;
+
+    private ResponseFactoryImpl responseFactory;
+
+    private LoggedUser loggedUser;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup() throws JsonProcessingException {
+        tokenService = new JWTTokenService();
+        DirectFieldAccessor tokenServiceFields = new DirectFieldAccessor(tokenService);
+        tokenServiceFields.setPropertyValue("secret", "mySecret");
+        tokenServiceFields.setPropertyValue("expirationTime", 604800);
+        tokenServiceFields.setPropertyValue("mapper", Jackson2ObjectMapperBuilder.json().modules(new JavaTimeModule()).build());
+        tokenServiceFields.setPropertyValue("securityService", new SecurityServiceImpl());
+
+        authenticationProvider = new AuthenticationProviderImpl();
+        new DirectFieldAccessor(authenticationProvider).setPropertyValue("tokenService", tokenService);
+        new DirectFieldAccessor(authenticationProvider).setPropertyValue("securityTimings", new SecurityTimings());
+
+        responseFactory = new ResponseFactoryImpl();
+        new DirectFieldAccessor(responseFactory).setPropertyValue("tokenService", tokenService);
+        new DirectFieldAccessor(responseFactory).setPropertyValue("securityTimings", new SecurityTimings());
+
+        Set<String> userPermissions = IntStream.range(0, permissions).mapToObj(i -> String.format("PERMISSION_%03d", i)).collect(Collectors.toSet());
+        loggedUser = new LoggedUser("01a1534b-e49c-75b4-9c29-82e37c6bda17", "Name Last Name", "01a1534b-e824-7936-8a9b-c113e47b0027", userPermissions);
+        token = tokenService.createToken(loggedUser);
+
+        // refreshToken reads the logged user from the security context (a thread local, so the state is Scope.Thread)
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(loggedUser, null));
+
+        System.out.println();
+        System.out.println(permissions + " permissions token: " + token.length() + " characters");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Serialize and sign the logged user (login and every refresh)
+     */
+    @Benchmark
+    public String createToken() throws JsonProcessingException {
+        return tokenService.createToken(loggedUser);
+    }
+
+    /**
+     * Check the signature and deserialize the logged user
+     */
+    @Benchmark
+    public LoggedUser getLoggedUser() throws IOException {
+        return tokenService.getLoggedUser(token);
+    }
+
+    /**
+     * Parse the token and create the granted authorities (once per authenticated request)
+     */
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(token, null));
+    }
+
+    /**
+     * Create a success response, the new token is its main cost
+     */
+    @Benchmark
+    public ResponseEntity success() {
+        return responseFactory.success("data");
+    }
+}
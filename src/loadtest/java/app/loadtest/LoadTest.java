@@ -0,0 +1,263 @@
+package app.loadtest;
+
+import app.Application;
+import app.metrics.LatencyHistogram;
+import app.pojos.pages.PageDataRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Boots the whole application in this JVM (random port, H2 and default values unless other Spring properties are sent
+ * as arguments, e.g. --spring.profiles.active=generator or --spring.datasource.url=...), logs in through /login and sends
+ * mixed read and write requests from loadtest.threads workers. After loadtest.warmup seconds it measures for
+ * loadtest.duration seconds and reports throughput, p50/p99/p999 latency and errors per endpoint (percentiles are
+ * the upper bound of LatencyHistogram sub-buckets, at most 1/16 higher), the JSON report is written to loadtest.report if it's set.
+ * <p>
+ * Options (system properties): loadtest.threads (8), loadtest.warmup (10), loadtest.duration (30), loadtest.write-ratio (0.1),
+ * loadtest.username (user3, the ADMIN), loadtest.password (123), loadtest.seed (42), loadtest.ready-timeout (600), loadtest.report
+ */
+public class LoadTest {
+
+    private final int threads = Integer.getInteger("loadtest.threads", 8);
+
+    private final int warmup = Integer.getInteger("loadtest.warmup", 10);
+
+    private final int duration = Integer.getInteger("loadtest.duration", 30);
+
+    private final double writeRatio = Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.1"));
+
+    private final long seed = Long.getLong("loadtest.seed", 42);
+
+    private final String report = System.getProperty("loadtest.report");
+
+    private final Map<String, String> credentials = new HashMap<>();
+
+    private final RestTemplate rest = new RestTemplate();
+
+    private final ObjectMapper mapper;
+
+    private final String baseUrl;
+
+    public static void main(String[] args) throws Exception {
+        // every worker keeps its connection alive (the JDK keeps only 5 per host by default)
+        System.setProperty("http.maxConnections", System.getProperty("http.maxConnections", "" + Integer.getInteger("loadtest.threads", 8)));
+
+        List<String> applicationArgs = new ArrayList<>();
+        applicationArgs.add("--server.port=0");
+        applicationArgs.addAll(Arrays.asList(args));
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class, applicationArgs.toArray(new String[applicationArgs.size()]));
+        try {
+            new LoadTest(context).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    private LoadTest(ConfigurableApplicationContext context) {
+        mapper = context.getBean(ObjectMapper.class);
+        baseUrl = "http://localhost:" + ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort()
+                + context.getEnvironment().getProperty("server.context-path", "");
+        credentials.put("username", System.getProperty("loadtest.username", "user3"));
+        credentials.put("password", System.getProperty("loadtest.password", "123"));
+
+        // error statuses are counted, not thrown
+        rest.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+    }
+
+    private void run() throws Exception {
+        waitUntilReady();
+        String token = login();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + token);
+        Data data = new Data(ids("/people/Page", headers), ids("/roles/Page", headers), ids("/permissions/Page", headers));
+
+        System.out.println("Load testing " + baseUrl);
+        System.out.println("Warming up " + warmup + " seconds with " + threads + " threads");
+        run(token, data, warmup, seed);
+        System.out.println("Measuring " + duration + " seconds with " + threads + " threads");
+        long start = System.nanoTime();
+        Map<String, EndpointStats> stats = run(token, data, duration, seed + threads);
+        LoadTestReport result = report(stats, (System.nanoTime() - start) / 1e9);
+
+        print(result);
+        if (report != null && !report.isEmpty()) {
+            File file = new File(report);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            mapper.writerWithDefaultPrettyPrinter().writeValue(file, result);
+            System.out.println("Report written to " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Run all workers for some seconds
+     *
+     * @param token   token of the logged user
+     * @param data    ids used by the requests
+     * @param seconds time to run
+     * @param seed    seed of the first worker (each worker uses the next one)
+     * @return stats by endpoint
+     */
+    private Map<String, EndpointStats> run(String token, Data data, int seconds, long seed) throws Exception {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        Workload.Recorder recorder = (endpoint, status, nanos) -> {
+            EndpointStats endpointStats = stats.computeIfAbsent(endpoint, k -> new EndpointStats());
+            endpointStats.latency.record(nanos);
+            if (status == 0 || status >= 400) {
+                endpointStats.errors.increment();
+            }
+        };
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Workload workload = new Workload(rest, mapper, baseUrl, credentials, token, data, writeRatio, seed + i);
+            workers.add(() -> {
+                while (System.nanoTime() < deadline) {
+                    workload.next(recorder);
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> worker : executor.invokeAll(workers)) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return stats;
+    }
+
+    private void waitUntilReady() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Integer.getInteger("loadtest.ready-timeout", 600));
+        while (rest.getForEntity(baseUrl + "/info/ready", String.class).getStatusCode() != HttpStatus.OK) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Application isn't ready.");
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private String login() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = rest.postForEntity(baseUrl + "/login", new HttpEntity<>(mapper.writeValueAsString(credentials), headers), String.class);
+        if (response.getStatusCode() != HttpStatus.OK) {
+            throw new IllegalStateException("Login failed: " + response.getBody());
+        }
+        return mapper.readTree(response.getBody()).get("token").asText();
+    }
+
+    private List<String> ids(String url, HttpHeaders headers) throws IOException {
+        String body = mapper.writeValueAsString(new PageDataRequest(0, 100, null, null, null));
+        ResponseEntity<String> response = rest.exchange(baseUrl + url, HttpMethod.POST, new HttpEntity<>(body, headers), String.class);
+        List<String> ids = new ArrayList<>();
+        if (response.getStatusCode() == HttpStatus.OK) {
+            for (JsonNode entity : mapper.readTree(response.getBody()).get("data")) {
+                ids.add(entity.get("id").asText());
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException(url + " didn't return any entity, the Data Base needs values.");
+        }
+        return ids;
+    }
+
+    private LoadTestReport report(Map<String, EndpointStats> stats, double seconds) {
+        List<LoadTestReport.EndpointReport> endpoints = stats.entrySet().stream().map(e -> {
+            LatencyHistogram latency = e.getValue().latency;
+            long requests = latency.getCount();
+            return new LoadTestReport.EndpointReport(e.getKey(), requests, e.getValue().errors.sum(), round(requests / seconds),
+                    toMillis(latency.getSum() / (double) requests), toMillis(latency.getPercentile(50)), toMillis(latency.getPercentile(99)),
+                    toMillis(latency.getPercentile(99.9)), toMillis(latency.getPercentile(100)));
+        }).sorted(Comparator.comparing(LoadTestReport.EndpointReport::getEndpoint)).collect(Collectors.toList());
+
+        long requests = endpoints.stream().mapToLong(LoadTestReport.EndpointReport::getRequests).sum();
+        long errors = endpoints.stream().mapToLong(LoadTestReport.EndpointReport::getErrors).sum();
+        return new LoadTestReport(threads, round(seconds), writeRatio, requests, errors, round(requests / seconds), endpoints);
+    }
+
+    private void print(LoadTestReport result) {
+        System.out.println();
+        System.out.println(String.format("%-36s %9s %7s %9s %9s %9s %9s %9s", "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "Max ms"));
+        result.getEndpoints().forEach(e -> System.out.println(String.format("%-36s %9d %7d %9.1f %9.3f %9.3f %9.3f %9.3f",
+                e.getEndpoint(), e.getRequests(), e.getErrors(), e.getThroughput(), e.getP50(), e.getP99(), e.getP999(), e.getMax())));
+        System.out.println(String.format("%-36s %9d %7d %9.1f", "Total", result.getRequests(), result.getErrors(), result.getThroughput()));
+    }
+
+    private double toMillis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+
+    private double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Ids of existing entities (the first page of each one), shared by all workers
+     */
+    static class Data {
+
+        @Getter
+        private final List<String> people;
+
+        @Getter
+        private final List<String> roles;
+
+        @Getter
+        private final List<String> permissions;
+
+        private Data(List<String> people, List<String> roles, List<String> permissions) {
+            this.people = people;
+            this.roles = roles;
+            this.permissions = permissions;
+        }
+    }
+
+    private static class EndpointStats {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LongAdder errors = new LongAdder();
+    }
+}
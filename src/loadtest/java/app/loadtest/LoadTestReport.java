@@ -0,0 +1,120 @@
+package app.loadtest;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Load test result pojo (written as JSON), latencies are in milliseconds
+ */
+public class LoadTestReport {
+
+    @Getter
+    private int threads;
+
+    @Getter
+    private double duration;
+
+    @Getter
+    private double writeRatio;
+
+    @Getter
+    private long requests;
+
+    @Getter
+    private long errors;
+
+    @Getter
+    private double throughput;
+
+    @Getter
+    private List<EndpointReport> endpoints;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public LoadTestReport() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param threads    concurrent workers
+     * @param duration   measured seconds (warm up excluded)
+     * @param writeRatio fraction of requests that write
+     * @param requests   sent requests
+     * @param errors     requests that failed or returned an error status
+     * @param throughput requests per second
+     * @param endpoints  result of each endpoint
+     */
+    public LoadTestReport(int threads, double duration, double writeRatio, long requests, long errors, double throughput, List<EndpointReport> endpoints) {
+        this.threads = threads;
+        this.duration = duration;
+        this.writeRatio = writeRatio;
+        this.requests = requests;
+        this.errors = errors;
+        this.throughput = throughput;
+        this.endpoints = endpoints;
+    }
+
+    public static class EndpointReport {
+
+        @Getter
+        private String endpoint;
+
+        @Getter
+        private long requests;
+
+        @Getter
+        private long errors;
+
+        @Getter
+        private double throughput;
+
+        @Getter
+        private double mean;
+
+        @Getter
+        private double p50;
+
+        @Getter
+        private double p99;
+
+        @Getter
+        private double p999;
+
+        @Getter
+        private double max;
+
+        /**
+         * Default constructor needed when deserialize
+         */
+        public EndpointReport() {
+        }
+
+        /**
+         * Create an instance
+         *
+         * @param endpoint   method and route template
+         * @param requests   sent requests
+         * @param errors     requests that failed or returned an error status
+         * @param throughput requests per second
+         * @param mean       mean latency
+         * @param p50        50th percentile
+         * @param p99        99th percentile
+         * @param p999       99.9th percentile
+         * @param max        max latency
+         */
+        public EndpointReport(String endpoint, long requests, long errors, double throughput, double mean, double p50, double p99, double p999, double max) {
+            this.endpoint = endpoint;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package app.loadtest;
+
+import app.models.Person;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Mixed read and write requests across every controller, reads are picked by weight and writes create, edit and delete
+ * the people created by the same worker (each worker thread has its own Workload, so they don't share state)
+ */
+class Workload {
+
+    // read endpoints and their weight (how often they are picked)
+    private static final Object[][] READS = {
+            {"GET /people/{id}", 20}, {"POST /people/Page", 15}, {"GET /people/{id}/authentications", 5}, {"GET /people", 1},
+            {"GET /roles/{id}", 5}, {"POST /roles/Page", 5}, {"GET /roles/{id}/people", 3}, {"GET /roles", 5},
+            {"POST /permissions/Page", 5}, {"GET /permissions/{id}/roles", 3}, {"GET /permissions", 5},
+            {"POST /authentications/Page", 3}, {"GET /auth_providers", 3}, {"GET /ping", 5}, {"POST /login", 2}
+    };
+
+    private static final String[] NAME_FILTERS = {"a", "an", "ar", "er", "in", "ma", "na", "o", "ri", "s"};
+
+    // people created by this worker that are still in the Data Base (only them are edited and deleted)
+    private static final int MAX_CREATED = 50;
+
+    private final RestTemplate rest;
+
+    private final ObjectMapper mapper;
+
+    private final String baseUrl;
+
+    private final Map<String, String> credentials;
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private final LoadTest.Data data;
+
+    private final double writeRatio;
+
+    private final Random random;
+
+    private final int totalWeight = Arrays.stream(READS).mapToInt(read -> (int) read[1]).sum();
+
+    private final List<String> created = new ArrayList<>();
+
+    private int sequence;
+
+    Workload(RestTemplate rest, ObjectMapper mapper, String baseUrl, Map<String, String> credentials, String token,
+             LoadTest.Data data, double writeRatio, long seed) {
+        this.rest = rest;
+        this.mapper = mapper;
+        this.baseUrl = baseUrl;
+        this.credentials = credentials;
+        this.data = data;
+        this.writeRatio = writeRatio;
+        this.random = new Random(seed);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + token);
+    }
+
+    /**
+     * Send the next request and record it
+     *
+     * @param recorder receives the endpoint, response status (0 if it couldn't be sent) and latency in nanoseconds
+     */
+    void next(Recorder recorder) {
+        Request request = random.nextDouble() < writeRatio ? nextWrite() : nextRead();
+
+        int status;
+        ResponseEntity<String> response = null;
+        long start = System.nanoTime();
+        try {
+            response = rest.exchange(baseUrl + request.url, request.method, new HttpEntity<>(request.body, headers), String.class);
+            status = response.getStatusCodeValue();
+        } catch (RestClientException e) {
+            status = 0;
+        }
+        recorder.record(request.endpoint, status, System.nanoTime() - start);
+
+        if (response != null && response.getStatusCode().is2xxSuccessful() && request.onSuccess != null) {
+            request.onSuccess.accept(readData(response.getBody()));
+        }
+    }
+
+    private Request nextRead() {
+        int weight = random.nextInt(totalWeight);
+        String endpoint = null;
+        for (Object[] read : READS) {
+            weight -= (int) read[1];
+            if (weight < 0) {
+                endpoint = (String) read[0];
+                break;
+            }
+        }
+
+        switch (endpoint) {
+            case "GET /people/{id}":
+                return get(endpoint, "/people/" + pick(data.getPeople()) + relations());
+            case "POST /people/Page":
+                return post(endpoint, "/people/Page" + relations(), page(Arrays.asList("name", "lastName"),
+                        Collections.singletonList(new FilterRequest("name", pick(Arrays.asList(NAME_FILTERS)), "LIKE"))));
+            case "GET /people/{id}/authentications":
+                return get(endpoint, "/people/" + pick(data.getPeople()) + "/authentications");
+            case "GET /roles/{id}":
+                return get(endpoint, "/roles/" + pick(data.getRoles()) + relations());
+            case "POST /roles/Page":
+                return post(endpoint, "/roles/Page" + relations(), page(Collections.singletonList("name"), null));
+            case "GET /roles/{id}/people":
+                return get(endpoint, "/roles/" + pick(data.getRoles()) + "/people");
+            case "POST /permissions/Page":
+                return post(endpoint, "/permissions/Page", page(Collections.singletonList("name"), null));
+            case "GET /permissions/{id}/roles":
+                return get(endpoint, "/permissions/" + pick(data.getPermissions()) + "/roles");
+            case "POST /authentications/Page":
+                return post(endpoint, "/authentications/Page", page(Collections.singletonList("username"), null));
+            case "POST /login":
+                return post(endpoint, "/login", credentials);
+            default:
+                // list endpoints without parameters
+                return get(endpoint, endpoint.substring(endpoint.indexOf(' ') + 1));
+        }
+    }
+
+    private Request nextWrite() {
+        // 0 create, 1 edit, 2 delete
+        int operation;
+        if (created.isEmpty()) {
+            operation = 0;
+        } else if (created.size() >= MAX_CREATED) {
+            operation = 1 + random.nextInt(2);
+        } else {
+            operation = random.nextInt(3);
+        }
+
+        if (operation == 0) {
+            return new Request("POST /people", HttpMethod.POST, "/people", json(person()),
+                    person -> created.add(person.get("id").asText()));
+        }
+
+        String id = created.get(random.nextInt(created.size()));
+        if (operation == 1) {
+            return new Request("PUT /people/{id}", HttpMethod.PUT, "/people/" + id, json(person()), null);
+        }
+
+        created.remove(id);
+        return new Request("DELETE /people/{id}", HttpMethod.DELETE, "/people/" + id, null, null);
+    }
+
+    private Request get(String endpoint, String url) {
+        return new Request(endpoint, HttpMethod.GET, url, null, null);
+    }
+
+    private Request post(String endpoint, String url, Object body) {
+        return new Request(endpoint, HttpMethod.POST, url, json(body), null);
+    }
+
+    private PageDataRequest page(List<String> sort, List<FilterRequest> filters) {
+        return new PageDataRequest(random.nextInt(3), 20, random.nextBoolean() ? "ASC" : "DESC", sort, filters);
+    }
+
+    private Person person() {
+        return new Person("Load", "Test " + sequence++, LocalDate.of(1990, 1, 1).plusDays(random.nextInt(10000)),
+                random.nextBoolean() ? Person.CIVIL_STATUS.SINGLE : Person.CIVIL_STATUS.MARRIED,
+                random.nextBoolean() ? Person.SEX.M : Person.SEX.F, null, null);
+    }
+
+    // a quarter of the reads load the complete relations like the UI detail views do
+    private String relations() {
+        return random.nextInt(4) == 0 ? "?complete=true" : "";
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private String json(Object body) {
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode readData(String body) {
+        try {
+            return mapper.readTree(body).get("data");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface Recorder {
+
+        void record(String endpoint, int status, long nanos);
+    }
+
+    private static class Request {
+
+        private final String endpoint;
+
+        private final HttpMethod method;
+
+        private final String url;
+
+        private final String body;
+
+        private final Consumer<JsonNode> onSuccess;
+
+        private Request(String endpoint, HttpMethod method, String url, String body, Consumer<JsonNode> onSuccess) {
+            this.endpoint = endpoint;
+            this.method = method;
+            this.url = url;
+            this.body = body;
+            this.onSuccess = onSuccess;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package app;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded executors of the async endpoints (async.* properties), each workload has its own threads and queue,
+ * so slow pages can't take the threads of relation lists and neither of them holds request threads
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor pageExecutor(@Value("${async.page.threads:4}") int threads, @Value("${async.page.queue:100}") int queue) {
+        return createExecutor("page-", threads, queue);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor relationExecutor(@Value("${async.relation.threads:2}") int threads, @Value("${async.relation.queue:50}") int queue) {
+        return createExecutor("relation-", threads, queue);
+    }
+
+    /**
+     * Create a fixed size executor, tasks are rejected when all threads are busy and the queue is full
+     *
+     * @param prefix  name prefix of the threads
+     * @param threads number of threads
+     * @param queue   max waiting tasks
+     * @return executor
+     */
+    static ThreadPoolTaskExecutor createExecutor(String prefix, int threads, int queue) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        return executor;
+    }
+}
@@ -0,0 +1,43 @@
+package app;
+
+import app.filters.Bulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bulkheads of the endpoint groups used by BulkheadFilter (bulkhead.* properties)
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public Bulkhead authBulkhead(@Value("${bulkhead.auth.limit:10}") int limit, @Value("${bulkhead.auth.queue:20}") int queue,
+                                 @Value("${bulkhead.auth.timeout:2000}") long timeout) {
+        return new Bulkhead("auth", limit, queue, timeout);
+    }
+
+    @Bean
+    public Bulkhead readBulkhead(@Value("${bulkhead.read.limit:40}") int limit, @Value("${bulkhead.read.queue:40}") int queue,
+                                 @Value("${bulkhead.read.timeout:1000}") long timeout) {
+        return new Bulkhead("read", limit, queue, timeout);
+    }
+
+    @Bean
+    public Bulkhead pageBulkhead(@Value("${bulkhead.page.limit:104}") int limit, @Value("${bulkhead.page.queue:10}") int queue,
+                                 @Value("${bulkhead.page.timeout:1000}") long timeout) {
+        return new Bulkhead("page", limit, queue, timeout);
+    }
+
+    @Bean
+    public Bulkhead writeBulkhead(@Value("${bulkhead.write.limit:10}") int limit, @Value("${bulkhead.write.queue:20}") int queue,
+                                  @Value("${bulkhead.write.timeout:1000}") long timeout) {
+        return new Bulkhead("write", limit, queue, timeout);
+    }
+
+    @Bean
+    public Bulkhead exportBulkhead(@Value("${bulkhead.export.limit:4}") int limit, @Value("${bulkhead.export.queue:10}") int queue,
+                                   @Value("${bulkhead.export.timeout:2000}") long timeout) {
+        return new Bulkhead("export", limit, queue, timeout);
+    }
+}
@@ -0,0 +1,251 @@
+package app;
+
+import app.models.*;
+import app.repositories.*;
+import app.security.services.SecurityService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts a big data set for load testing (run with --spring.profiles.active=generator, sizes in application-generator.properties).
+ * The same seed always generates the same values; role and permission popularity follow a Zipf distribution,
+ * so a few roles have most of the people like in production
+ */
+@Component
+@Profile("generator")
+public class DataGenerator {
+
+    private static final String[] NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
+            "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen"};
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+            "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"};
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private SecurityService securityService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${generator.seed:42}")
+    private long seed;
+
+    @Value("${generator.permissions:200}")
+    private int permissions;
+
+    @Value("${generator.roles:50}")
+    private int roles;
+
+    @Value("${generator.people:100000}")
+    private int people;
+
+    @Value("${generator.authentications:80000}")
+    private int authentications;
+
+    @Value("${generator.max-roles-per-person:5}")
+    private int maxRolesPerPerson;
+
+    @Value("${generator.max-permissions-per-role:30}")
+    private int maxPermissionsPerRole;
+
+    @Value("${generator.skew:1.0}")
+    private double skew;
+
+    @Value("${generator.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Insert the generated values that aren't in Data Base yet, so a stopped run or a bigger generator.people continues
+     * where the previous run finished: permissions and roles are reused by name and people are resumed by index
+     * (each batch is inserted in its own transaction so memory doesn't grow with the data set and a batch is never half inserted)
+     *
+     * @return number of inserted entities
+     */
+    public long generate() {
+        Random random = new Random(seed);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Map<String, Permission> existingPermissions = permissionRepository.findAll().stream()
+                .collect(Collectors.toMap(Permission::getName, p -> p));
+        List<Permission> permissionList = IntStream.range(0, permissions)
+                .mapToObj(i -> existingPermissions.getOrDefault(getPermissionName(i), new Permission(getPermissionName(i), "Generated permission " + i)))
+                .collect(Collectors.toList());
+        long inserted = permissionList.stream().filter(p -> p.getId() == null).count();
+        List<Permission> savedPermissions = saveMissing(permissionList, permissionRepository::save, transaction);
+
+        Map<String, Role> existingRoles = roleRepository.findAll().stream().collect(Collectors.toMap(Role::getName, r -> r));
+        ZipfDistribution permissionPopularity = new ZipfDistribution(savedPermissions.size(), skew);
+        List<Role> roleList = new ArrayList<>();
+        for (int i = 0; i < roles; i++) {
+            // values are always drawn so the next roles and people are the same than in a run from scratch
+            int size = 1 + random.nextInt(Math.min(maxPermissionsPerRole, savedPermissions.size()));
+            Set<Permission> rolePermissions = pick(savedPermissions, size, permissionPopularity, random);
+            String name = String.format("GENERATED_ROLE_%05d", i);
+            roleList.add(existingRoles.getOrDefault(name, new Role(name, "Generated role " + i, rolePermissions)));
+        }
+        inserted += roleList.stream().filter(r -> r.getId() == null).count();
+        List<Role> savedRoles = saveMissing(roleList, roleRepository::save, transaction);
+
+        // every generated person has generated roles and batches are inserted in order, so people 0 to generated - 1 are already there
+        long generated = savedRoles.isEmpty() ? 0 : personRepository.countDistinctByRolesIn(savedRoles);
+        if (generated >= people) {
+            return inserted;
+        }
+
+        AuthProvider authProvider = authProviderRepository.findAll().stream().filter(p -> p.getName().equals("LOCAL")).findFirst()
+                .orElseGet(() -> transaction.execute(status -> authProviderRepository.save(
+                        new AuthProvider("LOCAL", "Provide with local username and password", null, null, null))));
+        String password = securityService.hashValue("123");
+        ZipfDistribution rolePopularity = new ZipfDistribution(savedRoles.size(), skew);
+
+        // draw the values of the existing people so the missing ones are the same than in a run from scratch
+        for (int i = 0; i < generated; i++) {
+            createPerson(i, random, pick(savedRoles, getRolesPerPerson(random), rolePopularity, random));
+        }
+        for (int start = (int) generated; start < people; start += batchSize) {
+            List<Person> personList = new ArrayList<>();
+            List<Authentication> authenticationList = new ArrayList<>();
+            for (int i = start; i < Math.min(start + batchSize, people); i++) {
+                Person person = createPerson(i, random, pick(savedRoles, getRolesPerPerson(random), rolePopularity, random));
+                personList.add(person);
+                if (i < authentications) {
+                    authenticationList.add(new Authentication(String.format("generated%07d", i), password, authProvider, person));
+                }
+            }
+
+            transaction.execute(status -> {
+                personRepository.save(personList);
+                return authenticationRepository.save(authenticationList);
+            });
+            inserted += personList.size() + authenticationList.size();
+        }
+        return inserted;
+    }
+
+    /**
+     * Insert the values that don't have id yet (in one transaction) and keep the existing ones
+     *
+     * @param values      values in generation order
+     * @param save        bulk save
+     * @param transaction transaction used to insert
+     * @return saved values in generation order
+     */
+    private <T extends Model> List<T> saveMissing(List<T> values, Function<List<T>, List<T>> save, TransactionTemplate transaction) {
+        List<T> missing = values.stream().filter(v -> v.getId() == null).collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return values;
+        }
+
+        Iterator<T> saved = transaction.execute(status -> save.apply(missing)).iterator();
+        return values.stream().map(v -> v.getId() == null ? saved.next() : v).collect(Collectors.toList());
+    }
+
+    private String getPermissionName(int index) {
+        return String.format("GENERATED_PERMISSION_%05d", index);
+    }
+
+    /**
+     * Create a person with random values
+     *
+     * @param index  person number
+     * @param random values generator
+     * @param roles  person roles
+     * @return new person
+     */
+    private Person createPerson(int index, Random random, Set<Role> roles) {
+        String name = NAMES[random.nextInt(NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        LocalDate birthday = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(365 * 55));
+        Integer civilStatus = random.nextBoolean() ? Person.CIVIL_STATUS.SINGLE : Person.CIVIL_STATUS.MARRIED;
+        String sex = random.nextBoolean() ? Person.SEX.M : Person.SEX.F;
+        String email = random.nextInt(10) < 7 ? (name + "." + lastName + index + "@mail.com").toLowerCase() : null;
+        return new Person(name, lastName, birthday, civilStatus, sex, email, roles);
+    }
+
+    /**
+     * Most people have one role and only a few have many (each extra role is half as likely as the previous one)
+     *
+     * @param random values generator
+     * @return number of roles between 1 and max-roles-per-person
+     */
+    private int getRolesPerPerson(Random random) {
+        int size = 1;
+        while (size < maxRolesPerPerson && random.nextBoolean()) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Pick different values where the popular ones are picked more often
+     *
+     * @param values       values to pick
+     * @param size         number of values to pick
+     * @param distribution popularity of each value
+     * @param random       values generator
+     * @return picked values
+     */
+    private <T> Set<T> pick(List<T> values, int size, ZipfDistribution distribution, Random random) {
+        Set<T> picked = new LinkedHashSet<>();
+        while (picked.size() < Math.min(size, values.size())) {
+            picked.add(values.get(distribution.sample(random)));
+        }
+        return picked;
+    }
+
+    /**
+     * Zipf distribution over n ranks, rank k is picked with probability proportional to 1 / (k + 1)^skew
+     */
+    static class ZipfDistribution {
+
+        private final double[] cumulative;
+
+        ZipfDistribution(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, skew);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        /**
+         * Get a random rank
+         *
+         * @param random values generator
+         * @return rank between 0 (most popular) and n - 1
+         */
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package app;
 
 import app.models.*;
+import app.pojos.metrics.StartupSnapshot;
 import app.repositories.*;
 import app.security.services.SecurityService;
+import app.services.SnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
-import javax.annotation.PostConstruct;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -17,7 +26,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Populates data tables at application start
+ * Populates data tables in a single transaction after the application started, so startup doesn't wait for it.
+ * The application is ready (/info/ready) when data was loaded, it never becomes ready when loading fails
  */
 @Component
 public class DataLoader {
@@ -40,26 +50,136 @@ public class DataLoader {
     @Autowired
     private SecurityService securityService;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    // only with generator profile
+    @Autowired(required = false)
+    private DataGenerator dataGenerator;
+
     @Value("${data-loader}")
     private Boolean loadData;
 
-    @PostConstruct
-    private void setupDatabase() {
+    @Value("${snapshot.file:}")
+    private String snapshotFile;
+
+    private volatile boolean ready;
+
+    private volatile boolean failed;
+
+    private volatile long startupTime;
+
+    private volatile Long seedingTime;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        startupTime = event.getTimestamp() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        if (!loadData) {
+            ready = true;
+            return;
+        }
+
+        new SimpleAsyncTaskExecutor("data-loader-").execute(this::setupDatabase);
+    }
+
+    /**
+     * Check if data was loaded
+     *
+     * @return true if application can serve requests
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Check if loading data threw an exception
+     *
+     * @return true if application won't be ready
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Get startup times with and without seeding
+     *
+     * @return startup times
+     */
+    public StartupSnapshot snapshot() {
+        return new StartupSnapshot(ready, startupTime, seedingTime, ready ? startupTime + (seedingTime != null ? seedingTime : 0) : null);
+    }
+
+    /**
+     * Insert default values (or snapshot.file rows) when Data Base is empty (and generated values with generator profile),
+     * otherwise only the permissions added after it was created
+     */
+    void setupDatabase() {
+        long start = System.currentTimeMillis();
         try {
-            if (loadData && authProviderRepository.count() == 0) {
-                insertData();
-            }
+            loadData();
         } catch (Exception e) {
+            // the application never becomes ready, so the readiness probe reports the failure
             e.printStackTrace();
+            failed = true;
+            return;
+        } finally {
+            seedingTime = System.currentTimeMillis() - start;
+        }
+        ready = true;
+    }
+
+    private void loadData() throws Exception {
+        if (StringUtils.hasText(snapshotFile) && authProviderRepository.count() == 0) {
+            try (InputStream inputStream = new FileInputStream(snapshotFile)) {
+                snapshotService.restore(inputStream);
+            }
+            new TransactionTemplate(transactionManager).execute(status -> {
+                insertMetricsPermission();
+                return null;
+            });
+            return;
+        }
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            if (authProviderRepository.count() == 0) {
+                insertUser();
+            } else {
+                insertMetricsPermission();
+            }
+            return null;
+        });
+        if (dataGenerator != null) {
+            dataGenerator.generate();
         }
     }
 
-    @Transactional
-    private void insertData() throws Exception {
-        insertUser();
+    /**
+     * Insert VIEW_METRICS and grant it to ADMIN when missing, because Data Bases (and snapshots) created before it
+     * existed are never seeded again and nobody could use the metrics endpoints
+     */
+    private void insertMetricsPermission() {
+        Permission permission = permissionRepository.findByName("VIEW_METRICS");
+        if (permission == null) {
+            permission = permissionRepository.save(new Permission("VIEW_METRICS", "Allows to view application metrics"));
+        }
+
+        Role admin = roleRepository.findByName("ADMIN");
+        if (admin == null) {
+            return;
+        }
+        if (admin.getPermissions() == null) {
+            admin.setPermissions(new HashSet<>());
+        }
+        if (admin.getPermissions().stream().noneMatch(p -> "VIEW_METRICS".equals(p.getName()))) {
+            admin.getPermissions().add(permission);
+            roleRepository.save(admin);
+        }
     }
 
-    private void insertUser() throws Exception {
+    private void insertUser() {
         List<AuthProvider> authProviders = Arrays.asList(new AuthProvider("LOCAL", "Provide with local username and password", null, null, null));
         authProviderRepository.save(authProviders);
 
@@ -69,7 +189,8 @@ public class DataLoader {
                 new Permission("VIEW_USERS", "Allows to view users and people"),
                 new Permission("CREATE_ROLES", "Allows to create and edit roles and permissions"),
                 new Permission("REMOVE_ROLES", "Allows to delete roles and permissions"),
-                new Permission("VIEW_ROLES", "Allows to view roles and permissions")
+                new Permission("VIEW_ROLES", "Allows to view roles and permissions"),
+                new Permission("VIEW_METRICS", "Allows to view application metrics")
         ));
         permissionRepository.save(allPermissions);
 
@@ -0,0 +1,60 @@
+package app;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.List;
+
+/**
+ * Write and read Smile and CBOR (binary encodings of the same object model than JSON) when they are requested
+ * with Accept or Content-Type headers, JSON compression is done by CompressionFilter (compression.* properties)
+ */
+@Configuration
+public class EncodingConfig extends WebMvcConfigurerAdapter {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder builder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // added after JSON so it's still used when client accepts any media type
+        converters.add(new BinaryJacksonHttpMessageConverter(createMapper(builder, new SmileFactory()), APPLICATION_SMILE));
+        converters.add(new BinaryJacksonHttpMessageConverter(createMapper(builder, new CBORFactory()), APPLICATION_CBOR));
+    }
+
+    /**
+     * Create an ObjectMapper with the same configuration (modules, mixins, filters, features) than the JSON one
+     *
+     * @param builder application builder
+     * @param factory format of the generated mapper
+     * @return ObjectMapper instance
+     */
+    public static ObjectMapper createMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        builder.configure(mapper);
+        return mapper;
+    }
+
+    /**
+     * Jackson converter for a non JSON format (Spring only provides Smile and CBOR converters since 5.0)
+     */
+    private static class BinaryJacksonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+        private BinaryJacksonHttpMessageConverter(ObjectMapper objectMapper, MediaType mediaType) {
+            super(objectMapper, mediaType);
+        }
+    }
+}
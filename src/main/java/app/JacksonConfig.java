@@ -0,0 +1,23 @@
+package app;
+
+import app.models.Model;
+import app.models.serializers.PresentationFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configure the application ObjectMapper
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer presentationCustomizer() {
+        // outside a Response (PresentationAdvice) models are written complete
+        return builder -> builder.mixIn(Model.class, PresentationFilter.ModelMixin.class)
+                .filters(new SimpleFilterProvider().addFilter(PresentationFilter.ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
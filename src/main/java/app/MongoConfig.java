@@ -0,0 +1,18 @@
+package app;
+
+import app.metrics.QueryCountCommandListener;
+import com.mongodb.MongoClientOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configure Mongo client (spring.data.mongodb.* properties) with the query counter
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoClientOptions mongoClientOptions() {
+        return MongoClientOptions.builder().addCommandListener(new QueryCountCommandListener()).build();
+    }
+}
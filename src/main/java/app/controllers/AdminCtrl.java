@@ -0,0 +1,71 @@
+package app.controllers;
+
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppValidationException;
+import app.factories.ResponseFactory;
+import app.metrics.PoolMetrics;
+import app.metrics.SlowQueryLog;
+import app.services.SnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping(value = "/admin")
+public class AdminCtrl {
+
+    @Autowired
+    private ResponseFactory responseFactory;
+
+    @Autowired
+    private PoolMetrics poolMetrics;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @RequestMapping(value = "/pool", method = RequestMethod.GET)
+    @PreAuthorize("hasRole('VIEW_METRICS')")
+    public ResponseEntity pool() {
+        return responseFactory.success(poolMetrics.snapshot());
+    }
+
+    @RequestMapping(value = "/slow-queries", method = RequestMethod.GET)
+    @PreAuthorize("hasRole('VIEW_METRICS')")
+    public ResponseEntity slowQueries() {
+        return responseFactory.success(slowQueryLog.getEntries());
+    }
+
+    // clearing removes what metrics viewers look at, so it also needs a write permission of administrators
+    @RequestMapping(value = "/slow-queries", method = RequestMethod.DELETE)
+    @PreAuthorize("hasRole('VIEW_METRICS') and hasRole('CREATE_ROLES')")
+    public ResponseEntity clearSlowQueries() {
+        slowQueryLog.clear();
+        return responseFactory.success(null);
+    }
+
+    // snapshots have password hashes, so only users that can create users and roles are allowed
+    @RequestMapping(value = "/snapshot", method = RequestMethod.GET)
+    @PreAuthorize("hasRole('CREATE_USERS') and hasRole('CREATE_ROLES')")
+    public void exportSnapshot(HttpServletResponse response) throws IOException {
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"snapshot.ndjson.gz\"");
+        snapshotService.export(response.getOutputStream());
+    }
+
+    @RequestMapping(value = "/snapshot", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('CREATE_USERS') and hasRole('CREATE_ROLES')")
+    public ResponseEntity restoreSnapshot(HttpServletRequest request) throws IOException, AppPreconditionFailedException, AppValidationException {
+        return responseFactory.success(snapshotService.restore(request.getInputStream()));
+    }
+}
\ No newline at end of file
@@ -4,6 +4,8 @@ import app.factories.PageFactory;
 import app.factories.ResponseFactory;
 import app.models.Authentication;
 import app.pojos.pages.PageDataRequest;
+import app.pojos.responses.success.ItemStream;
+import app.services.AsyncService;
 import app.services.AuthenticationService;
 import app.services.PresentationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +13,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(value = "/authentications")
@@ -28,24 +31,51 @@ public class AuthenticationCtrl {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private AsyncService asyncService;
+
     @Autowired
     private AuthenticationService authenticationService;
 
     @RequestMapping(method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_USERS')")
     public ResponseEntity list(@RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        List<Authentication> authentications = authenticationService.findAll();
-        presentationService.prepare(authentications, shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(authentications);
+                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                               @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304 (and have ETag)
+        String version = shouldLoadComplete || shouldLoadAllRelations ? null : authenticationService.findCollectionVersion();
+        if (responseFactory.isNotModified(ifNoneMatch, version)) {
+            return responseFactory.notModified(version);
+        }
+
+        // items are read from a cursor and written while the response is serialized
+        ItemStream<Authentication> authentications = new ItemStream<>(consumer -> authenticationService.streamAll(a -> {
+            presentationService.prepare(a, shouldLoadComplete, shouldLoadAllRelations);
+            consumer.accept(a);
+        }));
+        return responseFactory.successWithVersion(authentications, version);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_USERS')")
     public ResponseEntity get(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304
+        if (ifNoneMatch != null && !shouldLoadComplete && !shouldLoadAllRelations) {
+            // only the version is read, the entity is loaded when client's copy is outdated
+            Long version = authenticationService.findVersion(id);
+            if (responseFactory.isNotModified(ifNoneMatch, version)) {
+                return responseFactory.notModified(version);
+            }
+        }
+
         Authentication authentication = authenticationService.findById(id);
         presentationService.prepare(authentication, shouldLoadComplete, shouldLoadAllRelations);
+        if (shouldLoadComplete || shouldLoadAllRelations) {
+            // without ETag, spring would answer a matching If-None-Match with 304 (the version is still in the body for If-Match)
+            return responseFactory.successNotNullWithVersion(authentication, null);
+        }
         return responseFactory.successNotNull(authentication);
     }
 
@@ -53,20 +83,23 @@ public class AuthenticationCtrl {
     @PreAuthorize("hasRole('CREATE_USERS')")
     public ResponseEntity create(@Valid @RequestBody Authentication a) {
         Authentication authentication = authenticationService.save(a);
-        if (authentication != null) {
-            authentication.cleanAuthData();
-        }
         return responseFactory.successNotNull(authentication);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     @PreAuthorize("hasRole('CREATE_USERS')")
-    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Authentication a) {
+    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Authentication a,
+                               @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         a.setId(id);
-        Authentication authentication = authenticationService.update(a);
-        if (authentication != null) {
-            authentication.cleanAuthData();
-        }
+        Authentication authentication = authenticationService.update(a, responseFactory.getVersion(ifMatch));
+        return responseFactory.successNotNull(authentication);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.PATCH)
+    @PreAuthorize("hasRole('CREATE_USERS')")
+    public ResponseEntity patch(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Authentication authentication = authenticationService.patch(id, patch, responseFactory.getVersion(ifMatch));
         return responseFactory.successNotNull(authentication);
     }
 
@@ -74,19 +107,18 @@ public class AuthenticationCtrl {
     @PreAuthorize("hasRole('REMOVE_USERS')")
     public ResponseEntity delete(@PathVariable String id) {
         Authentication authentication = authenticationService.delete(id);
-        if (authentication != null) {
-            authentication.cleanAuthData();
-        }
         return responseFactory.successNotNull(authentication);
     }
 
     @RequestMapping(value = "/Page", method = RequestMethod.POST)
     @PreAuthorize("hasRole('VIEW_USERS')")
-    public ResponseEntity page(@Valid @RequestBody PageDataRequest pageDataRequest,
-                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Page<Authentication> authentications = authenticationService.page(pageDataRequest);
-        presentationService.prepare(authentications.getContent(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(authentications.getContent(), pageFactory.pageResponse(authentications, pageDataRequest));
+    public DeferredResult<ResponseEntity> page(@Valid @RequestBody PageDataRequest pageDataRequest,
+                                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            Page<Authentication> authentications = authenticationService.page(pageDataRequest);
+            presentationService.prepare(authentications.getContent(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.success(authentications.getContent(), pageFactory.pageResponse(authentications, pageDataRequest));
+        });
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package app.controllers;
 
+import app.DataLoader;
+import app.exceptions.AppUnavailableException;
 import app.factories.ResponseFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,6 +17,9 @@ public class InfoCtrl {
     @Autowired
     private ResponseFactory responseFactory;
 
+    @Autowired
+    private DataLoader dataLoader;
+
     @Value("${api-version}")
     private String API_VERSION;
 
@@ -22,4 +27,15 @@ public class InfoCtrl {
     public ResponseEntity version() {
         return responseFactory.success(API_VERSION);
     }
+
+    @RequestMapping(value = "/ready", method = RequestMethod.GET)
+    public ResponseEntity ready() {
+        if (dataLoader.isFailed()) {
+            return responseFactory.error(new AppUnavailableException("Application failed to load data."));
+        }
+        if (!dataLoader.isReady()) {
+            return responseFactory.error(new AppUnavailableException("Application is loading data."));
+        }
+        return responseFactory.success(dataLoader.snapshot());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package app.controllers;
+
+import app.metrics.PrometheusMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/metrics")
+public class MetricsCtrl {
+
+    @Autowired
+    private PrometheusMetrics prometheusMetrics;
+
+    // Prometheus text format instead of a SuccessResponse, so it can be scraped (bearer_token with a VIEW_METRICS user)
+    @RequestMapping(method = RequestMethod.GET)
+    @PreAuthorize("hasRole('VIEW_METRICS')")
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(PrometheusMetrics.CONTENT_TYPE)).body(prometheusMetrics.scrape());
+    }
+}
@@ -4,6 +4,8 @@ import app.factories.PageFactory;
 import app.factories.ResponseFactory;
 import app.models.Permission;
 import app.pojos.pages.PageDataRequest;
+import app.pojos.responses.success.ItemStream;
+import app.services.AsyncService;
 import app.services.PermissionService;
 import app.services.PresentationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +13,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(value = "/permissions")
@@ -28,24 +31,51 @@ public class PermissionCtrl {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private AsyncService asyncService;
+
     @Autowired
     private PermissionService permissionService;
 
     @RequestMapping(method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_ROLES')")
     public ResponseEntity list(@RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        List<Permission> permissions = permissionService.findAll();
-        presentationService.prepare(permissions, shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(permissions);
+                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                               @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304 (and have ETag)
+        String version = shouldLoadComplete || shouldLoadAllRelations ? null : permissionService.findCollectionVersion();
+        if (responseFactory.isNotModified(ifNoneMatch, version)) {
+            return responseFactory.notModified(version);
+        }
+
+        // items are read from a cursor and written while the response is serialized
+        ItemStream<Permission> permissions = new ItemStream<>(consumer -> permissionService.streamAll(p -> {
+            presentationService.prepare(p, shouldLoadComplete, shouldLoadAllRelations);
+            consumer.accept(p);
+        }));
+        return responseFactory.successWithVersion(permissions, version);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_ROLES')")
     public ResponseEntity get(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304
+        if (ifNoneMatch != null && !shouldLoadComplete && !shouldLoadAllRelations) {
+            // only the version is read, the entity is loaded when client's copy is outdated
+            Long version = permissionService.findVersion(id);
+            if (responseFactory.isNotModified(ifNoneMatch, version)) {
+                return responseFactory.notModified(version);
+            }
+        }
+
         Permission permission = permissionService.findById(id);
         presentationService.prepare(permission, shouldLoadComplete, shouldLoadAllRelations);
+        if (shouldLoadComplete || shouldLoadAllRelations) {
+            // without ETag, spring would answer a matching If-None-Match with 304 (the version is still in the body for If-Match)
+            return responseFactory.successNotNullWithVersion(permission, null);
+        }
         return responseFactory.successNotNull(permission);
     }
 
@@ -58,9 +88,18 @@ public class PermissionCtrl {
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     @PreAuthorize("hasRole('CREATE_ROLES')")
-    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Permission p) {
+    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Permission p,
+                               @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         p.setId(id);
-        Permission permission = permissionService.update(p);
+        Permission permission = permissionService.update(p, responseFactory.getVersion(ifMatch));
+        return responseFactory.successNotNull(permission);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.PATCH)
+    @PreAuthorize("hasRole('CREATE_ROLES')")
+    public ResponseEntity patch(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Permission permission = permissionService.patch(id, patch, responseFactory.getVersion(ifMatch));
         return responseFactory.successNotNull(permission);
     }
 
@@ -73,20 +112,24 @@ public class PermissionCtrl {
 
     @RequestMapping(value = "/{id}/roles", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_ROLES')")
-    public ResponseEntity getRoles(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                                   @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Permission permission = permissionService.findByIdNotNull(id);
-        presentationService.prepare(permission.getRoles(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.successNotNull(permission.getRoles());
+    public DeferredResult<ResponseEntity> getRoles(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                                   @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> {
+            Permission permission = permissionService.findByIdNotNull(id);
+            presentationService.prepare(permission.getRoles(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.successNotNull(permission.getRoles());
+        });
     }
 
     @RequestMapping(value = "/Page", method = RequestMethod.POST)
     @PreAuthorize("hasRole('VIEW_ROLES')")
-    public ResponseEntity page(@Valid @RequestBody PageDataRequest pageDataRequest,
-                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Page<Permission> permissions = permissionService.page(pageDataRequest);
-        presentationService.prepare(permissions.getContent(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(permissions.getContent(), pageFactory.pageResponse(permissions, pageDataRequest));
+    public DeferredResult<ResponseEntity> page(@Valid @RequestBody PageDataRequest pageDataRequest,
+                                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            Page<Permission> permissions = permissionService.page(pageDataRequest);
+            presentationService.prepare(permissions.getContent(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.success(permissions.getContent(), pageFactory.pageResponse(permissions, pageDataRequest));
+        });
     }
 }
\ No newline at end of file
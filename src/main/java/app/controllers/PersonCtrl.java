@@ -4,6 +4,8 @@ import app.factories.PageFactory;
 import app.factories.ResponseFactory;
 import app.models.Person;
 import app.pojos.pages.PageDataRequest;
+import app.pojos.responses.success.ItemStream;
+import app.services.AsyncService;
 import app.services.PersonService;
 import app.services.PresentationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +13,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(value = "/people")
@@ -28,24 +31,51 @@ public class PersonCtrl {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private AsyncService asyncService;
+
     @Autowired
     private PersonService personService;
 
     @RequestMapping(method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_USERS')")
     public ResponseEntity list(@RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        List<Person> people = personService.findAll();
-        presentationService.prepare(people, shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(people);
+                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                               @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304 (and have ETag)
+        String version = shouldLoadComplete || shouldLoadAllRelations ? null : personService.findCollectionVersion();
+        if (responseFactory.isNotModified(ifNoneMatch, version)) {
+            return responseFactory.notModified(version);
+        }
+
+        // items are read from a cursor and written while the response is serialized
+        ItemStream<Person> people = new ItemStream<>(consumer -> personService.streamAll(p -> {
+            presentationService.prepare(p, shouldLoadComplete, shouldLoadAllRelations);
+            consumer.accept(p);
+        }));
+        return responseFactory.successWithVersion(people, version);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_USERS')")
     public ResponseEntity get(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304
+        if (ifNoneMatch != null && !shouldLoadComplete && !shouldLoadAllRelations) {
+            // only the version is read, the entity is loaded when client's copy is outdated
+            Long version = personService.findVersion(id);
+            if (responseFactory.isNotModified(ifNoneMatch, version)) {
+                return responseFactory.notModified(version);
+            }
+        }
+
         Person person = personService.findById(id);
         presentationService.prepare(person, shouldLoadComplete, shouldLoadAllRelations);
+        if (shouldLoadComplete || shouldLoadAllRelations) {
+            // without ETag, spring would answer a matching If-None-Match with 304 (the version is still in the body for If-Match)
+            return responseFactory.successNotNullWithVersion(person, null);
+        }
         return responseFactory.successNotNull(person);
     }
 
@@ -58,9 +88,18 @@ public class PersonCtrl {
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     @PreAuthorize("hasRole('CREATE_USERS')")
-    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Person p) {
+    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Person p,
+                               @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         p.setId(id);
-        Person person = personService.update(p);
+        Person person = personService.update(p, responseFactory.getVersion(ifMatch));
+        return responseFactory.successNotNull(person);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.PATCH)
+    @PreAuthorize("hasRole('CREATE_USERS')")
+    public ResponseEntity patch(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Person person = personService.patch(id, patch, responseFactory.getVersion(ifMatch));
         return responseFactory.successNotNull(person);
     }
 
@@ -73,20 +112,24 @@ public class PersonCtrl {
 
     @RequestMapping(value = "/{id}/authentications", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_USERS')")
-    public ResponseEntity getAuthentications(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                                             @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Person person = personService.findByIdNotNull(id);
-        presentationService.prepare(person.getAuthentications(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.successNotNull(person.getAuthentications());
+    public DeferredResult<ResponseEntity> getAuthentications(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                                             @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> {
+            Person person = personService.findByIdNotNull(id);
+            presentationService.prepare(person.getAuthentications(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.successNotNull(person.getAuthentications());
+        });
     }
 
     @RequestMapping(value = "/Page", method = RequestMethod.POST)
     @PreAuthorize("hasRole('VIEW_USERS')")
-    public ResponseEntity page(@Valid @RequestBody PageDataRequest pageDataRequest,
-                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Page<Person> people = personService.page(pageDataRequest);
-        presentationService.prepare(people.getContent(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(people.getContent(), pageFactory.pageResponse(people, pageDataRequest));
+    public DeferredResult<ResponseEntity> page(@Valid @RequestBody PageDataRequest pageDataRequest,
+                                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            Page<Person> people = personService.page(pageDataRequest);
+            presentationService.prepare(people.getContent(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.success(people.getContent(), pageFactory.pageResponse(people, pageDataRequest));
+        });
     }
 }
\ No newline at end of file
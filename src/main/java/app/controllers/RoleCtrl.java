@@ -4,6 +4,8 @@ import app.factories.PageFactory;
 import app.factories.ResponseFactory;
 import app.models.Role;
 import app.pojos.pages.PageDataRequest;
+import app.pojos.responses.success.ItemStream;
+import app.services.AsyncService;
 import app.services.PresentationService;
 import app.services.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +13,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(value = "/roles")
@@ -28,24 +31,51 @@ public class RoleCtrl {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private AsyncService asyncService;
+
     @Autowired
     private RoleService roleService;
 
     @RequestMapping(method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_ROLES')")
     public ResponseEntity list(@RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        List<Role> roles = roleService.findAll();
-        presentationService.prepare(roles, shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(roles);
+                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                               @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304 (and have ETag)
+        String version = shouldLoadComplete || shouldLoadAllRelations ? null : roleService.findCollectionVersion();
+        if (responseFactory.isNotModified(ifNoneMatch, version)) {
+            return responseFactory.notModified(version);
+        }
+
+        // items are read from a cursor and written while the response is serialized
+        ItemStream<Role> roles = new ItemStream<>(consumer -> roleService.streamAll(r -> {
+            presentationService.prepare(r, shouldLoadComplete, shouldLoadAllRelations);
+            consumer.accept(r);
+        }));
+        return responseFactory.successWithVersion(roles, version);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_ROLES')")
     public ResponseEntity get(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+                              @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations,
+                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // related rows don't change the version, so only responses without relations are answered with 304
+        if (ifNoneMatch != null && !shouldLoadComplete && !shouldLoadAllRelations) {
+            // only the version is read, the entity is loaded when client's copy is outdated
+            Long version = roleService.findVersion(id);
+            if (responseFactory.isNotModified(ifNoneMatch, version)) {
+                return responseFactory.notModified(version);
+            }
+        }
+
         Role role = roleService.findById(id);
         presentationService.prepare(role, shouldLoadComplete, shouldLoadAllRelations);
+        if (shouldLoadComplete || shouldLoadAllRelations) {
+            // without ETag, spring would answer a matching If-None-Match with 304 (the version is still in the body for If-Match)
+            return responseFactory.successNotNullWithVersion(role, null);
+        }
         return responseFactory.successNotNull(role);
     }
 
@@ -58,9 +88,18 @@ public class RoleCtrl {
 
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     @PreAuthorize("hasRole('CREATE_ROLES')")
-    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Role r) {
+    public ResponseEntity edit(@PathVariable String id, @Valid @RequestBody Role r,
+                               @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         r.setId(id);
-        Role role = roleService.update(r);
+        Role role = roleService.update(r, responseFactory.getVersion(ifMatch));
+        return responseFactory.successNotNull(role);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.PATCH)
+    @PreAuthorize("hasRole('CREATE_ROLES')")
+    public ResponseEntity patch(@PathVariable String id, @RequestBody Map<String, Object> patch,
+                                @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        Role role = roleService.patch(id, patch, responseFactory.getVersion(ifMatch));
         return responseFactory.successNotNull(role);
     }
 
@@ -73,20 +112,24 @@ public class RoleCtrl {
 
     @RequestMapping(value = "/{id}/people", method = RequestMethod.GET)
     @PreAuthorize("hasRole('VIEW_ROLES') and hasRole('VIEW_USERS')")
-    public ResponseEntity getPeople(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                                    @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Role role = roleService.findByIdNotNull(id);
-        presentationService.prepare(role.getPeople(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.successNotNull(role.getPeople());
+    public DeferredResult<ResponseEntity> getPeople(@PathVariable String id, @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                                    @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> {
+            Role role = roleService.findByIdNotNull(id);
+            presentationService.prepare(role.getPeople(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.successNotNull(role.getPeople());
+        });
     }
 
     @RequestMapping(value = "/Page", method = RequestMethod.POST)
     @PreAuthorize("hasRole('VIEW_ROLES')")
-    public ResponseEntity page(@Valid @RequestBody PageDataRequest pageDataRequest,
-                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
-                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
-        Page<Role> roles = roleService.page(pageDataRequest);
-        presentationService.prepare(roles.getContent(), shouldLoadComplete, shouldLoadAllRelations);
-        return responseFactory.success(roles.getContent(), pageFactory.pageResponse(roles, pageDataRequest));
+    public DeferredResult<ResponseEntity> page(@Valid @RequestBody PageDataRequest pageDataRequest,
+                                               @RequestParam(value = "complete", defaultValue = "false") boolean shouldLoadComplete,
+                                               @RequestParam(value = "all_relations", defaultValue = "false") boolean shouldLoadAllRelations) {
+        return asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            Page<Role> roles = roleService.page(pageDataRequest);
+            presentationService.prepare(roles.getContent(), shouldLoadComplete, shouldLoadAllRelations);
+            return responseFactory.success(roles.getContent(), pageFactory.pageResponse(roles, pageDataRequest));
+        });
     }
 }
\ No newline at end of file
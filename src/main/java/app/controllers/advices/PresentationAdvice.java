@@ -0,0 +1,50 @@
+package app.controllers.advices;
+
+import app.models.serializers.PresentationFilter;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Write models with the PresentationFilter selected by PresentationService for the current Request
+ */
+@ControllerAdvice
+public class PresentationAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType, MethodParameter returnType,
+                                           ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+
+        bodyContainer.setFilters(new RequestFilterProvider(((ServletServerHttpRequest) request).getServletRequest()));
+    }
+
+    /**
+     * Read the filter when each model is written, streamed items are prepared after the body container was created
+     */
+    private static class RequestFilterProvider extends SimpleFilterProvider {
+
+        private final HttpServletRequest request;
+
+        private RequestFilterProvider(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public PropertyFilter findPropertyFilter(Object filterId, Object valueToFilter) {
+            Object filter = request.getAttribute(PresentationFilter.ATTRIBUTE);
+            return filter != null ? (PresentationFilter) filter : PresentationFilter.ALL_RELATIONS;
+        }
+    }
+}
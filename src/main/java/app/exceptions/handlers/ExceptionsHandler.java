@@ -1,8 +1,10 @@
 package app.exceptions.handlers;
 
 import app.exceptions.AppAuthenticationException;
+import app.exceptions.AppPreconditionFailedException;
 import app.factories.ResponseFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.ProviderNotFoundException;
@@ -23,6 +25,9 @@ public class ExceptionsHandler {
         if (e instanceof ProviderNotFoundException || e instanceof AccessDeniedException) {
             return responseFactory.error(new AppAuthenticationException("Access is denied."));
         }
+        if (e instanceof OptimisticLockingFailureException) {
+            return responseFactory.error(new AppPreconditionFailedException("Data was modified by another request."));
+        }
         return responseFactory.error(e);
     }
 }
\ No newline at end of file
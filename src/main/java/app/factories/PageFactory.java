@@ -8,6 +8,7 @@ import com.querydsl.core.types.dsl.EntityPathBase;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specifications;
+import org.springframework.data.mongodb.core.query.Criteria;
 
 import java.util.List;
 
@@ -41,6 +42,15 @@ public interface PageFactory {
      */
     Predicate getPredicate(List<FilterRequest> filtersRequest, EntityPathBase entityPathBase);
 
+    /**
+     * Create a mongo Criteria instance from a FilterRequest list
+     *
+     * @param filtersRequest list of FilterRequest data
+     * @param type           entity class used to determine the fields type
+     * @return Criteria created
+     */
+    Criteria getCriteria(List<FilterRequest> filtersRequest, Class type);
+
     /**
      * Create a PageDataResponse from a Page metadata
      *
@@ -0,0 +1,34 @@
+package app.factories;
+
+import app.exceptions.AppValidationException;
+import app.models.Model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Create instances from JSON Merge Patch (RFC 7396) requests
+ */
+public interface PatchFactory {
+
+    /**
+     * Create an entity from a JSON Merge Patch validating only the fields present in it
+     *
+     * @param patch   JSON Merge Patch body
+     * @param type    entity class
+     * @param allowed fields that can be patched
+     * @return entity with the patched fields
+     * @throws AppValidationException if a field is not allowed or its value isn't valid
+     */
+    <T extends Model> T getEntity(Map<String, Object> patch, Class<T> type, List<String> allowed) throws AppValidationException;
+
+    /**
+     * Get the field values that are going to be updated
+     *
+     * @param entity entity with the patched fields
+     * @param fields patched fields
+     * @return field values
+     */
+    Map<String, Object> getValues(Model entity, Collection<String> fields);
+}
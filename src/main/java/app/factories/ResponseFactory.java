@@ -1,5 +1,6 @@
 package app.factories;
 
+import app.exceptions.AppPreconditionFailedException;
 import org.springframework.http.ResponseEntity;
 
 /**
@@ -8,7 +9,7 @@ import org.springframework.http.ResponseEntity;
 public interface ResponseFactory {
 
     /**
-     * Create a success Response without metadata
+     * Create a success Response without metadata (with ETag header when data is a Model)
      *
      * @param data main info returned on Response body
      * @return Success ResponseEntity
@@ -16,7 +17,7 @@ public interface ResponseFactory {
     ResponseEntity success(Object data);
 
     /**
-     * Create a success Response with metadata
+     * Create a success Response with metadata (with ETag header when data is a Model)
      *
      * @param data     main info returned on Response body
      * @param metaData extra info returned on Response body
@@ -24,6 +25,23 @@ public interface ResponseFactory {
      */
     ResponseEntity success(Object data, Object metaData);
 
+    /**
+     * Create a success Response without metadata with a specific ETag header
+     *
+     * @param data    main info returned on Response body
+     * @param version value used as ETag or null if ETag header is not needed
+     * @return Success ResponseEntity
+     */
+    ResponseEntity successWithVersion(Object data, Object version);
+
+    /**
+     * Create a NOT_MODIFIED Response without body
+     *
+     * @param version value used as ETag
+     * @return Not Modified ResponseEntity
+     */
+    ResponseEntity notModified(Object version);
+
     /**
      * Create a success Response if data is not null otherwise create an NOT_FOUND error Response
      *
@@ -32,6 +50,15 @@ public interface ResponseFactory {
      */
     ResponseEntity successNotNull(Object data);
 
+    /**
+     * Create a success Response with a specific ETag header if data is not null otherwise create an NOT_FOUND error Response
+     *
+     * @param data    main info returned on Response body
+     * @param version value used as ETag or null if ETag header is not needed
+     * @return Success ResponseEntity or NOT_FOUND Error ResponseEntity if data is null
+     */
+    ResponseEntity successNotNullWithVersion(Object data, Object version);
+
     /**
      * Create an Error Response caused by an Exception
      *
@@ -39,4 +66,22 @@ public interface ResponseFactory {
      * @return Error ResponseEntity
      */
     ResponseEntity error(Exception e);
+
+    /**
+     * Get the entity version from an If-Match header value (the ETag added to a success Response)
+     *
+     * @param eTag If-Match header value
+     * @return entity version or null if eTag is null or "*"
+     * @throws AppPreconditionFailedException if eTag is not a valid version
+     */
+    Long getVersion(String eTag) throws AppPreconditionFailedException;
+
+    /**
+     * Check if any ETag from an If-None-Match header value matches the current version
+     *
+     * @param ifNoneMatch If-None-Match header value
+     * @param version     current version
+     * @return true if client's copy is still valid, false if ifNoneMatch or version is null or none ETag matches
+     */
+    boolean isNotModified(String ifNoneMatch, Object version);
 }
\ No newline at end of file
@@ -12,16 +12,20 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.domain.Specifications;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Root;
+import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 @Component
 public class PageFactoryImpl implements PageFactory {
@@ -107,6 +111,17 @@ public class PageFactoryImpl implements PageFactory {
         return expression;
     }
 
+    @Override
+    public Criteria getCriteria(List<FilterRequest> filtersRequest, Class type) {
+        if (filtersRequest == null || filtersRequest.isEmpty()) {
+            return null;
+        }
+
+        final List<Criteria> criteria = new ArrayList<>();
+        filtersRequest.forEach(fr -> criteria.add(getCriteria(fr, type)));
+        return new Criteria().andOperator(criteria.toArray(new Criteria[criteria.size()]));
+    }
+
     @Override
     public PageDataResponse pageResponse(Page page, PageDataRequest pageDataRequest) {
         return new PageDataResponse(page.getTotalPages(), page.getTotalElements(), pageDataRequest);
@@ -121,11 +136,7 @@ public class PageFactoryImpl implements PageFactory {
      * @return Predicate generated
      */
     private javax.persistence.criteria.Predicate getPredicate(FilterRequest filterRequest, Root<Object> root, CriteriaBuilder cb) {
-        filterRequest.setOperation(filterRequest.getOperation() != null ? filterRequest.getOperation().toUpperCase() : OPERATION.EQ);
-        if (!operationsAllowed.contains(filterRequest.getOperation())) {
-            // default operation
-            filterRequest.setOperation(OPERATION.EQ);
-        }
+        cleanOperation(filterRequest);
 
         String stringValue = filterRequest.getValue();
         LocalDateTime dateTimeValue = null;
@@ -198,11 +209,7 @@ public class PageFactoryImpl implements PageFactory {
      * @return BooleanExpression generated
      */
     private BooleanExpression getBooleanExpression(FilterRequest filterRequest, EntityPathBase entityPathBase) {
-        filterRequest.setOperation(filterRequest.getOperation() != null ? filterRequest.getOperation().toUpperCase() : OPERATION.EQ);
-        if (!operationsAllowed.contains(filterRequest.getOperation())) {
-            // default operation
-            filterRequest.setOperation(OPERATION.EQ);
-        }
+        cleanOperation(filterRequest);
 
         try {
             Class type = entityPathBase.getClass().getDeclaredField(filterRequest.getField()).getType();
@@ -347,6 +354,81 @@ public class PageFactoryImpl implements PageFactory {
         }
     }
 
+    /**
+     * Create a mongo Criteria from FilterRequest
+     *
+     * @param filterRequest Filter data
+     * @param type          entity class used to determine the field type
+     * @return Criteria generated
+     */
+    private Criteria getCriteria(FilterRequest filterRequest, Class type) {
+        cleanOperation(filterRequest);
+
+        Field field = ReflectionUtils.findField(type, filterRequest.getField());
+        if (field == null) {
+            throw new AppValidationException(filterRequest.getField());
+        }
+
+        Criteria criteria = Criteria.where(filterRequest.getField());
+        Object value;
+        String typeName;
+        if (Number.class.isAssignableFrom(field.getType())) {
+            value = Double.parseDouble(filterRequest.getValue());
+            typeName = "Number";
+        } else if (field.getType() == LocalDateTime.class) {
+            value = LocalDateTime.parse(filterRequest.getValue(), DateTimeFormatter.ofPattern(DATE_TIME_PATTERN));
+            typeName = "DateTime";
+        } else if (field.getType() == LocalDate.class) {
+            value = LocalDate.parse(filterRequest.getValue(), DateTimeFormatter.ofPattern(DATE_PATTERN));
+            typeName = "Date";
+        } else {
+            value = filterRequest.getValue();
+            typeName = "String";
+        }
+
+        switch (filterRequest.getOperation()) {
+            case OPERATION.EQ:
+                return criteria.is(value);
+            case OPERATION.NE:
+                return criteria.ne(value);
+            case OPERATION.GT:
+                return criteria.gt(value);
+            case OPERATION.GET:
+                return criteria.gte(value);
+            case OPERATION.LT:
+                return criteria.lt(value);
+            case OPERATION.LET:
+                return criteria.lte(value);
+        }
+
+        if (!(value instanceof String)) {
+            throw new AppValidationException(typeName + " type doesn't allow like operations.");
+        }
+
+        switch (filterRequest.getOperation()) {
+            case OPERATION.STARTSWITH:
+                return criteria.regex("^" + Pattern.quote((String) value));
+            case OPERATION.ENDSWITH:
+                return criteria.regex(Pattern.quote((String) value) + "$");
+            case OPERATION.LIKE:
+            default:
+                return criteria.regex(Pattern.quote((String) value));
+        }
+    }
+
+    /**
+     * Normalize FilterRequest operation (is not case sensitive and EQ is used when operation is not allowed)
+     *
+     * @param filterRequest Filter data
+     */
+    private void cleanOperation(FilterRequest filterRequest) {
+        filterRequest.setOperation(filterRequest.getOperation() != null ? filterRequest.getOperation().toUpperCase() : OPERATION.EQ);
+        if (!operationsAllowed.contains(filterRequest.getOperation())) {
+            // default operation
+            filterRequest.setOperation(OPERATION.EQ);
+        }
+    }
+
     /**
      * Parse Sort Direction (is not case sensitive)
      *
@@ -0,0 +1,63 @@
+package app.factories.implementations;
+
+import app.exceptions.AppValidationException;
+import app.factories.PatchFactory;
+import app.models.Model;
+import app.pojos.responses.error.nesteds.NestedError;
+import app.pojos.responses.error.nesteds.ValidationNestedError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.validation.Validator;
+import java.util.*;
+
+@Component
+public class PatchFactoryImpl implements PatchFactory {
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Override
+    public <T extends Model> T getEntity(Map<String, Object> patch, Class<T> type, List<String> allowed) throws AppValidationException {
+        if (patch == null || patch.isEmpty()) {
+            throw new AppValidationException("There isn't any data to update.");
+        }
+
+        final List<NestedError> nestedErrors = new ArrayList<>();
+        patch.keySet().stream().filter(field -> !allowed.contains(field))
+                .forEach(field -> nestedErrors.add(new ValidationNestedError(field, "'" + field + "' can't be updated, it only allows " + Arrays.toString(allowed.toArray()))));
+        if (!nestedErrors.isEmpty()) {
+            throw new AppValidationException("Some data aren't valid.", nestedErrors);
+        }
+
+        T entity;
+        try {
+            entity = mapper.convertValue(patch, type);
+        } catch (IllegalArgumentException e) {
+            throw new AppValidationException(e.getMessage());
+        }
+
+        // fields not present in patch aren't modified, so they don't need to be valid
+        patch.keySet().forEach(field -> validator.validateProperty(entity, field)
+                .forEach(violation -> nestedErrors.add(new ValidationNestedError(field, violation.getMessage()))));
+        if (!nestedErrors.isEmpty()) {
+            throw new AppValidationException("Some data aren't valid.", nestedErrors);
+        }
+
+        return entity;
+    }
+
+    @Override
+    public Map<String, Object> getValues(Model entity, Collection<String> fields) {
+        final BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        final Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field, wrapper.getPropertyValue(field)));
+        return values;
+    }
+}
@@ -3,7 +3,11 @@ package app.factories.implementations;
 import app.exceptions.AppAuthenticationException;
 import app.exceptions.AppDontFoundException;
 import app.exceptions.AppException;
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppUnavailableException;
 import app.factories.ResponseFactory;
+import app.metrics.SecurityTimings;
+import app.models.Model;
 import app.pojos.responses.error.ErrorResponse;
 import app.pojos.responses.error.nesteds.NestedError;
 import app.pojos.responses.error.nesteds.ValidationNestedError;
@@ -11,12 +15,14 @@ import app.pojos.responses.success.SuccessResponse;
 import app.security.services.TokenService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Component
@@ -25,6 +31,9 @@ public class ResponseFactoryImpl implements ResponseFactory {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private SecurityTimings securityTimings;
+
     @Override
     public ResponseEntity success(Object data) {
         return success(data, null);
@@ -32,14 +41,17 @@ public class ResponseFactoryImpl implements ResponseFactory {
 
     @Override
     public ResponseEntity success(Object data, Object metaData) {
-        String newToken = null;
-        try {
-            newToken = tokenService.refreshToken();
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-        }
+        return success(data, metaData, data instanceof Model ? ((Model) data).getVersion() : null);
+    }
+
+    @Override
+    public ResponseEntity successWithVersion(Object data, Object version) {
+        return success(data, null, version);
+    }
 
-        return new ResponseEntity(new SuccessResponse(data, metaData, newToken), HttpStatus.OK);
+    @Override
+    public ResponseEntity notModified(Object version) {
+        return new ResponseEntity(versionHeaders(version), HttpStatus.NOT_MODIFIED);
     }
 
     @Override
@@ -50,6 +62,14 @@ public class ResponseFactoryImpl implements ResponseFactory {
         return success(data);
     }
 
+    @Override
+    public ResponseEntity successNotNullWithVersion(Object data, Object version) {
+        if (data == null) {
+            return error(new AppDontFoundException("Data don't found."));
+        }
+        return successWithVersion(data, version);
+    }
+
     @Override
     public ResponseEntity error(Exception e) {
         if (e instanceof AppException) {
@@ -60,6 +80,72 @@ public class ResponseFactoryImpl implements ResponseFactory {
         return error("An error has occurred.", e.getMessage(), null, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @Override
+    public Long getVersion(String eTag) throws AppPreconditionFailedException {
+        if (eTag == null || eTag.trim().equals("*")) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(eTag.trim().replaceFirst("^W/", "").replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new AppPreconditionFailedException("If-Match header '" + eTag + "' is not valid.");
+        }
+    }
+
+    @Override
+    public boolean isNotModified(String ifNoneMatch, Object version) {
+        if (ifNoneMatch == null || version == null) {
+            return false;
+        }
+
+        for (String eTag : ifNoneMatch.split(",")) {
+            eTag = eTag.trim().replaceFirst("^W/", "").replace("\"", "");
+            if (eTag.equals("*") || eTag.equals(version.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a success Response with metadata and ETag header
+     *
+     * @param data     main info returned on Response body
+     * @param metaData extra info returned on Response body
+     * @param version  value used as ETag or null if ETag header is not needed
+     * @return Success ResponseEntity
+     */
+    private ResponseEntity success(Object data, Object metaData, Object version) {
+        String newToken = null;
+        long start = System.nanoTime();
+        try {
+            newToken = tokenService.refreshToken();
+        } catch (JsonProcessingException e) {
+            e.printStackTrace();
+        } finally {
+            securityTimings.record(SecurityTimings.TOKEN_REFRESH, System.nanoTime() - start);
+        }
+
+        HttpHeaders headers = version != null ? versionHeaders(version) : new HttpHeaders();
+        return new ResponseEntity(new SuccessResponse(data, metaData, newToken), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Create the ETag and Vary headers of a version. The same version is written as JSON, Smile or CBOR (Accept) and
+     * compressed or not (Accept-Encoding), so the ETag is weak (strong ones must differ per representation) and caches
+     * must keep a copy per Accept and Accept-Encoding
+     *
+     * @param version value used as ETag
+     * @return headers with weak ETag like W/"3" and Vary
+     */
+    private HttpHeaders versionHeaders(Object version) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/\"" + version + "\"");
+        headers.setVary(Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        return headers;
+    }
+
     /**
      * Create an Error Response with specific developer message and nested errors
      *
@@ -85,6 +171,10 @@ public class ResponseFactoryImpl implements ResponseFactory {
             status = HttpStatus.NOT_FOUND;
         } else if (e instanceof AppAuthenticationException) {
             status = HttpStatus.UNAUTHORIZED;
+        } else if (e instanceof AppPreconditionFailedException) {
+            status = HttpStatus.PRECONDITION_FAILED;
+        } else if (e instanceof AppUnavailableException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
         }
 
         return error(e.getMessage(), null, e.getNestedErrors(), status);
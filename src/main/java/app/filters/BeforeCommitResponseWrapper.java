@@ -0,0 +1,58 @@
+package app.filters;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Response that runs an action (like adding a header) once, just before the body is written or when the request
+ * finished without body. Headers can't change after the response is committed, so anything that happens while a body
+ * is streamed is not included
+ */
+class BeforeCommitResponseWrapper extends HttpServletResponseWrapper {
+
+    private final Runnable action;
+
+    private boolean done;
+
+    BeforeCommitResponseWrapper(HttpServletResponse response, Runnable action) {
+        super(response);
+        this.action = action;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        beforeCommit();
+        return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        beforeCommit();
+        return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        beforeCommit();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        done = false;
+    }
+
+    /**
+     * Run the action if it wasn't run and the response isn't committed
+     */
+    void beforeCommit() {
+        if (!done && !isCommitted()) {
+            action.run();
+        }
+        done = true;
+    }
+}
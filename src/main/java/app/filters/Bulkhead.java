@@ -0,0 +1,119 @@
+package app.filters;
+
+import lombok.Getter;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limit the concurrent requests of a group of endpoints, requests over the limit wait up to timeout milliseconds
+ * while there are less than queue waiting, so a slow group can only take its own threads and connections
+ */
+public class Bulkhead {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int limit;
+
+    @Getter
+    private final int queue;
+
+    private final long timeout;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Create an instance
+     *
+     * @param name    group name
+     * @param limit   max concurrent requests
+     * @param queue   max waiting requests
+     * @param timeout max time a request waits (milliseconds)
+     */
+    public Bulkhead(String name, int limit, int queue, long timeout) {
+        this.name = name;
+        this.limit = limit;
+        this.queue = queue;
+        this.timeout = timeout;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * Take a permit, waiting for one if the limit was reached and the queue isn't full
+     *
+     * @return true if the request can be served, it must call release when it finishes
+     */
+    public boolean acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+
+        if (waiting.incrementAndGet() > queue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            timeouts.increment();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Return a permit taken by acquire
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Get requests being served
+     *
+     * @return active requests
+     */
+    public int getActive() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Get requests waiting for a permit
+     *
+     * @return waiting requests
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Get requests rejected because the queue was full
+     *
+     * @return rejected requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get requests rejected because they waited timeout milliseconds without a permit
+     *
+     * @return timed out requests
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+}
@@ -0,0 +1,197 @@
+package app.filters;
+
+import app.exceptions.AppUnavailableException;
+import app.factories.ResponseFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serve every request inside the bulkhead of its group (auth, read, page, write or export) and reject it with
+ * SERVICE_UNAVAILABLE when the group is full, so an overloaded group doesn't take the request threads and connections
+ * of the others. Health and metrics endpoints are never limited.
+ * Runs after RequestMetricsFilter (rejections are recorded) and before security (rejected tokens aren't parsed),
+ * async requests keep their permit until they are completed
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    public static final String ATTRIBUTE = BulkheadFilter.class.getName() + ".PERMIT";
+
+    private static final List<String> UNLIMITED = Arrays.asList("/ping", "/info/**", "/metrics", "/admin/pool", "/admin/slow-queries");
+
+    // streamed lists (all rows)
+    private static final List<String> EXPORTS = Arrays.asList("/people", "/roles", "/permissions", "/authentications");
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    @Value("${bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private Bulkhead authBulkhead;
+
+    @Autowired
+    private Bulkhead readBulkhead;
+
+    @Autowired
+    private Bulkhead pageBulkhead;
+
+    @Autowired
+    private Bulkhead writeBulkhead;
+
+    @Autowired
+    private Bulkhead exportBulkhead;
+
+    @Autowired
+    private ResponseFactory responseFactory;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the permit is released when the async dispatch writes the response
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Permit permit;
+        if (isAsyncDispatch(request)) {
+            permit = (Permit) request.getAttribute(ATTRIBUTE);
+        } else {
+            Bulkhead bulkhead = enabled ? select(request) : null;
+            if (bulkhead != null && !acquire(bulkhead)) {
+                reject(response);
+                return;
+            }
+            permit = bulkhead != null ? new Permit(bulkhead) : null;
+            request.setAttribute(ATTRIBUTE, permit);
+        }
+
+        if (permit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean asyncStarted = false;
+        try {
+            filterChain.doFilter(request, response);
+            asyncStarted = isAsyncStarted(request);
+        } finally {
+            if (asyncStarted) {
+                // released by the async dispatch, or here if the request is completed without one (e.g. async timeout)
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        permit.release();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * Select the bulkhead of a request
+     *
+     * @param request request to be served
+     * @return bulkhead of its group or null if it's never limited
+     */
+    Bulkhead select(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        if (method.equals("OPTIONS") || UNLIMITED.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path))) {
+            return null;
+        }
+        if (method.equals("POST") && (path.equals("/login") || PATH_MATCHER.match("/change_role/*", path))) {
+            return authBulkhead;
+        }
+        if (path.equals("/admin/snapshot") || (method.equals("GET") && EXPORTS.contains(path))) {
+            return exportBulkhead;
+        }
+        // own group because pages wait in their async executor while they hold a permit, so they can't fill the reads
+        if (method.equals("POST") && path.endsWith("/Page")) {
+            return pageBulkhead;
+        }
+        if (method.equals("GET") || method.equals("HEAD")) {
+            return readBulkhead;
+        }
+        return writeBulkhead;
+    }
+
+    private boolean acquire(Bulkhead bulkhead) {
+        try {
+            return bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ResponseEntity error = responseFactory.error(new AppUnavailableException("Server is busy, try again later."));
+        response.setStatus(error.getStatusCodeValue());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        mapper.writeValue(response.getOutputStream(), error.getBody());
+    }
+
+    /**
+     * Permit of a request, released only once (by the request or by its async dispatch)
+     */
+    private static class Permit {
+
+        private final Bulkhead bulkhead;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package app.filters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compress responses with gzip or deflate (the one accepted by client) when they are bigger than min-response-size.
+ * Streamed responses don't have a Content-Length, so the first bytes are buffered until the threshold is reached
+ * or the response is completed
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private static final String DEFLATE = "deflate";
+
+    @Value("${compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${compression.min-response-size:2048}")
+    private int minResponseSize;
+
+    @Value("${compression.mime-types:application/json}")
+    private String[] mimeTypes;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String encoding = enabled ? getEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) : null;
+        if (encoding == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CompressionResponseWrapper wrapper = new CompressionResponseWrapper(response, encoding);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (isAsyncStarted(request)) {
+                // the body is written by the async dispatch
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) throws IOException {
+                        wrapper.finish();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                wrapper.finish();
+            }
+        }
+    }
+
+    /**
+     * Select the encoding from an Accept-Encoding header value (gzip is preferred when both are accepted)
+     *
+     * @param acceptEncoding Accept-Encoding header value
+     * @return gzip, deflate or null if none is accepted
+     */
+    String getEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        boolean deflate = false;
+        for (String value : acceptEncoding.split(",")) {
+            String[] parts = value.trim().split(";");
+            if (parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                return GZIP;
+            }
+            deflate |= parts[0].trim().equalsIgnoreCase(DEFLATE);
+        }
+        return deflate ? DEFLATE : null;
+    }
+
+    /**
+     * Check if a response Content-Type is one of the compressed mime-types
+     *
+     * @param contentType response Content-Type
+     * @return true if response must be compressed
+     */
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return Arrays.stream(mimeTypes).anyMatch(m -> MediaType.parseMediaType(m.trim()).includes(mediaType));
+    }
+
+    /**
+     * Response where the body is written to a ThresholdOutputStream
+     */
+    private class CompressionResponseWrapper extends HttpServletResponseWrapper {
+
+        private final String encoding;
+
+        private ThresholdOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        private CompressionResponseWrapper(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called.");
+            }
+            return getThresholdOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called.");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(getThresholdOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            // computed when the response is completed
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            // computed when the response is completed
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream == null || !outputStream.isBuffering()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            outputStream = null;
+            writer = null;
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (outputStream != null) {
+                outputStream.resetBuffer();
+            }
+        }
+
+        /**
+         * Write the pending buffer (uncompressed) or the end of the compressed stream
+         */
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.finish();
+            }
+        }
+
+        private ThresholdOutputStream getThresholdOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream(this);
+            }
+            return outputStream;
+        }
+    }
+
+    /**
+     * Buffer the first min-response-size bytes, then decide if the rest of the body is compressed
+     */
+    private class ThresholdOutputStream extends ServletOutputStream {
+
+        private final CompressionResponseWrapper response;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private OutputStream target;
+
+        private ServletOutputStream nonBlocking;
+
+        private ThresholdOutputStream(CompressionResponseWrapper response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (buffer.size() + len <= minResponseSize) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                startTarget();
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // a flush before reaching the threshold would commit the response without knowing its encoding
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return nonBlocking == null || nonBlocking.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (target != null && target != original()) {
+                throw new IllegalStateException("Non blocking writes can't start after the compressed body was started.");
+            }
+
+            // compressed bytes can't follow the container isReady(), so non blocking responses are written without compression
+            if (target == null) {
+                target = original();
+                try {
+                    buffer.writeTo(target);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                buffer = null;
+            }
+            nonBlocking = original();
+            nonBlocking.setWriteListener(writeListener);
+        }
+
+        private boolean isBuffering() {
+            return target == null;
+        }
+
+        private void resetBuffer() {
+            if (target == null) {
+                buffer.reset();
+            }
+        }
+
+        /**
+         * Get the output stream of the wrapped response
+         *
+         * @return ServletOutputStream instance
+         */
+        private ServletOutputStream original() {
+            try {
+                return response.getResponse().getOutputStream();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Threshold was reached, compress the response if its Content-Type allows it and write the buffered bytes
+         */
+        private void startTarget() throws IOException {
+            HttpServletResponse original = (HttpServletResponse) response.getResponse();
+            target = original.getOutputStream();
+            if (isCompressible(response.getContentType()) && !response.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                original.setHeader(HttpHeaders.CONTENT_ENCODING, response.encoding);
+                if (original.getHeaders(HttpHeaders.VARY).stream().noneMatch(v -> v.toLowerCase().contains("accept-encoding"))) {
+                    // versioned responses already vary on it
+                    original.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                target = response.encoding.equals(GZIP) ? new GZIPOutputStream(target) : new DeflaterOutputStream(target);
+            }
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        /**
+         * Response is completed, write the buffered bytes without compression or finish the compressed stream
+         */
+        private void finish() throws IOException {
+            if (nonBlocking != null) {
+                // the container completes non blocking responses when the listener is done
+                return;
+            }
+            if (target == null) {
+                ((HttpServletResponse) response.getResponse()).setContentLength(buffer.size());
+                if (buffer.size() > 0) {
+                    buffer.writeTo(response.getResponse().getOutputStream());
+                }
+                buffer.reset();
+                return;
+            }
+
+            if (target instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream) target).finish();
+            }
+            target.flush();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package app.filters;
+
+import app.metrics.QueryCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Count the SQL statements and Mongo commands run by every request, log the requests over threshold
+ * and the ones repeating the same statement repeated-threshold times (possible N+1).
+ * X-Query-Count header only includes the queries run before the body was written.
+ * Async requests are reported when the async dispatch finishes, with the queries run by the async task
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    public static final String ATTRIBUTE = QueryCountFilter.class.getName() + ".COUNTER";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    @Value("${query-counter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${query-counter.header:false}")
+    private boolean header;
+
+    @Value("${query-counter.threshold:20}")
+    private int threshold;
+
+    @Value("${query-counter.repeated-threshold:5}")
+    private int repeatedThreshold;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the async dispatch writes the response, so it adds the header and reports the request
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter counter = null;
+        boolean asyncDispatch = isAsyncDispatch(request);
+        if (asyncDispatch) {
+            // the counter already has the queries of the async task
+            counter = (QueryCounter) request.getAttribute(ATTRIBUTE);
+            QueryCounter.attach(counter);
+        } else if (enabled) {
+            counter = QueryCounter.start();
+            request.setAttribute(ATTRIBUTE, counter);
+        }
+
+        if (counter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        QueryCounter requestCounter = counter;
+        BeforeCommitResponseWrapper wrapper = header ? new BeforeCommitResponseWrapper(response,
+                () -> response.setHeader(HEADER, "sql=" + requestCounter.getSqlCount() + ", mongo=" + requestCounter.getMongoCount())) : null;
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            if (asyncDispatch) {
+                QueryCounter.detach();
+            } else {
+                QueryCounter.stop();
+            }
+            if (!isAsyncStarted(request)) {
+                if (wrapper != null) {
+                    wrapper.beforeCommit();
+                }
+                report(request, counter);
+            }
+        }
+    }
+
+    /**
+     * Log the request if it ran too many queries or repeated the same one too many times
+     *
+     * @param request served request
+     * @param counter request queries
+     */
+    private void report(HttpServletRequest request, QueryCounter counter) {
+        if (counter.getTotal() <= threshold && counter.getMostRepeatedCount() < repeatedThreshold) {
+            return;
+        }
+
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String name = request.getMethod() + " " + (route != null ? route : request.getRequestURI());
+        if (counter.getTotal() > threshold) {
+            LOGGER.warn("{} ran {} queries ({} SQL, {} Mongo), threshold is {}.",
+                    name, counter.getTotal(), counter.getSqlCount(), counter.getMongoCount(), threshold);
+        }
+        if (counter.getMostRepeatedCount() >= repeatedThreshold) {
+            LOGGER.warn("{} ran the same query {} times (possible N+1): {}", name, counter.getMostRepeatedCount(), counter.getMostRepeated());
+        }
+    }
+}
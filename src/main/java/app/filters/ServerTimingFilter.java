@@ -0,0 +1,91 @@
+package app.filters;
+
+import app.metrics.SecurityTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Add a Server-Timing header with the time spent in each security stage of the request (milliseconds),
+ * so it's displayed by browser developer tools. Only the stages that ran before the body was written are included,
+ * for async requests these include the ones run by the async task (written by the async dispatch)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    public static final String ATTRIBUTE = ServerTimingFilter.class.getName() + ".STAGES";
+
+    @Autowired
+    private SecurityTimings securityTimings;
+
+    @Value("${server-timing.enabled:false}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the async dispatch writes the response with the stages of the async task
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Map<String, Long> stages = null;
+        if (isAsyncDispatch(request)) {
+            stages = (Map<String, Long>) request.getAttribute(ATTRIBUTE);
+            securityTimings.attach(stages);
+        } else if (enabled) {
+            stages = securityTimings.start();
+            request.setAttribute(ATTRIBUTE, stages);
+        }
+
+        if (stages == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Map<String, Long> requestStages = stages;
+        BeforeCommitResponseWrapper wrapper = new BeforeCommitResponseWrapper(response, () -> {
+            synchronized (requestStages) {
+                if (!requestStages.isEmpty()) {
+                    response.setHeader(HEADER, format(requestStages));
+                }
+            }
+        });
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            securityTimings.stop();
+            if (!isAsyncStarted(request)) {
+                wrapper.beforeCommit();
+            }
+        }
+    }
+
+    /**
+     * Format the stages as a Server-Timing header value
+     *
+     * @param stages stages name and nanoseconds
+     * @return value like "token_parse;dur=0.35, token_refresh;dur=0.2"
+     */
+    String format(Map<String, Long> stages) {
+        return stages.entrySet().stream()
+                .map(s -> s.getKey() + ";dur=" + BigDecimal.valueOf(s.getValue(), 6).stripTrailingZeros().toPlainString())
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,44 @@
+package app.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keep the service method that is running in the current thread, so resources (like connections) can be attributed to it
+ * (highest precedence so it runs before @Transactional takes the connection and after it's released)
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CallSiteAspect {
+
+    private static final ThreadLocal<String> CALL_SITE = new ThreadLocal<>();
+
+    @Around("execution(public * app..services.implementations.*.*(..))")
+    public Object aroundService(ProceedingJoinPoint joinPoint) throws Throwable {
+        // only the outer service method is kept, it's the one that holds the transaction
+        if (CALL_SITE.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        CALL_SITE.set(joinPoint.getTarget().getClass().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            CALL_SITE.remove();
+        }
+    }
+
+    /**
+     * Get the service method running in the current thread
+     *
+     * @return "ClassName.method" or null if not service is running
+     */
+    public static String getCallSite() {
+        return CALL_SITE.get();
+    }
+}
@@ -0,0 +1,142 @@
+package app.metrics;
+
+import app.pojos.metrics.LatencySnapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram. Percentiles use log-linear buckets (every power of 2 is split in 16 sub-buckets, so a percentile
+ * is at most 1/16 higher than the recorded value, values under 16 microseconds are exact), the coarse power of 2 microseconds
+ * buckets are only kept for the Prometheus export
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+    private final AtomicLongArray subBuckets = new AtomicLongArray(SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        // bucket i has values in (2^(i-1), 2^i]
+        buckets.incrementAndGet(micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1));
+        subBuckets.incrementAndGet(getSubBucket(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Get the number of recorded values
+     *
+     * @return values count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the number of recorded values in a bucket
+     *
+     * @param bucket bucket index, bucket i has values in (2^(i-1), 2^i] microseconds
+     * @return values count
+     */
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * Get the sum of recorded values
+     *
+     * @return sum in microseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get an approximated percentile
+     *
+     * @param percentile value between 0 and 100
+     * @return latency in microseconds
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(total * percentile / 100);
+        long accumulated = 0;
+        for (int i = 0; i < subBuckets.length(); i++) {
+            accumulated += subBuckets.get(i);
+            if (accumulated >= Math.max(1, target)) {
+                return Math.min(getSubBucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Get the log-linear bucket of a value, values under 16 have their own bucket and values in [2^e, 2^(e+1)) are split
+     * in 16 buckets of 2^(e-4) values
+     *
+     * @param micros latency in microseconds
+     * @return sub-bucket index
+     */
+    static int getSubBucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (micros >> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Get the highest value of a log-linear bucket
+     *
+     * @param subBucket sub-bucket index
+     * @return latency in microseconds
+     */
+    static long getSubBucketUpperBound(int subBucket) {
+        if (subBucket < SUB_BUCKETS) {
+            return subBucket;
+        }
+        int shift = (subBucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (subBucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Create a summary of the recorded values
+     *
+     * @return summary in milliseconds
+     */
+    public LatencySnapshot snapshot() {
+        long total = count.sum();
+        return new LatencySnapshot(total, total == 0 ? 0 : toMillis(sum.sum() / (double) total), toMillis(getPercentile(50)),
+                toMillis(getPercentile(90)), toMillis(getPercentile(99)), toMillis(max.get()));
+    }
+
+    private double toMillis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
@@ -0,0 +1,136 @@
+package app.metrics;
+
+import app.pojos.metrics.CallSiteSnapshot;
+import app.pojos.metrics.PoolSnapshot;
+import com.zaxxer.hikari.metrics.MetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects HikariCP metrics: time waiting for a connection (acquire), time holding it (usage),
+ * timeouts and possible leaks, all of them by service method too
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    static final String UNATTRIBUTED = "unattributed";
+
+    private final CallSiteMetrics connections = new CallSiteMetrics();
+
+    private final Map<String, CallSiteMetrics> callSites = new ConcurrentHashMap<>();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private volatile String poolName;
+
+    private volatile PoolStats poolStats;
+
+    @Value("${spring.datasource.hikari.leak-detection-threshold:0}")
+    private long leakDetectionThreshold;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maxPoolSize;
+
+    @Override
+    public MetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new Tracker();
+    }
+
+    /**
+     * Record the time a thread waited for a connection
+     *
+     * @param nanos waiting time
+     */
+    public void recordAcquire(long nanos) {
+        connections.acquire.record(nanos);
+        getCallSiteMetrics().acquire.record(nanos);
+    }
+
+    /**
+     * Record the time a connection was held
+     *
+     * @param millis holding time
+     */
+    public void recordUsage(long millis) {
+        CallSiteMetrics callSite = getCallSiteMetrics();
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        connections.usage.record(nanos);
+        callSite.usage.record(nanos);
+        if (leakDetectionThreshold > 0 && millis >= leakDetectionThreshold) {
+            connections.leaks.increment();
+            callSite.leaks.increment();
+        }
+    }
+
+    /**
+     * Record that a connection wasn't available before connection timeout
+     */
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * Get current pool state and collected metrics
+     *
+     * @return pool state
+     */
+    public PoolSnapshot snapshot() {
+        Map<String, CallSiteSnapshot> callSitesSnapshot = new TreeMap<>();
+        callSites.forEach((callSite, metrics) -> callSitesSnapshot.put(callSite, metrics.snapshot()));
+
+        PoolStats stats = poolStats;
+        return new PoolSnapshot(poolName, stats != null ? stats.getActiveConnections() : 0, stats != null ? stats.getIdleConnections() : 0,
+                stats != null ? stats.getTotalConnections() : 0, stats != null ? stats.getPendingThreads() : 0, maxPoolSize,
+                timeouts.sum(), leakDetectionThreshold, connections.snapshot(), callSitesSnapshot);
+    }
+
+    private CallSiteMetrics getCallSiteMetrics() {
+        // connections used outside services (e.g. lazy loading while writing the response)
+        String callSite = CallSiteAspect.getCallSite();
+        return callSites.computeIfAbsent(callSite != null ? callSite : UNATTRIBUTED, c -> new CallSiteMetrics());
+    }
+
+    /**
+     * HikariCP calls it in the thread that takes and returns the connection
+     */
+    private class Tracker extends MetricsTracker {
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            recordAcquire(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            recordUsage(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            recordTimeout();
+        }
+    }
+
+    private static class CallSiteMetrics {
+
+        private final LatencyHistogram acquire = new LatencyHistogram();
+
+        private final LatencyHistogram usage = new LatencyHistogram();
+
+        private final LongAdder leaks = new LongAdder();
+
+        private CallSiteSnapshot snapshot() {
+            return new CallSiteSnapshot(acquire.snapshot(), usage.snapshot(), leaks.sum());
+        }
+    }
+}
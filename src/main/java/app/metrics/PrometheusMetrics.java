@@ -0,0 +1,159 @@
+package app.metrics;
+
+import app.filters.Bulkhead;
+import app.pojos.metrics.AsyncSnapshot;
+import app.pojos.metrics.PoolSnapshot;
+import app.pojos.metrics.ThreadPoolSnapshot;
+import app.services.AsyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Writes the collected metrics in Prometheus text format (version 0.0.4).
+ * Latencies are Prometheus histograms with the LatencyHistogram power of 2 buckets, so percentiles are calculated
+ * by Prometheus (histogram_quantile) and can be aggregated between instances
+ */
+@Component
+public class PrometheusMetrics {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // 64 microseconds to 16.7 seconds, slower requests are only counted in +Inf
+    static final int MIN_BUCKET = 6;
+
+    static final int MAX_BUCKET = 24;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Autowired
+    private SecurityTimings securityTimings;
+
+    @Autowired
+    private ThreadPoolMetrics threadPoolMetrics;
+
+    @Autowired
+    private PoolMetrics poolMetrics;
+
+    @Autowired
+    private AsyncService asyncService;
+
+    @Autowired
+    private List<Bulkhead> bulkheads;
+
+    /**
+     * Write all metrics
+     *
+     * @return metrics in Prometheus text format
+     */
+    public String scrape() {
+        StringBuilder builder = new StringBuilder();
+
+        type(builder, "http_server_requests_seconds", "histogram", "Time to serve requests by method, route template and status code.");
+        requestMetrics.getRoutes().forEach(route -> histogram(builder, "http_server_requests_seconds",
+                "method=\"" + escape(route.getMethod()) + "\",route=\"" + escape(route.getRoute()) + "\",status=\"" + route.getStatus() + "\"",
+                route.getLatency()));
+
+        type(builder, "security_stage_seconds", "histogram", "Time spent in each security stage of the requests.");
+        securityTimings.getStages().forEach((stage, latency) -> histogram(builder, "security_stage_seconds", "stage=\"" + escape(stage) + "\"", latency));
+
+        ThreadPoolSnapshot threads = threadPoolMetrics.snapshot();
+        if (threads != null) {
+            gauge(builder, "tomcat_threads_busy", "Request threads serving a request.", threads.getBusy());
+            gauge(builder, "tomcat_threads_current", "Request threads created.", threads.getCurrent());
+            gauge(builder, "tomcat_threads_max", "Max request threads.", threads.getMax());
+            gauge(builder, "tomcat_threads_queued", "Accepted connections waiting for a request thread.", threads.getQueued());
+        }
+
+        PoolSnapshot pool = poolMetrics.snapshot();
+        gauge(builder, "hikari_connections_active", "Connections in use.", pool.getActive());
+        gauge(builder, "hikari_connections_idle", "Idle connections.", pool.getIdle());
+        gauge(builder, "hikari_connections_pending", "Threads waiting for a connection.", pool.getPending());
+        gauge(builder, "hikari_connections_max", "Max connections.", pool.getMaxPoolSize());
+        type(builder, "hikari_connections_timeout_total", "counter", "Connections not available before connection timeout.");
+        sample(builder, "hikari_connections_timeout_total", null, pool.getTimeouts());
+
+        List<AsyncSnapshot> executors = asyncService.snapshot();
+        type(builder, "async_threads_busy", "gauge", "Async executor threads running a request.");
+        executors.forEach(e -> sample(builder, "async_threads_busy", workload(e), e.getBusy()));
+        type(builder, "async_threads_max", "gauge", "Max async executor threads.");
+        executors.forEach(e -> sample(builder, "async_threads_max", workload(e), e.getMax()));
+        type(builder, "async_queued", "gauge", "Requests waiting for an async executor thread.");
+        executors.forEach(e -> sample(builder, "async_queued", workload(e), e.getQueued()));
+        type(builder, "async_rejected_total", "counter", "Requests rejected because async executor threads and queue were full.");
+        executors.forEach(e -> sample(builder, "async_rejected_total", workload(e), e.getRejected()));
+        type(builder, "async_timeout_total", "counter", "Async requests not completed before async.timeout.");
+        executors.forEach(e -> sample(builder, "async_timeout_total", workload(e), e.getTimeouts()));
+
+        type(builder, "bulkhead_active", "gauge", "Requests being served by each endpoint group.");
+        bulkheads.forEach(b -> sample(builder, "bulkhead_active", group(b), b.getActive()));
+        type(builder, "bulkhead_waiting", "gauge", "Requests waiting for their endpoint group.");
+        bulkheads.forEach(b -> sample(builder, "bulkhead_waiting", group(b), b.getWaiting()));
+        type(builder, "bulkhead_limit", "gauge", "Max concurrent requests of each endpoint group.");
+        bulkheads.forEach(b -> sample(builder, "bulkhead_limit", group(b), b.getLimit()));
+        type(builder, "bulkhead_rejected_total", "counter", "Requests rejected because their endpoint group was full (queue) or they waited too long (timeout).");
+        bulkheads.forEach(b -> {
+            sample(builder, "bulkhead_rejected_total", group(b) + ",reason=\"queue\"", b.getRejected());
+            sample(builder, "bulkhead_rejected_total", group(b) + ",reason=\"timeout\"", b.getTimeouts());
+        });
+
+        return builder.toString();
+    }
+
+    private void histogram(StringBuilder builder, String name, String labels, LatencyHistogram latency) {
+        long accumulated = 0;
+        for (int i = 0; i <= MAX_BUCKET; i++) {
+            accumulated += latency.getBucketCount(i);
+            if (i >= MIN_BUCKET) {
+                sample(builder, name + "_bucket", labels + ",le=\"" + toSeconds(1L << i) + "\"", accumulated);
+            }
+        }
+        long count = latency.getCount();
+        sample(builder, name + "_bucket", labels + ",le=\"+Inf\"", count);
+        sample(builder, name + "_sum", labels, toSeconds(latency.getSum()));
+        sample(builder, name + "_count", labels, count);
+    }
+
+    private void gauge(StringBuilder builder, String name, String help, long value) {
+        type(builder, name, "gauge", help);
+        sample(builder, name, null, value);
+    }
+
+    private void type(StringBuilder builder, String name, String type, String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void sample(StringBuilder builder, String name, String labels, Object value) {
+        builder.append(name);
+        if (labels != null) {
+            builder.append('{').append(labels).append('}');
+        }
+        builder.append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Convert microseconds to seconds without scientific notation
+     *
+     * @param micros value in microseconds
+     * @return value in seconds
+     */
+    private String toSeconds(long micros) {
+        return BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString();
+    }
+
+    private String workload(AsyncSnapshot executor) {
+        return "workload=\"" + escape(executor.getWorkload()) + "\"";
+    }
+
+    private String group(Bulkhead bulkhead) {
+        return "group=\"" + escape(bulkhead.getName()) + "\"";
+    }
+
+    private String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
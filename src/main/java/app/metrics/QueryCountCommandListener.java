@@ -0,0 +1,35 @@
+package app.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonValue;
+
+/**
+ * Count every command sent to Mongo (the synchronous driver notifies in the thread that runs the command),
+ * commands are grouped by name and collection, the filter is only kept to display the query
+ */
+public class QueryCountCommandListener implements CommandListener {
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonValue collection = event.getCommand().get(event.getCommandName());
+        String command = event.getCommandName();
+        if (collection != null && collection.isString()) {
+            command += " " + collection.asString().getValue();
+        }
+
+        // find has a filter, count has a query
+        BsonValue filter = event.getCommand().containsKey("filter") ? event.getCommand().get("filter") : event.getCommand().get("query");
+        QueryCounter.recordMongo(command, filter != null && filter.isDocument() ? command + " " + filter.asDocument().toJson() : command);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+    }
+}
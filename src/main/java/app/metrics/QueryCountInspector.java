@@ -0,0 +1,16 @@
+package app.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Count every statement prepared by Hibernate
+ * (registered with spring.jpa.properties.hibernate.session_factory.statement_inspector)
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.recordSql(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,157 @@
+package app.metrics;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Count the SQL statements and Mongo commands run by the current thread while a request is served.
+ * Statements are also grouped by their text, the same statement repeated many times is usually an N+1
+ * (a lazy relation loaded once per row).
+ * Counters can be nested (like a repository call inside a request), queries are counted by every active counter.
+ * A counter can be attached to other threads (like the async task of a request), so queries are added synchronized
+ * (a request can still run queries while its timed out task is interrupted)
+ */
+public class QueryCounter {
+
+    // only the first queries are kept, so a request that runs thousands of them doesn't keep them in memory
+    static final int MAX_QUERIES = 20;
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private final QueryCounter parent;
+
+    @Getter
+    private int sqlCount;
+
+    @Getter
+    private int mongoCount;
+
+    @Getter
+    private String mostRepeated;
+
+    @Getter
+    private int mostRepeatedCount;
+
+    private final Map<String, Integer> statements = new HashMap<>();
+
+    private final List<String> queries = new ArrayList<>();
+
+    private QueryCounter(QueryCounter parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Start counting in the current thread (inside the counter that is running, if any)
+     *
+     * @return new counter
+     */
+    public static QueryCounter start() {
+        QueryCounter counter = new QueryCounter(CURRENT.get());
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * Stop the last started counter in the current thread, its parent counter keeps counting
+     */
+    public static void stop() {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null && counter.parent != null) {
+            CURRENT.set(counter.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Count in the current thread with a counter started by another thread, until detach is called
+     *
+     * @param counter counter to be used or null to not count
+     */
+    public static void attach(QueryCounter counter) {
+        if (counter != null) {
+            CURRENT.set(counter);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Stop counting in the current thread with the attached counter (it isn't stopped in the thread that started it)
+     */
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Get the counter of the current thread
+     *
+     * @return counter or null if it isn't counting
+     */
+    public static QueryCounter getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Count a SQL statement if the current thread is counting
+     *
+     * @param sql statement (with ? parameters, so the same query with different values is the same statement)
+     */
+    public static void recordSql(String sql) {
+        for (QueryCounter counter = CURRENT.get(); counter != null; counter = counter.parent) {
+            counter.add(sql, sql, true);
+        }
+    }
+
+    /**
+     * Count a Mongo command if the current thread is counting
+     *
+     * @param command command name and collection
+     * @param query   command with its filter
+     */
+    public static void recordMongo(String command, String query) {
+        for (QueryCounter counter = CURRENT.get(); counter != null; counter = counter.parent) {
+            counter.add(command, query, false);
+        }
+    }
+
+    /**
+     * Get the number of SQL statements and Mongo commands
+     *
+     * @return total queries
+     */
+    public int getTotal() {
+        return sqlCount + mongoCount;
+    }
+
+    /**
+     * Get the first queries in the order they ran
+     *
+     * @return SQL statements and Mongo commands
+     */
+    public List<String> getQueries() {
+        return Collections.unmodifiableList(queries);
+    }
+
+    private synchronized void add(String statement, String query, boolean sql) {
+        if (sql) {
+            sqlCount++;
+        } else {
+            mongoCount++;
+        }
+        if (queries.size() < MAX_QUERIES) {
+            queries.add(query);
+        }
+
+        int count = statements.merge(statement, 1, Integer::sum);
+        if (count > mostRepeatedCount) {
+            mostRepeated = statement;
+            mostRepeatedCount = count;
+        }
+    }
+}
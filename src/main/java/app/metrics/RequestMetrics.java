@@ -0,0 +1,67 @@
+package app.metrics;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects requests latency by method, route template (/people/{id} instead of every id) and status code,
+ * throughput and error rates are the count of every route and status
+ */
+@Component
+public class RequestMetrics {
+
+    // requests rejected before a controller was selected (e.g. invalid token), so urls don't create new routes
+    public static final String UNMATCHED = "unmatched";
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Record a served request
+     *
+     * @param method HTTP method
+     * @param route  route template or UNMATCHED
+     * @param status response status code
+     * @param nanos  time to serve the request
+     */
+    public void record(String method, String route, int status, long nanos) {
+        routes.computeIfAbsent(method + " " + route + " " + status, k -> new RouteMetrics(method, route, status)).latency.record(nanos);
+    }
+
+    /**
+     * Get the metrics of every route and status that was served
+     *
+     * @return metrics sorted by route, method and status
+     */
+    public List<RouteMetrics> getRoutes() {
+        List<RouteMetrics> sorted = new ArrayList<>(routes.values());
+        sorted.sort(Comparator.comparing(RouteMetrics::getRoute).thenComparing(RouteMetrics::getMethod).thenComparing(RouteMetrics::getStatus));
+        return sorted;
+    }
+
+    public static class RouteMetrics {
+
+        @Getter
+        private final String method;
+
+        @Getter
+        private final String route;
+
+        @Getter
+        private final int status;
+
+        @Getter
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private RouteMetrics(String method, String route, int status) {
+            this.method = method;
+            this.route = route;
+            this.status = status;
+        }
+    }
+}
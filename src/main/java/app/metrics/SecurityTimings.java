@@ -0,0 +1,102 @@
+package app.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the time spent in each security stage of a request, for all requests (histograms)
+ * and for the request running in the current thread (Server-Timing header)
+ */
+@Component
+public class SecurityTimings {
+
+    // read the token from Authorization header (AuthenticationTokenFilter)
+    public static final String TOKEN_FILTER = "token_filter";
+
+    // validate the token and get the logged user (AuthenticationProviderImpl)
+    public static final String TOKEN_PARSE = "token_parse";
+
+    // create the granted authorities from the user permissions (AuthenticationProviderImpl)
+    public static final String AUTHORITIES = "authorities";
+
+    // evaluate @PreAuthorize expressions (method security)
+    public static final String PRE_AUTHORIZE = "pre_authorize";
+
+    // create the new token returned on success responses (ResponseFactoryImpl)
+    public static final String TOKEN_REFRESH = "token_refresh";
+
+    private final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Map<String, Long>> current = new ThreadLocal<>();
+
+    /**
+     * Record the time spent in a stage
+     *
+     * @param stage stage name
+     * @param nanos time spent
+     */
+    public void record(String stage, long nanos) {
+        stages.computeIfAbsent(stage, k -> new LatencyHistogram()).record(nanos);
+
+        Map<String, Long> request = current.get();
+        if (request != null) {
+            // a stage can run more than once in the same request (e.g. nested @PreAuthorize methods)
+            request.merge(stage, nanos, Long::sum);
+        }
+    }
+
+    /**
+     * Start keeping the stages of the request running in the current thread
+     *
+     * @return stages name and nanoseconds in the order they ran, filled while the request is served
+     */
+    public Map<String, Long> start() {
+        // synchronized because the stages can be recorded by an async task of the request
+        Map<String, Long> request = Collections.synchronizedMap(new LinkedHashMap<>());
+        current.set(request);
+        return request;
+    }
+
+    /**
+     * Get the stages of the request running in the current thread
+     *
+     * @return stages or null if they aren't kept
+     */
+    public Map<String, Long> getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Keep the stages of a request in the current thread, until stop is called (like the async task of the request)
+     *
+     * @param request stages returned by start or null to not keep them
+     */
+    public void attach(Map<String, Long> request) {
+        if (request != null) {
+            current.set(request);
+        } else {
+            current.remove();
+        }
+    }
+
+    /**
+     * Stop keeping the stages of the request running in the current thread
+     */
+    public void stop() {
+        current.remove();
+    }
+
+    /**
+     * Get the histogram of every stage that was recorded
+     *
+     * @return histograms sorted by stage name
+     */
+    public Map<String, LatencyHistogram> getStages() {
+        return new TreeMap<>(stages);
+    }
+}
@@ -0,0 +1,37 @@
+package app.metrics;
+
+import app.pojos.pages.PageDataRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time every QueryExecutor.page call and keep the slow ones with the queries they generated
+ */
+@Aspect
+@Component
+public class SlowQueryAspect {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Around("execution(public org.springframework.data.domain.Page app.repositories.implementations.*.page(app.pojos.pages.PageDataRequest))")
+    public Object aroundPage(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        QueryCounter counter = QueryCounter.start();
+        Page page;
+        try {
+            page = (Page) joinPoint.proceed();
+        } finally {
+            QueryCounter.stop();
+        }
+
+        // PageFactory cleans the request while the query is created, so it's read after proceed
+        slowQueryLog.record(joinPoint.getTarget().getClass().getSimpleName(), (PageDataRequest) joinPoint.getArgs()[0],
+                counter.getQueries(), page != null ? page.getNumberOfElements() : 0, System.nanoTime() - start);
+        return page;
+    }
+}
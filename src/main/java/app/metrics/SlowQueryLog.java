@@ -0,0 +1,94 @@
+package app.metrics;
+
+import app.pojos.metrics.SlowQuerySnapshot;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the last slow-query.capacity page queries slower than slow-query.threshold milliseconds,
+ * the oldest one is dropped when it's full
+ */
+@Component
+public class SlowQueryLog {
+
+    @Value("${slow-query.threshold:500}")
+    private long threshold;
+
+    @Value("${slow-query.capacity:100}")
+    private int capacity;
+
+    private final Deque<SlowQuerySnapshot> entries = new ArrayDeque<>();
+
+    /**
+     * Keep the query if it's slower than threshold
+     *
+     * @param repository      repository that ran the query
+     * @param pageDataRequest page request
+     * @param queries         generated SQL statements or Mongo commands
+     * @param rows            number of returned rows
+     * @param nanos           query time
+     */
+    public void record(String repository, PageDataRequest pageDataRequest, List<String> queries, long rows, long nanos) {
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(threshold) || capacity <= 0) {
+            return;
+        }
+
+        SlowQuerySnapshot entry = new SlowQuerySnapshot(LocalDateTime.now(ZoneOffset.UTC), repository, normalize(pageDataRequest),
+                new ArrayList<>(queries), rows, nanos / 1000000.0);
+        synchronized (entries) {
+            if (entries.size() >= capacity) {
+                entries.removeFirst();
+            }
+            entries.addLast(entry);
+        }
+    }
+
+    /**
+     * Get the kept queries
+     *
+     * @return queries from newest to oldest
+     */
+    public List<SlowQuerySnapshot> getEntries() {
+        synchronized (entries) {
+            List<SlowQuerySnapshot> newest = new ArrayList<>(entries.size());
+            entries.descendingIterator().forEachRemaining(newest::add);
+            return newest;
+        }
+    }
+
+    /**
+     * Remove all kept queries
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Copy a page request with its filters sorted by field and operation, so the same search is always displayed
+     * the same way (page, size and direction were already cleaned by PageFactory)
+     *
+     * @param pageDataRequest page request
+     * @return normalized copy
+     */
+    PageDataRequest normalize(PageDataRequest pageDataRequest) {
+        List<FilterRequest> filters = pageDataRequest.getFilters() == null ? null : pageDataRequest.getFilters().stream()
+                .sorted(Comparator.comparing(FilterRequest::getField, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(FilterRequest::getOperation, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+        return new PageDataRequest(pageDataRequest.getPage(), pageDataRequest.getSize(), pageDataRequest.getDirection(), pageDataRequest.getSort(), filters);
+    }
+}
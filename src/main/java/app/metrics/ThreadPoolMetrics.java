@@ -0,0 +1,46 @@
+package app.metrics;
+
+import app.pojos.metrics.ThreadPoolSnapshot;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerInitializedEvent;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Reads the embedded Tomcat request threads, the pool is saturated when every thread is busy and connections are queued
+ */
+@Component
+public class ThreadPoolMetrics {
+
+    private volatile ThreadPoolExecutor executor;
+
+    @EventListener(EmbeddedServletContainerInitializedEvent.class)
+    public void onContainerInitialized(EmbeddedServletContainerInitializedEvent event) {
+        if (!(event.getEmbeddedServletContainer() instanceof TomcatEmbeddedServletContainer)) {
+            return;
+        }
+
+        // the connector creates its executor when it starts, before this event is published
+        Executor connectorExecutor = ((TomcatEmbeddedServletContainer) event.getEmbeddedServletContainer()).getTomcat()
+                .getConnector().getProtocolHandler().getExecutor();
+        if (connectorExecutor instanceof ThreadPoolExecutor) {
+            executor = (ThreadPoolExecutor) connectorExecutor;
+        }
+    }
+
+    /**
+     * Get current request threads state
+     *
+     * @return threads state or null if application isn't running in an embedded Tomcat (war or tests)
+     */
+    public ThreadPoolSnapshot snapshot() {
+        ThreadPoolExecutor pool = executor;
+        if (pool == null) {
+            return null;
+        }
+        return new ThreadPoolSnapshot(pool.getActiveCount(), pool.getPoolSize(), pool.getMaximumPoolSize(), pool.getQueue().size());
+    }
+}
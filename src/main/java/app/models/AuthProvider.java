@@ -74,11 +74,6 @@ public class AuthProvider extends Model {
         this.authSecret = authSecret;
     }
 
-    @Override
-    public void cleanRelations(boolean cleanAll) {
-        // is not needed to clean data with @JsonIgnore
-    }
-
     @Override
     public String toString() {
         return "{" + id + ", " + name + "}";
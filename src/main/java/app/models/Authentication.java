@@ -1,5 +1,6 @@
 package app.models;
 
+import app.models.serializers.PresentationFilter;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.mongodb.core.mapping.DBRef;
@@ -9,16 +10,24 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
 @Entity
-@Table(name = "authentication", uniqueConstraints = {@UniqueConstraint(columnNames = {"auth_provider_id", "person_id"})})
+@Table(name = "authentication", uniqueConstraints = {
+        @UniqueConstraint(name = Authentication.UNIQUE_USERNAME, columnNames = {"username"}),
+        @UniqueConstraint(name = Authentication.UNIQUE_PROVIDER_PERSON, columnNames = {"auth_provider_id", "person_id"})
+})
 public class Authentication extends Model {
 
+    public static final String UNIQUE_USERNAME = "uk_authentication_username";
+
+    public static final String UNIQUE_PROVIDER_PERSON = "uk_authentication_provider_person";
+
     @Size(min = 1, max = 255)
-    @Column(unique = true)
+    @Column()
     @Getter
     @Setter
     private String username;
 
-    // is not possible to use @JsonIgnore to hide password, cause create and edit will ignore it as well
+    // is not possible to use @JsonIgnore to hide password, cause create and edit will ignore it as well (@Secret only hides it in Responses)
+    @PresentationFilter.Secret
     @NotNull
     @Size(min = 3, max = 255)
     @Column(nullable = false)
@@ -56,30 +65,6 @@ public class Authentication extends Model {
         this.person = person;
     }
 
-    // cause is not possible to use @JsonIgnore to hide password, in order to
-    // keep important information secret, all JSON responses must clean data before being sent
-    public void cleanAuthData() {
-        setPassword(null);
-
-        // the next three are not needed because @JsonIgnore in AuthProvider, but it is a extra security
-        if (authProvider != null) {
-            authProvider.setUrl(null);
-            authProvider.setAuthKey(null);
-            authProvider.setAuthSecret(null);
-        }
-    }
-
-    @Override
-    public void cleanRelations(boolean cleanAll) {
-        // is not needed to clean data with @JsonIgnore
-        if (authProvider != null) {
-            authProvider.cleanRelations(cleanAll);
-        }
-        if (person != null) {
-            person.cleanRelations(cleanAll);
-        }
-    }
-
     @Override
     public String toString() {
         return "{" + id + ", " + username + "}";
@@ -1,9 +1,12 @@
 package app.models;
 
+import app.exceptions.AppPreconditionFailedException;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -12,9 +15,12 @@ import java.time.ZoneOffset;
 @MappedSuperclass
 public abstract class Model {
 
+    // time ordered UUID saved as BINARY(16), random VARCHAR(36) ids fragment the primary key and inflate every foreign key
     @Id
-    @GeneratedValue(generator = "uuid")
-    @GenericGenerator(name = "uuid", strategy = "uuid2")
+    @GeneratedValue(generator = "ordered-uuid")
+    @GenericGenerator(name = "ordered-uuid", strategy = "app.models.generators.OrderedUUIDGenerator")
+    @Type(type = "app.models.converters.UUIDBinaryType")
+    @Column(length = 16)
     @Getter
     @Setter
     protected String id;
@@ -29,6 +35,13 @@ public abstract class Model {
     @Getter
     private LocalDateTime updatedAt;
 
+    // primitive so references that only have an id aren't taken as transient; jpa adds "and version=?" to every update, mongo uses VersionExecutor
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Getter
+    @Setter
+    private long version;
+
     @PrePersist
     public void createdAt() {
         // TODO: doesn't work with mongo, try to use Auditable when it supports java 8 LocalDateTime instead of joda time
@@ -42,9 +55,14 @@ public abstract class Model {
     }
 
     /**
-     * Avoid to send unnecessary data to frontend and call unnecessary sql
+     * Validates that the entity wasn't modified since the expected version was read
      *
-     * @param cleanAll if true set nested relations to null, otherwise clean nested relations with cleanAll = true
+     * @param expectedVersion version sent by the client or null if any version is allowed
+     * @throws AppPreconditionFailedException if versions don't match
      */
-    public abstract void cleanRelations(boolean cleanAll);
+    public void validateVersion(Long expectedVersion) throws AppPreconditionFailedException {
+        if (expectedVersion != null && expectedVersion != version) {
+            throw new AppPreconditionFailedException("Data was modified by another request.");
+        }
+    }
 }
\ No newline at end of file
@@ -10,12 +10,14 @@ import javax.validation.constraints.Size;
 import java.util.List;
 
 @Entity
-@Table(name = "permission")
+@Table(name = "permission", uniqueConstraints = {@UniqueConstraint(name = Permission.UNIQUE_NAME, columnNames = {"name"})})
 public class Permission extends Model {
 
+    public static final String UNIQUE_NAME = "uk_permission_name";
+
     @NotNull
     @Size(min = 1, max = 255)
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @Getter
     @Setter
     private String name;
@@ -46,11 +48,6 @@ public class Permission extends Model {
         this.description = description;
     }
 
-    @Override
-    public void cleanRelations(boolean cleanAll) {
-        // is not needed to clean data with @JsonIgnore
-    }
-
     @Override
     public String toString() {
         return "{" + id + ", " + name + "}";
@@ -104,16 +104,6 @@ public class Person extends Model {
         return name + " " + lastName;
     }
 
-    @Override
-    public void cleanRelations(boolean cleanAll) {
-        // is not needed to clean data with @JsonIgnore
-        if (cleanAll) {
-            roles = null;
-        } else {
-            roles.forEach(r -> r.cleanRelations(true));
-        }
-    }
-
     @Override
     public String toString() {
         return "{" + id + ", " + getFullName() + "}";
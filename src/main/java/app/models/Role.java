@@ -12,12 +12,14 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "role")
+@Table(name = "role", uniqueConstraints = {@UniqueConstraint(name = Role.UNIQUE_NAME, columnNames = {"name"})})
 public class Role extends Model {
 
+    public static final String UNIQUE_NAME = "uk_role_name";
+
     @NotNull
     @Size(min = 1, max = 255)
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @Getter
     @Setter
     private String name;
@@ -57,16 +59,6 @@ public class Role extends Model {
         this.permissions = permissions;
     }
 
-    @Override
-    public void cleanRelations(boolean cleanAll) {
-        // is not needed to clean data with @JsonIgnore
-        if (cleanAll) {
-            permissions = null;
-        } else {
-            permissions.forEach(p -> p.cleanRelations(true));
-        }
-    }
-
     @Override
     public String toString() {
         return "{" + id + ", " + name + "}";
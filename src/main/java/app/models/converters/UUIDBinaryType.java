@@ -0,0 +1,116 @@
+package app.models.converters;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Indicate how to save a String UUID as BINARY(16) in database, entities and JSON keep the String form
+ * (AttributeConverter can't be used with @Id)
+ */
+public class UUIDBinaryType implements UserType {
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.BINARY};
+    }
+
+    @Override
+    public Class returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SessionImplementor session, Object owner) throws SQLException {
+        return toUUID(rs.getBytes(names[0]));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SessionImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BINARY);
+        } else {
+            st.setBytes(index, toBytes((String) value));
+        }
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+
+    /**
+     * Convert a String UUID to its 16 bytes
+     *
+     * @param uuid String UUID
+     * @return 16 bytes or the String bytes when it isn't a UUID (those values can't match any id)
+     */
+    public static byte[] toBytes(String uuid) {
+        UUID value;
+        try {
+            value = UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return uuid.getBytes(StandardCharsets.UTF_8);
+        }
+
+        return ByteBuffer.allocate(16).putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits()).array();
+    }
+
+    /**
+     * Convert 16 bytes to a String UUID
+     *
+     * @param bytes 16 bytes
+     * @return String UUID or null if bytes are null
+     * @throws IllegalArgumentException if there aren't 16 bytes (e.g. a column that wasn't migrated by UUIDBinaryMigration)
+     */
+    public static String toUUID(byte[] bytes) throws IllegalArgumentException {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("UUID must have 16 bytes but it has " + bytes.length + ".");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
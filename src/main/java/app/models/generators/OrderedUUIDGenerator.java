@@ -0,0 +1,42 @@
+package app.models.generators;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generate time ordered UUIDs (milliseconds timestamp in the first 48 bits, same layout as UUID version 7),
+ * so new ids are appended at the end of the primary key index instead of random positions like uuid2
+ */
+public class OrderedUUIDGenerator implements IdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Override
+    public Serializable generate(SessionImplementor session, Object object) {
+        return next().toString();
+    }
+
+    /**
+     * Create a new time ordered UUID
+     *
+     * @return new UUID
+     */
+    public static UUID next() {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+
+        long mostSigBits = System.currentTimeMillis() << 16 | 0x7000 | (random[0] & 0x0F) << 8 | random[1] & 0xFF;
+        long leastSigBits = 0;
+        for (int i = 2; i < random.length; i++) {
+            leastSigBits = leastSigBits << 8 | random[i] & 0xFF;
+        }
+        // IETF variant
+        leastSigBits = leastSigBits & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
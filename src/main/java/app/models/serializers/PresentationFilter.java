@@ -0,0 +1,96 @@
+package app.models.serializers;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+
+import javax.persistence.ManyToMany;
+import javax.persistence.OneToMany;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Decides at serialization time which relations and fields of a Model are written to a Response,
+ * so entities are never modified (no dirty checking, no lazy loads for hidden relations and they can be shared)
+ */
+public class PresentationFilter extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "presentation";
+
+    // request attribute where PresentationService saves the filter selected for the current Response
+    public static final String ATTRIBUTE = PresentationFilter.class.getName();
+
+    // serialization attribute with the number of relations that were opened to reach the current field
+    private static final String DEPTH = PresentationFilter.class.getName() + ".depth";
+
+    public static final PresentationFilter WITHOUT_RELATIONS = new PresentationFilter(0);
+
+    public static final PresentationFilter FIRST_LEVEL_RELATIONS = new PresentationFilter(1);
+
+    public static final PresentationFilter ALL_RELATIONS = new PresentationFilter(Integer.MAX_VALUE);
+
+    private final int maxDepth;
+
+    private PresentationFilter(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Get the filter for the complete and all_relations flags
+     *
+     * @param shouldLoadComplete     if true write only first level relations
+     * @param shouldLoadAllRelations if true write all nested relations
+     * @return filter
+     */
+    public static PresentationFilter of(boolean shouldLoadComplete, boolean shouldLoadAllRelations) {
+        if (shouldLoadAllRelations) {
+            return ALL_RELATIONS;
+        }
+        return shouldLoadComplete ? FIRST_LEVEL_RELATIONS : WITHOUT_RELATIONS;
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+        if (writer.getAnnotation(Secret.class) != null) {
+            return;
+        }
+        if (writer.getAnnotation(ManyToMany.class) == null && writer.getAnnotation(OneToMany.class) == null) {
+            writer.serializeAsField(pojo, gen, provider);
+            return;
+        }
+
+        Integer depth = (Integer) provider.getAttribute(DEPTH);
+        depth = depth != null ? depth : 0;
+        if (depth >= maxDepth) {
+            // the getter isn't called, so a lazy relation isn't loaded
+            gen.writeNullField(writer.getName());
+            return;
+        }
+
+        provider.setAttribute(DEPTH, depth + 1);
+        try {
+            writer.serializeAsField(pojo, gen, provider);
+        } finally {
+            provider.setAttribute(DEPTH, depth);
+        }
+    }
+
+    /**
+     * Field that can be read from a Request but is never written to a Response (@JsonIgnore would ignore it in both)
+     */
+    @Target(ElementType.FIELD)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Secret {
+    }
+
+    /**
+     * Mixin that links Model (and subclasses) with this filter
+     */
+    @JsonFilter(ID)
+    public static abstract class ModelMixin {
+    }
+}
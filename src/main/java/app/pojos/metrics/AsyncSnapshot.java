@@ -0,0 +1,52 @@
+package app.pojos.metrics;
+
+import lombok.Getter;
+
+/**
+ * Async executor pojo
+ */
+public class AsyncSnapshot {
+
+    @Getter
+    private String workload;
+
+    @Getter
+    private int busy;
+
+    @Getter
+    private int max;
+
+    @Getter
+    private int queued;
+
+    @Getter
+    private long rejected;
+
+    @Getter
+    private long timeouts;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public AsyncSnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param workload workload served by the executor
+     * @param busy     threads running a request
+     * @param max      max threads
+     * @param queued   requests waiting for a thread
+     * @param rejected requests rejected because threads and queue were full
+     * @param timeouts requests that weren't completed before async.timeout
+     */
+    public AsyncSnapshot(String workload, int busy, int max, int queued, long rejected, long timeouts) {
+        this.workload = workload;
+        this.busy = busy;
+        this.max = max;
+        this.queued = queued;
+        this.rejected = rejected;
+        this.timeouts = timeouts;
+    }
+}
@@ -0,0 +1,37 @@
+package app.pojos.metrics;
+
+import lombok.Getter;
+
+/**
+ * Connection usage by a service method pojo
+ */
+public class CallSiteSnapshot {
+
+    @Getter
+    private LatencySnapshot acquire;
+
+    @Getter
+    private LatencySnapshot usage;
+
+    @Getter
+    private long leaks;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public CallSiteSnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param acquire time waiting for a connection
+     * @param usage   time holding a connection
+     * @param leaks   number of connections held longer than the leak detection threshold
+     */
+    public CallSiteSnapshot(LatencySnapshot acquire, LatencySnapshot usage, long leaks) {
+        this.acquire = acquire;
+        this.usage = usage;
+        this.leaks = leaks;
+    }
+}
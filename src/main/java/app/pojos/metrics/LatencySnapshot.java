@@ -0,0 +1,52 @@
+package app.pojos.metrics;
+
+import lombok.Getter;
+
+/**
+ * Latency summary pojo (values in milliseconds)
+ */
+public class LatencySnapshot {
+
+    @Getter
+    private long count;
+
+    @Getter
+    private double mean;
+
+    @Getter
+    private double p50;
+
+    @Getter
+    private double p90;
+
+    @Getter
+    private double p99;
+
+    @Getter
+    private double max;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public LatencySnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param count number of recorded values
+     * @param mean  mean latency
+     * @param p50   50th percentile
+     * @param p90   90th percentile
+     * @param p99   99th percentile
+     * @param max   max latency
+     */
+    public LatencySnapshot(long count, double mean, double p50, double p90, double p99, double max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+}
@@ -0,0 +1,75 @@
+package app.pojos.metrics;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Connection pool state pojo
+ */
+public class PoolSnapshot {
+
+    @Getter
+    private String poolName;
+
+    @Getter
+    private int active;
+
+    @Getter
+    private int idle;
+
+    @Getter
+    private int total;
+
+    @Getter
+    private int pending;
+
+    @Getter
+    private int maxPoolSize;
+
+    @Getter
+    private long timeouts;
+
+    @Getter
+    private long leakDetectionThreshold;
+
+    @Getter
+    private CallSiteSnapshot connections;
+
+    @Getter
+    private Map<String, CallSiteSnapshot> callSites;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public PoolSnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param poolName               pool name
+     * @param active                 connections in use
+     * @param idle                   connections waiting to be used
+     * @param total                  active plus idle connections
+     * @param pending                threads waiting for a connection
+     * @param maxPoolSize            max number of connections
+     * @param timeouts               number of times a connection wasn't available before connection timeout
+     * @param leakDetectionThreshold milliseconds a connection can be held before it's taken as a leak (0 if disabled)
+     * @param connections            usage of all connections
+     * @param callSites              usage by service method
+     */
+    public PoolSnapshot(String poolName, int active, int idle, int total, int pending, int maxPoolSize, long timeouts,
+                        long leakDetectionThreshold, CallSiteSnapshot connections, Map<String, CallSiteSnapshot> callSites) {
+        this.poolName = poolName;
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.pending = pending;
+        this.maxPoolSize = maxPoolSize;
+        this.timeouts = timeouts;
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        this.connections = connections;
+        this.callSites = callSites;
+    }
+}
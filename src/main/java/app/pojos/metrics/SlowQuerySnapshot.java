@@ -0,0 +1,56 @@
+package app.pojos.metrics;
+
+import app.pojos.pages.PageDataRequest;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Page query slower than the slow query threshold pojo
+ */
+public class SlowQuerySnapshot {
+
+    @Getter
+    private LocalDateTime time;
+
+    @Getter
+    private String repository;
+
+    @Getter
+    private PageDataRequest pageDataRequest;
+
+    @Getter
+    private List<String> queries;
+
+    @Getter
+    private long rows;
+
+    @Getter
+    private double latency;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public SlowQuerySnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param time            when the query finished (UTC)
+     * @param repository      repository that ran the query
+     * @param pageDataRequest normalized page request
+     * @param queries         generated SQL statements or Mongo commands
+     * @param rows            number of returned rows
+     * @param latency         query time in milliseconds
+     */
+    public SlowQuerySnapshot(LocalDateTime time, String repository, PageDataRequest pageDataRequest, List<String> queries, long rows, double latency) {
+        this.time = time;
+        this.repository = repository;
+        this.pageDataRequest = pageDataRequest;
+        this.queries = queries;
+        this.rows = rows;
+        this.latency = latency;
+    }
+}
@@ -0,0 +1,42 @@
+package app.pojos.metrics;
+
+import lombok.Getter;
+
+/**
+ * Application startup times pojo
+ */
+public class StartupSnapshot {
+
+    @Getter
+    private boolean ready;
+
+    @Getter
+    private long startupTime;
+
+    @Getter
+    private Long seedingTime;
+
+    @Getter
+    private Long readyTime;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public StartupSnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param ready       true if application can serve requests (data was loaded)
+     * @param startupTime milliseconds from JVM start to ApplicationReadyEvent (without seeding)
+     * @param seedingTime milliseconds spent loading data or null if data wasn't loaded yet
+     * @param readyTime   milliseconds from JVM start to ready (with seeding) or null if not ready
+     */
+    public StartupSnapshot(boolean ready, long startupTime, Long seedingTime, Long readyTime) {
+        this.ready = ready;
+        this.startupTime = startupTime;
+        this.seedingTime = seedingTime;
+        this.readyTime = readyTime;
+    }
+}
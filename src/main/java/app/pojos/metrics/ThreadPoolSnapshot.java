@@ -0,0 +1,42 @@
+package app.pojos.metrics;
+
+import lombok.Getter;
+
+/**
+ * Tomcat request threads pojo
+ */
+public class ThreadPoolSnapshot {
+
+    @Getter
+    private int busy;
+
+    @Getter
+    private int current;
+
+    @Getter
+    private int max;
+
+    @Getter
+    private int queued;
+
+    /**
+     * Default constructor needed when deserialize
+     */
+    public ThreadPoolSnapshot() {
+    }
+
+    /**
+     * Create an instance
+     *
+     * @param busy    threads serving a request
+     * @param current threads created
+     * @param max     max threads
+     * @param queued  accepted connections waiting for a thread
+     */
+    public ThreadPoolSnapshot(int busy, int current, int max, int queued) {
+        this.busy = busy;
+        this.current = current;
+        this.max = max;
+        this.queued = queued;
+    }
+}
@@ -0,0 +1,77 @@
+package app.pojos.responses.success;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Items written one by one as a JSON array while the Response body is serialized (never held in a list)
+ */
+@JsonSerialize(using = ItemStream.ItemStreamSerializer.class)
+public class ItemStream<T> {
+
+    private final Consumer<Consumer<T>> source;
+
+    /**
+     * Create an instance
+     *
+     * @param source function that passes every item to the given consumer (e.g. a repository cursor)
+     */
+    public ItemStream(Consumer<Consumer<T>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Read all items from the source
+     *
+     * @param consumer called for every item
+     */
+    public void forEach(Consumer<T> consumer) {
+        source.accept(consumer);
+    }
+
+    /**
+     * Read all items from the source into a list (only for small sources or tests)
+     *
+     * @return all items
+     */
+    public List<T> toList() {
+        List<T> items = new ArrayList<>();
+        forEach(items::add);
+        return items;
+    }
+
+    /**
+     * Write every item as soon as the source reads it
+     */
+    static class ItemStreamSerializer extends StdSerializer<ItemStream<?>> {
+
+        ItemStreamSerializer() {
+            super(ItemStream.class, false);
+        }
+
+        @Override
+        public void serialize(ItemStream<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray();
+            try {
+                value.forEach(item -> {
+                    try {
+                        provider.defaultSerializeValue(item, gen);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            gen.writeEndArray();
+        }
+    }
+}
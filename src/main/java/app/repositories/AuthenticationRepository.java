@@ -3,12 +3,17 @@ package app.repositories;
 import app.models.AuthProvider;
 import app.models.Authentication;
 import app.models.Person;
+import app.repositories.executor.InsertExecutor;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
 import app.repositories.mysql.MySQLAuthenticationRepository;
 
 import java.util.List;
 
-public interface AuthenticationRepository extends MySQLAuthenticationRepository, QueryExecutor<Authentication> {
+public interface AuthenticationRepository extends MySQLAuthenticationRepository, QueryExecutor<Authentication>, LookupExecutor<Authentication>, VersionExecutor<Authentication>, PatchExecutor<Authentication>, InsertExecutor<Authentication>, StreamExecutor<Authentication> {
 
     //generic query not depends of mongo or sql
 
@@ -36,4 +41,20 @@ public interface AuthenticationRepository extends MySQLAuthenticationRepository,
      * @return associated authentications list
      */
     List<Authentication> findByPerson(Person person);
+
+    /**
+     * Check if there is any Authentication associated with the Person without loading the authentications.
+     *
+     * @param person value to search.
+     * @return true if at least one authentication is associated
+     */
+    boolean existsByPerson(Person person);
+
+    /**
+     * Count the Authentications associated with the Person without loading them.
+     *
+     * @param person value to search.
+     * @return number of associated authentications
+     */
+    long countByPerson(Person person);
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package app.repositories;
 
 import app.models.Permission;
+import app.repositories.executor.InsertExecutor;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
 import app.repositories.mysql.MySQLPermissionRepository;
 
-public interface PermissionRepository extends MySQLPermissionRepository, QueryExecutor<Permission> {
+public interface PermissionRepository extends MySQLPermissionRepository, QueryExecutor<Permission>, LookupExecutor<Permission>, VersionExecutor<Permission>, PatchExecutor<Permission>, InsertExecutor<Permission>, StreamExecutor<Permission> {
 
     //generic query not depends of mongo or sql
 
@@ -2,12 +2,17 @@ package app.repositories;
 
 import app.models.Person;
 import app.models.Role;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
 import app.repositories.mysql.MySQLPersonRepository;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface PersonRepository extends MySQLPersonRepository, QueryExecutor<Person> {
+public interface PersonRepository extends MySQLPersonRepository, QueryExecutor<Person>, LookupExecutor<Person>, VersionExecutor<Person>, PatchExecutor<Person>, StreamExecutor<Person> {
 
     //generic query not depends of mongo or sql
 
@@ -18,4 +23,28 @@ public interface PersonRepository extends MySQLPersonRepository, QueryExecutor<P
      * @return associated people list
      */
     List<Person> findByRoles(Role role);
+
+    /**
+     * Check if there is any Person associated with the Role without loading the people.
+     *
+     * @param role value to search.
+     * @return true if at least one person is associated
+     */
+    boolean existsByRoles(Role role);
+
+    /**
+     * Count the People associated with the Role without loading them.
+     *
+     * @param role value to search.
+     * @return number of associated people
+     */
+    long countByRoles(Role role);
+
+    /**
+     * Count the People associated with any of the Roles without loading them (each person is counted once).
+     *
+     * @param roles values to search.
+     * @return number of associated people
+     */
+    long countDistinctByRolesIn(Collection<Role> roles);
 }
\ No newline at end of file
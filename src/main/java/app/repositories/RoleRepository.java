@@ -2,12 +2,17 @@ package app.repositories;
 
 import app.models.Permission;
 import app.models.Role;
+import app.repositories.executor.InsertExecutor;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
 import app.repositories.mysql.MySQLRoleRepository;
 
 import java.util.List;
 
-public interface RoleRepository extends MySQLRoleRepository, QueryExecutor<Role> {
+public interface RoleRepository extends MySQLRoleRepository, QueryExecutor<Role>, LookupExecutor<Role>, VersionExecutor<Role>, PatchExecutor<Role>, InsertExecutor<Role>, StreamExecutor<Role> {
 
     //generic query not depends of mongo or sql
 
@@ -26,4 +31,20 @@ public interface RoleRepository extends MySQLRoleRepository, QueryExecutor<Role>
      * @return associated roles list
      */
     List<Role> findByPermissions(Permission permission);
+
+    /**
+     * Check if there is any Role associated with the Permission without loading the roles.
+     *
+     * @param permission value to search.
+     * @return true if at least one role is associated
+     */
+    boolean existsByPermissions(Permission permission);
+
+    /**
+     * Count the Roles associated with the Permission without loading them.
+     *
+     * @param permission value to search.
+     * @return number of associated roles
+     */
+    long countByPermissions(Permission permission);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package app.repositories.executor;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Insert that is sent to the data base immediately, so unique constraints are validated by the data base
+ * instead of looking for duplicated values before inserting (jpa flushes, mongo inserts)
+ */
+public interface InsertExecutor<T> {
+
+    /**
+     * Insert a new entity.
+     *
+     * @param entity entity to be inserted.
+     * @return the entity inserted.
+     * @throws DataIntegrityViolationException if a unique constraint is violated
+     */
+    T saveNew(T entity) throws DataIntegrityViolationException;
+
+    /**
+     * Check if the exception was thrown by a specific unique constraint (mysql and mongo error messages include its name)
+     *
+     * @param e          exception thrown by saveNew
+     * @param constraint unique constraint or index name
+     * @return true if the constraint was violated
+     */
+    static boolean isViolated(DataIntegrityViolationException e, String constraint) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        String message = cause.getMessage() != null ? cause.getMessage() : e.getMessage();
+        return message != null && message.toLowerCase().contains(constraint.toLowerCase());
+    }
+}
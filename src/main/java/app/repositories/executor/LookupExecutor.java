@@ -0,0 +1,28 @@
+package app.repositories.executor;
+
+import app.pojos.pages.PageDataRequest;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Read path that resolves @DBRef relations with a $lookup aggregation instead of one query per reference
+ * (only used with mongo 3.4 or later, jpa falls back to the default queries)
+ */
+public interface LookupExecutor<T> {
+
+    /**
+     * Retrieves all entities resolving their relations with $lookup.
+     *
+     * @return list of entities.
+     */
+    List<T> findAllLookup();
+
+    /**
+     * Retrieves all requested entities resolving their relations with $lookup.
+     *
+     * @param pageDataRequest Page data.
+     * @return list of entities with metadata.
+     */
+    Page<T> pageLookup(PageDataRequest pageDataRequest);
+}
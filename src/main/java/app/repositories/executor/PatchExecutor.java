@@ -0,0 +1,20 @@
+package app.repositories.executor;
+
+import java.util.Map;
+
+/**
+ * Update only some fields with a single bulk update without loading the entity
+ * (jpa uses a JPAUpdateClause, mongo uses $set)
+ */
+public interface PatchExecutor<T> {
+
+    /**
+     * Update the given fields and increase the entity version.
+     *
+     * @param id      entity id to be updated.
+     * @param version version that was read or null if any version is allowed.
+     * @param values  new value by field name.
+     * @return number of updated entities (0 if entity doesn't exist or version isn't the current one).
+     */
+    long patch(String id, Long version, Map<String, Object> values);
+}
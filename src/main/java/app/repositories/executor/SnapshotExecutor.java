@@ -0,0 +1,58 @@
+package app.repositories.executor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads and bulk inserts flat rows of every table (join tables included) without loading entities or relations,
+ * rows use the jpa column names and String ids so a snapshot can be restored in mysql or mongo
+ */
+public interface SnapshotExecutor {
+
+    // in insert order, every table only references the previous ones
+    List<String> TABLES = Arrays.asList("auth_provider", "permission", "role", "role_permissions", "person", "person_roles", "authentication");
+
+    /**
+     * Get the columns of a table
+     *
+     * @param table table name
+     * @return column names in snapshot order
+     */
+    static List<String> getColumns(String table) {
+        switch (table) {
+            case "auth_provider":
+                return Arrays.asList("id", "created_at", "updated_at", "version", "name", "description", "url", "auth_key", "auth_secret");
+            case "permission":
+            case "role":
+                return Arrays.asList("id", "created_at", "updated_at", "version", "name", "description");
+            case "role_permissions":
+                return Arrays.asList("roles_id", "permissions_id");
+            case "person":
+                return Arrays.asList("id", "created_at", "updated_at", "version", "name", "last_name", "birthday", "civil_status", "sex", "email");
+            case "person_roles":
+                return Arrays.asList("people_id", "roles_id");
+            case "authentication":
+                return Arrays.asList("id", "created_at", "updated_at", "version", "username", "password", "auth_provider_id", "person_id");
+            default:
+                throw new IllegalArgumentException("Unknown table " + table);
+        }
+    }
+
+    /**
+     * Read all rows of a table one by one.
+     *
+     * @param table    table name.
+     * @param consumer called for every row while the cursor is open.
+     */
+    void exportTable(String table, Consumer<Map<String, Object>> consumer);
+
+    /**
+     * Insert rows into a table with a single bulk operation.
+     *
+     * @param table table name.
+     * @param rows  rows to be inserted.
+     */
+    void importTable(String table, List<Map<String, Object>> rows);
+}
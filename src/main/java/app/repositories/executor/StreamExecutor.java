@@ -0,0 +1,17 @@
+package app.repositories.executor;
+
+import java.util.function.Consumer;
+
+/**
+ * Read path that hands the entities one by one from a database cursor instead of loading all of them in a list
+ * (jpa scrolls a forward only result, mongo iterates a cursor)
+ */
+public interface StreamExecutor<T> {
+
+    /**
+     * Retrieves all entities one by one (must run inside a transaction with jpa).
+     *
+     * @param consumer called for every entity while the cursor is open.
+     */
+    void streamAll(Consumer<T> consumer);
+}
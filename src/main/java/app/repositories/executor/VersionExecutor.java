@@ -0,0 +1,35 @@
+package app.repositories.executor;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Conditional update that only modifies the entity when its version is still the stored one
+ * (jpa uses @Version, mongo uses findAndModify filtering by id and version)
+ */
+public interface VersionExecutor<T> {
+
+    /**
+     * Update an entity and increase its version.
+     *
+     * @param entity entity to be updated with the version that was read.
+     * @return the entity updated.
+     * @throws OptimisticLockingFailureException if entity was modified since its version was read
+     */
+    T updateVersioned(T entity) throws OptimisticLockingFailureException;
+
+    /**
+     * Read only the version of an entity without loading the entity.
+     *
+     * @param id value to search.
+     * @return the version or null if none found.
+     */
+    Long findVersion(String id);
+
+    /**
+     * Read a value that changes every time an entity is created, updated or removed
+     * (number of entities, sum of their versions and newest id) without loading the entities.
+     *
+     * @return collection version.
+     */
+    String findCollectionVersion();
+}
@@ -5,13 +5,30 @@ import app.models.Authentication;
 import app.models.QAuthentication;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.AuthenticationRepository;
+import app.repositories.executor.InsertExecutor;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
+import app.repositories.mongo.MongoLookupTemplate;
+import app.repositories.mongo.MongoStreamTemplate;
+import app.repositories.mongo.MongoVersionTemplate;
+import app.repositories.mysql.JpaInsertTemplate;
+import app.repositories.mysql.JpaPatchTemplate;
+import app.repositories.mysql.JpaStreamTemplate;
+import app.repositories.mysql.JpaVersionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 
-public class AuthenticationRepositoryImpl implements QueryExecutor<Authentication> {
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class AuthenticationRepositoryImpl implements QueryExecutor<Authentication>, LookupExecutor<Authentication>, VersionExecutor<Authentication>, PatchExecutor<Authentication>, InsertExecutor<Authentication>, StreamExecutor<Authentication> {
 
     @Autowired
     private AuthenticationRepository authenticationRepository;
@@ -19,6 +36,27 @@ public class AuthenticationRepositoryImpl implements QueryExecutor<Authenticatio
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private MongoLookupTemplate mongoLookupTemplate;
+
+    @Autowired
+    private MongoVersionTemplate mongoVersionTemplate;
+
+    @Autowired
+    private JpaPatchTemplate jpaPatchTemplate;
+
+    @Autowired
+    private JpaInsertTemplate jpaInsertTemplate;
+
+    @Autowired
+    private MongoStreamTemplate mongoStreamTemplate;
+
+    @Autowired
+    private JpaStreamTemplate jpaStreamTemplate;
+
+    @Autowired
+    private JpaVersionTemplate jpaVersionTemplate;
+
     @Override
     public Page<Authentication> page(PageDataRequest pageDataRequest) {
         if (DEFAULT_EXECUTOR == QueryDslPredicateExecutor.class || !(authenticationRepository instanceof JpaSpecificationExecutor)) {
@@ -28,4 +66,77 @@ public class AuthenticationRepositoryImpl implements QueryExecutor<Authenticatio
         JpaSpecificationExecutor specification = (JpaSpecificationExecutor) authenticationRepository;
         return specification.findAll(pageFactory.getSpecifications(pageDataRequest.getFilters()), pageFactory.pageRequest(pageDataRequest));
     }
+
+    @Override
+    public List<Authentication> findAllLookup() {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return authenticationRepository.findAll();
+        }
+
+        return mongoLookupTemplate.findAll(Authentication.class);
+    }
+
+    @Override
+    public Page<Authentication> pageLookup(PageDataRequest pageDataRequest) {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return page(pageDataRequest);
+        }
+
+        return mongoLookupTemplate.page(Authentication.class, pageDataRequest);
+    }
+
+    @Override
+    public Authentication updateVersioned(Authentication authentication) {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return authenticationRepository.save(authentication);
+        }
+
+        return mongoVersionTemplate.update(authentication);
+    }
+
+    @Override
+    public Long findVersion(String id) {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findVersion(Authentication.class, id);
+        }
+
+        return mongoVersionTemplate.findVersion(Authentication.class, id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findCollectionVersion(Authentication.class);
+        }
+
+        return mongoVersionTemplate.findCollectionVersion(Authentication.class);
+    }
+
+    @Override
+    public long patch(String id, Long version, Map<String, Object> values) {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return jpaPatchTemplate.patch(Authentication.class, id, version, values);
+        }
+
+        return mongoVersionTemplate.patch(Authentication.class, id, version, values);
+    }
+
+    @Override
+    public Authentication saveNew(Authentication authentication) {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            return jpaInsertTemplate.insert(authentication);
+        }
+
+        return ((MongoRepository<Authentication, String>) authenticationRepository).insert(authentication);
+    }
+
+    @Override
+    public void streamAll(Consumer<Authentication> consumer) {
+        if (!(authenticationRepository instanceof MongoRepository)) {
+            jpaStreamTemplate.stream(Authentication.class, consumer);
+            return;
+        }
+
+        mongoStreamTemplate.stream(Authentication.class, consumer);
+    }
 }
\ No newline at end of file
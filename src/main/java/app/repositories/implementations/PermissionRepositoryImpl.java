@@ -5,13 +5,30 @@ import app.models.Permission;
 import app.models.QPermission;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.PermissionRepository;
+import app.repositories.executor.InsertExecutor;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
+import app.repositories.mongo.MongoLookupTemplate;
+import app.repositories.mongo.MongoStreamTemplate;
+import app.repositories.mongo.MongoVersionTemplate;
+import app.repositories.mysql.JpaInsertTemplate;
+import app.repositories.mysql.JpaPatchTemplate;
+import app.repositories.mysql.JpaStreamTemplate;
+import app.repositories.mysql.JpaVersionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 
-public class PermissionRepositoryImpl implements QueryExecutor<Permission> {
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class PermissionRepositoryImpl implements QueryExecutor<Permission>, LookupExecutor<Permission>, VersionExecutor<Permission>, PatchExecutor<Permission>, InsertExecutor<Permission>, StreamExecutor<Permission> {
 
     @Autowired
     private PermissionRepository permissionRepository;
@@ -19,6 +36,27 @@ public class PermissionRepositoryImpl implements QueryExecutor<Permission> {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private MongoLookupTemplate mongoLookupTemplate;
+
+    @Autowired
+    private MongoVersionTemplate mongoVersionTemplate;
+
+    @Autowired
+    private JpaPatchTemplate jpaPatchTemplate;
+
+    @Autowired
+    private JpaInsertTemplate jpaInsertTemplate;
+
+    @Autowired
+    private MongoStreamTemplate mongoStreamTemplate;
+
+    @Autowired
+    private JpaStreamTemplate jpaStreamTemplate;
+
+    @Autowired
+    private JpaVersionTemplate jpaVersionTemplate;
+
     @Override
     public Page<Permission> page(PageDataRequest pageDataRequest) {
         if (DEFAULT_EXECUTOR == QueryDslPredicateExecutor.class || !(permissionRepository instanceof JpaSpecificationExecutor)) {
@@ -28,4 +66,77 @@ public class PermissionRepositoryImpl implements QueryExecutor<Permission> {
         JpaSpecificationExecutor specification = (JpaSpecificationExecutor) permissionRepository;
         return specification.findAll(pageFactory.getSpecifications(pageDataRequest.getFilters()), pageFactory.pageRequest(pageDataRequest));
     }
+
+    @Override
+    public List<Permission> findAllLookup() {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return permissionRepository.findAll();
+        }
+
+        return mongoLookupTemplate.findAll(Permission.class);
+    }
+
+    @Override
+    public Page<Permission> pageLookup(PageDataRequest pageDataRequest) {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return page(pageDataRequest);
+        }
+
+        return mongoLookupTemplate.page(Permission.class, pageDataRequest);
+    }
+
+    @Override
+    public Permission updateVersioned(Permission permission) {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return permissionRepository.save(permission);
+        }
+
+        return mongoVersionTemplate.update(permission);
+    }
+
+    @Override
+    public Long findVersion(String id) {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findVersion(Permission.class, id);
+        }
+
+        return mongoVersionTemplate.findVersion(Permission.class, id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findCollectionVersion(Permission.class);
+        }
+
+        return mongoVersionTemplate.findCollectionVersion(Permission.class);
+    }
+
+    @Override
+    public long patch(String id, Long version, Map<String, Object> values) {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return jpaPatchTemplate.patch(Permission.class, id, version, values);
+        }
+
+        return mongoVersionTemplate.patch(Permission.class, id, version, values);
+    }
+
+    @Override
+    public Permission saveNew(Permission permission) {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            return jpaInsertTemplate.insert(permission);
+        }
+
+        return ((MongoRepository<Permission, String>) permissionRepository).insert(permission);
+    }
+
+    @Override
+    public void streamAll(Consumer<Permission> consumer) {
+        if (!(permissionRepository instanceof MongoRepository)) {
+            jpaStreamTemplate.stream(Permission.class, consumer);
+            return;
+        }
+
+        mongoStreamTemplate.stream(Permission.class, consumer);
+    }
 }
\ No newline at end of file
@@ -5,13 +5,28 @@ import app.models.Person;
 import app.models.QPerson;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.PersonRepository;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
+import app.repositories.mongo.MongoLookupTemplate;
+import app.repositories.mongo.MongoStreamTemplate;
+import app.repositories.mongo.MongoVersionTemplate;
+import app.repositories.mysql.JpaPatchTemplate;
+import app.repositories.mysql.JpaStreamTemplate;
+import app.repositories.mysql.JpaVersionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 
-public class PersonRepositoryImpl implements QueryExecutor<Person> {
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class PersonRepositoryImpl implements QueryExecutor<Person>, LookupExecutor<Person>, VersionExecutor<Person>, PatchExecutor<Person>, StreamExecutor<Person> {
 
     @Autowired
     private PersonRepository personRepository;
@@ -19,6 +34,24 @@ public class PersonRepositoryImpl implements QueryExecutor<Person> {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private MongoLookupTemplate mongoLookupTemplate;
+
+    @Autowired
+    private MongoVersionTemplate mongoVersionTemplate;
+
+    @Autowired
+    private JpaPatchTemplate jpaPatchTemplate;
+
+    @Autowired
+    private MongoStreamTemplate mongoStreamTemplate;
+
+    @Autowired
+    private JpaStreamTemplate jpaStreamTemplate;
+
+    @Autowired
+    private JpaVersionTemplate jpaVersionTemplate;
+
     @Override
     public Page<Person> page(PageDataRequest pageDataRequest) {
         if (DEFAULT_EXECUTOR == QueryDslPredicateExecutor.class || !(personRepository instanceof JpaSpecificationExecutor)) {
@@ -28,4 +61,68 @@ public class PersonRepositoryImpl implements QueryExecutor<Person> {
         JpaSpecificationExecutor specification = (JpaSpecificationExecutor) personRepository;
         return specification.findAll(pageFactory.getSpecifications(pageDataRequest.getFilters()), pageFactory.pageRequest(pageDataRequest));
     }
+
+    @Override
+    public List<Person> findAllLookup() {
+        if (!(personRepository instanceof MongoRepository)) {
+            return personRepository.findAll();
+        }
+
+        return mongoLookupTemplate.findAll(Person.class);
+    }
+
+    @Override
+    public Page<Person> pageLookup(PageDataRequest pageDataRequest) {
+        if (!(personRepository instanceof MongoRepository)) {
+            return page(pageDataRequest);
+        }
+
+        return mongoLookupTemplate.page(Person.class, pageDataRequest);
+    }
+
+    @Override
+    public Person updateVersioned(Person person) {
+        if (!(personRepository instanceof MongoRepository)) {
+            return personRepository.save(person);
+        }
+
+        return mongoVersionTemplate.update(person);
+    }
+
+    @Override
+    public Long findVersion(String id) {
+        if (!(personRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findVersion(Person.class, id);
+        }
+
+        return mongoVersionTemplate.findVersion(Person.class, id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        if (!(personRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findCollectionVersion(Person.class);
+        }
+
+        return mongoVersionTemplate.findCollectionVersion(Person.class);
+    }
+
+    @Override
+    public long patch(String id, Long version, Map<String, Object> values) {
+        if (!(personRepository instanceof MongoRepository)) {
+            return jpaPatchTemplate.patch(Person.class, id, version, values);
+        }
+
+        return mongoVersionTemplate.patch(Person.class, id, version, values);
+    }
+
+    @Override
+    public void streamAll(Consumer<Person> consumer) {
+        if (!(personRepository instanceof MongoRepository)) {
+            jpaStreamTemplate.stream(Person.class, consumer);
+            return;
+        }
+
+        mongoStreamTemplate.stream(Person.class, consumer);
+    }
 }
\ No newline at end of file
@@ -5,13 +5,30 @@ import app.models.QRole;
 import app.models.Role;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.RoleRepository;
+import app.repositories.executor.InsertExecutor;
+import app.repositories.executor.LookupExecutor;
+import app.repositories.executor.PatchExecutor;
 import app.repositories.executor.QueryExecutor;
+import app.repositories.executor.StreamExecutor;
+import app.repositories.executor.VersionExecutor;
+import app.repositories.mongo.MongoLookupTemplate;
+import app.repositories.mongo.MongoStreamTemplate;
+import app.repositories.mongo.MongoVersionTemplate;
+import app.repositories.mysql.JpaInsertTemplate;
+import app.repositories.mysql.JpaPatchTemplate;
+import app.repositories.mysql.JpaStreamTemplate;
+import app.repositories.mysql.JpaVersionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 
-public class RoleRepositoryImpl implements QueryExecutor<Role> {
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class RoleRepositoryImpl implements QueryExecutor<Role>, LookupExecutor<Role>, VersionExecutor<Role>, PatchExecutor<Role>, InsertExecutor<Role>, StreamExecutor<Role> {
 
     @Autowired
     private RoleRepository roleRepository;
@@ -19,6 +36,27 @@ public class RoleRepositoryImpl implements QueryExecutor<Role> {
     @Autowired
     private PageFactory pageFactory;
 
+    @Autowired
+    private MongoLookupTemplate mongoLookupTemplate;
+
+    @Autowired
+    private MongoVersionTemplate mongoVersionTemplate;
+
+    @Autowired
+    private JpaPatchTemplate jpaPatchTemplate;
+
+    @Autowired
+    private JpaInsertTemplate jpaInsertTemplate;
+
+    @Autowired
+    private MongoStreamTemplate mongoStreamTemplate;
+
+    @Autowired
+    private JpaStreamTemplate jpaStreamTemplate;
+
+    @Autowired
+    private JpaVersionTemplate jpaVersionTemplate;
+
     @Override
     public Page<Role> page(PageDataRequest pageDataRequest) {
         if (DEFAULT_EXECUTOR == QueryDslPredicateExecutor.class || !(roleRepository instanceof JpaSpecificationExecutor)) {
@@ -28,4 +66,77 @@ public class RoleRepositoryImpl implements QueryExecutor<Role> {
         JpaSpecificationExecutor specification = (JpaSpecificationExecutor) roleRepository;
         return specification.findAll(pageFactory.getSpecifications(pageDataRequest.getFilters()), pageFactory.pageRequest(pageDataRequest));
     }
+
+    @Override
+    public List<Role> findAllLookup() {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return roleRepository.findAll();
+        }
+
+        return mongoLookupTemplate.findAll(Role.class);
+    }
+
+    @Override
+    public Page<Role> pageLookup(PageDataRequest pageDataRequest) {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return page(pageDataRequest);
+        }
+
+        return mongoLookupTemplate.page(Role.class, pageDataRequest);
+    }
+
+    @Override
+    public Role updateVersioned(Role role) {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return roleRepository.save(role);
+        }
+
+        return mongoVersionTemplate.update(role);
+    }
+
+    @Override
+    public Long findVersion(String id) {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findVersion(Role.class, id);
+        }
+
+        return mongoVersionTemplate.findVersion(Role.class, id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return jpaVersionTemplate.findCollectionVersion(Role.class);
+        }
+
+        return mongoVersionTemplate.findCollectionVersion(Role.class);
+    }
+
+    @Override
+    public long patch(String id, Long version, Map<String, Object> values) {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return jpaPatchTemplate.patch(Role.class, id, version, values);
+        }
+
+        return mongoVersionTemplate.patch(Role.class, id, version, values);
+    }
+
+    @Override
+    public Role saveNew(Role role) {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return jpaInsertTemplate.insert(role);
+        }
+
+        return ((MongoRepository<Role, String>) roleRepository).insert(role);
+    }
+
+    @Override
+    public void streamAll(Consumer<Role> consumer) {
+        if (!(roleRepository instanceof MongoRepository)) {
+            jpaStreamTemplate.stream(Role.class, consumer);
+            return;
+        }
+
+        mongoStreamTemplate.stream(Role.class, consumer);
+    }
 }
\ No newline at end of file
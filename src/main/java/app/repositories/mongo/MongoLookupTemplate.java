@@ -0,0 +1,198 @@
+package app.repositories.mongo;
+
+import app.factories.PageFactory;
+import app.models.Model;
+import app.pojos.pages.PageDataRequest;
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves @DBRef relations with a $lookup aggregation (first level) and one $in query per nested relation,
+ * instead of the default one query per reference per document (requires MongoDB 3.4 or later, see lookup)
+ */
+@Component
+public class MongoLookupTemplate {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PageFactory pageFactory;
+
+    /**
+     * Retrieves all entities resolving their relations with $lookup.
+     *
+     * @param type entity class
+     * @return list of entities.
+     */
+    public <T extends Model> List<T> findAll(Class<T> type) {
+        return find(type, null, null);
+    }
+
+    /**
+     * Retrieves all requested entities resolving their relations with $lookup.
+     *
+     * @param type            entity class
+     * @param pageDataRequest Page data.
+     * @return list of entities with metadata.
+     */
+    public <T extends Model> Page<T> page(Class<T> type, PageDataRequest pageDataRequest) {
+        Criteria criteria = pageFactory.getCriteria(pageDataRequest.getFilters(), type);
+        PageRequest pageRequest = pageFactory.pageRequest(pageDataRequest);
+
+        List<T> content = find(type, criteria, pageRequest);
+        long total = mongoTemplate.count(criteria != null ? Query.query(criteria) : new Query(), type);
+        return new PageImpl<>(content, pageRequest, total);
+    }
+
+    /**
+     * Execute the aggregation and read the documents as entities
+     *
+     * @param type     entity class
+     * @param criteria filters to be performed or null if all documents are needed
+     * @param pageable page to be retrieved or null if all documents are needed
+     * @return list of entities
+     */
+    private <T extends Model> List<T> find(Class<T> type, Criteria criteria, Pageable pageable) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (criteria != null) {
+            operations.add(Aggregation.match(criteria));
+        }
+        // page before $lookup so only the returned documents are joined
+        if (pageable != null) {
+            if (pageable.getSort() != null) {
+                operations.add(Aggregation.sort(pageable.getSort()));
+            }
+            operations.add(Aggregation.skip((long) pageable.getOffset()));
+            operations.add(Aggregation.limit(pageable.getPageSize()));
+        }
+
+        List<MongoPersistentProperty> references = getReferences(type);
+        references.forEach(r -> operations.add(lookup(r)));
+
+        List<DBObject> documents = mongoTemplate.aggregate(Aggregation.newAggregation(type, operations), DBObject.class).getMappedResults();
+        references.forEach(r -> {
+            List<DBObject> joined = new ArrayList<>();
+            documents.forEach(d -> joined.addAll(unwrapLookup(d, r)));
+            resolveReferences(joined, r.getActualType());
+        });
+
+        return documents.stream().map(d -> mongoTemplate.getConverter().read(type, d)).collect(Collectors.toList());
+    }
+
+    /**
+     * Create a $lookup stage that replaces the @DBRef values with the referenced documents,
+     * localField "field.$id" joins on the DBRef id and needs MongoDB 3.4 or later (older servers can't match array values)
+     *
+     * @param reference @DBRef property
+     * @return $lookup stage
+     */
+    private AggregationOperation lookup(MongoPersistentProperty reference) {
+        // raw stage because "$id" is not a valid field reference for the typed aggregation context
+        DBObject lookup = new BasicDBObject("from", mongoTemplate.getCollectionName(reference.getActualType()))
+                .append("localField", reference.getFieldName() + ".$id")
+                .append("foreignField", "_id")
+                .append("as", reference.getFieldName());
+        return context -> new BasicDBObject("$lookup", lookup);
+    }
+
+    /**
+     * $lookup always returns an array, single references must be restored as a single document
+     *
+     * @param document  aggregation result
+     * @param reference @DBRef property
+     * @return joined documents
+     */
+    private List<DBObject> unwrapLookup(DBObject document, MongoPersistentProperty reference) {
+        List<DBObject> joined = ((List<?>) document.get(reference.getFieldName())).stream()
+                .map(j -> (DBObject) j).collect(Collectors.toList());
+        if (!reference.isCollectionLike()) {
+            document.put(reference.getFieldName(), joined.isEmpty() ? null : joined.get(0));
+        }
+        return joined;
+    }
+
+    /**
+     * Replace nested @DBRef values with the referenced documents (one $in query per relation)
+     *
+     * @param documents documents where nested relations are resolved
+     * @param type      documents entity class
+     */
+    private void resolveReferences(List<DBObject> documents, Class<?> type) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        getReferences(type).forEach(reference -> {
+            Set<Object> ids = new HashSet<>();
+            documents.forEach(d -> getDBRefs(d.get(reference.getFieldName())).forEach(ref -> ids.add(ref.getId())));
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            List<DBObject> referenced = mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), DBObject.class,
+                    mongoTemplate.getCollectionName(reference.getActualType()));
+            resolveReferences(referenced, reference.getActualType());
+
+            Map<Object, DBObject> byId = referenced.stream().collect(Collectors.toMap(r -> r.get("_id"), r -> r));
+            documents.forEach(d -> {
+                Object value = d.get(reference.getFieldName());
+                if (value instanceof DBRef) {
+                    d.put(reference.getFieldName(), byId.get(((DBRef) value).getId()));
+                } else if (value instanceof List) {
+                    BasicDBList resolved = new BasicDBList();
+                    getDBRefs(value).stream().map(ref -> byId.get(ref.getId())).filter(Objects::nonNull).forEach(resolved::add);
+                    d.put(reference.getFieldName(), resolved);
+                }
+            });
+        });
+    }
+
+    /**
+     * Get all DBRef from a @DBRef value
+     *
+     * @param value single DBRef or list of DBRef
+     * @return DBRef list
+     */
+    private List<DBRef> getDBRefs(Object value) {
+        if (value instanceof DBRef) {
+            return Collections.singletonList((DBRef) value);
+        }
+        if (value instanceof List) {
+            return ((List<?>) value).stream().filter(v -> v instanceof DBRef).map(v -> (DBRef) v).collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Get all @DBRef properties
+     *
+     * @param type entity class
+     * @return @DBRef properties
+     */
+    private List<MongoPersistentProperty> getReferences(Class<?> type) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(type);
+        List<MongoPersistentProperty> references = new ArrayList<>();
+        entity.doWithAssociations((AssociationHandler<MongoPersistentProperty>) a -> references.add(a.getInverse()));
+        return references;
+    }
+}
@@ -0,0 +1,220 @@
+package app.repositories.mongo;
+
+import app.models.*;
+import app.repositories.executor.SnapshotExecutor;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads raw documents with a cursor (DBRefs aren't resolved) and inserts them with a single insert per batch,
+ * join table rows are the DBRef arrays of the owner documents and are added with one bulk $push per batch
+ */
+@Component
+public class MongoSnapshotTemplate implements SnapshotExecutor {
+
+    private static final Map<String, Class<? extends Model>> ENTITIES = new HashMap<>();
+
+    // join table -> owner entity, array field and referenced entity
+    private static final Map<String, Class<? extends Model>> OWNERS = new HashMap<>();
+
+    private static final Map<String, String> ARRAYS = new HashMap<>();
+
+    // foreign key column -> referenced entity
+    private static final Map<String, Class<? extends Model>> REFERENCES = new HashMap<>();
+
+    static {
+        ENTITIES.put("auth_provider", AuthProvider.class);
+        ENTITIES.put("permission", Permission.class);
+        ENTITIES.put("role", Role.class);
+        ENTITIES.put("person", Person.class);
+        ENTITIES.put("authentication", Authentication.class);
+        OWNERS.put("role_permissions", Role.class);
+        OWNERS.put("person_roles", Person.class);
+        ARRAYS.put("role_permissions", "permissions");
+        ARRAYS.put("person_roles", "roles");
+        REFERENCES.put("auth_provider_id", AuthProvider.class);
+        REFERENCES.put("person_id", Person.class);
+        REFERENCES.put("permissions_id", Permission.class);
+        REFERENCES.put("roles_id", Role.class);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${stream.fetch-size:100}")
+    private int fetchSize;
+
+    @Override
+    public void exportTable(String table, Consumer<Map<String, Object>> consumer) {
+        List<String> columns = SnapshotExecutor.getColumns(table);
+        if (OWNERS.containsKey(table)) {
+            String array = ARRAYS.get(table);
+            forEach(OWNERS.get(table), new BasicDBObject(array, 1), document -> {
+                Object references = document.get(array);
+                if (references instanceof List) {
+                    for (Object reference : (List) references) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        row.put(columns.get(0), document.get("_id").toString());
+                        row.put(columns.get(1), ((DBRef) reference).getId().toString());
+                        consumer.accept(row);
+                    }
+                }
+            });
+            return;
+        }
+
+        forEach(ENTITIES.get(table), null, document -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            columns.forEach(column -> row.put(column, toRowValue(column, document.get(toField(column)))));
+            consumer.accept(row);
+        });
+    }
+
+    @Override
+    public void importTable(String table, List<Map<String, Object>> rows) {
+        List<String> columns = SnapshotExecutor.getColumns(table);
+        if (OWNERS.containsKey(table)) {
+            // rows are exported grouped by owner, so most batches have a single update per document
+            Map<Object, List<Object>> references = new LinkedHashMap<>();
+            rows.forEach(row -> references.computeIfAbsent(toId(row.get(columns.get(0))), id -> new ArrayList<>())
+                    .add(toDocumentValue(columns.get(1), row.get(columns.get(1)))));
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OWNERS.get(table));
+            references.forEach((id, values) -> bulk.updateOne(Query.query(Criteria.where("_id").is(id)),
+                    new Update().push(ARRAYS.get(table)).each(values.toArray())));
+            bulk.execute();
+            return;
+        }
+
+        Class<? extends Model> type = ENTITIES.get(table);
+        List<DBObject> documents = rows.stream().map(row -> {
+            DBObject document = new BasicDBObject("_class", type.getName());
+            columns.forEach(column -> {
+                Object value = toDocumentValue(column, row.get(column));
+                if (value != null) {
+                    document.put(toField(column), value);
+                }
+            });
+            return document;
+        }).collect(Collectors.toList());
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(type)).insert(documents);
+    }
+
+    /**
+     * Iterate the raw documents of a collection
+     *
+     * @param type       entity class
+     * @param projection fields to read or null to read all of them
+     * @param consumer   called for every document
+     */
+    private void forEach(Class<? extends Model> type, DBObject projection, Consumer<DBObject> consumer) {
+        try (DBCursor cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(type)).find(new BasicDBObject(), projection)) {
+            cursor.batchSize(fetchSize).forEach(consumer);
+        }
+    }
+
+    /**
+     * Get the document field of a column (auth_provider_id -> authProvider, last_name -> lastName)
+     *
+     * @param column column name
+     * @return field name
+     */
+    private String toField(String column) {
+        if (column.equals("id")) {
+            return "_id";
+        }
+
+        String[] words = (REFERENCES.containsKey(column) ? column.substring(0, column.length() - 3) : column).split("_");
+        StringBuilder field = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            field.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+        }
+        return field.toString();
+    }
+
+    /**
+     * Convert a document value to the value written in the snapshot
+     * (dates are saved by the Jsr310 converters at the start of the day in the system zone)
+     *
+     * @param column column name
+     * @param value  document value
+     * @return String id, ISO date or the same value
+     */
+    private Object toRowValue(String column, Object value) {
+        if (value == null) {
+            // documents saved before versioning was added don't have the field
+            return column.equals("version") ? 0L : null;
+        }
+        if (value instanceof DBRef) {
+            return ((DBRef) value).getId().toString();
+        }
+        if (value instanceof Date && column.equals("birthday")) {
+            return ((Date) value).toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toString();
+        }
+        if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()).toString();
+        }
+        if (column.equals("id")) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    /**
+     * Convert a snapshot value to the value saved in the document
+     *
+     * @param column column name
+     * @param value  snapshot value
+     * @return document value
+     */
+    private Object toDocumentValue(String column, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (REFERENCES.containsKey(column)) {
+            return new DBRef(mongoTemplate.getCollectionName(REFERENCES.get(column)), toId(value));
+        }
+        if (column.equals("id")) {
+            return toId(value);
+        }
+        if (column.equals("birthday")) {
+            return Date.from(LocalDate.parse((String) value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        if (column.endsWith("_at")) {
+            return Date.from(LocalDateTime.parse((String) value).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (column.equals("version")) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    /**
+     * Convert a snapshot id to the saved id the same way the mapping layer converts String ids,
+     * so restored documents are found by the repositories (ids exported from mysql are UUIDs and stay Strings)
+     *
+     * @param value snapshot id
+     * @return ObjectId or the same value
+     */
+    private Object toId(Object value) {
+        return value instanceof String && ObjectId.isValid((String) value) ? new ObjectId((String) value) : value;
+    }
+}
@@ -0,0 +1,32 @@
+package app.repositories.mongo;
+
+import app.models.Model;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads documents with a cursor, only the current batch is held in memory
+ */
+@Component
+public class MongoStreamTemplate {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Iterate all documents of a type.
+     *
+     * @param type     entity class
+     * @param consumer called for every entity while the cursor is open
+     */
+    public <T extends Model> void stream(Class<T> type, Consumer<T> consumer) {
+        try (CloseableIterator<T> iterator = mongoTemplate.stream(new Query(), type)) {
+            iterator.forEachRemaining(consumer);
+        }
+    }
+}
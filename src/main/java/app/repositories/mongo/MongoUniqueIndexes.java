@@ -0,0 +1,43 @@
+package app.repositories.mongo;
+
+import app.models.Authentication;
+import app.models.Permission;
+import app.models.Role;
+import app.repositories.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the same unique constraints that jpa creates from @Table, so duplicated values are rejected by mongo
+ * (not done with @Indexed because it requires @Document and it would connect to mongo even when jpa is used)
+ */
+@Component
+public class MongoUniqueIndexes {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        if (!(roleRepository instanceof MongoRepository)) {
+            return;
+        }
+
+        mongoTemplate.indexOps(Role.class).ensureIndex(new Index("name", Sort.Direction.ASC).unique().named(Role.UNIQUE_NAME));
+        mongoTemplate.indexOps(Permission.class).ensureIndex(new Index("name", Sort.Direction.ASC).unique().named(Permission.UNIQUE_NAME));
+        // sparse because username is optional
+        mongoTemplate.indexOps(Authentication.class).ensureIndex(new Index("username", Sort.Direction.ASC).unique().sparse()
+                .named(Authentication.UNIQUE_USERNAME));
+        mongoTemplate.indexOps(Authentication.class).ensureIndex(new Index().on("authProvider", Sort.Direction.ASC)
+                .on("person", Sort.Direction.ASC).unique().named(Authentication.UNIQUE_PROVIDER_PERSON));
+    }
+}
@@ -0,0 +1,155 @@
+package app.repositories.mongo;
+
+import app.models.Model;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Updates documents with a single findAndModify or update filtered by id and version, and reads versions without loading documents
+ */
+@Component
+public class MongoVersionTemplate {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Update an entity only when the stored version is the entity version and increase it.
+     *
+     * @param entity entity to be updated
+     * @return the entity updated
+     * @throws OptimisticLockingFailureException if entity was modified since its version was read
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Model> T update(T entity) throws OptimisticLockingFailureException {
+        DBObject document = new BasicDBObject();
+        mongoTemplate.getConverter().write(entity, document);
+        document.removeField("_class");
+
+        Query query = Query.query(Criteria.where("_id").is(entity.getId())).addCriteria(getVersionCriteria(entity.getVersion()));
+        // Update.fromDBObject would copy the fields as a replacement document, which can't be mixed with $inc
+        Update update = new Update().inc("version", 1);
+        document.keySet().stream().filter(f -> !f.equals("_id") && !f.equals("version")).forEach(f -> update.set(f, document.get(f)));
+        // the converter skips null properties, $unset them so clearing a field works like a full save
+        getNullFields(entity).forEach(update::unset);
+
+        T updated = (T) mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), entity.getClass());
+        if (updated == null) {
+            throw new OptimisticLockingFailureException(entity.getClass().getSimpleName() + " " + entity.getId() + " version " + entity.getVersion() + " is not the current one.");
+        }
+        return updated;
+    }
+
+    /**
+     * Update the given fields with $set only when the stored version is the given one and increase it.
+     *
+     * @param type    entity class
+     * @param id      entity id to be updated
+     * @param version version that was read or null if any version is allowed
+     * @param values  new value by field name
+     * @return number of updated documents
+     */
+    public <T extends Model> long patch(Class<T> type, String id, Long version, Map<String, Object> values) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        if (version != null) {
+            query.addCriteria(getVersionCriteria(version));
+        }
+
+        Update update = new Update().inc("version", 1);
+        values.forEach(update::set);
+        return mongoTemplate.updateFirst(query, update, type).getN();
+    }
+
+    /**
+     * Read only the version field of a document.
+     *
+     * @param type entity class
+     * @param id   entity id to search
+     * @return the version or null if none found
+     */
+    public <T extends Model> Long findVersion(Class<T> type, String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("version");
+
+        T entity = mongoTemplate.findOne(query, type);
+        return entity != null ? entity.getVersion() : null;
+    }
+
+    /**
+     * Read the number of documents, the sum of their versions and the newest id with a single $group.
+     *
+     * @param type entity class
+     * @return collection version
+     */
+    public <T extends Model> String findCollectionVersion(Class<T> type) {
+        // raw stage because typed aggregations can't reference "_id" inside a $group without fields
+        DBObject group = new BasicDBObject("_id", null)
+                .append("count", new BasicDBObject("$sum", 1))
+                .append("versions", new BasicDBObject("$sum", "$version"))
+                .append("newest", new BasicDBObject("$max", "$_id"));
+        AggregationOperation operation = context -> new BasicDBObject("$group", group);
+
+        DBObject result = mongoTemplate.aggregate(Aggregation.newAggregation(operation), mongoTemplate.getCollectionName(type), DBObject.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            return "0-0-";
+        }
+        return result.get("count") + "-" + result.get("versions") + "-" + result.get("newest");
+    }
+
+    /**
+     * Get the document field names of the entity properties that are null
+     *
+     * @param entity entity to be written
+     * @return field names
+     */
+    private List<String> getNullFields(Object entity) {
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entity.getClass());
+        PersistentPropertyAccessor accessor = persistentEntity.getPropertyAccessor(entity);
+        List<String> fields = new ArrayList<>();
+        persistentEntity.doWithProperties((PropertyHandler<MongoPersistentProperty>) p -> {
+            if (!p.isIdProperty() && !p.isVersionProperty() && accessor.getProperty(p) == null) {
+                fields.add(p.getFieldName());
+            }
+        });
+        persistentEntity.doWithAssociations((AssociationHandler<MongoPersistentProperty>) a -> {
+            if (accessor.getProperty(a.getInverse()) == null) {
+                fields.add(a.getInverse().getFieldName());
+            }
+        });
+        return fields;
+    }
+
+    /**
+     * Create the version filter
+     *
+     * @param version version that was read
+     * @return version Criteria
+     */
+    private Criteria getVersionCriteria(long version) {
+        if (version == 0) {
+            // documents saved before versioning was added don't have the field
+            return new Criteria().orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false));
+        }
+        return Criteria.where("version").is(version);
+    }
+}
@@ -0,0 +1,37 @@
+package app.repositories.mysql;
+
+import app.models.Model;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+/**
+ * Persist and flush in the same call, so unique constraint violations are thrown where they can be handled
+ * (@Repository translates them to DataIntegrityViolationException)
+ */
+@Repository
+public class JpaInsertTemplate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Insert a new entity and flush it.
+     *
+     * @param entity entity to be inserted
+     * @return the entity inserted
+     */
+    public <T extends Model> T insert(T entity) {
+        try {
+            entityManager.persist(entity);
+            entityManager.flush();
+            return entity;
+        } catch (PersistenceException e) {
+            // the failed insert stays queued in the session and would be flushed again by the next query
+            entityManager.clear();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package app.repositories.mysql;
+
+import app.models.Model;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Updates some fields with a single "update ... where id=? [and version=?]" instead of load plus save
+ */
+@Component
+public class JpaPatchTemplate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Update the given fields and increase the entity version (@PreUpdate is not called with bulk updates).
+     *
+     * @param type    entity class
+     * @param id      entity id to be updated
+     * @param version version that was read or null if any version is allowed
+     * @param values  new value by field name
+     * @return number of updated entities
+     */
+    public <T extends Model> long patch(Class<T> type, String id, Long version, Map<String, Object> values) {
+        PathBuilder<T> entity = new PathBuilder<>(type, StringUtils.uncapitalize(type.getSimpleName()));
+        NumberPath<Long> versionPath = entity.getNumber("version", Long.class);
+
+        JPAUpdateClause update = new JPAUpdateClause(entityManager, entity).where(entity.getString("id").eq(id));
+        if (version != null) {
+            update.where(versionPath.eq(version));
+        }
+        values.forEach((field, value) -> update.set(entity.get(field), value));
+
+        return update.set(versionPath, versionPath.add(1L))
+                .set(entity.getDateTime("updatedAt", LocalDateTime.class), LocalDateTime.now(ZoneOffset.UTC))
+                .execute();
+    }
+}
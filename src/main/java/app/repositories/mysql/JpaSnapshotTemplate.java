@@ -0,0 +1,108 @@
+package app.repositories.mysql;
+
+import app.models.converters.UUIDBinaryType;
+import app.repositories.executor.SnapshotExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads tables with a forward only JDBC cursor and inserts them with JDBC batches, Hibernate is skipped
+ * so ids, versions and dates are kept and nothing is held in the persistence context
+ */
+@Component
+public class JpaSnapshotTemplate implements SnapshotExecutor {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${stream.fetch-size:100}")
+    private int fetchSize;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    private void setup() {
+        // own template because the fetch size is only for snapshots
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public void exportTable(String table, Consumer<Map<String, Object>> consumer) {
+        List<String> columns = SnapshotExecutor.getColumns(table);
+        jdbcTemplate.query("SELECT " + String.join(", ", columns) + " FROM " + table, resultSet -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i), toRowValue(resultSet.getObject(i + 1)));
+            }
+            consumer.accept(row);
+        });
+    }
+
+    @Override
+    public void importTable(String table, List<Map<String, Object>> rows) {
+        List<String> columns = SnapshotExecutor.getColumns(table);
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+        List<Object[]> values = rows.stream()
+                .map(row -> columns.stream().map(c -> toColumnValue(c, row.get(c))).toArray())
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(sql, values);
+    }
+
+    /**
+     * Convert a JDBC value to the value written in the snapshot
+     *
+     * @param value JDBC value
+     * @return String UUID, ISO date or the same value
+     */
+    private Object toRowValue(Object value) {
+        if (value instanceof byte[]) {
+            return UUIDBinaryType.toUUID((byte[]) value);
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate().toString();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    /**
+     * Convert a snapshot value to the JDBC value of its column
+     *
+     * @param column column name
+     * @param value  snapshot value
+     * @return JDBC value
+     */
+    private Object toColumnValue(String column, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (column.equals("id") || column.endsWith("_id")) {
+            return UUIDBinaryType.toBytes((String) value);
+        }
+        if (column.equals("birthday")) {
+            return Date.valueOf(LocalDate.parse((String) value));
+        }
+        if (column.endsWith("_at")) {
+            return Timestamp.valueOf(LocalDateTime.parse((String) value));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,54 @@
+package app.repositories.mysql;
+
+import app.models.Model;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.function.Consumer;
+
+/**
+ * Reads entities with a forward only cursor, clearing the persistence context every fetch-size rows
+ * so memory doesn't grow with the table size
+ */
+@Component
+public class JpaStreamTemplate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${stream.fetch-size:100}")
+    private int fetchSize;
+
+    /**
+     * Scroll all entities of a type (must run inside a transaction).
+     *
+     * @param type     entity class
+     * @param consumer called for every entity before it's detached
+     */
+    public <T extends Model> void stream(Class<T> type, Consumer<T> consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        ScrollableResults results = session.createQuery("from " + type.getName())
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        try {
+            int count = 0;
+            while (results.next()) {
+                consumer.accept(type.cast(results.get(0)));
+                if (++count % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package app.repositories.mysql;
+
+import app.models.Model;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Reads versions with "select version ..." and "select count(*), sum(version), max(id) ..." instead of loading entities
+ */
+@Component
+public class JpaVersionTemplate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Read only the version column of an entity.
+     *
+     * @param type entity class
+     * @param id   entity id to search
+     * @return the version or null if none found
+     */
+    public <T extends Model> Long findVersion(Class<T> type, String id) {
+        PathBuilder<T> entity = getPath(type);
+        return new JPAQuery<>(entityManager).select(entity.getNumber("version", Long.class))
+                .from(entity)
+                .where(entity.getString("id").eq(id))
+                .fetchOne();
+    }
+
+    /**
+     * Read the number of entities, the sum of their versions and the newest id (ids are time ordered) with a single query.
+     *
+     * @param type entity class
+     * @return collection version
+     */
+    public <T extends Model> String findCollectionVersion(Class<T> type) {
+        PathBuilder<T> entity = getPath(type);
+        NumberExpression<Long> count = entity.count();
+        NumberExpression<Long> versions = entity.getNumber("version", Long.class).sum();
+        StringExpression newest = entity.getString("id").max();
+
+        Tuple result = new JPAQuery<>(entityManager).select(count, versions, newest).from(entity).fetchOne();
+        return result.get(count) + "-" + (result.get(versions) != null ? result.get(versions) : 0) + "-"
+                + (result.get(newest) != null ? result.get(newest) : "");
+    }
+
+    /**
+     * Create the QueryDSL path of an entity
+     *
+     * @param type entity class
+     * @return entity path
+     */
+    private <T extends Model> PathBuilder<T> getPath(Class<T> type) {
+        return new PathBuilder<>(type, StringUtils.uncapitalize(type.getSimpleName()));
+    }
+}
@@ -0,0 +1,94 @@
+package app.repositories.mysql;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the VARCHAR(36) ids (and the foreign keys that reference them) of an existing MySQL Data Base
+ * to the BINARY(16) format used by Model.id
+ */
+@Component
+public class UUIDBinaryMigration {
+
+    // VARBINARY(36) columns are the ones left by a migration that stopped before finishing
+    private static final String COLUMNS_QUERY = "SELECT DISTINCT k.TABLE_NAME, k.COLUMN_NAME, c.IS_NULLABLE, c.DATA_TYPE "
+            + "FROM information_schema.KEY_COLUMN_USAGE k JOIN information_schema.COLUMNS c "
+            + "ON c.TABLE_SCHEMA = k.TABLE_SCHEMA AND c.TABLE_NAME = k.TABLE_NAME AND c.COLUMN_NAME = k.COLUMN_NAME "
+            + "WHERE k.TABLE_SCHEMA = DATABASE() AND (k.CONSTRAINT_NAME = 'PRIMARY' OR k.REFERENCED_TABLE_NAME IS NOT NULL) "
+            + "AND c.DATA_TYPE IN ('char', 'varchar', 'varbinary') AND c.CHARACTER_MAXIMUM_LENGTH = 36";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${uuid-binary-migration:false}")
+    private Boolean migrate;
+
+    @PostConstruct
+    private void setupDatabase() {
+        if (migrate) {
+            migrate();
+        }
+    }
+
+    /**
+     * Convert every primary key and foreign key VARCHAR(36) column to BINARY(16), columns left as VARBINARY(36) by a stopped run are finished
+     *
+     * @return number of converted columns
+     */
+    public int migrate() {
+        List<Map<String, Object>> columns = jdbcTemplate.queryForList(COLUMNS_QUERY);
+        if (columns.isEmpty()) {
+            return 0;
+        }
+
+        // same connection for all statements because FOREIGN_KEY_CHECKS is a session variable
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                try {
+                    for (Map<String, Object> column : columns) {
+                        for (String sql : getStatements((String) column.get("TABLE_NAME"), (String) column.get("COLUMN_NAME"),
+                                "YES".equals(column.get("IS_NULLABLE")), "varbinary".equalsIgnoreCase((String) column.get("DATA_TYPE")))) {
+                            statement.execute(sql);
+                        }
+                    }
+                } finally {
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+            }
+            return null;
+        });
+        return columns.size();
+    }
+
+    /**
+     * Statements needed to convert a column, a binary column is needed first to store the unhex value.
+     * Each statement is auto committed, so they can be run again when the migration stopped in the middle:
+     * the column is already VARBINARY(36) and only the values that still have 36 bytes (text UUIDs) are converted
+     *
+     * @param table     table name
+     * @param column    column name
+     * @param nullable  if the column allows null
+     * @param varbinary if the column is already VARBINARY(36)
+     * @return statements in execution order
+     */
+    public List<String> getStatements(String table, String column, boolean nullable, boolean varbinary) {
+        String notNull = nullable ? "" : " NOT NULL";
+        List<String> statements = new ArrayList<>();
+        if (!varbinary) {
+            statements.add("ALTER TABLE `" + table + "` MODIFY `" + column + "` VARBINARY(36)" + notNull);
+        }
+        statements.add("UPDATE `" + table + "` SET `" + column + "` = UNHEX(REPLACE(`" + column + "`, '-', '')) WHERE LENGTH(`" + column + "`) = 36");
+        statements.add("ALTER TABLE `" + table + "` MODIFY `" + column + "` BINARY(16)" + notNull);
+        return statements;
+    }
+}
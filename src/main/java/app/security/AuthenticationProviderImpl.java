@@ -1,5 +1,6 @@
 package app.security;
 
+import app.metrics.SecurityTimings;
 import app.security.pojos.LoggedUser;
 import app.security.services.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,13 +24,25 @@ public class AuthenticationProviderImpl implements AuthenticationProvider {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private SecurityTimings securityTimings;
+
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         try {
+            long start = System.nanoTime();
             String token = (String) authentication.getPrincipal();
-            LoggedUser user = tokenService.getLoggedUser(token);
+            LoggedUser user;
+            try {
+                user = tokenService.getLoggedUser(token);
+            } finally {
+                securityTimings.record(SecurityTimings.TOKEN_PARSE, System.nanoTime() - start);
+            }
+
+            start = System.nanoTime();
             user.setPermissions(user.getPermissions() != null ? user.getPermissions() : new HashSet<>());
             List<GrantedAuthority> authorities = user.getPermissions().stream().map(p -> (GrantedAuthority) () -> "ROLE_" + p).collect(Collectors.toList());
+            securityTimings.record(SecurityTimings.AUTHORITIES, System.nanoTime() - start);
             return new UsernamePasswordAuthenticationToken(user, null, authorities);
         } catch (Exception e) {
             e.printStackTrace();
@@ -1,5 +1,7 @@
 package app.security;
 
+import app.metrics.SecurityTimings;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -17,17 +19,22 @@ import java.io.IOException;
 @Component
 public class AuthenticationTokenFilter extends OncePerRequestFilter {
 
+    @Autowired
+    private SecurityTimings securityTimings;
+
     private final String TOKEN_HEADER = "Authorization";
 
     private final String TOKEN_PREFIX = "Bearer ";
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
         String token = request.getHeader(TOKEN_HEADER);
         if (token != null && token.startsWith(TOKEN_PREFIX) && !request.getServletPath().equals("/login")) {
             token = token.substring(TOKEN_PREFIX.length());
             SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(token, null));
         }
+        securityTimings.record(SecurityTimings.TOKEN_FILTER, System.nanoTime() - start);
 
         filterChain.doFilter(request, response);
     }
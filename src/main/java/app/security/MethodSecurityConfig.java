@@ -0,0 +1,49 @@
+package app.security;
+
+import app.metrics.SecurityTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+
+/**
+ * Enable @PreAuthorize and time its evaluation (the AccessDecisionManager evaluates the expressions)
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfig extends GlobalMethodSecurityConfiguration {
+
+    @Autowired
+    private SecurityTimings securityTimings;
+
+    @Override
+    protected AccessDecisionManager accessDecisionManager() {
+        AccessDecisionManager accessDecisionManager = super.accessDecisionManager();
+        return new AccessDecisionManager() {
+            @Override
+            public void decide(Authentication authentication, Object object, Collection<ConfigAttribute> configAttributes) {
+                long start = System.nanoTime();
+                try {
+                    accessDecisionManager.decide(authentication, object, configAttributes);
+                } finally {
+                    securityTimings.record(SecurityTimings.PRE_AUTHORIZE, System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public boolean supports(ConfigAttribute attribute) {
+                return accessDecisionManager.supports(attribute);
+            }
+
+            @Override
+            public boolean supports(Class<?> clazz) {
+                return accessDecisionManager.supports(clazz);
+            }
+        };
+    }
+}
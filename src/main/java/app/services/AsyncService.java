@@ -0,0 +1,35 @@
+package app.services;
+
+import app.pojos.metrics.AsyncSnapshot;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface AsyncService {
+
+    /**
+     * Workloads with their own executor
+     */
+    enum WORKLOAD {PAGE, RELATION}
+
+    /**
+     * Run a controller task in the bounded executor of its workload, so the request thread is released while it runs.<br/>
+     * The task runs with the security context and request of the current request, in its own read only transaction and EntityManager.<br/>
+     * Exceptions thrown by the task are handled like the ones thrown by controllers.
+     *
+     * @param workload workload of the task
+     * @param task     creates the response
+     * @return response set when the task finishes, or an AppUnavailableException if it takes more than async.timeout milliseconds
+     * @throws app.exceptions.AppUnavailableException when all threads of the workload are busy and its queue is full
+     */
+    DeferredResult<ResponseEntity> execute(WORKLOAD workload, Supplier<ResponseEntity> task);
+
+    /**
+     * Get current state of each executor
+     *
+     * @return executors state
+     */
+    List<AsyncSnapshot> snapshot();
+}
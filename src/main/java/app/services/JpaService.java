@@ -1,11 +1,15 @@
 package app.services;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppValidationException;
 import app.models.Model;
 import app.pojos.pages.PageDataRequest;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Basic operations for all JPA services
@@ -19,6 +23,13 @@ public interface JpaService<T extends Model> {
      */
     List<T> findAll();
 
+    /**
+     * Retrieves all entities one by one without loading all of them in memory.
+     *
+     * @param consumer called for every entity while the cursor is open.
+     */
+    void streamAll(Consumer<T> consumer);
+
     /**
      * Retrieves an entity by its id.
      *
@@ -36,6 +47,21 @@ public interface JpaService<T extends Model> {
      */
     T findByIdNotNull(String id) throws AppDontFoundException;
 
+    /**
+     * Retrieves only the version of an entity (cheaper than findById to validate an If-None-Match header).
+     *
+     * @param id value to search.
+     * @return the version or null if none found.
+     */
+    Long findVersion(String id);
+
+    /**
+     * Retrieves a version of all entities that changes every time an entity is created, updated or removed.
+     *
+     * @return collection version.
+     */
+    String findCollectionVersion();
+
     /**
      * Create an entity.
      *
@@ -52,6 +78,29 @@ public interface JpaService<T extends Model> {
      */
     T update(T entity);
 
+    /**
+     * Update an entity if it wasn't modified since the given version.
+     *
+     * @param entity  entity to be updated.
+     * @param version version that was read or null if any version is allowed.
+     * @return the entity updated.
+     * @throws AppPreconditionFailedException if entity was modified since the given version
+     */
+    T update(T entity, Long version) throws AppPreconditionFailedException;
+
+    /**
+     * Update only the fields present in a JSON Merge Patch without loading the entity first.
+     *
+     * @param id      entity id to be updated.
+     * @param patch   JSON Merge Patch body.
+     * @param version version that was read or null if any version is allowed.
+     * @return the entity updated.
+     * @throws AppValidationException         if a field can't be updated or its value isn't valid
+     * @throws AppDontFoundException          if entity not found
+     * @throws AppPreconditionFailedException if entity was modified since the given version
+     */
+    T patch(String id, Map<String, Object> patch, Long version) throws AppValidationException, AppDontFoundException, AppPreconditionFailedException;
+
     /**
      * Delete an entity.
      *
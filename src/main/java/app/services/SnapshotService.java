@@ -0,0 +1,34 @@
+package app.services;
+
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+public interface SnapshotService {
+
+    /**
+     * Write every table (join tables included) as gzip NDJSON, one {"table": name, "row": values} line per row.
+     * Rows are read with a cursor and written as soon as they are read.
+     *
+     * @param outputStream where snapshot is written.
+     * @throws IOException if snapshot can't be written.
+     */
+    void export(OutputStream outputStream) throws IOException;
+
+    /**
+     * Insert every row of a gzip NDJSON snapshot keeping ids, versions and dates, rows are inserted in batches.
+     * In mysql the restore is all-or-nothing (every batch runs in the same transaction, a failure leaves the Data Base empty),
+     * mongo has no multi-document transactions so the batches inserted before a failure are kept.
+     *
+     * @param inputStream snapshot written by export.
+     * @return number of inserted rows by table.
+     * @throws IOException                    if snapshot can't be read.
+     * @throws AppPreconditionFailedException if Data Base isn't empty.
+     * @throws AppValidationException         if snapshot has an unknown table.
+     */
+    Map<String, Long> restore(InputStream inputStream) throws IOException, AppPreconditionFailedException, AppValidationException;
+}
@@ -0,0 +1,203 @@
+package app.services.implementations;
+
+import app.exceptions.AppUnavailableException;
+import app.metrics.QueryCounter;
+import app.metrics.SecurityTimings;
+import app.pojos.metrics.AsyncSnapshot;
+import app.services.AsyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class AsyncServiceImpl implements AsyncService {
+
+    @Value("${async.timeout:30000}")
+    private long timeout;
+
+    @Autowired
+    private ThreadPoolTaskExecutor pageExecutor;
+
+    @Autowired
+    private ThreadPoolTaskExecutor relationExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SecurityTimings securityTimings;
+
+    private final Map<WORKLOAD, LongAdder> rejected = new EnumMap<>(WORKLOAD.class);
+
+    private final Map<WORKLOAD, LongAdder> timeouts = new EnumMap<>(WORKLOAD.class);
+
+    public AsyncServiceImpl() {
+        for (WORKLOAD workload : WORKLOAD.values()) {
+            rejected.put(workload, new LongAdder());
+            timeouts.put(workload, new LongAdder());
+        }
+    }
+
+    @Override
+    public DeferredResult<ResponseEntity> execute(WORKLOAD workload, Supplier<ResponseEntity> task) {
+        DeferredResult<ResponseEntity> result = new DeferredResult<>(timeout, new AppUnavailableException("Request took too long, try again later."));
+        TaskEntityManager entityManager = new TaskEntityManager();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        Runnable runnable = withRequestContext(() -> {
+            try {
+                ResponseEntity response = entityManager.execute(task);
+                // the timeout result is set after the timeout callback, so an interrupted task must not set its result
+                if (!timedOut.get()) {
+                    result.setResult(response);
+                }
+            } catch (Throwable e) {
+                result.setErrorResult(e);
+            } finally {
+                entityManager.release();
+            }
+        });
+
+        Future<?> future;
+        try {
+            future = getExecutor(workload).submit(runnable);
+        } catch (TaskRejectedException e) {
+            // thrown before the async processing starts, so it's handled like any other controller exception
+            rejected.get(workload).increment();
+            throw new AppUnavailableException("Server is busy, try again later.");
+        }
+
+        result.onTimeout(() -> {
+            // a queued task doesn't run after its response was sent and a running one is interrupted
+            timedOut.set(true);
+            future.cancel(true);
+            timeouts.get(workload).increment();
+        });
+        result.onCompletion(entityManager::release);
+        return result;
+    }
+
+    @Override
+    public List<AsyncSnapshot> snapshot() {
+        return Stream.of(WORKLOAD.values()).map(workload -> {
+            ThreadPoolExecutor executor = getExecutor(workload).getThreadPoolExecutor();
+            return new AsyncSnapshot(workload.name().toLowerCase(), executor.getActiveCount(), executor.getMaximumPoolSize(),
+                    executor.getQueue().size(), rejected.get(workload).sum(), timeouts.get(workload).sum());
+        }).collect(Collectors.toList());
+    }
+
+    private ThreadPoolTaskExecutor getExecutor(WORKLOAD workload) {
+        return workload == WORKLOAD.PAGE ? pageExecutor : relationExecutor;
+    }
+
+    /**
+     * Wrap a task to run it with the security context and request of the current thread, so services and PresentationService
+     * work like in the request thread, and with its query counter and security timings, so the queries and stages of the task
+     * are reported with the request. Transaction resources (open in view EntityManager) aren't shared, see TaskEntityManager
+     *
+     * @param task task to be wrapped
+     * @return task that sets the current context while it runs
+     */
+    private Runnable withRequestContext(Runnable task) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        QueryCounter counter = QueryCounter.getCurrent();
+        Map<String, Long> stages = securityTimings.getCurrent();
+
+        return () -> {
+            // request thread marks its attributes as completed when the handler returns, so the task needs its own ones
+            ServletRequestAttributes taskAttributes = null;
+            if (attributes instanceof ServletRequestAttributes) {
+                ServletRequestAttributes servletAttributes = (ServletRequestAttributes) attributes;
+                taskAttributes = new ServletRequestAttributes(servletAttributes.getRequest(), servletAttributes.getResponse());
+            }
+
+            SecurityContextHolder.setContext(securityContext);
+            RequestContextHolder.setRequestAttributes(taskAttributes);
+            QueryCounter.attach(counter);
+            securityTimings.attach(stages);
+            try {
+                task.run();
+            } finally {
+                securityTimings.stop();
+                QueryCounter.detach();
+                RequestContextHolder.resetRequestAttributes();
+                if (taskAttributes != null) {
+                    taskAttributes.requestCompleted();
+                }
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    /**
+     * EntityManager of a task, the request one isn't shared because the request thread uses it to write a timeout response
+     * while the task still runs. The task runs in its own read only transaction and its EntityManager is closed by the last
+     * of the task and the request to finish, so lazy relations of the response can still be loaded while it's written
+     */
+    private class TaskEntityManager {
+
+        private final AtomicInteger pending = new AtomicInteger(2);
+
+        private volatile EntityManager entityManager;
+
+        /**
+         * Run a task with this EntityManager bound to the current thread
+         *
+         * @param task task to be run
+         * @return task result
+         */
+        private ResponseEntity execute(Supplier<ResponseEntity> task) {
+            entityManager = entityManagerFactory.createEntityManager();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+            try {
+                return transaction.execute(status -> task.get());
+            } finally {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            }
+        }
+
+        /**
+         * Called once by the task and once when the request completes, the last one closes the EntityManager
+         * (a task that never ran doesn't have one)
+         */
+        private void release() {
+            if (pending.decrementAndGet() == 0 && entityManager != null) {
+                EntityManagerFactoryUtils.closeEntityManager(entityManager);
+            }
+        }
+    }
+}
@@ -1,27 +1,40 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
+import app.factories.PatchFactory;
 import app.models.AuthProvider;
 import app.models.Authentication;
 import app.models.Person;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.AuthenticationRepository;
+import app.repositories.executor.InsertExecutor;
 import app.security.services.SecurityService;
 import app.services.AuthenticationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class AuthenticationServiceImpl implements AuthenticationService {
 
+    // same fields that update changes, relations can't be updated with a bulk update
+    private final List<String> patchAllowed = Arrays.asList("password");
+
     @Autowired
     private AuthenticationRepository authenticationRepository;
 
+    @Autowired
+    private PatchFactory patchFactory;
+
     @Autowired
     private SecurityService securityService;
 
@@ -30,6 +43,12 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return authenticationRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Authentication> consumer) {
+        authenticationRepository.streamAll(consumer);
+    }
+
     @Override
     public Authentication findById(String id) {
         return authenticationRepository.findOne(id);
@@ -56,27 +75,64 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     }
 
     @Override
-    @Transactional
-    public Authentication save(Authentication authentication) {
-        if (authentication.getUsername() != null && findByUsername(authentication.getUsername()) != null) {
-            throw new AppValidationException("Username '" + authentication.getUsername() + "' is already used by another user.");
-        }
+    public Long findVersion(String id) {
+        return authenticationRepository.findVersion(id);
+    }
 
-        Authentication duplicated = findByAuthProviderAndPerson(authentication.getAuthProvider(), authentication.getPerson());
-        if (duplicated != null) {
-            throw new AppValidationException("'" + duplicated.getPerson().getFullName() + "' already has an Authorization with provider '" + duplicated.getAuthProvider().getName() + "'.");
-        }
+    @Override
+    public String findCollectionVersion() {
+        return authenticationRepository.findCollectionVersion();
+    }
 
+    @Override
+    @Transactional
+    public Authentication save(Authentication authentication) {
         authentication.setPassword(securityService.hashValue(authentication.getPassword()));
-        return authenticationRepository.save(authentication);
+        try {
+            return authenticationRepository.saveNew(authentication);
+        } catch (DataIntegrityViolationException e) {
+            if (InsertExecutor.isViolated(e, Authentication.UNIQUE_USERNAME)) {
+                throw new AppValidationException("Username '" + authentication.getUsername() + "' is already used by another user.");
+            }
+            if (InsertExecutor.isViolated(e, Authentication.UNIQUE_PROVIDER_PERSON)) {
+                // only read in the error path to get the names used in the message
+                Authentication duplicated = findByAuthProviderAndPerson(authentication.getAuthProvider(), authentication.getPerson());
+                throw new AppValidationException("'" + duplicated.getPerson().getFullName() + "' already has an Authorization with provider '" + duplicated.getAuthProvider().getName() + "'.");
+            }
+            throw e;
+        }
     }
 
     @Override
     @Transactional
     public Authentication update(Authentication authentication) {
+        return update(authentication, null);
+    }
+
+    @Override
+    @Transactional
+    public Authentication update(Authentication authentication, Long version) {
         Authentication original = findByIdNotNull(authentication.getId());
+        original.validateVersion(version);
         original.setPassword(securityService.hashValue(authentication.getPassword()));
-        return authenticationRepository.save(original);
+        return authenticationRepository.updateVersioned(original);
+    }
+
+    @Override
+    @Transactional
+    public Authentication patch(String id, Map<String, Object> patch, Long version) {
+        Authentication authentication = patchFactory.getEntity(patch, Authentication.class, patchAllowed);
+        authentication.setPassword(securityService.hashValue(authentication.getPassword()));
+
+        if (authenticationRepository.patch(id, version, patchFactory.getValues(authentication, patch.keySet())) == 0) {
+            // nothing was updated, entity doesn't exist or it was modified since the given version
+            if (!authenticationRepository.exists(id)) {
+                throw new AppDontFoundException("Data don't found.");
+            }
+            throw new AppPreconditionFailedException("Data was modified by another request.");
+        }
+
+        return authenticationRepository.findOne(id);
     }
 
     @Override
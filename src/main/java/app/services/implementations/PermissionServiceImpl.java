@@ -1,26 +1,39 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
+import app.factories.PatchFactory;
 import app.models.Permission;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.PermissionRepository;
 import app.repositories.RoleRepository;
+import app.repositories.executor.InsertExecutor;
 import app.services.PermissionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class PermissionServiceImpl implements PermissionService {
 
+    // same fields that update changes, relations can't be updated with a bulk update
+    private final List<String> patchAllowed = Arrays.asList("description");
+
     @Autowired
     private PermissionRepository permissionRepository;
 
+    @Autowired
+    private PatchFactory patchFactory;
+
     @Autowired
     private RoleRepository roleRepository;
 
@@ -31,6 +44,15 @@ public class PermissionServiceImpl implements PermissionService {
         return permissions;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Permission> consumer) {
+        permissionRepository.streamAll(p -> {
+            loadRelatedData(p);
+            consumer.accept(p);
+        });
+    }
+
     @Override
     public Permission findById(String id) {
         Permission permission = permissionRepository.findOne(id);
@@ -55,34 +77,74 @@ public class PermissionServiceImpl implements PermissionService {
         return permission;
     }
 
+    @Override
+    public Long findVersion(String id) {
+        return permissionRepository.findVersion(id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        return permissionRepository.findCollectionVersion();
+    }
+
     @Override
     @Transactional
     public Permission save(Permission permission) {
-        if (findByName(permission.getName()) != null) {
-            throw new AppValidationException("Permission name '" + permission.getName() + "' is already used.");
+        try {
+            return permissionRepository.saveNew(permission);
+        } catch (DataIntegrityViolationException e) {
+            if (InsertExecutor.isViolated(e, Permission.UNIQUE_NAME)) {
+                throw new AppValidationException("Permission name '" + permission.getName() + "' is already used.");
+            }
+            throw e;
         }
-
-        return permissionRepository.save(permission);
     }
 
     @Override
     @Transactional
     public Permission update(Permission permission) {
+        return update(permission, null);
+    }
+
+    @Override
+    @Transactional
+    public Permission update(Permission permission, Long version) {
         Permission original = findByIdNotNull(permission.getId());
+        original.validateVersion(version);
         original.setDescription(permission.getDescription());
 
         // mongo validation that avoid adding roles list to Permission table
         if (permissionRepository instanceof MongoRepository) {
             original.setRoles(null);
         }
-        return permissionRepository.save(original);
+        return permissionRepository.updateVersioned(original);
+    }
+
+    @Override
+    @Transactional
+    public Permission patch(String id, Map<String, Object> patch, Long version) {
+        Permission permission = patchFactory.getEntity(patch, Permission.class, patchAllowed);
+
+        if (permissionRepository.patch(id, version, patchFactory.getValues(permission, patch.keySet())) == 0) {
+            // nothing was updated, entity doesn't exist or it was modified since the given version
+            if (!permissionRepository.exists(id)) {
+                throw new AppDontFoundException("Data don't found.");
+            }
+            throw new AppPreconditionFailedException("Data was modified by another request.");
+        }
+
+        return permissionRepository.findOne(id);
     }
 
     @Override
     @Transactional
     public Permission delete(String id) {
-        Permission permission = findByIdNotNull(id);
-        if (permission.getRoles() != null && !permission.getRoles().isEmpty()) {
+        // findOne instead of findByIdNotNull to avoid loading the relations just to check them
+        Permission permission = permissionRepository.findOne(id);
+        if (permission == null) {
+            throw new AppDontFoundException("Data don't found.");
+        }
+        if (roleRepository.existsByPermissions(permission)) {
             throw new AppValidationException("There are some roles using the Permission '" + permission.getName() + "'.");
         }
 
@@ -1,7 +1,9 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
+import app.factories.PatchFactory;
 import app.models.Person;
 import app.pojos.pages.PageDataRequest;
 import app.pojos.responses.error.nesteds.NestedError;
@@ -17,15 +19,24 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class PersonServiceImpl implements PersonService {
 
+    // same fields that update changes, relations can't be updated with a bulk update
+    private final List<String> patchAllowed = Arrays.asList("name", "lastName", "birthday", "civilStatus", "sex", "email");
+
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private PatchFactory patchFactory;
+
     @Autowired
     private AuthenticationRepository authenticationRepository;
 
@@ -36,6 +47,15 @@ public class PersonServiceImpl implements PersonService {
         return people;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Person> consumer) {
+        personRepository.streamAll(p -> {
+            loadRelatedData(p);
+            consumer.accept(p);
+        });
+    }
+
     @Override
     public Person findById(String id) {
         Person person = personRepository.findOne(id);
@@ -53,6 +73,16 @@ public class PersonServiceImpl implements PersonService {
         return person;
     }
 
+    @Override
+    public Long findVersion(String id) {
+        return personRepository.findVersion(id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        return personRepository.findCollectionVersion();
+    }
+
     @Override
     @Transactional
     public Person save(Person person) {
@@ -63,9 +93,16 @@ public class PersonServiceImpl implements PersonService {
     @Override
     @Transactional
     public Person update(Person person) {
+        return update(person, null);
+    }
+
+    @Override
+    @Transactional
+    public Person update(Person person, Long version) {
         validateData(person);
 
         Person original = findByIdNotNull(person.getId());
+        original.validateVersion(version);
         original.setName(person.getName());
         original.setLastName(person.getLastName());
         original.setBirthday(person.getBirthday());
@@ -78,14 +115,35 @@ public class PersonServiceImpl implements PersonService {
         if (personRepository instanceof MongoRepository) {
             original.setAuthentications(null);
         }
-        return personRepository.save(original);
+        return personRepository.updateVersioned(original);
+    }
+
+    @Override
+    @Transactional
+    public Person patch(String id, Map<String, Object> patch, Long version) {
+        Person person = patchFactory.getEntity(patch, Person.class, patchAllowed);
+        validateData(person, patch.keySet());
+
+        if (personRepository.patch(id, version, patchFactory.getValues(person, patch.keySet())) == 0) {
+            // nothing was updated, entity doesn't exist or it was modified since the given version
+            if (!personRepository.exists(id)) {
+                throw new AppDontFoundException("Data don't found.");
+            }
+            throw new AppPreconditionFailedException("Data was modified by another request.");
+        }
+
+        return personRepository.findOne(id);
     }
 
     @Override
     @Transactional
     public Person delete(String id) {
-        Person person = findByIdNotNull(id);
-        if (person.getAuthentications() != null && !person.getAuthentications().isEmpty()) {
+        // findOne instead of findByIdNotNull to avoid loading the relations just to check them
+        Person person = personRepository.findOne(id);
+        if (person == null) {
+            throw new AppDontFoundException("Data don't found.");
+        }
+        if (authenticationRepository.existsByPerson(person)) {
             throw new AppValidationException("Person '" + person.getFullName() + "' has one or more authentications associated.");
         }
         personRepository.delete(person);
@@ -105,9 +163,24 @@ public class PersonServiceImpl implements PersonService {
      * @throws AppValidationException
      */
     private void validateData(Person person) throws AppValidationException {
+        validateData(person, Arrays.asList("civilStatus", "sex"));
+    }
+
+    /**
+     * Validates data integrity only for some fields
+     *
+     * @param person entity to be validated
+     * @param fields fields to be validated
+     * @throws AppValidationException
+     */
+    private void validateData(Person person, Collection<String> fields) throws AppValidationException {
         List<NestedError> nestedErrors = new ArrayList<>();
-        nestedErrors.add(validateCivilStatus(person.getCivilStatus()));
-        nestedErrors.add(validateSex(person.getSex()));
+        if (fields.contains("civilStatus")) {
+            nestedErrors.add(validateCivilStatus(person.getCivilStatus()));
+        }
+        if (fields.contains("sex")) {
+            nestedErrors.add(validateSex(person.getSex()));
+        }
 
         // remove null from list
         nestedErrors.removeAll(Collections.singleton(null));
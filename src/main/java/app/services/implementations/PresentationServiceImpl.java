@@ -1,9 +1,11 @@
 package app.services.implementations;
 
-import app.models.Authentication;
 import app.models.Model;
+import app.models.serializers.PresentationFilter;
 import app.services.PresentationService;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.List;
 
@@ -12,27 +14,27 @@ public class PresentationServiceImpl implements PresentationService {
 
     @Override
     public void prepare(List<? extends Model> models, boolean shouldLoadComplete, boolean shouldLoadAllRelations) {
-        if (models == null) {
-            return;
-        }
-
-        models.forEach(m -> prepare(m, shouldLoadComplete, shouldLoadAllRelations));
+        select(shouldLoadComplete, shouldLoadAllRelations);
     }
 
     @Override
     public void prepare(Model model, boolean shouldLoadComplete, boolean shouldLoadAllRelations) {
-        if (model == null) {
-            return;
-        }
+        select(shouldLoadComplete, shouldLoadAllRelations);
+    }
 
-        // if shouldLoadAllRelations is true, shouldLoadComplete is true as well
-        shouldLoadComplete = shouldLoadAllRelations || shouldLoadComplete;
-        if (!shouldLoadComplete || !shouldLoadAllRelations) {
-            model.cleanRelations(!shouldLoadComplete);
+    /**
+     * Save the PresentationFilter in the current Request (used by PresentationAdvice)
+     *
+     * @param shouldLoadComplete     if true write data with only first level relations
+     * @param shouldLoadAllRelations if true write data with all nested relations
+     */
+    private void select(boolean shouldLoadComplete, boolean shouldLoadAllRelations) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
         }
 
-        if (model instanceof Authentication) {
-            ((Authentication) model).cleanAuthData();
-        }
+        attributes.setAttribute(PresentationFilter.ATTRIBUTE, PresentationFilter.of(shouldLoadComplete, shouldLoadAllRelations),
+                RequestAttributes.SCOPE_REQUEST);
     }
-}
\ No newline at end of file
+}
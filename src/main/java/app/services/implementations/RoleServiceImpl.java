@@ -1,26 +1,39 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
+import app.factories.PatchFactory;
 import app.models.Role;
 import app.pojos.pages.PageDataRequest;
 import app.repositories.PersonRepository;
 import app.repositories.RoleRepository;
+import app.repositories.executor.InsertExecutor;
 import app.services.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class RoleServiceImpl implements RoleService {
 
+    // same fields that update changes, relations can't be updated with a bulk update
+    private final List<String> patchAllowed = Arrays.asList("description");
+
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private PatchFactory patchFactory;
+
     @Autowired
     private PersonRepository personRepository;
 
@@ -31,6 +44,15 @@ public class RoleServiceImpl implements RoleService {
         return roles;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Role> consumer) {
+        roleRepository.streamAll(r -> {
+            loadRelatedData(r);
+            consumer.accept(r);
+        });
+    }
+
     @Override
     public Role findById(String id) {
         Role role = roleRepository.findOne(id);
@@ -55,20 +77,40 @@ public class RoleServiceImpl implements RoleService {
         return role;
     }
 
+    @Override
+    public Long findVersion(String id) {
+        return roleRepository.findVersion(id);
+    }
+
+    @Override
+    public String findCollectionVersion() {
+        return roleRepository.findCollectionVersion();
+    }
+
     @Override
     @Transactional
     public Role save(Role role) {
-        if (findByName(role.getName()) != null) {
-            throw new AppValidationException("Role name '" + role.getName() + "' is already used.");
+        try {
+            return roleRepository.saveNew(role);
+        } catch (DataIntegrityViolationException e) {
+            if (InsertExecutor.isViolated(e, Role.UNIQUE_NAME)) {
+                throw new AppValidationException("Role name '" + role.getName() + "' is already used.");
+            }
+            throw e;
         }
-
-        return roleRepository.save(role);
     }
 
     @Override
     @Transactional
     public Role update(Role role) {
+        return update(role, null);
+    }
+
+    @Override
+    @Transactional
+    public Role update(Role role, Long version) {
         Role original = findByIdNotNull(role.getId());
+        original.validateVersion(version);
         original.setDescription(role.getDescription());
         original.setPermissions(role.getPermissions());
 
@@ -76,14 +118,34 @@ public class RoleServiceImpl implements RoleService {
         if (roleRepository instanceof MongoRepository) {
             original.setPeople(null);
         }
-        return roleRepository.save(original);
+        return roleRepository.updateVersioned(original);
+    }
+
+    @Override
+    @Transactional
+    public Role patch(String id, Map<String, Object> patch, Long version) {
+        Role role = patchFactory.getEntity(patch, Role.class, patchAllowed);
+
+        if (roleRepository.patch(id, version, patchFactory.getValues(role, patch.keySet())) == 0) {
+            // nothing was updated, entity doesn't exist or it was modified since the given version
+            if (!roleRepository.exists(id)) {
+                throw new AppDontFoundException("Data don't found.");
+            }
+            throw new AppPreconditionFailedException("Data was modified by another request.");
+        }
+
+        return roleRepository.findOne(id);
     }
 
     @Override
     @Transactional
     public Role delete(String id) {
-        Role role = findByIdNotNull(id);
-        if (role.getPeople() != null && !role.getPeople().isEmpty()) {
+        // findOne instead of findByIdNotNull to avoid loading the relations just to check them
+        Role role = roleRepository.findOne(id);
+        if (role == null) {
+            throw new AppDontFoundException("Data don't found.");
+        }
+        if (personRepository.existsByRoles(role)) {
             throw new AppValidationException("There are some people using the Role '" + role.getName() + "'.");
         }
 
@@ -0,0 +1,143 @@
+package app.services.implementations;
+
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppValidationException;
+import app.repositories.*;
+import app.repositories.executor.SnapshotExecutor;
+import app.repositories.mongo.MongoSnapshotTemplate;
+import app.repositories.mysql.JpaSnapshotTemplate;
+import app.services.SnapshotService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class SnapshotServiceImpl implements SnapshotService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // rows only have Strings and numbers, so the application mapper (filters, mixins) isn't needed
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private JpaSnapshotTemplate jpaSnapshotTemplate;
+
+    @Autowired
+    private MongoSnapshotTemplate mongoSnapshotTemplate;
+
+    @Value("${snapshot.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        JsonGenerator generator = mapper.getFactory().createGenerator(gzip);
+        generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+        SnapshotExecutor executor = getExecutor();
+        try {
+            for (String table : SnapshotExecutor.TABLES) {
+                executor.exportTable(table, row -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeStringField("table", table);
+                        generator.writeObjectField("row", row);
+                        generator.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.writeRaw('\n');
+        generator.flush();
+        gzip.finish();
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> restore(InputStream inputStream) throws IOException, AppPreconditionFailedException, AppValidationException {
+        if (authProviderRepository.count() > 0 || permissionRepository.count() > 0 || roleRepository.count() > 0
+                || personRepository.count() > 0 || authenticationRepository.count() > 0) {
+            throw new AppPreconditionFailedException("Data Base must be empty to restore a snapshot.");
+        }
+
+        Map<String, Long> restored = new LinkedHashMap<>();
+        SnapshotExecutor.TABLES.forEach(table -> restored.put(table, 0L));
+
+        SnapshotExecutor executor = getExecutor();
+        String table = null;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (MappingIterator<Map<String, Object>> lines = mapper.readerFor(Map.class).readValues(new GZIPInputStream(inputStream, BUFFER_SIZE))) {
+            while (lines.hasNextValue()) {
+                Map<String, Object> line = lines.nextValue();
+                Object lineTable = line.get("table");
+                if (!restored.containsKey(lineTable)) {
+                    throw new AppValidationException("Snapshot has an unknown table '" + lineTable + "'.");
+                }
+                if (!lineTable.equals(table) || rows.size() >= batchSize) {
+                    insert(executor, table, rows, restored);
+                    table = (String) lineTable;
+                    rows = new ArrayList<>();
+                }
+                rows.add((Map<String, Object>) line.get("row"));
+            }
+        }
+        insert(executor, table, rows, restored);
+        return restored;
+    }
+
+    /**
+     * Insert a batch of rows of the same table
+     *
+     * @param executor snapshot executor
+     * @param table    table name
+     * @param rows     rows to be inserted
+     * @param restored number of inserted rows by table
+     */
+    private void insert(SnapshotExecutor executor, String table, List<Map<String, Object>> rows, Map<String, Long> restored) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        executor.importTable(table, rows);
+        restored.put(table, restored.get(table) + rows.size());
+    }
+
+    private SnapshotExecutor getExecutor() {
+        return !(personRepository instanceof MongoRepository) ? jpaSnapshotTemplate : mongoSnapshotTemplate;
+    }
+}
@@ -0,0 +1,236 @@
+package app;
+
+import app.models.*;
+import app.repositories.*;
+import app.security.services.SecurityService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.*;
+
+public class DataGeneratorTest {
+
+    private AuthProviderRepository authProviderRepository;
+
+    private PersonRepository personRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        authProviderRepository = mock(AuthProviderRepository.class);
+        personRepository = mock(PersonRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        given(transactionManager.getTransaction(any())).willReturn(mock(TransactionStatus.class));
+    }
+
+    /**
+     * Should insert the configured number of entities in batches, each batch in its own transaction
+     */
+    @Test
+    public void generate() {
+        final DataGenerator DATA_GENERATOR = createDataGenerator(42L);
+        final List<Person> PEOPLE = new ArrayList<>();
+        final List<Authentication> AUTHENTICATIONS = new ArrayList<>();
+
+        final long RESULT = generate(DATA_GENERATOR, PEOPLE, AUTHENTICATIONS);
+
+        assertEquals(20 + 5 + 250 + 200, RESULT);
+        assertEquals(250, PEOPLE.size());
+        assertEquals(200, AUTHENTICATIONS.size());
+        // permissions, roles, auth provider and 3 batches of people
+        verify(transactionManager, times(6)).commit(any());
+        PEOPLE.forEach(p -> {
+            assertFalse(p.getRoles().isEmpty());
+            assertTrue(p.getRoles().size() <= 3);
+        });
+        AUTHENTICATIONS.forEach(a -> {
+            assertEquals("hash", a.getPassword());
+            assertEquals("LOCAL", a.getAuthProvider().getName());
+            assertTrue(PEOPLE.contains(a.getPerson()));
+        });
+        assertEquals("generated0000000", AUTHENTICATIONS.get(0).getUsername());
+        assertSame(PEOPLE.get(0), AUTHENTICATIONS.get(0).getPerson());
+    }
+
+    /**
+     * Should generate the same values when the seed is the same and different values when it's different
+     */
+    @Test
+    public void generateDeterministic() {
+        final List<Person> PEOPLE_1 = new ArrayList<>();
+        final List<Person> PEOPLE_2 = new ArrayList<>();
+        final List<Person> PEOPLE_3 = new ArrayList<>();
+        generate(createDataGenerator(42L), PEOPLE_1, new ArrayList<>());
+        generate(createDataGenerator(42L), PEOPLE_2, new ArrayList<>());
+        generate(createDataGenerator(7L), PEOPLE_3, new ArrayList<>());
+
+        assertEquals(describe(PEOPLE_1), describe(PEOPLE_2));
+        assertNotEquals(describe(PEOPLE_1), describe(PEOPLE_3));
+    }
+
+    /**
+     * Should not insert anything when Data Base already has the generated values
+     */
+    @Test
+    public void generateWhenAlreadyGenerated() {
+        final List<Person> PEOPLE = new ArrayList<>();
+        final List<Permission> SAVED_PERMISSIONS = new ArrayList<>();
+
+        final long RESULT = generate(createDataGenerator(42L), PEOPLE, new ArrayList<>(), SAVED_PERMISSIONS,
+                createPermissions(20), createRoles(5), 250L);
+
+        assertEquals(0, RESULT);
+        assertTrue(PEOPLE.isEmpty());
+        assertTrue(SAVED_PERMISSIONS.isEmpty());
+        verifyZeroInteractions(authProviderRepository, transactionManager);
+    }
+
+    /**
+     * Should insert only the missing permissions and people (resumed by index with the same values than a full run)
+     * when a previous run stopped or generator.people was raised
+     */
+    @Test
+    public void generateWhenPartiallyGenerated() {
+        final List<Person> PEOPLE_EXPECTED = new ArrayList<>();
+        final List<Authentication> AUTHENTICATIONS_EXPECTED = new ArrayList<>();
+        generate(createDataGenerator(42L), PEOPLE_EXPECTED, AUTHENTICATIONS_EXPECTED);
+        final List<Person> PEOPLE = new ArrayList<>();
+        final List<Authentication> AUTHENTICATIONS = new ArrayList<>();
+        final List<Permission> SAVED_PERMISSIONS = new ArrayList<>();
+
+        final long RESULT = generate(createDataGenerator(42L), PEOPLE, AUTHENTICATIONS, SAVED_PERMISSIONS,
+                createPermissions(15), createRoles(5), 120L);
+
+        assertEquals(5 + 130 + 80, RESULT);
+        assertEquals(Arrays.asList("GENERATED_PERMISSION_00015", "GENERATED_PERMISSION_00016", "GENERATED_PERMISSION_00017",
+                "GENERATED_PERMISSION_00018", "GENERATED_PERMISSION_00019"),
+                SAVED_PERMISSIONS.stream().map(Permission::getName).collect(Collectors.toList()));
+        assertEquals(describe(PEOPLE_EXPECTED.subList(120, 250)), describe(PEOPLE));
+        assertEquals(AUTHENTICATIONS_EXPECTED.subList(120, 200).stream().map(Authentication::getUsername).collect(Collectors.toList()),
+                AUTHENTICATIONS.stream().map(Authentication::getUsername).collect(Collectors.toList()));
+        // 6 commits of the full run, then permissions, auth provider and 2 batches of people (roles already exist)
+        verify(transactionManager, times(6 + 4)).commit(any());
+    }
+
+    /**
+     * Should pick the most popular ranks more often and always inside the range
+     */
+    @Test
+    public void zipfDistribution() {
+        final DataGenerator.ZipfDistribution DISTRIBUTION = new DataGenerator.ZipfDistribution(10, 1.0);
+        final Random RANDOM = new Random(1);
+        final int[] COUNTS = new int[10];
+
+        for (int i = 0; i < 100000; i++) {
+            COUNTS[DISTRIBUTION.sample(RANDOM)]++;
+        }
+
+        for (int k = 1; k < COUNTS.length; k++) {
+            assertTrue(COUNTS[k - 1] > COUNTS[k]);
+        }
+        // rank 0 has 1 / H(10) = 34% of the samples
+        assertEquals(0.34, COUNTS[0] / 100000.0, 0.01);
+    }
+
+    /**
+     * Should pick every rank with the same probability when skew is 0
+     */
+    @Test
+    public void zipfDistributionUniform() {
+        final DataGenerator.ZipfDistribution DISTRIBUTION = new DataGenerator.ZipfDistribution(4, 0);
+        final Random RANDOM = new Random(1);
+        final int[] COUNTS = new int[4];
+
+        for (int i = 0; i < 100000; i++) {
+            COUNTS[DISTRIBUTION.sample(RANDOM)]++;
+        }
+
+        Arrays.stream(COUNTS).forEach(c -> assertEquals(0.25, c / 100000.0, 0.01));
+    }
+
+    private DataGenerator createDataGenerator(long seed) {
+        final SecurityService securityService = mock(SecurityService.class);
+        given(securityService.hashValue("123")).willReturn("hash");
+
+        final DataGenerator dataGenerator = new DataGenerator();
+        ReflectionTestUtils.setField(dataGenerator, "authProviderRepository", authProviderRepository);
+        ReflectionTestUtils.setField(dataGenerator, "personRepository", personRepository);
+        ReflectionTestUtils.setField(dataGenerator, "securityService", securityService);
+        ReflectionTestUtils.setField(dataGenerator, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(dataGenerator, "seed", seed);
+        ReflectionTestUtils.setField(dataGenerator, "permissions", 20);
+        ReflectionTestUtils.setField(dataGenerator, "roles", 5);
+        ReflectionTestUtils.setField(dataGenerator, "people", 250);
+        ReflectionTestUtils.setField(dataGenerator, "authentications", 200);
+        ReflectionTestUtils.setField(dataGenerator, "maxRolesPerPerson", 3);
+        ReflectionTestUtils.setField(dataGenerator, "maxPermissionsPerRole", 8);
+        ReflectionTestUtils.setField(dataGenerator, "skew", 1.0);
+        ReflectionTestUtils.setField(dataGenerator, "batchSize", 100);
+        return dataGenerator;
+    }
+
+    private long generate(DataGenerator dataGenerator, List<Person> people, List<Authentication> authentications) {
+        return generate(dataGenerator, people, authentications, new ArrayList<>(), Collections.emptyList(), Collections.emptyList(), 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long generate(DataGenerator dataGenerator, List<Person> people, List<Authentication> authentications, List<Permission> savedPermissions,
+                          List<Permission> existingPermissions, List<Role> existingRoles, long generated) {
+        final AuthenticationRepository authenticationRepository = mock(AuthenticationRepository.class);
+        final RoleRepository roleRepository = mock(RoleRepository.class);
+        final PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        given(permissionRepository.findAll()).willReturn(existingPermissions);
+        given(roleRepository.findAll()).willReturn(existingRoles);
+        given(personRepository.countDistinctByRolesIn(anyCollectionOf(Role.class))).willReturn(generated);
+        given(permissionRepository.save(anyCollectionOf(Permission.class))).willAnswer(i -> {
+            savedPermissions.addAll((Collection<Permission>) i.getArguments()[0]);
+            return new ArrayList<>((Collection<Permission>) i.getArguments()[0]);
+        });
+        given(roleRepository.save(anyCollectionOf(Role.class))).willAnswer(i -> new ArrayList<>((Collection<Role>) i.getArguments()[0]));
+        given(authProviderRepository.save(any(AuthProvider.class))).willAnswer(i -> i.getArguments()[0]);
+        given(personRepository.save(anyCollectionOf(Person.class))).willAnswer(i -> {
+            people.addAll((Collection<Person>) i.getArguments()[0]);
+            return null;
+        });
+        given(authenticationRepository.save(anyCollectionOf(Authentication.class))).willAnswer(i -> {
+            authentications.addAll((Collection<Authentication>) i.getArguments()[0]);
+            return null;
+        });
+        ReflectionTestUtils.setField(dataGenerator, "authenticationRepository", authenticationRepository);
+        ReflectionTestUtils.setField(dataGenerator, "roleRepository", roleRepository);
+        ReflectionTestUtils.setField(dataGenerator, "permissionRepository", permissionRepository);
+        return dataGenerator.generate();
+    }
+
+    private List<Permission> createPermissions(int size) {
+        return IntStream.range(0, size).mapToObj(i -> {
+            final Permission permission = new Permission(String.format("GENERATED_PERMISSION_%05d", i), "D");
+            permission.setId("P" + i);
+            return permission;
+        }).collect(Collectors.toList());
+    }
+
+    private List<Role> createRoles(int size) {
+        return IntStream.range(0, size).mapToObj(i -> {
+            final Role role = new Role(String.format("GENERATED_ROLE_%05d", i), "D", null);
+            role.setId("R" + i);
+            return role;
+        }).collect(Collectors.toList());
+    }
+
+    private List<String> describe(List<Person> people) {
+        return people.stream().map(p -> p.getName() + p.getLastName() + p.getBirthday() + p.getEmail()
+                + p.getRoles().stream().map(Role::getName).sorted().collect(Collectors.toList())).collect(Collectors.toList());
+    }
+}
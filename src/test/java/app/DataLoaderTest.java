@@ -0,0 +1,279 @@
+package app;
+
+import app.models.*;
+import app.pojos.metrics.StartupSnapshot;
+import app.repositories.*;
+import app.security.services.SecurityService;
+import app.services.SnapshotService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class DataLoaderTest {
+
+    private DataLoader dataLoader;
+
+    private AuthProviderRepository authProviderRepository;
+
+    private AuthenticationRepository authenticationRepository;
+
+    private PersonRepository personRepository;
+
+    private RoleRepository roleRepository;
+
+    private PermissionRepository permissionRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private SnapshotService snapshotService;
+
+    @Before
+    public void setup() {
+        authProviderRepository = mock(AuthProviderRepository.class);
+        authenticationRepository = mock(AuthenticationRepository.class);
+        personRepository = mock(PersonRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        permissionRepository = mock(PermissionRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        snapshotService = mock(SnapshotService.class);
+        final SecurityService securityService = mock(SecurityService.class);
+        given(securityService.hashValue("123")).willReturn("hash");
+        given(transactionManager.getTransaction(any())).willReturn(mock(TransactionStatus.class));
+
+        dataLoader = new DataLoader();
+        ReflectionTestUtils.setField(dataLoader, "authProviderRepository", authProviderRepository);
+        ReflectionTestUtils.setField(dataLoader, "authenticationRepository", authenticationRepository);
+        ReflectionTestUtils.setField(dataLoader, "personRepository", personRepository);
+        ReflectionTestUtils.setField(dataLoader, "roleRepository", roleRepository);
+        ReflectionTestUtils.setField(dataLoader, "permissionRepository", permissionRepository);
+        ReflectionTestUtils.setField(dataLoader, "securityService", securityService);
+        ReflectionTestUtils.setField(dataLoader, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(dataLoader, "snapshotService", snapshotService);
+    }
+
+    /**
+     * Should be ready when the application is ready and data-loader is false
+     */
+    @Test
+    public void onApplicationReadyWhenNotLoadData() {
+        ReflectionTestUtils.setField(dataLoader, "loadData", false);
+
+        assertFalse(dataLoader.isReady());
+        dataLoader.onApplicationReady(new ApplicationReadyEvent(mock(SpringApplication.class), new String[0], null));
+        final StartupSnapshot snapshotResult = dataLoader.snapshot();
+
+        assertTrue(dataLoader.isReady());
+        assertTrue(snapshotResult.isReady());
+        assertTrue(snapshotResult.getStartupTime() > 0);
+        assertNull(snapshotResult.getSeedingTime());
+        assertEquals(Long.valueOf(snapshotResult.getStartupTime()), snapshotResult.getReadyTime());
+        verifyZeroInteractions(authProviderRepository, transactionManager);
+    }
+
+    /**
+     * Should load data in another thread and be ready when it finished
+     */
+    @Test
+    public void onApplicationReadyWhenLoadData() throws Exception {
+        ReflectionTestUtils.setField(dataLoader, "loadData", true);
+        given(authProviderRepository.count()).willReturn(1L);
+
+        dataLoader.onApplicationReady(new ApplicationReadyEvent(mock(SpringApplication.class), new String[0], null));
+        final long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!dataLoader.isReady() && System.nanoTime() < limit) {
+            Thread.sleep(10);
+        }
+        final StartupSnapshot snapshotResult = dataLoader.snapshot();
+
+        assertTrue(dataLoader.isReady());
+        assertNotNull(snapshotResult.getSeedingTime());
+        assertEquals(Long.valueOf(snapshotResult.getStartupTime() + snapshotResult.getSeedingTime()), snapshotResult.getReadyTime());
+        verify(authProviderRepository, times(1)).count();
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    /**
+     * Should insert all default values in a single transaction with one bulk save per entity
+     */
+    @Test
+    public void setupDatabaseWhenEmpty() {
+        given(authProviderRepository.count()).willReturn(0L);
+
+        dataLoader.setupDatabase();
+
+        assertTrue(dataLoader.isReady());
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(1, getSaved(authProviderRepository, AuthProvider.class).size());
+        assertEquals(7, getSaved(permissionRepository, Permission.class).size());
+        assertEquals(2, getSaved(roleRepository, Role.class).size());
+        assertEquals(3, getSaved(personRepository, Person.class).size());
+        final List<Authentication> authentications = getSaved(authenticationRepository, Authentication.class);
+        assertEquals(3, authentications.size());
+        authentications.forEach(a -> assertEquals("hash", a.getPassword()));
+    }
+
+    /**
+     * Should not insert anything when Data Base isn't empty
+     */
+    @Test
+    public void setupDatabaseWhenNotEmpty() {
+        given(authProviderRepository.count()).willReturn(1L);
+
+        dataLoader.setupDatabase();
+
+        assertTrue(dataLoader.isReady());
+        verify(transactionManager, times(1)).commit(any());
+        verify(authProviderRepository, never()).save(anyCollectionOf(AuthProvider.class));
+        verify(permissionRepository, never()).save(anyCollectionOf(Permission.class));
+        verify(authenticationRepository, never()).save(anyCollectionOf(Authentication.class));
+    }
+
+    /**
+     * Should insert VIEW_METRICS and grant it to ADMIN when Data Base isn't empty and was created without it
+     */
+    @Test
+    public void setupDatabaseWhenMetricsPermissionMissing() {
+        final Permission PERMISSION = new Permission("VIEW_METRICS", "Allows to view application metrics");
+        final Role ADMIN = new Role("ADMIN", "User with all permissions", new HashSet<>(Collections.singletonList(new Permission("VIEW_ROLES", "view"))));
+        given(authProviderRepository.count()).willReturn(1L);
+        given(permissionRepository.save(any(Permission.class))).willReturn(PERMISSION);
+        given(roleRepository.findByName("ADMIN")).willReturn(ADMIN);
+
+        dataLoader.setupDatabase();
+
+        assertTrue(dataLoader.isReady());
+        assertEquals(2, ADMIN.getPermissions().size());
+        assertTrue(ADMIN.getPermissions().contains(PERMISSION));
+        verify(permissionRepository, times(1)).save(any(Permission.class));
+        verify(roleRepository, times(1)).save(ADMIN);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    /**
+     * Should not insert VIEW_METRICS nor save ADMIN when it already has it
+     */
+    @Test
+    public void setupDatabaseWhenMetricsPermissionGranted() {
+        final Permission PERMISSION = new Permission("VIEW_METRICS", "Allows to view application metrics");
+        final Role ADMIN = new Role("ADMIN", "User with all permissions", new HashSet<>(Collections.singletonList(PERMISSION)));
+        given(authProviderRepository.count()).willReturn(1L);
+        given(permissionRepository.findByName("VIEW_METRICS")).willReturn(PERMISSION);
+        given(roleRepository.findByName("ADMIN")).willReturn(ADMIN);
+
+        dataLoader.setupDatabase();
+
+        assertTrue(dataLoader.isReady());
+        assertEquals(1, ADMIN.getPermissions().size());
+        verify(permissionRepository, never()).save(any(Permission.class));
+        verify(roleRepository, never()).save(any(Role.class));
+    }
+
+    /**
+     * Should roll back and never be ready when loading fails
+     */
+    @Test
+    public void setupDatabaseWhenFails() {
+        given(authProviderRepository.count()).willReturn(0L);
+        given(permissionRepository.save(anyCollectionOf(Permission.class))).willThrow(new RuntimeException());
+
+        dataLoader.setupDatabase();
+
+        assertFalse(dataLoader.isReady());
+        assertTrue(dataLoader.isFailed());
+        assertFalse(dataLoader.snapshot().isReady());
+        assertNull(dataLoader.snapshot().getReadyTime());
+        assertNotNull(dataLoader.snapshot().getSeedingTime());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(roleRepository, never()).save(anyCollectionOf(Role.class));
+    }
+
+    /**
+     * Should restore snapshot.file instead of inserting default values when Data Base is empty
+     */
+    @Test
+    public void setupDatabaseWhenSnapshot() throws Exception {
+        final File SNAPSHOT = File.createTempFile("snapshot", ".ndjson.gz");
+        SNAPSHOT.deleteOnExit();
+        Files.write(SNAPSHOT.toPath(), "snapshot".getBytes());
+        ReflectionTestUtils.setField(dataLoader, "snapshotFile", SNAPSHOT.getAbsolutePath());
+        given(authProviderRepository.count()).willReturn(0L);
+        final StringBuilder readResult = new StringBuilder();
+        given(snapshotService.restore(any())).willAnswer(invocation -> {
+            final InputStream inputStream = (InputStream) invocation.getArguments()[0];
+            int read;
+            while ((read = inputStream.read()) != -1) {
+                readResult.append((char) read);
+            }
+            return null;
+        });
+
+        dataLoader.setupDatabase();
+
+        assertTrue(dataLoader.isReady());
+        assertNotNull(dataLoader.snapshot().getSeedingTime());
+        assertEquals("snapshot", readResult.toString());
+        verify(snapshotService, times(1)).restore(any());
+        verify(permissionRepository, times(1)).findByName("VIEW_METRICS");
+        verify(permissionRepository, never()).save(anyCollectionOf(Permission.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    /**
+     * Should not restore snapshot.file when Data Base isn't empty
+     */
+    @Test
+    public void setupDatabaseWhenSnapshotNotEmpty() throws Exception {
+        ReflectionTestUtils.setField(dataLoader, "snapshotFile", "snapshot.ndjson.gz");
+        given(authProviderRepository.count()).willReturn(1L);
+
+        dataLoader.setupDatabase();
+
+        assertTrue(dataLoader.isReady());
+        verify(snapshotService, never()).restore(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    /**
+     * Should never be ready when snapshot.file can't be restored
+     */
+    @Test
+    public void setupDatabaseWhenSnapshotFails() throws Exception {
+        ReflectionTestUtils.setField(dataLoader, "snapshotFile", "not-found.ndjson.gz");
+        given(authProviderRepository.count()).willReturn(0L);
+
+        dataLoader.setupDatabase();
+
+        assertFalse(dataLoader.isReady());
+        assertTrue(dataLoader.isFailed());
+        verify(snapshotService, never()).restore(any());
+        verifyZeroInteractions(transactionManager);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> getSaved(Object repository, Class<T> type) {
+        final List<T> saved = new ArrayList<>();
+        mockingDetails(repository).getInvocations().stream().filter(i -> i.getMethod().getName().equals("save"))
+                .forEach(i -> saved.addAll((Collection<T>) i.getArguments()[0]));
+        return saved;
+    }
+}
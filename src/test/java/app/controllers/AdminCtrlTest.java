@@ -0,0 +1,412 @@
+package app.controllers;
+
+import app.factories.ResponseFactory;
+import app.metrics.PoolMetrics;
+import app.metrics.SlowQueryLog;
+import app.pojos.metrics.PoolSnapshot;
+import app.pojos.metrics.SlowQuerySnapshot;
+import app.security.pojos.LoggedUser;
+import app.security.services.TokenService;
+import app.services.SnapshotService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdminCtrlTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Captor
+    private ArgumentCaptor<Exception> captor;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private ResponseFactory responseFactory;
+
+    // spy because the pool needs the real metrics tracker while the context starts
+    @SpyBean
+    private PoolMetrics poolMetrics;
+
+    @MockBean
+    private SnapshotService snapshotService;
+
+    @MockBean
+    private SlowQueryLog slowQueryLog;
+
+    private final String INVALID_TOKEN = "invalid";
+
+    private final String VALID_TOKEN = "valid";
+
+    private final String VIEW_METRICS_TOKEN = "metrics";
+
+    private final String MANAGE_METRICS_TOKEN = "manage metrics";
+
+    private final String SNAPSHOT_TOKEN = "snapshot";
+
+    private final String BASE_URL = "/admin";
+
+    private CtrlTest ctrlTest;
+
+    @Before
+    public void setup() throws Exception {
+        ctrlTest = new CtrlTest(mvc, captor, tokenService, responseFactory, INVALID_TOKEN, VALID_TOKEN);
+
+        given(tokenService.getLoggedUser(VIEW_METRICS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_METRICS"))));
+        given(tokenService.getLoggedUser(MANAGE_METRICS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_METRICS", "CREATE_ROLES"))));
+        given(tokenService.getLoggedUser(SNAPSHOT_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("CREATE_USERS", "CREATE_ROLES"))));
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void poolNotToken() throws Exception {
+        ctrlTest.getNotToken(BASE_URL + "/pool");
+        verify(poolMetrics, never()).snapshot();
+        verify(responseFactory, never()).success(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void poolInvalid() throws Exception {
+        ctrlTest.getInvalid(BASE_URL + "/pool");
+        verify(poolMetrics, never()).snapshot();
+        verify(responseFactory, never()).success(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void poolNotPermission() throws Exception {
+        ctrlTest.getNotPermission(BASE_URL + "/pool");
+        verify(poolMetrics, never()).snapshot();
+        verify(responseFactory, never()).success(any());
+    }
+
+    /**
+     * Should return pool metrics when permission
+     */
+    @Test
+    public void poolSuccess() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/pool")
+                        .header("Authorization", "Bearer " + VIEW_METRICS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final PoolSnapshot snapshot = new PoolSnapshot();
+        willReturn(snapshot).given(poolMetrics).snapshot();
+        given(responseFactory.success(snapshot)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_METRICS_TOKEN);
+        verify(poolMetrics, times(1)).snapshot();
+        verify(responseFactory, times(1)).success(snapshot);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void slowQueriesNotToken() throws Exception {
+        ctrlTest.getNotToken(BASE_URL + "/slow-queries");
+        verify(slowQueryLog, never()).getEntries();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void slowQueriesInvalid() throws Exception {
+        ctrlTest.getInvalid(BASE_URL + "/slow-queries");
+        verify(slowQueryLog, never()).getEntries();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void slowQueriesNotPermission() throws Exception {
+        ctrlTest.getNotPermission(BASE_URL + "/slow-queries");
+        verify(slowQueryLog, never()).getEntries();
+    }
+
+    /**
+     * Should return the slow queries when permission
+     */
+    @Test
+    public void slowQueriesSuccess() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/slow-queries")
+                        .header("Authorization", "Bearer " + VIEW_METRICS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final List<SlowQuerySnapshot> entries = Arrays.asList(new SlowQuerySnapshot(), new SlowQuerySnapshot());
+        given(slowQueryLog.getEntries()).willReturn(entries);
+        given(responseFactory.success(entries)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_METRICS_TOKEN);
+        verify(slowQueryLog, times(1)).getEntries();
+        verify(responseFactory, times(1)).success(entries);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void clearSlowQueriesNotToken() throws Exception {
+        ctrlTest.deleteNotToken(BASE_URL + "/slow-queries");
+        verify(slowQueryLog, never()).clear();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void clearSlowQueriesInvalid() throws Exception {
+        ctrlTest.deleteInvalid(BASE_URL + "/slow-queries");
+        verify(slowQueryLog, never()).clear();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void clearSlowQueriesNotPermission() throws Exception {
+        ctrlTest.deleteNotPermission(BASE_URL + "/slow-queries");
+        verify(slowQueryLog, never()).clear();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when only view metrics permission
+     */
+    @Test
+    public void clearSlowQueriesMetricsPermission() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.delete(BASE_URL + "/slow-queries")
+                        .header("Authorization", "Bearer " + VIEW_METRICS_TOKEN);
+
+        given(responseFactory.error(any(Exception.class))).willReturn(new ResponseEntity("error", HttpStatus.UNAUTHORIZED));
+
+        mvc.perform(builder).andExpect(status().isUnauthorized());
+
+        verify(slowQueryLog, never()).clear();
+    }
+
+    /**
+     * Should remove the slow queries when permissions
+     */
+    @Test
+    public void clearSlowQueriesSuccess() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.delete(BASE_URL + "/slow-queries")
+                        .header("Authorization", "Bearer " + MANAGE_METRICS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        given(responseFactory.success(null)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(MANAGE_METRICS_TOKEN);
+        verify(slowQueryLog, times(1)).clear();
+        verify(responseFactory, times(1)).success(null);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void exportSnapshotNotToken() throws Exception {
+        ctrlTest.getNotToken(BASE_URL + "/snapshot");
+        verify(snapshotService, never()).export(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void exportSnapshotInvalid() throws Exception {
+        ctrlTest.getInvalid(BASE_URL + "/snapshot");
+        verify(snapshotService, never()).export(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void exportSnapshotNotPermission() throws Exception {
+        ctrlTest.getNotPermission(BASE_URL + "/snapshot");
+        verify(snapshotService, never()).export(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when only one of the needed permissions
+     */
+    @Test
+    public void exportSnapshotMetricsPermission() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/snapshot")
+                        .header("Authorization", "Bearer " + VIEW_METRICS_TOKEN);
+
+        given(responseFactory.error(any(Exception.class))).willReturn(new ResponseEntity("error", HttpStatus.UNAUTHORIZED));
+
+        mvc.perform(builder).andExpect(status().isUnauthorized());
+
+        verify(snapshotService, never()).export(any());
+    }
+
+    /**
+     * Should write the snapshot as a gzip attachment when permission
+     */
+    @Test
+    public void exportSnapshotSuccess() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/snapshot")
+                        .header("Authorization", "Bearer " + SNAPSHOT_TOKEN);
+
+        final byte[] BODY_EXPECTED = "snapshot".getBytes(StandardCharsets.UTF_8);
+        willAnswer(invocation -> {
+            ((OutputStream) invocation.getArguments()[0]).write(BODY_EXPECTED);
+            return null;
+        }).given(snapshotService).export(any());
+
+        final byte[] bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"snapshot.ndjson.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(BODY_EXPECTED, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(SNAPSHOT_TOKEN);
+        verify(snapshotService, times(1)).export(any());
+        verify(responseFactory, never()).success(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void restoreSnapshotNotToken() throws Exception {
+        ctrlTest.postNotToken(BASE_URL + "/snapshot");
+        verify(snapshotService, never()).restore(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void restoreSnapshotInvalid() throws Exception {
+        ctrlTest.postInvalid(BASE_URL + "/snapshot");
+        verify(snapshotService, never()).restore(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void restoreSnapshotNotPermission() throws Exception {
+        ctrlTest.postNotPermission(BASE_URL + "/snapshot", "");
+        verify(snapshotService, never()).restore(any());
+    }
+
+    /**
+     * Should restore the request body and return the inserted rows when permission
+     */
+    @Test
+    public void restoreSnapshotSuccess() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.post(BASE_URL + "/snapshot")
+                        .header("Authorization", "Bearer " + SNAPSHOT_TOKEN)
+                        .contentType("application/gzip")
+                        .content("snapshot".getBytes(StandardCharsets.UTF_8));
+
+        final String bodyExpected = "test";
+        final Map<String, Long> restored = new TreeMap<>();
+        restored.put("person", 3L);
+        final StringBuilder bodyRead = new StringBuilder();
+        given(snapshotService.restore(any())).willAnswer(invocation -> {
+            final InputStream inputStream = (InputStream) invocation.getArguments()[0];
+            int read;
+            while ((read = inputStream.read()) != -1) {
+                bodyRead.append((char) read);
+            }
+            return restored;
+        });
+        given(responseFactory.success(restored)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(bodyExpected, bodyResult);
+        assertEquals("snapshot", bodyRead.toString());
+        verify(tokenService, times(1)).getLoggedUser(SNAPSHOT_TOKEN);
+        verify(snapshotService, times(1)).restore(any());
+        verify(responseFactory, times(1)).success(restored);
+    }
+}
\ No newline at end of file
@@ -7,6 +7,7 @@ import app.models.Authentication;
 import app.models.Person;
 import app.pojos.pages.PageDataRequest;
 import app.pojos.pages.PageDataResponse;
+import app.pojos.responses.success.ItemStream;
 import app.security.pojos.LoggedUser;
 import app.security.services.TokenService;
 import app.services.AuthenticationService;
@@ -32,8 +33,11 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
@@ -104,7 +108,7 @@ public class AuthenticationCtrlTest {
     @Test
     public void listNotToken() throws Exception {
         ctrlTest.getNotToken(BASE_URL);
-        verify(authenticationService, never()).findAll();
+        verify(authenticationService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -114,7 +118,7 @@ public class AuthenticationCtrlTest {
     @Test
     public void listInvalid() throws Exception {
         ctrlTest.getInvalid(BASE_URL);
-        verify(authenticationService, never()).findAll();
+        verify(authenticationService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -124,7 +128,7 @@ public class AuthenticationCtrlTest {
     @Test
     public void listNotPermission() throws Exception {
         ctrlTest.getNotPermission(BASE_URL);
-        verify(authenticationService, never()).findAll();
+        verify(authenticationService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -139,6 +143,7 @@ public class AuthenticationCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
+        final String VERSION = "2-3-ID";
         final List<Authentication> authenticationsExpected = Arrays.asList(
                 new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P")),
                 new Authentication("N2", "P2", new AuthProvider("N2", "D2", "U2", "AK2", "AS2"), new Person("P2"))
@@ -147,9 +152,13 @@ public class AuthenticationCtrlTest {
                 new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P")),
                 new Authentication("N2", "P2", new AuthProvider("N2", "D2", "U2", "AK2", "AS2"), new Person("P2"))
         );
-        given(authenticationService.findAll()).willReturn(authentications);
-        doNothing().when(presentationService).prepare(authentications, false, false);
-        given(responseFactory.success(authentications)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+        final ArgumentCaptor<ItemStream> streamCaptor = ArgumentCaptor.forClass(ItemStream.class);
+        doAnswer(invocation -> {
+            authentications.forEach((Consumer<Authentication>) invocation.getArguments()[0]);
+            return null;
+        }).when(authenticationService).streamAll(any());
+        given(authenticationService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.successWithVersion(any(ItemStream.class), eq(VERSION))).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
                 .andExpect(status().isOk())
@@ -157,12 +166,43 @@ public class AuthenticationCtrlTest {
 
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(authenticationService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).successWithVersion(streamCaptor.capture(), eq(VERSION));
+        // items are read when the response body is serialized
+        verify(authenticationService, never()).streamAll(any());
+        assertEquals(authentications, streamCaptor.getValue().toList());
         assertNotSame(authenticationsExpected, authentications);
         assertEquals(authenticationsExpected, authentications);
+        verify(authenticationService, times(1)).streamAll(any());
+        verify(presentationService, times(1)).prepare(authentications.get(0), false, false);
+        verify(presentationService, times(1)).prepare(authentications.get(1), false, false);
+    }
+
+    /**
+     * Should return a NOT_MODIFIED response without reading entities when If-None-Match matches collection version
+     */
+    @Test
+    public void listNotModified() throws Exception {
+        final String VERSION = "2-3-ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL)
+                        .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                        .header("If-None-Match", "\"" + VERSION + "\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(authenticationService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.isNotModified("\"" + VERSION + "\"", VERSION)).willReturn(true);
+        given(responseFactory.notModified(VERSION)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
         verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
-        verify(authenticationService, times(1)).findAll();
-        verify(presentationService, times(1)).prepare(authentications, false, false);
-        verify(responseFactory, times(1)).success(authentications);
+        verify(authenticationService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).notModified(VERSION);
+        verify(authenticationService, never()).streamAll(any());
+        verify(responseFactory, never()).successWithVersion(any(), any());
     }
 
     /**
@@ -218,6 +258,7 @@ public class AuthenticationCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(authenticationService, never()).findVersion(any());
         verify(authenticationService, times(1)).findById(ID);
         verify(presentationService, times(1)).prepare((Authentication) null, false, false);
         verify(responseFactory, times(1)).successNotNull(null);
@@ -255,6 +296,64 @@ public class AuthenticationCtrlTest {
         verify(responseFactory, times(1)).successNotNull(authentication);
     }
 
+    /**
+     * Should return a NOT_MODIFIED response without loading the entity when If-None-Match matches its version
+     */
+    @Test
+    public void getNotModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                        .header("If-None-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(authenticationService.findVersion(ID)).willReturn(3L);
+        given(responseFactory.isNotModified("\"3\"", 3L)).willReturn(true);
+        given(responseFactory.notModified(3L)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(authenticationService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).notModified(3L);
+        verify(authenticationService, never()).findById(any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should load the entity when If-None-Match doesn't match its version
+     */
+    @Test
+    public void getModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                        .header("If-None-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Authentication authentication = new Authentication();
+        given(authenticationService.findVersion(ID)).willReturn(3L);
+        given(authenticationService.findById(ID)).willReturn(authentication);
+        given(responseFactory.successNotNull(authentication)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(authenticationService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).isNotModified("\"2\"", 3L);
+        verify(responseFactory, never()).notModified(any());
+        verify(authenticationService, times(1)).findById(ID);
+        verify(responseFactory, times(1)).successNotNull(authentication);
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not token
      */
@@ -330,7 +429,7 @@ public class AuthenticationCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
-        final Authentication authenticationExpected = new Authentication("N", null, new AuthProvider("N", "D", null, null, null), new Person("P"));
+        final Authentication authenticationExpected = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
         final Authentication authentication = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
         given(authenticationService.save(a)).willReturn(authentication);
         given(responseFactory.successNotNull(authentication)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
@@ -354,7 +453,7 @@ public class AuthenticationCtrlTest {
     @Test
     public void editNotToken() throws Exception {
         ctrlTest.putNotToken(BASE_URL + "/1");
-        verify(authenticationService, never()).update(any());
+        verify(authenticationService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -364,7 +463,7 @@ public class AuthenticationCtrlTest {
     @Test
     public void editInvalid() throws Exception {
         ctrlTest.putInvalid(BASE_URL + "/1");
-        verify(authenticationService, never()).update(any());
+        verify(authenticationService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -377,7 +476,7 @@ public class AuthenticationCtrlTest {
         final String requestJson = mapper.writeValueAsString(a);
 
         ctrlTest.putNotPermission(BASE_URL + "/1", requestJson);
-        verify(authenticationService, never()).update(any());
+        verify(authenticationService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -397,7 +496,8 @@ public class AuthenticationCtrlTest {
 
         final String bodyExpected = "test";
         a.setId(ID);
-        given(authenticationService.update(a)).willReturn(null);
+        given(responseFactory.getVersion(null)).willReturn(null);
+        given(authenticationService.update(a, null)).willReturn(null);
         given(responseFactory.successNotNull(null)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
@@ -407,7 +507,7 @@ public class AuthenticationCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(CREATE_USERS_TOKEN);
-        verify(authenticationService, times(1)).update(a);
+        verify(authenticationService, times(1)).update(a, null);
         verify(responseFactory, times(1)).successNotNull(null);
     }
 
@@ -426,10 +526,11 @@ public class AuthenticationCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
-        final Authentication authenticationExpected = new Authentication("N", null, new AuthProvider("N", "D", null, null, null), new Person("P"));
+        final Authentication authenticationExpected = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
         final Authentication authentication = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
         a.setId(ID);
-        given(authenticationService.update(a)).willReturn(authentication);
+        given(responseFactory.getVersion(null)).willReturn(null);
+        given(authenticationService.update(a, null)).willReturn(authentication);
         given(responseFactory.successNotNull(authentication)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
@@ -441,7 +542,76 @@ public class AuthenticationCtrlTest {
         assertNotSame(authenticationExpected, authentication);
         assertEquals(authenticationExpected, authentication);
         verify(tokenService, times(1)).getLoggedUser(CREATE_USERS_TOKEN);
-        verify(authenticationService, times(1)).update(a);
+        verify(authenticationService, times(1)).update(a, null);
+        verify(responseFactory, times(1)).successNotNull(authentication);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void patchNotToken() throws Exception {
+        ctrlTest.patchNotToken(BASE_URL + "/1");
+        verify(authenticationService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void patchInvalid() throws Exception {
+        ctrlTest.patchInvalid(BASE_URL + "/1");
+        verify(authenticationService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void patchNotPermission() throws Exception {
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("password", "new password"));
+
+        ctrlTest.patchNotPermission(BASE_URL + "/1", requestJson);
+        verify(authenticationService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an authentication when permission and valid
+     */
+    @Test
+    public void patchSuccess() throws Exception {
+        final String ID = "ID";
+        final String IF_MATCH = "\"2\"";
+        final Long VERSION = 2L;
+        final Map<String, Object> PATCH = Collections.singletonMap("password", "new password");
+        final String requestJson = mapper.writeValueAsString(PATCH);
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + CREATE_USERS_TOKEN)
+                        .header("If-Match", IF_MATCH)
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Authentication authenticationExpected = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
+        final Authentication authentication = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
+        given(responseFactory.getVersion(IF_MATCH)).willReturn(VERSION);
+        given(authenticationService.patch(ID, PATCH, VERSION)).willReturn(authentication);
+        given(responseFactory.successNotNull(authentication)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        assertNotSame(authenticationExpected, authentication);
+        assertEquals(authenticationExpected, authentication);
+        verify(tokenService, times(1)).getLoggedUser(CREATE_USERS_TOKEN);
+        verify(authenticationService, times(1)).patch(ID, PATCH, VERSION);
         verify(responseFactory, times(1)).successNotNull(authentication);
     }
 
@@ -513,7 +683,7 @@ public class AuthenticationCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
-        final Authentication authenticationExpected = new Authentication("N", null, new AuthProvider("N", "D", null, null, null), new Person("P"));
+        final Authentication authenticationExpected = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
         final Authentication authentication = new Authentication("N", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P"));
         given(authenticationService.delete(ID)).willReturn(authentication);
         given(responseFactory.successNotNull(authentication)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
@@ -595,7 +765,7 @@ public class AuthenticationCtrlTest {
         given(pageFactory.pageResponse(authentications, pageDataRequest)).willReturn(pageDataResponse);
         given(responseFactory.success(authentications.getContent(), pageDataResponse)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
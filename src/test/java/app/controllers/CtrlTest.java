@@ -9,6 +9,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -20,6 +22,8 @@ import static org.mockito.BDDMockito.verify;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class CtrlTest {
@@ -77,6 +81,15 @@ public class CtrlTest {
         evaluateNotToken(MockMvcRequestBuilders.put(url));
     }
 
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     *
+     * @param url to be called with PATCH and not token
+     */
+    public void patchNotToken(String url) throws Exception {
+        evaluateNotToken(MockMvcRequestBuilders.patch(url));
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not token
      *
@@ -113,6 +126,15 @@ public class CtrlTest {
         evaluateInvalid(MockMvcRequestBuilders.put(url));
     }
 
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     *
+     * @param url to be called with PATCH and Invalid token
+     */
+    public void patchInvalid(String url) throws Exception {
+        evaluateInvalid(MockMvcRequestBuilders.patch(url));
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when token invalid
      *
@@ -151,6 +173,16 @@ public class CtrlTest {
         evaluateNotPermission(MockMvcRequestBuilders.put(url).content(body));
     }
 
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     *
+     * @param url  to be called with PATCH and token without permissions
+     * @param body correct body that passes @Valid requirements or "" if not needed
+     */
+    public void patchNotPermission(String url, String body) throws Exception {
+        evaluateNotPermission(MockMvcRequestBuilders.patch(url).content(body));
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not permissions
      *
@@ -160,6 +192,20 @@ public class CtrlTest {
         evaluateNotPermission(MockMvcRequestBuilders.delete(url));
     }
 
+    /**
+     * Should start async processing and return the response written by the async dispatch
+     *
+     * @param builder request to be called (an async endpoint)
+     * @return async dispatch result
+     */
+    public ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        final MvcResult result = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mvc.perform(asyncDispatch(result));
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not token
      *
@@ -1,6 +1,9 @@
 package app.controllers;
 
+import app.DataLoader;
+import app.exceptions.AppUnavailableException;
 import app.factories.ResponseFactory;
+import app.pojos.metrics.StartupSnapshot;
 import app.security.services.TokenService;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,6 +24,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +45,9 @@ public class InfoCtrlTest {
     @MockBean
     private ResponseFactory responseFactory;
 
+    @MockBean
+    private DataLoader dataLoader;
+
     private final String INVALID_TOKEN = "invalid";
 
     private final String VALID_TOKEN = "valid";
@@ -105,4 +112,79 @@ public class InfoCtrlTest {
         verify(tokenService, times(1)).getLoggedUser(VALID_TOKEN);
         verify(responseFactory, times(1)).success(any(String.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * Should return startup times when data was loaded
+     */
+    @Test
+    public void readyWhenReady() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get("/info/ready")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final StartupSnapshot snapshot = new StartupSnapshot(true, 1000, 200L, 1200L);
+        given(dataLoader.isReady()).willReturn(true);
+        given(dataLoader.snapshot()).willReturn(snapshot);
+        given(responseFactory.success(snapshot)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, never()).getLoggedUser(any());
+        verify(dataLoader, times(1)).isReady();
+        verify(responseFactory, times(1)).success(snapshot);
+        verify(responseFactory, never()).error(any());
+    }
+
+    /**
+     * Should return a SERVICE_UNAVAILABLE error response while data is loading
+     */
+    @Test
+    public void readyWhenLoading() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get("/info/ready")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        given(dataLoader.isReady()).willReturn(false);
+        given(responseFactory.error(any(AppUnavailableException.class))).willReturn(new ResponseEntity(bodyExpected, HttpStatus.SERVICE_UNAVAILABLE));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isServiceUnavailable())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(dataLoader, times(1)).isReady();
+        verify(dataLoader, never()).snapshot();
+        verify(responseFactory, times(1)).error(captor.capture());
+        assertTrue(captor.getValue() instanceof AppUnavailableException);
+    }
+
+    /**
+     * Should return a SERVICE_UNAVAILABLE error response when loading data failed
+     */
+    @Test
+    public void readyWhenFailed() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get("/info/ready")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String MESSAGE_EXPECTED = "Application failed to load data.";
+        given(dataLoader.isFailed()).willReturn(true);
+        given(responseFactory.error(any(AppUnavailableException.class))).willReturn(new ResponseEntity("test", HttpStatus.SERVICE_UNAVAILABLE));
+
+        mvc.perform(builder)
+                .andExpect(status().isServiceUnavailable());
+
+        verify(dataLoader, times(1)).isFailed();
+        verify(dataLoader, never()).snapshot();
+        verify(responseFactory, times(1)).error(captor.capture());
+        assertTrue(captor.getValue() instanceof AppUnavailableException);
+        assertEquals(MESSAGE_EXPECTED, captor.getValue().getMessage());
+    }
+}
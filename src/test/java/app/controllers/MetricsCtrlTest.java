@@ -0,0 +1,120 @@
+package app.controllers;
+
+import app.factories.ResponseFactory;
+import app.metrics.PrometheusMetrics;
+import app.security.pojos.LoggedUser;
+import app.security.services.TokenService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.verify;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsCtrlTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Captor
+    private ArgumentCaptor<Exception> captor;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private ResponseFactory responseFactory;
+
+    @MockBean
+    private PrometheusMetrics prometheusMetrics;
+
+    private final String INVALID_TOKEN = "invalid";
+
+    private final String VALID_TOKEN = "valid";
+
+    private final String VIEW_METRICS_TOKEN = "metrics";
+
+    private final String BASE_URL = "/metrics";
+
+    private CtrlTest ctrlTest;
+
+    @Before
+    public void setup() throws Exception {
+        ctrlTest = new CtrlTest(mvc, captor, tokenService, responseFactory, INVALID_TOKEN, VALID_TOKEN);
+
+        given(tokenService.getLoggedUser(VIEW_METRICS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_METRICS"))));
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void scrapeNotToken() throws Exception {
+        ctrlTest.getNotToken(BASE_URL);
+        verify(prometheusMetrics, never()).scrape();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void scrapeInvalid() throws Exception {
+        ctrlTest.getInvalid(BASE_URL);
+        verify(prometheusMetrics, never()).scrape();
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void scrapeNotPermission() throws Exception {
+        ctrlTest.getNotPermission(BASE_URL);
+        verify(prometheusMetrics, never()).scrape();
+    }
+
+    /**
+     * Should return metrics in Prometheus text format when permission
+     */
+    @Test
+    public void scrapeSuccess() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL)
+                        .header("Authorization", "Bearer " + VIEW_METRICS_TOKEN);
+
+        final String BODY_EXPECTED = "tomcat_threads_busy 1\n";
+        given(prometheusMetrics.scrape()).willReturn(BODY_EXPECTED);
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PrometheusMetrics.CONTENT_TYPE))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(BODY_EXPECTED, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_METRICS_TOKEN);
+        verify(prometheusMetrics, times(1)).scrape();
+        verify(responseFactory, never()).success(any());
+    }
+}
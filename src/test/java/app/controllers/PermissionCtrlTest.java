@@ -6,6 +6,7 @@ import app.models.Permission;
 import app.models.Role;
 import app.pojos.pages.PageDataRequest;
 import app.pojos.pages.PageDataResponse;
+import app.pojos.responses.success.ItemStream;
 import app.security.pojos.LoggedUser;
 import app.security.services.TokenService;
 import app.services.PermissionService;
@@ -31,8 +32,11 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
@@ -103,7 +107,7 @@ public class PermissionCtrlTest {
     @Test
     public void listNotToken() throws Exception {
         ctrlTest.getNotToken(BASE_URL);
-        verify(permissionService, never()).findAll();
+        verify(permissionService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -113,7 +117,7 @@ public class PermissionCtrlTest {
     @Test
     public void listInvalid() throws Exception {
         ctrlTest.getInvalid(BASE_URL);
-        verify(permissionService, never()).findAll();
+        verify(permissionService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -123,7 +127,7 @@ public class PermissionCtrlTest {
     @Test
     public void listNotPermission() throws Exception {
         ctrlTest.getNotPermission(BASE_URL);
-        verify(permissionService, never()).findAll();
+        verify(permissionService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -138,10 +142,15 @@ public class PermissionCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
+        final String VERSION = "2-3-ID";
         final List<Permission> permissions = Arrays.asList(new Permission("P1"), new Permission("P2"));
-        given(permissionService.findAll()).willReturn(permissions);
-        doNothing().when(presentationService).prepare(permissions, false, false);
-        given(responseFactory.success(permissions)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+        final ArgumentCaptor<ItemStream> streamCaptor = ArgumentCaptor.forClass(ItemStream.class);
+        doAnswer(invocation -> {
+            permissions.forEach((Consumer<Permission>) invocation.getArguments()[0]);
+            return null;
+        }).when(permissionService).streamAll(any());
+        given(permissionService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.successWithVersion(any(ItemStream.class), eq(VERSION))).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
                 .andExpect(status().isOk())
@@ -150,9 +159,40 @@ public class PermissionCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
-        verify(permissionService, times(1)).findAll();
-        verify(presentationService, times(1)).prepare(permissions, false, false);
-        verify(responseFactory, times(1)).success(permissions);
+        verify(permissionService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).successWithVersion(streamCaptor.capture(), eq(VERSION));
+        // items are read when the response body is serialized
+        verify(permissionService, never()).streamAll(any());
+        assertEquals(permissions, streamCaptor.getValue().toList());
+        verify(permissionService, times(1)).streamAll(any());
+        verify(presentationService, times(1)).prepare(permissions.get(0), false, false);
+        verify(presentationService, times(1)).prepare(permissions.get(1), false, false);
+    }
+
+    /**
+     * Should return a NOT_MODIFIED response without reading entities when If-None-Match matches collection version
+     */
+    @Test
+    public void listNotModified() throws Exception {
+        final String VERSION = "2-3-ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL)
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"" + VERSION + "\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(permissionService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.isNotModified("\"" + VERSION + "\"", VERSION)).willReturn(true);
+        given(responseFactory.notModified(VERSION)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(permissionService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).notModified(VERSION);
+        verify(permissionService, never()).streamAll(any());
+        verify(responseFactory, never()).successWithVersion(any(), any());
     }
 
     /**
@@ -209,11 +249,70 @@ public class PermissionCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(permissionService, never()).findVersion(any());
         verify(permissionService, times(1)).findById(ID);
         verify(presentationService, times(1)).prepare(permission, false, false);
         verify(responseFactory, times(1)).successNotNull(permission);
     }
 
+    /**
+     * Should return a NOT_MODIFIED response without loading the entity when If-None-Match matches its version
+     */
+    @Test
+    public void getNotModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(permissionService.findVersion(ID)).willReturn(3L);
+        given(responseFactory.isNotModified("\"3\"", 3L)).willReturn(true);
+        given(responseFactory.notModified(3L)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(permissionService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).notModified(3L);
+        verify(permissionService, never()).findById(any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should load the entity when If-None-Match doesn't match its version
+     */
+    @Test
+    public void getModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Permission permission = new Permission();
+        given(permissionService.findVersion(ID)).willReturn(3L);
+        given(permissionService.findById(ID)).willReturn(permission);
+        given(responseFactory.successNotNull(permission)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(permissionService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).isNotModified("\"2\"", 3L);
+        verify(responseFactory, never()).notModified(any());
+        verify(permissionService, times(1)).findById(ID);
+        verify(responseFactory, times(1)).successNotNull(permission);
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not token
      */
@@ -282,7 +381,7 @@ public class PermissionCtrlTest {
     @Test
     public void editNotToken() throws Exception {
         ctrlTest.putNotToken(BASE_URL + "/1");
-        verify(permissionService, never()).update(any());
+        verify(permissionService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -292,7 +391,7 @@ public class PermissionCtrlTest {
     @Test
     public void editInvalid() throws Exception {
         ctrlTest.putInvalid(BASE_URL + "/1");
-        verify(permissionService, never()).update(any());
+        verify(permissionService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -305,7 +404,7 @@ public class PermissionCtrlTest {
         final String requestJson = mapper.writeValueAsString(p);
 
         ctrlTest.putNotPermission(BASE_URL + "/1", requestJson);
-        verify(permissionService, never()).update(any());
+        verify(permissionService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -326,7 +425,74 @@ public class PermissionCtrlTest {
         final String bodyExpected = "test";
         final Permission permission = new Permission("P1");
         p.setId(ID);
-        given(permissionService.update(p)).willReturn(permission);
+        given(responseFactory.getVersion(null)).willReturn(null);
+        given(permissionService.update(p, null)).willReturn(permission);
+        given(responseFactory.successNotNull(permission)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(CREATE_ROLES_TOKEN);
+        verify(permissionService, times(1)).update(p, null);
+        verify(responseFactory, times(1)).successNotNull(permission);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void patchNotToken() throws Exception {
+        ctrlTest.patchNotToken(BASE_URL + "/1");
+        verify(permissionService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void patchInvalid() throws Exception {
+        ctrlTest.patchInvalid(BASE_URL + "/1");
+        verify(permissionService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void patchNotPermission() throws Exception {
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("description", "new description"));
+
+        ctrlTest.patchNotPermission(BASE_URL + "/1", requestJson);
+        verify(permissionService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return a permission when permission and valid
+     */
+    @Test
+    public void patchSuccess() throws Exception {
+        final String ID = "ID";
+        final String IF_MATCH = "\"2\"";
+        final Long VERSION = 2L;
+        final Map<String, Object> PATCH = Collections.singletonMap("description", "new description");
+        final String requestJson = mapper.writeValueAsString(PATCH);
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + CREATE_ROLES_TOKEN)
+                        .header("If-Match", IF_MATCH)
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Permission permission = new Permission("P1");
+        given(responseFactory.getVersion(IF_MATCH)).willReturn(VERSION);
+        given(permissionService.patch(ID, PATCH, VERSION)).willReturn(permission);
         given(responseFactory.successNotNull(permission)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
@@ -336,7 +502,7 @@ public class PermissionCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(CREATE_ROLES_TOKEN);
-        verify(permissionService, times(1)).update(p);
+        verify(permissionService, times(1)).patch(ID, PATCH, VERSION);
         verify(responseFactory, times(1)).successNotNull(permission);
     }
 
@@ -445,7 +611,7 @@ public class PermissionCtrlTest {
         doNothing().when(presentationService).prepare(permission.getRoles(), false, false);
         given(responseFactory.successNotNull(permission.getRoles())).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -514,7 +680,7 @@ public class PermissionCtrlTest {
         given(pageFactory.pageResponse(permissions, pageDataRequest)).willReturn(pageDataResponse);
         given(responseFactory.success(permissions.getContent(), pageDataResponse)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
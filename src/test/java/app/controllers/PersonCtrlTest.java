@@ -8,6 +8,7 @@ import app.models.Person;
 import app.models.Role;
 import app.pojos.pages.PageDataRequest;
 import app.pojos.pages.PageDataResponse;
+import app.pojos.responses.success.ItemStream;
 import app.security.pojos.LoggedUser;
 import app.security.services.TokenService;
 import app.services.PersonService;
@@ -34,8 +35,11 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
@@ -106,7 +110,7 @@ public class PersonCtrlTest {
     @Test
     public void listNotToken() throws Exception {
         ctrlTest.getNotToken(BASE_URL);
-        verify(personService, never()).findAll();
+        verify(personService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -116,7 +120,7 @@ public class PersonCtrlTest {
     @Test
     public void listInvalid() throws Exception {
         ctrlTest.getInvalid(BASE_URL);
-        verify(personService, never()).findAll();
+        verify(personService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -126,7 +130,7 @@ public class PersonCtrlTest {
     @Test
     public void listNotPermission() throws Exception {
         ctrlTest.getNotPermission(BASE_URL);
-        verify(personService, never()).findAll();
+        verify(personService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -141,10 +145,15 @@ public class PersonCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
+        final String VERSION = "2-3-ID";
         final List<Person> people = Arrays.asList(new Person("P1"), new Person("P2"));
-        given(personService.findAll()).willReturn(people);
-        doNothing().when(presentationService).prepare(people, false, false);
-        given(responseFactory.success(people)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+        final ArgumentCaptor<ItemStream> streamCaptor = ArgumentCaptor.forClass(ItemStream.class);
+        doAnswer(invocation -> {
+            people.forEach((Consumer<Person>) invocation.getArguments()[0]);
+            return null;
+        }).when(personService).streamAll(any());
+        given(personService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.successWithVersion(any(ItemStream.class), eq(VERSION))).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
                 .andExpect(status().isOk())
@@ -153,9 +162,40 @@ public class PersonCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
-        verify(personService, times(1)).findAll();
-        verify(presentationService, times(1)).prepare(people, false, false);
-        verify(responseFactory, times(1)).success(people);
+        verify(personService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).successWithVersion(streamCaptor.capture(), eq(VERSION));
+        // items are read when the response body is serialized
+        verify(personService, never()).streamAll(any());
+        assertEquals(people, streamCaptor.getValue().toList());
+        verify(personService, times(1)).streamAll(any());
+        verify(presentationService, times(1)).prepare(people.get(0), false, false);
+        verify(presentationService, times(1)).prepare(people.get(1), false, false);
+    }
+
+    /**
+     * Should return a NOT_MODIFIED response without reading entities when If-None-Match matches collection version
+     */
+    @Test
+    public void listNotModified() throws Exception {
+        final String VERSION = "2-3-ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL)
+                        .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                        .header("If-None-Match", "\"" + VERSION + "\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(personService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.isNotModified("\"" + VERSION + "\"", VERSION)).willReturn(true);
+        given(responseFactory.notModified(VERSION)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(personService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).notModified(VERSION);
+        verify(personService, never()).streamAll(any());
+        verify(responseFactory, never()).successWithVersion(any(), any());
     }
 
     /**
@@ -212,11 +252,70 @@ public class PersonCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(personService, never()).findVersion(any());
         verify(personService, times(1)).findById(ID);
         verify(presentationService, times(1)).prepare(person, false, false);
         verify(responseFactory, times(1)).successNotNull(person);
     }
 
+    /**
+     * Should return a NOT_MODIFIED response without loading the entity when If-None-Match matches its version
+     */
+    @Test
+    public void getNotModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                        .header("If-None-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(personService.findVersion(ID)).willReturn(3L);
+        given(responseFactory.isNotModified("\"3\"", 3L)).willReturn(true);
+        given(responseFactory.notModified(3L)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(personService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).notModified(3L);
+        verify(personService, never()).findById(any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should load the entity when If-None-Match doesn't match its version
+     */
+    @Test
+    public void getModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                        .header("If-None-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Person person = new Person();
+        given(personService.findVersion(ID)).willReturn(3L);
+        given(personService.findById(ID)).willReturn(person);
+        given(responseFactory.successNotNull(person)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_USERS_TOKEN);
+        verify(personService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).isNotModified("\"2\"", 3L);
+        verify(responseFactory, never()).notModified(any());
+        verify(personService, times(1)).findById(ID);
+        verify(responseFactory, times(1)).successNotNull(person);
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not token
      */
@@ -285,7 +384,7 @@ public class PersonCtrlTest {
     @Test
     public void editNotToken() throws Exception {
         ctrlTest.putNotToken(BASE_URL + "/1");
-        verify(personService, never()).update(any());
+        verify(personService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -295,7 +394,7 @@ public class PersonCtrlTest {
     @Test
     public void editInvalid() throws Exception {
         ctrlTest.putInvalid(BASE_URL + "/1");
-        verify(personService, never()).update(any());
+        verify(personService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -308,7 +407,7 @@ public class PersonCtrlTest {
         final String requestJson = mapper.writeValueAsString(p);
 
         ctrlTest.putNotPermission(BASE_URL + "/1", requestJson);
-        verify(personService, never()).update(any());
+        verify(personService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -329,7 +428,110 @@ public class PersonCtrlTest {
         final String bodyExpected = "test";
         final Person person = new Person("P1");
         p.setId(ID);
-        given(personService.update(p)).willReturn(person);
+        given(responseFactory.getVersion(null)).willReturn(null);
+        given(personService.update(p, null)).willReturn(person);
+        given(responseFactory.successNotNull(person)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(CREATE_USERS_TOKEN);
+        verify(personService, times(1)).update(p, null);
+        verify(responseFactory, times(1)).successNotNull(person);
+    }
+
+    /**
+     * Should send If-Match version when permission and valid
+     */
+    @Test
+    public void editSuccessWhenIfMatch() throws Exception {
+        final String ID = "ID";
+        final String IF_MATCH = "\"4\"";
+        final Long VERSION = 4L;
+        final Person p = new Person("name", "last name", LocalDate.now(), Person.CIVIL_STATUS.SINGLE, Person.SEX.F, "aa@aa.com", new HashSet<>(Arrays.asList(new Role("R1"), new Role("R2"))));
+        final String requestJson = mapper.writeValueAsString(p);
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.put(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + CREATE_USERS_TOKEN)
+                        .header("If-Match", IF_MATCH)
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Person person = new Person("P1");
+        p.setId(ID);
+        given(responseFactory.getVersion(IF_MATCH)).willReturn(VERSION);
+        given(personService.update(p, VERSION)).willReturn(person);
+        given(responseFactory.successNotNull(person)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(CREATE_USERS_TOKEN);
+        verify(responseFactory, times(1)).getVersion(IF_MATCH);
+        verify(personService, times(1)).update(p, VERSION);
+        verify(responseFactory, times(1)).successNotNull(person);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void patchNotToken() throws Exception {
+        ctrlTest.patchNotToken(BASE_URL + "/1");
+        verify(personService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void patchInvalid() throws Exception {
+        ctrlTest.patchInvalid(BASE_URL + "/1");
+        verify(personService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void patchNotPermission() throws Exception {
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("name", "new name"));
+
+        ctrlTest.patchNotPermission(BASE_URL + "/1", requestJson);
+        verify(personService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return a person when permission and valid
+     */
+    @Test
+    public void patchSuccess() throws Exception {
+        final String ID = "ID";
+        final String IF_MATCH = "\"2\"";
+        final Long VERSION = 2L;
+        final Map<String, Object> PATCH = Collections.singletonMap("name", "new name");
+        final String requestJson = mapper.writeValueAsString(PATCH);
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + CREATE_USERS_TOKEN)
+                        .header("If-Match", IF_MATCH)
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Person person = new Person("P1");
+        given(responseFactory.getVersion(IF_MATCH)).willReturn(VERSION);
+        given(personService.patch(ID, PATCH, VERSION)).willReturn(person);
         given(responseFactory.successNotNull(person)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
@@ -339,7 +541,7 @@ public class PersonCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(CREATE_USERS_TOKEN);
-        verify(personService, times(1)).update(p);
+        verify(personService, times(1)).patch(ID, PATCH, VERSION);
         verify(responseFactory, times(1)).successNotNull(person);
     }
 
@@ -456,7 +658,7 @@ public class PersonCtrlTest {
         doNothing().when(presentationService).prepare(person.getAuthentications(), false, false);
         given(responseFactory.successNotNull(person.getAuthentications())).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -527,7 +729,7 @@ public class PersonCtrlTest {
         given(pageFactory.pageResponse(people, pageDataRequest)).willReturn(pageDataResponse);
         given(responseFactory.success(people.getContent(), pageDataResponse)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -7,6 +7,7 @@ import app.models.Person;
 import app.models.Role;
 import app.pojos.pages.PageDataRequest;
 import app.pojos.pages.PageDataResponse;
+import app.pojos.responses.success.ItemStream;
 import app.security.pojos.LoggedUser;
 import app.security.services.TokenService;
 import app.services.PresentationService;
@@ -32,8 +33,11 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
@@ -104,7 +108,7 @@ public class RoleCtrlTest {
     @Test
     public void listNotToken() throws Exception {
         ctrlTest.getNotToken(BASE_URL);
-        verify(roleService, never()).findAll();
+        verify(roleService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -114,7 +118,7 @@ public class RoleCtrlTest {
     @Test
     public void listInvalid() throws Exception {
         ctrlTest.getInvalid(BASE_URL);
-        verify(roleService, never()).findAll();
+        verify(roleService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -124,7 +128,7 @@ public class RoleCtrlTest {
     @Test
     public void listNotPermission() throws Exception {
         ctrlTest.getNotPermission(BASE_URL);
-        verify(roleService, never()).findAll();
+        verify(roleService, never()).streamAll(any());
         verify(responseFactory, never()).success(any());
     }
 
@@ -139,10 +143,15 @@ public class RoleCtrlTest {
                         .contentType(MediaType.APPLICATION_JSON);
 
         final String bodyExpected = "test";
+        final String VERSION = "2-3-ID";
         final List<Role> roles = Arrays.asList(new Role("R1"), new Role("R2"));
-        given(roleService.findAll()).willReturn(roles);
-        doNothing().when(presentationService).prepare(roles, false, false);
-        given(responseFactory.success(roles)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+        final ArgumentCaptor<ItemStream> streamCaptor = ArgumentCaptor.forClass(ItemStream.class);
+        doAnswer(invocation -> {
+            roles.forEach((Consumer<Role>) invocation.getArguments()[0]);
+            return null;
+        }).when(roleService).streamAll(any());
+        given(roleService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.successWithVersion(any(ItemStream.class), eq(VERSION))).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
                 .andExpect(status().isOk())
@@ -151,9 +160,61 @@ public class RoleCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
-        verify(roleService, times(1)).findAll();
-        verify(presentationService, times(1)).prepare(roles, false, false);
-        verify(responseFactory, times(1)).success(roles);
+        verify(roleService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).successWithVersion(streamCaptor.capture(), eq(VERSION));
+        // items are read when the response body is serialized
+        verify(roleService, never()).streamAll(any());
+        assertEquals(roles, streamCaptor.getValue().toList());
+        verify(roleService, times(1)).streamAll(any());
+        verify(presentationService, times(1)).prepare(roles.get(0), false, false);
+        verify(presentationService, times(1)).prepare(roles.get(1), false, false);
+    }
+
+    /**
+     * Should return a NOT_MODIFIED response without reading entities when If-None-Match matches collection version
+     */
+    @Test
+    public void listNotModified() throws Exception {
+        final String VERSION = "2-3-ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL)
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"" + VERSION + "\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(roleService.findCollectionVersion()).willReturn(VERSION);
+        given(responseFactory.isNotModified("\"" + VERSION + "\"", VERSION)).willReturn(true);
+        given(responseFactory.notModified(VERSION)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(roleService, times(1)).findCollectionVersion();
+        verify(responseFactory, times(1)).notModified(VERSION);
+        verify(roleService, never()).streamAll(any());
+        verify(responseFactory, never()).successWithVersion(any(), any());
+    }
+
+    /**
+     * Should not read the collection version nor return NOT_MODIFIED when relations are written
+     */
+    @Test
+    public void listWithRelationsIgnoresIfNoneMatch() throws Exception {
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "?complete=true")
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"2-3-ID\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(responseFactory.successWithVersion(any(), any())).willReturn(new ResponseEntity("test", HttpStatus.OK));
+
+        mvc.perform(builder)
+                .andExpect(status().isOk());
+
+        verify(roleService, never()).findCollectionVersion();
+        verify(responseFactory, never()).notModified(any());
+        verify(responseFactory, times(1)).successWithVersion(any(), isNull());
     }
 
     /**
@@ -210,11 +271,97 @@ public class RoleCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(roleService, never()).findVersion(any());
         verify(roleService, times(1)).findById(ID);
         verify(presentationService, times(1)).prepare(role, false, false);
         verify(responseFactory, times(1)).successNotNull(role);
     }
 
+    /**
+     * Should return a NOT_MODIFIED response without loading the entity when If-None-Match matches its version
+     */
+    @Test
+    public void getNotModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        given(roleService.findVersion(ID)).willReturn(3L);
+        given(responseFactory.isNotModified("\"3\"", 3L)).willReturn(true);
+        given(responseFactory.notModified(3L)).willReturn(new ResponseEntity(HttpStatus.NOT_MODIFIED));
+
+        mvc.perform(builder)
+                .andExpect(status().isNotModified());
+
+        verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(roleService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).notModified(3L);
+        verify(roleService, never()).findById(any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should load the entity without reading its version or adding ETag when relations are written
+     */
+    @Test
+    public void getWithRelationsIgnoresIfNoneMatch() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "?all_relations=true")
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final Role role = new Role();
+        given(roleService.findById(ID)).willReturn(role);
+        given(responseFactory.successNotNullWithVersion(role, null)).willReturn(new ResponseEntity("test", HttpStatus.OK));
+
+        mvc.perform(builder)
+                .andExpect(status().isOk());
+
+        verify(roleService, never()).findVersion(any());
+        verify(responseFactory, never()).notModified(any());
+        verify(roleService, times(1)).findById(ID);
+        verify(presentationService, times(1)).prepare(role, false, true);
+        verify(responseFactory, times(1)).successNotNullWithVersion(role, null);
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should load the entity when If-None-Match doesn't match its version
+     */
+    @Test
+    public void getModified() throws Exception {
+        final String ID = "ID";
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + VIEW_ROLES_TOKEN)
+                        .header("If-None-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Role role = new Role();
+        given(roleService.findVersion(ID)).willReturn(3L);
+        given(roleService.findById(ID)).willReturn(role);
+        given(responseFactory.successNotNull(role)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(VIEW_ROLES_TOKEN);
+        verify(roleService, times(1)).findVersion(ID);
+        verify(responseFactory, times(1)).isNotModified("\"2\"", 3L);
+        verify(responseFactory, never()).notModified(any());
+        verify(roleService, times(1)).findById(ID);
+        verify(responseFactory, times(1)).successNotNull(role);
+    }
+
     /**
      * Should return an UNAUTHORIZED error response when not token
      */
@@ -283,7 +430,7 @@ public class RoleCtrlTest {
     @Test
     public void editNotToken() throws Exception {
         ctrlTest.putNotToken(BASE_URL + "/1");
-        verify(roleService, never()).update(any());
+        verify(roleService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -293,7 +440,7 @@ public class RoleCtrlTest {
     @Test
     public void editInvalid() throws Exception {
         ctrlTest.putInvalid(BASE_URL + "/1");
-        verify(roleService, never()).update(any());
+        verify(roleService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -306,7 +453,7 @@ public class RoleCtrlTest {
         final String requestJson = mapper.writeValueAsString(r);
 
         ctrlTest.putNotPermission(BASE_URL + "/1", requestJson);
-        verify(roleService, never()).update(any());
+        verify(roleService, never()).update(any(), any());
         verify(responseFactory, never()).successNotNull(any());
     }
 
@@ -327,7 +474,8 @@ public class RoleCtrlTest {
         final String bodyExpected = "test";
         final Role role = new Role("R1");
         r.setId(ID);
-        given(roleService.update(r)).willReturn(role);
+        given(responseFactory.getVersion(null)).willReturn(null);
+        given(roleService.update(r, null)).willReturn(role);
         given(responseFactory.successNotNull(role)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
         final String bodyResult = mvc.perform(builder)
@@ -337,7 +485,73 @@ public class RoleCtrlTest {
         assertNotSame(bodyExpected, bodyResult);
         assertEquals(bodyExpected, bodyResult);
         verify(tokenService, times(1)).getLoggedUser(CREATE_ROLES_TOKEN);
-        verify(roleService, times(1)).update(r);
+        verify(roleService, times(1)).update(r, null);
+        verify(responseFactory, times(1)).successNotNull(role);
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not token
+     */
+    @Test
+    public void patchNotToken() throws Exception {
+        ctrlTest.patchNotToken(BASE_URL + "/1");
+        verify(roleService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when token invalid
+     */
+    @Test
+    public void patchInvalid() throws Exception {
+        ctrlTest.patchInvalid(BASE_URL + "/1");
+        verify(roleService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return an UNAUTHORIZED error response when not permissions
+     */
+    @Test
+    public void patchNotPermission() throws Exception {
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("description", "new description"));
+
+        ctrlTest.patchNotPermission(BASE_URL + "/1", requestJson);
+        verify(roleService, never()).patch(any(), any(), any());
+        verify(responseFactory, never()).successNotNull(any());
+    }
+
+    /**
+     * Should return a role when permission and valid
+     */
+    @Test
+    public void patchSuccess() throws Exception {
+        final String ID = "ID";
+        final String IF_MATCH = "\"2\"";
+        final Long VERSION = 2L;
+        final Map<String, Object> PATCH = Collections.singletonMap("description", "new description");
+        final String requestJson = mapper.writeValueAsString(PATCH);
+        final MockHttpServletRequestBuilder builder =
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID)
+                        .header("Authorization", "Bearer " + CREATE_ROLES_TOKEN)
+                        .header("If-Match", IF_MATCH)
+                        .content(requestJson)
+                        .contentType(MediaType.APPLICATION_JSON);
+
+        final String bodyExpected = "test";
+        final Role role = new Role("R1");
+        given(responseFactory.getVersion(IF_MATCH)).willReturn(VERSION);
+        given(roleService.patch(ID, PATCH, VERSION)).willReturn(role);
+        given(responseFactory.successNotNull(role)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
+
+        final String bodyResult = mvc.perform(builder)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertNotSame(bodyExpected, bodyResult);
+        assertEquals(bodyExpected, bodyResult);
+        verify(tokenService, times(1)).getLoggedUser(CREATE_ROLES_TOKEN);
+        verify(roleService, times(1)).patch(ID, PATCH, VERSION);
         verify(responseFactory, times(1)).successNotNull(role);
     }
 
@@ -446,7 +660,7 @@ public class RoleCtrlTest {
         doNothing().when(presentationService).prepare(role.getPeople(), false, false);
         given(responseFactory.successNotNull(role.getPeople())).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -515,7 +729,7 @@ public class RoleCtrlTest {
         given(pageFactory.pageResponse(roles, pageDataRequest)).willReturn(pageDataResponse);
         given(responseFactory.success(roles.getContent(), pageDataResponse)).willReturn(new ResponseEntity(bodyExpected, HttpStatus.OK));
 
-        final String bodyResult = mvc.perform(builder)
+        final String bodyResult = ctrlTest.performAsync(builder)
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
 
@@ -0,0 +1,21 @@
+package app.exceptions;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class AppPreconditionFailedExceptionTest {
+
+    /**
+     * Should create basic constructor
+     */
+    @Test
+    public void constructorBasic() {
+        final String MESSAGE = "test";
+        final AppException exception = new AppPreconditionFailedException(MESSAGE);
+
+        assertSame(MESSAGE, exception.getMessage());
+        assertNull(exception.getNestedErrors());
+    }
+}
@@ -1,6 +1,7 @@
 package app.exceptions.handlers;
 
 import app.exceptions.AppAuthenticationException;
+import app.exceptions.AppPreconditionFailedException;
 import app.factories.ResponseFactory;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,6 +10,7 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -69,6 +71,23 @@ public class ExceptionsHandlerTest {
         assertTrue(captor.getValue() instanceof AppAuthenticationException);
     }
 
+    /**
+     * Should handle OptimisticLockingFailureException
+     */
+    @Test
+    public void handleOptimisticLockingFailureException() {
+        final Exception exception = new OptimisticLockingFailureException("");
+
+        final ResponseEntity responseMocked = new ResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR);
+        given(responseFactory.error(any(Exception.class))).willReturn(responseMocked);
+
+        final ResponseEntity responseResult = exceptionsHandler.handleException(exception);
+
+        assertSame(responseMocked, responseResult);
+        verify(responseFactory, times(1)).error(captor.capture());
+        assertTrue(captor.getValue() instanceof AppPreconditionFailedException);
+    }
+
     /**
      * Should handle Exception
      */
@@ -1,10 +1,13 @@
 package app.factories.implementations;
 
+import app.exceptions.AppValidationException;
 import app.factories.PageFactory;
+import app.models.Person;
 import app.models.QPerson;
 import app.pojos.pages.FilterRequest;
 import app.pojos.pages.PageDataRequest;
 import app.pojos.pages.PageDataResponse;
+import com.mongodb.DBObject;
 import com.querydsl.core.types.Predicate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,6 +17,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specifications;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.Arrays;
@@ -281,6 +285,62 @@ public class PageFactoryImplTest {
         assertNotNull(predicate);
     }
 
+    /**
+     * Should return null when filtersRequest is null
+     */
+    @Test
+    public void getCriteriaNullWhenFiltersNull() {
+        final Criteria criteria = pageFactory.getCriteria(null, null);
+
+        assertNull(criteria);
+    }
+
+    /**
+     * Should return null when filtersRequest is empty
+     */
+    @Test
+    public void getCriteriaNullWhenFiltersEmpty() {
+        final Criteria criteria = pageFactory.getCriteria(Collections.EMPTY_LIST, Person.class);
+
+        assertNull(criteria);
+    }
+
+    /**
+     * Should get Criteria when success
+     */
+    @Test
+    public void getCriteria() {
+        final List<FilterRequest> filtersRequest = Arrays.asList(
+                new FilterRequest("name", "value.1", "startswith"),
+                new FilterRequest("createdAt", "2002-04-20T12:30:52Z", "abc"),
+                new FilterRequest("birthday", "2010-11-23", "nE"),
+                new FilterRequest("civilStatus", "5", "LET")
+        );
+
+        final List<?> criteria = (List<?>) pageFactory.getCriteria(filtersRequest, Person.class).getCriteriaObject().get("$and");
+
+        assertEquals(4, criteria.size());
+        assertTrue(criteria.get(0).toString().contains("^\\\\Qvalue.1\\\\E"));
+        assertTrue(((DBObject) ((DBObject) criteria.get(2)).get("birthday")).containsField("$ne"));
+        assertTrue(criteria.get(3).toString().contains("$lte"));
+    }
+
+    /**
+     * Should throw AppValidationException when field doesn't exist
+     */
+    @Test(expected = AppValidationException.class)
+    public void getCriteriaWhenFieldNotFound() {
+        pageFactory.getCriteria(Collections.singletonList(new FilterRequest("invalid", "value", "EQ")), Person.class);
+    }
+
+    /**
+     * Should throw AppValidationException when like operation is used with a not String field
+     */
+    @Test(expected = AppValidationException.class)
+    public void getCriteriaWhenLikeNotString() {
+        pageFactory.getCriteria(Collections.singletonList(new FilterRequest("birthday", "2010-11-23", "LIKE")), Person.class);
+    }
+
     /**
      * Should get PageDataResponse
      */
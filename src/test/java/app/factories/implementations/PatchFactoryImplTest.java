@@ -0,0 +1,128 @@
+package app.factories.implementations;
+
+import app.exceptions.AppValidationException;
+import app.factories.PatchFactory;
+import app.models.Person;
+import app.pojos.responses.error.nesteds.NestedError;
+import app.pojos.responses.error.nesteds.ValidationNestedError;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PatchFactoryImplTest {
+
+    @Autowired
+    private PatchFactory patchFactory;
+
+    private final List<String> ALLOWED = Arrays.asList("name", "birthday", "civilStatus", "email");
+
+    /**
+     * Should throw AppValidationException when patch is null
+     */
+    @Test(expected = AppValidationException.class)
+    public void getEntityWhenNull() {
+        patchFactory.getEntity(null, Person.class, ALLOWED);
+    }
+
+    /**
+     * Should throw AppValidationException when patch is empty
+     */
+    @Test(expected = AppValidationException.class)
+    public void getEntityWhenEmpty() {
+        patchFactory.getEntity(Collections.emptyMap(), Person.class, ALLOWED);
+    }
+
+    /**
+     * Should throw AppValidationException with nested errors when a field is not allowed
+     */
+    @Test
+    public void getEntityWhenNotAllowed() {
+        final Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("name", "new name");
+        patch.put("roles", Collections.emptyList());
+        patch.put("id", "ID");
+        final List<NestedError> NESTED_ERRORS_EXPECTED = Arrays.asList(
+                new ValidationNestedError("roles", "'roles' can't be updated, it only allows [name, birthday, civilStatus, email]"),
+                new ValidationNestedError("id", "'id' can't be updated, it only allows [name, birthday, civilStatus, email]")
+        );
+
+        try {
+            patchFactory.getEntity(patch, Person.class, ALLOWED);
+            fail();
+        } catch (AppValidationException e) {
+            assertEquals(NESTED_ERRORS_EXPECTED, e.getNestedErrors());
+        }
+    }
+
+    /**
+     * Should throw AppValidationException when a value can't be converted
+     */
+    @Test(expected = AppValidationException.class)
+    public void getEntityWhenInvalidFormat() {
+        patchFactory.getEntity(Collections.singletonMap("birthday", "abc"), Person.class, ALLOWED);
+    }
+
+    /**
+     * Should throw AppValidationException with nested errors only for patched fields
+     */
+    @Test
+    public void getEntityWhenInvalidValue() {
+        final Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("name", null);
+        patch.put("email", "a");
+
+        try {
+            patchFactory.getEntity(patch, Person.class, ALLOWED);
+            fail();
+        } catch (AppValidationException e) {
+            final List<String> fieldsResult = new ArrayList<>();
+            e.getNestedErrors().forEach(n -> fieldsResult.add(((ValidationNestedError) n).getField()));
+            fieldsResult.sort(String::compareTo);
+
+            assertEquals(Arrays.asList("email", "email", "name"), fieldsResult);
+        }
+    }
+
+    /**
+     * Should create an entity with only the patched fields
+     */
+    @Test
+    public void getEntity() {
+        final Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("name", "new name");
+        patch.put("birthday", "2010-11-23");
+        patch.put("email", null);
+
+        final Person personResult = patchFactory.getEntity(patch, Person.class, ALLOWED);
+
+        assertEquals("new name", personResult.getName());
+        assertEquals(LocalDate.of(2010, 11, 23), personResult.getBirthday());
+        assertNull(personResult.getEmail());
+        assertNull(personResult.getLastName());
+    }
+
+    /**
+     * Should get values of the given fields
+     */
+    @Test
+    public void getValues() {
+        final Person person = new Person("name", "last name", LocalDate.of(2010, 11, 23), 1, "M", null, null);
+        final Map<String, Object> VALUES_EXPECTED = new LinkedHashMap<>();
+        VALUES_EXPECTED.put("birthday", LocalDate.of(2010, 11, 23));
+        VALUES_EXPECTED.put("email", null);
+
+        final Map<String, Object> valuesResult = patchFactory.getValues(person, Arrays.asList("birthday", "email"));
+
+        assertNotSame(VALUES_EXPECTED, valuesResult);
+        assertEquals(VALUES_EXPECTED, valuesResult);
+    }
+}
@@ -2,8 +2,11 @@ package app.factories.implementations;
 
 import app.exceptions.AppAuthenticationException;
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppUnavailableException;
 import app.exceptions.AppValidationException;
 import app.factories.ResponseFactory;
+import app.models.Person;
 import app.pojos.responses.error.ErrorResponse;
 import app.pojos.responses.error.nesteds.NestedError;
 import app.pojos.responses.error.nesteds.ValidationNestedError;
@@ -16,6 +19,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -26,8 +30,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import java.util.Arrays;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +44,8 @@ public class ResponseFactoryImplTest {
     @MockBean
     private TokenService tokenService;
 
+    private final List<String> VARY_EXPECTED = Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
     /**
      * Should get ResponseEntity with only data without token
      */
@@ -101,6 +106,81 @@ public class ResponseFactoryImplTest {
         verify(tokenService, times(1)).refreshToken();
     }
 
+    /**
+     * Should get ResponseEntity with weak ETag and Vary headers when data is a Model
+     */
+    @Test
+    public void successWithETag() throws JsonProcessingException {
+        final Person DATA = new Person("ID");
+        DATA.setVersion(3L);
+        final String ETAG_EXPECTED = "W/\"3\"";
+        final HttpStatus STATUS_EXPECTED = HttpStatus.OK;
+        final SuccessResponse RESPONSE_EXPECTED = new SuccessResponse(DATA, null, null);
+
+        final ResponseEntity response = responseFactory.success(DATA);
+
+        assertEquals(STATUS_EXPECTED, response.getStatusCode());
+        assertEquals(RESPONSE_EXPECTED, response.getBody());
+        assertEquals(ETAG_EXPECTED, response.getHeaders().getETag());
+        assertEquals(VARY_EXPECTED, response.getHeaders().getVary());
+    }
+
+    /**
+     * Should get ResponseEntity without ETag header when data isn't a Model
+     */
+    @Test
+    public void successWithoutETag() throws JsonProcessingException {
+        final ResponseEntity response = responseFactory.success("test");
+
+        assertNull(response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getVary().isEmpty());
+    }
+
+    /**
+     * Should get ResponseEntity with the specific version as ETag header
+     */
+    @Test
+    public void successWithVersion() throws JsonProcessingException {
+        final String DATA = "test";
+        final String ETAG_EXPECTED = "W/\"2-3-ID\"";
+        final HttpStatus STATUS_EXPECTED = HttpStatus.OK;
+        final SuccessResponse RESPONSE_EXPECTED = new SuccessResponse(DATA, null, null);
+
+        final ResponseEntity response = responseFactory.successWithVersion(DATA, "2-3-ID");
+
+        assertEquals(STATUS_EXPECTED, response.getStatusCode());
+        assertEquals(RESPONSE_EXPECTED, response.getBody());
+        assertEquals(ETAG_EXPECTED, response.getHeaders().getETag());
+        assertEquals(VARY_EXPECTED, response.getHeaders().getVary());
+    }
+
+    /**
+     * Should get ResponseEntity without ETag header when version is null
+     */
+    @Test
+    public void successWithVersionNull() throws JsonProcessingException {
+        final ResponseEntity response = responseFactory.successWithVersion(new Person("ID"), null);
+
+        assertNull(response.getHeaders().getETag());
+    }
+
+    /**
+     * Should get a NOT_MODIFIED ResponseEntity without body
+     */
+    @Test
+    public void notModified() {
+        final String ETAG_EXPECTED = "W/\"3\"";
+        final HttpStatus STATUS_EXPECTED = HttpStatus.NOT_MODIFIED;
+
+        final ResponseEntity response = responseFactory.notModified(3L);
+
+        assertEquals(STATUS_EXPECTED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(ETAG_EXPECTED, response.getHeaders().getETag());
+        assertEquals(VARY_EXPECTED, response.getHeaders().getVary());
+        verifyZeroInteractions(tokenService);
+    }
+
     /**
      * Should get an error ResponseEntity when null
      */
@@ -137,6 +217,34 @@ public class ResponseFactoryImplTest {
         verify(tokenService, times(1)).refreshToken();
     }
 
+    /**
+     * Should get a NOT_FOUND error ResponseEntity when null even if a version is given
+     */
+    @Test
+    public void successNotNullWithVersionWhenNull() {
+        final ResponseEntity response = responseFactory.successNotNullWithVersion(null, 3L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getHeaders().getETag());
+    }
+
+    /**
+     * Should get ResponseEntity without ETag when version is null even if data is a Model
+     */
+    @Test
+    public void successNotNullWithVersionWhenNullVersion() throws JsonProcessingException {
+        final Person DATA = new Person("ID");
+        DATA.setVersion(3);
+
+        given(tokenService.refreshToken()).willReturn("new token");
+
+        final ResponseEntity response = responseFactory.successNotNullWithVersion(DATA, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new SuccessResponse(DATA, null, "new token"), response.getBody());
+        assertNull(response.getHeaders().getETag());
+    }
+
     /**
      * Should get an error ResponseEntity when AppDontFoundException with NOT_FOUND code
      */
@@ -171,6 +279,40 @@ public class ResponseFactoryImplTest {
         assertEquals(RESPONSE_EXPECTED, response.getBody());
     }
 
+    /**
+     * Should get an error ResponseEntity when AppPreconditionFailedException with PRECONDITION_FAILED code
+     */
+    @Test
+    public void errorAppPreconditionFailedException() {
+        final String MESSAGE = "test";
+        final Exception EXCEPTION = new AppPreconditionFailedException(MESSAGE);
+        final HttpStatus STATUS_EXPECTED = HttpStatus.PRECONDITION_FAILED;
+        final ErrorResponse RESPONSE_EXPECTED = new ErrorResponse(MESSAGE, null, null);
+
+        final ResponseEntity response = responseFactory.error(EXCEPTION);
+
+        assertEquals(STATUS_EXPECTED, response.getStatusCode());
+        assertNotSame(RESPONSE_EXPECTED, response.getBody());
+        assertEquals(RESPONSE_EXPECTED, response.getBody());
+    }
+
+    /**
+     * Should get an error ResponseEntity when AppUnavailableException with SERVICE_UNAVAILABLE code
+     */
+    @Test
+    public void errorAppUnavailableException() {
+        final String MESSAGE = "test";
+        final Exception EXCEPTION = new AppUnavailableException(MESSAGE);
+        final HttpStatus STATUS_EXPECTED = HttpStatus.SERVICE_UNAVAILABLE;
+        final ErrorResponse RESPONSE_EXPECTED = new ErrorResponse(MESSAGE, null, null);
+
+        final ResponseEntity response = responseFactory.error(EXCEPTION);
+
+        assertEquals(STATUS_EXPECTED, response.getStatusCode());
+        assertNotSame(RESPONSE_EXPECTED, response.getBody());
+        assertEquals(RESPONSE_EXPECTED, response.getBody());
+    }
+
     /**
      * Should get an error ResponseEntity when AppValidationException with BAD_REQUEST code
      */
@@ -238,4 +380,81 @@ public class ResponseFactoryImplTest {
         assertNotSame(RESPONSE_EXPECTED, response.getBody());
         assertEquals(RESPONSE_EXPECTED, response.getBody());
     }
-}
\ No newline at end of file
+
+    /**
+     * Should get null version when eTag is null or any
+     */
+    @Test
+    public void getVersionNull() {
+        assertNull(responseFactory.getVersion(null));
+        assertNull(responseFactory.getVersion(" * "));
+    }
+
+    /**
+     * Should get version from strong and weak eTags
+     */
+    @Test
+    public void getVersion() {
+        final Long VERSION_EXPECTED = 5L;
+
+        assertEquals(VERSION_EXPECTED, responseFactory.getVersion("\"5\""));
+        assertEquals(VERSION_EXPECTED, responseFactory.getVersion("W/\"5\""));
+        assertEquals(VERSION_EXPECTED, responseFactory.getVersion("5"));
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when eTag is not a version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void getVersionInvalid() {
+        responseFactory.getVersion("\"abc\"");
+    }
+
+    /**
+     * Should not be modified when any strong, weak or "*" eTag matches the version
+     */
+    @Test
+    public void isNotModified() {
+        assertTrue(responseFactory.isNotModified("\"5\"", 5L));
+        assertTrue(responseFactory.isNotModified("W/\"5\"", 5L));
+        assertTrue(responseFactory.isNotModified("\"4\", \"5\"", 5L));
+        assertTrue(responseFactory.isNotModified("*", 5L));
+        assertTrue(responseFactory.isNotModified("\"2-3-ID\"", "2-3-ID"));
+    }
+
+    /**
+     * Should be modified when header or version is null or none eTag matches the version
+     */
+    @Test
+    public void isNotModifiedWhenModified() {
+        assertFalse(responseFactory.isNotModified(null, 5L));
+        assertFalse(responseFactory.isNotModified("\"5\"", null));
+        assertFalse(responseFactory.isNotModified("\"4\", \"6\"", 5L));
+        assertFalse(responseFactory.isNotModified("\"2-3-ID\"", "2-4-ID"));
+    }
+
+    /**
+     * Should get the version from the ETag of a success Response (sent back as If-Match)
+     */
+    @Test
+    public void getVersionFromETag() throws JsonProcessingException {
+        final Person DATA = new Person("ID");
+        DATA.setVersion(7L);
+
+        final String eTag = responseFactory.success(DATA).getHeaders().getETag();
+
+        assertEquals(Long.valueOf(7L), responseFactory.getVersion(eTag));
+    }
+
+    /**
+     * Should not be modified when If-None-Match has the ETag of a success Response and be modified when the version changed
+     */
+    @Test
+    public void isNotModifiedFromETag() throws JsonProcessingException {
+        final String eTag = responseFactory.successWithVersion("test", "2-3-ID").getHeaders().getETag();
+
+        assertTrue(responseFactory.isNotModified(eTag, "2-3-ID"));
+        assertTrue(responseFactory.isNotModified("\"1-1-ID\", " + eTag, "2-3-ID"));
+        assertFalse(responseFactory.isNotModified(eTag, "2-4-ID"));
+    }
+}
@@ -0,0 +1,235 @@
+package app.filters;
+
+import app.exceptions.AppUnavailableException;
+import app.factories.ResponseFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+
+public class BulkheadFilterTest {
+
+    private BulkheadFilter bulkheadFilter;
+
+    private Bulkhead authBulkhead;
+
+    private Bulkhead readBulkhead;
+
+    private Bulkhead pageBulkhead;
+
+    private Bulkhead writeBulkhead;
+
+    private Bulkhead exportBulkhead;
+
+    @Before
+    public void setup() {
+        authBulkhead = new Bulkhead("auth", 1, 0, 0);
+        readBulkhead = new Bulkhead("read", 1, 0, 0);
+        pageBulkhead = new Bulkhead("page", 1, 0, 0);
+        writeBulkhead = new Bulkhead("write", 1, 0, 0);
+        exportBulkhead = new Bulkhead("export", 1, 0, 0);
+        final ResponseFactory responseFactory = mock(ResponseFactory.class);
+        given(responseFactory.error(any(AppUnavailableException.class))).willReturn(
+                new ResponseEntity(Collections.singletonMap("message", "busy"), HttpStatus.SERVICE_UNAVAILABLE));
+
+        bulkheadFilter = new BulkheadFilter();
+        ReflectionTestUtils.setField(bulkheadFilter, "enabled", true);
+        ReflectionTestUtils.setField(bulkheadFilter, "authBulkhead", authBulkhead);
+        ReflectionTestUtils.setField(bulkheadFilter, "readBulkhead", readBulkhead);
+        ReflectionTestUtils.setField(bulkheadFilter, "pageBulkhead", pageBulkhead);
+        ReflectionTestUtils.setField(bulkheadFilter, "writeBulkhead", writeBulkhead);
+        ReflectionTestUtils.setField(bulkheadFilter, "exportBulkhead", exportBulkhead);
+        ReflectionTestUtils.setField(bulkheadFilter, "responseFactory", responseFactory);
+        ReflectionTestUtils.setField(bulkheadFilter, "mapper", new ObjectMapper());
+    }
+
+    /**
+     * Should select the bulkhead of each endpoint group and none for health and metrics endpoints
+     */
+    @Test
+    public void select() {
+        assertSame(authBulkhead, bulkheadFilter.select(new MockHttpServletRequest("POST", "/login")));
+        assertSame(authBulkhead, bulkheadFilter.select(new MockHttpServletRequest("POST", "/change_role/1")));
+        assertSame(exportBulkhead, bulkheadFilter.select(new MockHttpServletRequest("GET", "/admin/snapshot")));
+        assertSame(exportBulkhead, bulkheadFilter.select(new MockHttpServletRequest("POST", "/admin/snapshot")));
+        assertSame(exportBulkhead, bulkheadFilter.select(new MockHttpServletRequest("GET", "/people")));
+        assertSame(readBulkhead, bulkheadFilter.select(new MockHttpServletRequest("GET", "/people/1")));
+        assertSame(readBulkhead, bulkheadFilter.select(new MockHttpServletRequest("GET", "/roles/1/people")));
+        assertSame(pageBulkhead, bulkheadFilter.select(new MockHttpServletRequest("POST", "/people/Page")));
+        assertSame(pageBulkhead, bulkheadFilter.select(new MockHttpServletRequest("POST", "/authentications/Page")));
+        assertSame(readBulkhead, bulkheadFilter.select(new MockHttpServletRequest("GET", "/auth_providers")));
+        assertSame(writeBulkhead, bulkheadFilter.select(new MockHttpServletRequest("POST", "/people")));
+        assertSame(writeBulkhead, bulkheadFilter.select(new MockHttpServletRequest("PUT", "/roles/1")));
+        assertSame(writeBulkhead, bulkheadFilter.select(new MockHttpServletRequest("PATCH", "/people/1")));
+        assertNull(bulkheadFilter.select(new MockHttpServletRequest("GET", "/ping")));
+        assertNull(bulkheadFilter.select(new MockHttpServletRequest("GET", "/info/ready")));
+        assertNull(bulkheadFilter.select(new MockHttpServletRequest("GET", "/metrics")));
+        assertNull(bulkheadFilter.select(new MockHttpServletRequest("GET", "/admin/pool")));
+        assertNull(bulkheadFilter.select(new MockHttpServletRequest("DELETE", "/admin/slow-queries")));
+        assertNull(bulkheadFilter.select(new MockHttpServletRequest("OPTIONS", "/people")));
+    }
+
+    /**
+     * Should serve the request inside its bulkhead and release the permit after it
+     */
+    @Test
+    public void doFilter() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        final int[] activeResult = new int[1];
+
+        bulkheadFilter.doFilter(new MockHttpServletRequest("GET", "/people/1"), RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                activeResult[0] = readBulkhead.getActive();
+            }
+        }));
+
+        assertEquals(200, RESPONSE.getStatus());
+        assertEquals(1, activeResult[0]);
+        assertEquals(0, readBulkhead.getActive());
+    }
+
+    /**
+     * Should release the permit when the request fails and throw the exception
+     */
+    @Test
+    public void doFilterException() throws Exception {
+        try {
+            bulkheadFilter.doFilter(new MockHttpServletRequest("POST", "/people"), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    throw new IOException("test");
+                }
+            }));
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertEquals("test", e.getMessage());
+        }
+
+        assertEquals(0, writeBulkhead.getActive());
+    }
+
+    /**
+     * Should reject with SERVICE_UNAVAILABLE when the group is full without affecting other groups
+     */
+    @Test
+    public void doFilterRejected() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        final MockFilterChain CHAIN = new MockFilterChain();
+        pageBulkhead.acquire();
+
+        bulkheadFilter.doFilter(new MockHttpServletRequest("POST", "/people/Page"), RESPONSE, CHAIN);
+        final MockHttpServletResponse READ_RESPONSE = new MockHttpServletResponse();
+        bulkheadFilter.doFilter(new MockHttpServletRequest("GET", "/people/1"), READ_RESPONSE, new MockFilterChain());
+        final MockHttpServletResponse AUTH_RESPONSE = new MockHttpServletResponse();
+        bulkheadFilter.doFilter(new MockHttpServletRequest("POST", "/login"), AUTH_RESPONSE, new MockFilterChain());
+        final MockHttpServletResponse PING_RESPONSE = new MockHttpServletResponse();
+        bulkheadFilter.doFilter(new MockHttpServletRequest("GET", "/ping"), PING_RESPONSE, new MockFilterChain());
+
+        assertEquals(503, RESPONSE.getStatus());
+        assertEquals("1", RESPONSE.getHeader("Retry-After"));
+        assertEquals("{\"message\":\"busy\"}", RESPONSE.getContentAsString());
+        assertNull(CHAIN.getRequest());
+        assertEquals(1, pageBulkhead.getRejected());
+        assertEquals(200, READ_RESPONSE.getStatus());
+        assertEquals(200, AUTH_RESPONSE.getStatus());
+        assertEquals(200, PING_RESPONSE.getStatus());
+    }
+
+    /**
+     * Should not limit any request when disabled
+     */
+    @Test
+    public void doFilterDisabled() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        ReflectionTestUtils.setField(bulkheadFilter, "enabled", false);
+        readBulkhead.acquire();
+
+        bulkheadFilter.doFilter(new MockHttpServletRequest("GET", "/people/1"), RESPONSE, new MockFilterChain());
+
+        assertEquals(200, RESPONSE.getStatus());
+        assertEquals(0, readBulkhead.getRejected());
+    }
+
+    /**
+     * Should keep the permit of an async request until its async dispatch finishes
+     */
+    @Test
+    public void doFilterAsync() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("POST", "/people/Page");
+        REQUEST.setAsyncSupported(true);
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        final DeferredResult<String> deferredResult = new DeferredResult<>();
+
+        bulkheadFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException {
+                // same as a controller returning a DeferredResult
+                final WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+                asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+                try {
+                    asyncManager.startDeferredResultProcessing(deferredResult);
+                } catch (Exception e) {
+                    throw new ServletException(e);
+                }
+            }
+        }));
+
+        assertEquals(1, pageBulkhead.getActive());
+
+        deferredResult.setResult("test");
+        REQUEST.setAsyncStarted(false);
+        REQUEST.setDispatcherType(DispatcherType.ASYNC);
+        bulkheadFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain());
+
+        assertEquals(0, pageBulkhead.getActive());
+
+        // the container completes it after the dispatch, the permit isn't released twice
+        REQUEST.getAsyncContext().complete();
+
+        assertEquals(0, pageBulkhead.getActive());
+    }
+
+    /**
+     * Should release the permit of an async request completed without an async dispatch
+     */
+    @Test
+    public void doFilterAsyncCompleted() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("POST", "/people/Page");
+        REQUEST.setAsyncSupported(true);
+
+        bulkheadFilter.doFilter(REQUEST, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                final StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+                WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+                asyncWebRequest.startAsync();
+            }
+        }));
+        REQUEST.getAsyncContext().complete();
+
+        assertEquals(0, pageBulkhead.getActive());
+    }
+}
@@ -0,0 +1,82 @@
+package app.filters;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class BulkheadTest {
+
+    /**
+     * Should give permits until the limit is reached and again after they are released
+     */
+    @Test
+    public void acquireLimit() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead("test", 2, 0, 0);
+
+        assertTrue(bulkhead.acquire());
+        assertTrue(bulkhead.acquire());
+        assertEquals(2, bulkhead.getActive());
+        assertFalse(bulkhead.acquire());
+        bulkhead.release();
+        assertEquals(1, bulkhead.getActive());
+        assertTrue(bulkhead.acquire());
+
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(0, bulkhead.getTimeouts());
+    }
+
+    /**
+     * Should reject a request that waits timeout milliseconds without a permit
+     */
+    @Test
+    public void acquireTimeout() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead("test", 1, 1, 50);
+
+        assertTrue(bulkhead.acquire());
+        final long start = System.nanoTime();
+        assertFalse(bulkhead.acquire());
+
+        assertTrue(System.nanoTime() - start >= 50000000);
+        assertEquals(0, bulkhead.getWaiting());
+        assertEquals(0, bulkhead.getRejected());
+        assertEquals(1, bulkhead.getTimeouts());
+    }
+
+    /**
+     * Should give the released permit to a waiting request and reject the ones over the queue without waiting
+     */
+    @Test
+    public void acquireQueue() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead("test", 1, 1, 10000);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        try {
+            assertTrue(bulkhead.acquire());
+            final Future<Boolean> waitingResult = executor.submit(() -> {
+                waiting.countDown();
+                return bulkhead.acquire();
+            });
+            waiting.await();
+            while (bulkhead.getWaiting() == 0) {
+                Thread.sleep(1);
+            }
+
+            assertFalse(bulkhead.acquire());
+            bulkhead.release();
+            assertTrue(waitingResult.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, bulkhead.getActive());
+        assertEquals(0, bulkhead.getWaiting());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(0, bulkhead.getTimeouts());
+    }
+}
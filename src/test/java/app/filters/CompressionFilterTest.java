@@ -0,0 +1,216 @@
+package app.filters;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class CompressionFilterTest {
+
+    private CompressionFilter compressionFilter;
+
+    @Before
+    public void setup() {
+        compressionFilter = new CompressionFilter();
+        ReflectionTestUtils.setField(compressionFilter, "enabled", true);
+        ReflectionTestUtils.setField(compressionFilter, "minResponseSize", 100);
+        ReflectionTestUtils.setField(compressionFilter, "mimeTypes", new String[]{"application/json"});
+    }
+
+    /**
+     * Should prefer gzip, ignore encodings with q=0 and return null when none is accepted
+     */
+    @Test
+    public void getEncoding() {
+        assertEquals("gzip", compressionFilter.getEncoding("gzip"));
+        assertEquals("gzip", compressionFilter.getEncoding("deflate, gzip;q=0.5, br"));
+        assertEquals("deflate", compressionFilter.getEncoding("gzip;q=0, deflate"));
+        assertEquals("deflate", compressionFilter.getEncoding("DEFLATE"));
+        assertNull(compressionFilter.getEncoding("gzip; q=0.0"));
+        assertNull(compressionFilter.getEncoding("br, identity"));
+        assertNull(compressionFilter.getEncoding(null));
+    }
+
+    /**
+     * Should compress a response written in small flushed chunks once it's bigger than min-response-size
+     */
+    @Test
+    public void compressStreamed() throws Exception {
+        final byte[] BODY_EXPECTED = new byte[1000];
+        Arrays.fill(BODY_EXPECTED, (byte) 'a');
+
+        final MockHttpServletResponse response = filter("gzip", MediaType.APPLICATION_JSON_UTF8_VALUE, BODY_EXPECTED, 10);
+        final byte[] bodyResult = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING), response.getHeaders(HttpHeaders.VARY));
+        assertTrue(response.getContentAsByteArray().length < BODY_EXPECTED.length);
+        assertArrayEquals(BODY_EXPECTED, bodyResult);
+    }
+
+    /**
+     * Should not add Accept-Encoding to Vary again when the response already varies on it (versioned responses)
+     */
+    @Test
+    public void compressWhenVary() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/test");
+        REQUEST.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        compressionFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                resp.setHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+                resp.getOutputStream().write(new byte[1000]);
+            }
+        }));
+
+        assertEquals("gzip", RESPONSE.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(Collections.singletonList("Accept, Accept-Encoding"), RESPONSE.getHeaders(HttpHeaders.VARY));
+    }
+
+    /**
+     * Should write responses smaller than min-response-size without compression and with Content-Length
+     */
+    @Test
+    public void notCompressSmall() throws Exception {
+        final byte[] BODY_EXPECTED = new byte[100];
+
+        final MockHttpServletResponse response = filter("gzip", MediaType.APPLICATION_JSON_VALUE, BODY_EXPECTED, 10);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY_EXPECTED.length, response.getContentLength());
+        assertArrayEquals(BODY_EXPECTED, response.getContentAsByteArray());
+    }
+
+    /**
+     * Should write big responses without compression when their media type isn't in mime-types
+     */
+    @Test
+    public void notCompressMediaType() throws Exception {
+        final byte[] BODY_EXPECTED = new byte[1000];
+
+        final MockHttpServletResponse response = filter("gzip", "application/x-jackson-smile", BODY_EXPECTED, 10);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(BODY_EXPECTED, response.getContentAsByteArray());
+    }
+
+    /**
+     * Should not wrap the response when compression is disabled
+     */
+    @Test
+    public void notCompressDisabled() throws Exception {
+        ReflectionTestUtils.setField(compressionFilter, "enabled", false);
+        final byte[] BODY_EXPECTED = new byte[1000];
+
+        final MockHttpServletResponse response = filter("gzip", MediaType.APPLICATION_JSON_VALUE, BODY_EXPECTED, 10);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(BODY_EXPECTED, response.getContentAsByteArray());
+    }
+
+    /**
+     * Should write non blocking responses without compression and let the container call the listener
+     */
+    @Test
+    public void notCompressNonBlocking() throws Exception {
+        final byte[] BODY_EXPECTED = new byte[1000];
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/test");
+        REQUEST.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        final NonBlockingOutputStream OUTPUT_STREAM = new NonBlockingOutputStream(RESPONSE.getOutputStream());
+        final WriteListener LISTENER = mock(WriteListener.class);
+
+        compressionFilter.doFilter(REQUEST, new HttpServletResponseWrapper(RESPONSE) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return OUTPUT_STREAM;
+            }
+        }, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                ServletOutputStream outputStream = resp.getOutputStream();
+                outputStream.write(BODY_EXPECTED, 0, 10);
+                outputStream.setWriteListener(LISTENER);
+                assertTrue(outputStream.isReady());
+                outputStream.write(BODY_EXPECTED, 10, BODY_EXPECTED.length - 10);
+            }
+        }));
+
+        assertSame(LISTENER, OUTPUT_STREAM.listener);
+        assertNull(RESPONSE.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(BODY_EXPECTED, RESPONSE.getContentAsByteArray());
+    }
+
+    private MockHttpServletResponse filter(String acceptEncoding, String contentType, byte[] body, int chunkSize) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        compressionFilter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                OutputStream outputStream = resp.getOutputStream();
+                for (int i = 0; i < body.length; i += chunkSize) {
+                    outputStream.write(body, i, Math.min(chunkSize, body.length - i));
+                    outputStream.flush();
+                }
+            }
+        }));
+        return response;
+    }
+
+    /**
+     * Output stream that keeps the WriteListener (mock responses don't support non blocking writes)
+     */
+    private static class NonBlockingOutputStream extends ServletOutputStream {
+
+        private final OutputStream target;
+
+        private WriteListener listener;
+
+        private NonBlockingOutputStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+    }
+}
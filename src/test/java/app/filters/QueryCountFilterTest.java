@@ -0,0 +1,205 @@
+package app.filters;
+
+import app.metrics.QueryCounter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class QueryCountFilterTest {
+
+    private QueryCountFilter queryCountFilter;
+
+    @Before
+    public void setup() {
+        queryCountFilter = new QueryCountFilter();
+        ReflectionTestUtils.setField(queryCountFilter, "enabled", true);
+        ReflectionTestUtils.setField(queryCountFilter, "header", true);
+        ReflectionTestUtils.setField(queryCountFilter, "threshold", 20);
+        ReflectionTestUtils.setField(queryCountFilter, "repeatedThreshold", 5);
+    }
+
+    /**
+     * Should count the request queries and keep the counter in a request attribute
+     */
+    @Test
+    public void count() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/people");
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        queryCountFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new QueriesServlet(3, 2)));
+        final QueryCounter counterResult = (QueryCounter) REQUEST.getAttribute(QueryCountFilter.ATTRIBUTE);
+
+        assertEquals(3, counterResult.getSqlCount());
+        assertEquals(2, counterResult.getMongoCount());
+        assertEquals("sql=3, mongo=2", RESPONSE.getHeader(QueryCountFilter.HEADER));
+        assertNull(QueryCounter.getCurrent());
+    }
+
+    /**
+     * Should add the header with the queries run before the body was written
+     */
+    @Test
+    public void countWhenBodyIsWritten() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        queryCountFilter.doFilter(new MockHttpServletRequest("GET", "/people"), RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                QueryCounter.recordSql("select count");
+                response.getOutputStream().write("[".getBytes());
+                QueryCounter.recordSql("select person");
+                response.getOutputStream().write("]".getBytes());
+            }
+        }));
+
+        assertEquals("sql=1, mongo=0", RESPONSE.getHeader(QueryCountFilter.HEADER));
+        assertEquals("[]", RESPONSE.getContentAsString());
+    }
+
+    /**
+     * Should not add the header when it's disabled
+     */
+    @Test
+    public void countWhenNotHeader() throws Exception {
+        ReflectionTestUtils.setField(queryCountFilter, "header", false);
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/people");
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        queryCountFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new QueriesServlet(30, 0)));
+
+        assertNull(RESPONSE.getHeader(QueryCountFilter.HEADER));
+        assertEquals(30, ((QueryCounter) REQUEST.getAttribute(QueryCountFilter.ATTRIBUTE)).getSqlCount());
+    }
+
+    /**
+     * Should not count when it's disabled
+     */
+    @Test
+    public void countWhenNotEnabled() throws Exception {
+        ReflectionTestUtils.setField(queryCountFilter, "enabled", false);
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/people");
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        queryCountFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new QueriesServlet(3, 0)));
+
+        assertNull(REQUEST.getAttribute(QueryCountFilter.ATTRIBUTE));
+        assertNull(RESPONSE.getHeader(QueryCountFilter.HEADER));
+    }
+
+    /**
+     * Should stop counting and keep the counter when the request fails
+     */
+    @Test
+    public void countWhenException() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("POST", "/people");
+        try {
+            queryCountFilter.doFilter(REQUEST, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) {
+                    QueryCounter.recordSql("insert person");
+                    throw new IllegalStateException("fail");
+                }
+            }));
+            fail("Exception was expected");
+        } catch (IllegalStateException e) {
+            assertEquals("fail", e.getMessage());
+        }
+
+        assertNull(QueryCounter.getCurrent());
+        assertEquals(1, ((QueryCounter) REQUEST.getAttribute(QueryCountFilter.ATTRIBUTE)).getSqlCount());
+    }
+
+    /**
+     * Should count the queries of the async task and the async dispatch and add the header when the async dispatch writes the body
+     */
+    @Test
+    public void countAsync() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("POST", "/people/Page");
+        REQUEST.setAsyncSupported(true);
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        final DeferredResult<String> deferredResult = new DeferredResult<>();
+
+        queryCountFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException {
+                QueryCounter.recordSql("select count");
+                // same as a controller returning a DeferredResult
+                final WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+                asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+                try {
+                    asyncManager.startDeferredResultProcessing(deferredResult);
+                } catch (Exception e) {
+                    throw new ServletException(e);
+                }
+            }
+        }));
+        final QueryCounter counterResult = (QueryCounter) REQUEST.getAttribute(QueryCountFilter.ATTRIBUTE);
+
+        assertNull(QueryCounter.getCurrent());
+        assertNull(RESPONSE.getHeader(QueryCountFilter.HEADER));
+
+        // the async task runs with the counter of the request
+        final Thread TASK = new Thread(() -> {
+            QueryCounter.attach(counterResult);
+            QueryCounter.recordSql("select person");
+            QueryCounter.detach();
+            deferredResult.setResult("test");
+        });
+        TASK.start();
+        TASK.join();
+        REQUEST.setAsyncStarted(false);
+        REQUEST.setDispatcherType(DispatcherType.ASYNC);
+        queryCountFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                QueryCounter.recordMongo("find role", "find role {}");
+                response.getOutputStream().write("[]".getBytes());
+            }
+        }));
+
+        assertEquals("sql=2, mongo=1", RESPONSE.getHeader(QueryCountFilter.HEADER));
+        assertSame(counterResult, REQUEST.getAttribute(QueryCountFilter.ATTRIBUTE));
+        assertNull(QueryCounter.getCurrent());
+    }
+
+    /**
+     * Servlet that runs SQL statements and Mongo commands
+     */
+    private static class QueriesServlet extends HttpServlet {
+
+        private final int sql;
+
+        private final int mongo;
+
+        private QueriesServlet(int sql, int mongo) {
+            this.sql = sql;
+            this.mongo = mongo;
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            for (int i = 0; i < sql; i++) {
+                QueryCounter.recordSql("select roles where person = ?");
+            }
+            for (int i = 0; i < mongo; i++) {
+                QueryCounter.recordMongo("find person", "find person {}");
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package app.filters;
+
+import app.metrics.RequestMetrics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RequestMetricsFilterTest {
+
+    private RequestMetricsFilter requestMetricsFilter;
+
+    private RequestMetrics requestMetrics;
+
+    @Before
+    public void setup() {
+        requestMetrics = new RequestMetrics();
+        requestMetricsFilter = new RequestMetricsFilter();
+        ReflectionTestUtils.setField(requestMetricsFilter, "requestMetrics", requestMetrics);
+    }
+
+    /**
+     * Should record the request by route template and status
+     */
+    @Test
+    public void record() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/people/123");
+
+        requestMetricsFilter.doFilter(REQUEST, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/people/{id}");
+                response.setStatus(404);
+            }
+        }));
+        final List<RequestMetrics.RouteMetrics> routesResult = requestMetrics.getRoutes();
+
+        assertEquals(1, routesResult.size());
+        assertEquals("GET", routesResult.get(0).getMethod());
+        assertEquals("/people/{id}", routesResult.get(0).getRoute());
+        assertEquals(404, routesResult.get(0).getStatus());
+        assertEquals(1, routesResult.get(0).getLatency().getCount());
+    }
+
+    /**
+     * Should record requests without controller as unmatched
+     */
+    @Test
+    public void recordUnmatched() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        RESPONSE.setStatus(401);
+
+        requestMetricsFilter.doFilter(new MockHttpServletRequest("DELETE", "/people/123"), RESPONSE, new MockFilterChain());
+        final List<RequestMetrics.RouteMetrics> routesResult = requestMetrics.getRoutes();
+
+        assertEquals(1, routesResult.size());
+        assertEquals(RequestMetrics.UNMATCHED, routesResult.get(0).getRoute());
+        assertEquals(401, routesResult.get(0).getStatus());
+    }
+
+    /**
+     * Should record an INTERNAL_SERVER_ERROR when the request fails and throw the exception
+     */
+    @Test
+    public void recordException() throws Exception {
+        try {
+            requestMetricsFilter.doFilter(new MockHttpServletRequest("POST", "/people"), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/people");
+                    throw new IOException("test");
+                }
+            }));
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertEquals("test", e.getMessage());
+        }
+        final List<RequestMetrics.RouteMetrics> routesResult = requestMetrics.getRoutes();
+
+        assertEquals(1, routesResult.size());
+        assertEquals("/people", routesResult.get(0).getRoute());
+        assertEquals(500, routesResult.get(0).getStatus());
+    }
+
+    /**
+     * Should record async requests when they are completed
+     */
+    @Test
+    public void recordAsync() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("GET", "/people");
+        REQUEST.setAsyncSupported(true);
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        requestMetricsFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/people");
+                // same as a controller returning a Callable
+                final StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+                WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+                asyncWebRequest.startAsync();
+            }
+        }));
+
+        assertEquals(0, requestMetrics.getRoutes().size());
+
+        RESPONSE.setStatus(503);
+        REQUEST.getAsyncContext().complete();
+        final List<RequestMetrics.RouteMetrics> routesResult = requestMetrics.getRoutes();
+
+        assertEquals(1, routesResult.size());
+        assertEquals(503, routesResult.get(0).getStatus());
+    }
+}
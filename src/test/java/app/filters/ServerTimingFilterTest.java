@@ -0,0 +1,177 @@
+package app.filters;
+
+import app.metrics.SecurityTimings;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ServerTimingFilterTest {
+
+    private ServerTimingFilter serverTimingFilter;
+
+    private SecurityTimings securityTimings;
+
+    @Before
+    public void setup() {
+        securityTimings = new SecurityTimings();
+        serverTimingFilter = new ServerTimingFilter();
+        ReflectionTestUtils.setField(serverTimingFilter, "securityTimings", securityTimings);
+        ReflectionTestUtils.setField(serverTimingFilter, "enabled", true);
+    }
+
+    /**
+     * Should add the request stages in milliseconds
+     */
+    @Test
+    public void serverTiming() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        serverTimingFilter.doFilter(new MockHttpServletRequest("GET", "/people"), RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                securityTimings.record(SecurityTimings.TOKEN_PARSE, 350000);
+                securityTimings.record(SecurityTimings.PRE_AUTHORIZE, 2000000);
+            }
+        }));
+
+        assertEquals("token_parse;dur=0.35, pre_authorize;dur=2", RESPONSE.getHeader(ServerTimingFilter.HEADER));
+        assertEquals(2, securityTimings.getStages().size());
+    }
+
+    /**
+     * Should add only the stages that ran before the body was written
+     */
+    @Test
+    public void serverTimingWhenBodyIsWritten() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        serverTimingFilter.doFilter(new MockHttpServletRequest("GET", "/people"), RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                securityTimings.record(SecurityTimings.TOKEN_REFRESH, 1000);
+                response.getWriter().write("{}");
+                securityTimings.record(SecurityTimings.TOKEN_PARSE, 1000);
+            }
+        }));
+
+        assertEquals("token_refresh;dur=0.001", RESPONSE.getHeader(ServerTimingFilter.HEADER));
+        assertEquals("{}", RESPONSE.getContentAsString());
+    }
+
+    /**
+     * Should add the stages of the async task when the async dispatch writes the body
+     */
+    @Test
+    public void serverTimingAsync() throws Exception {
+        final MockHttpServletRequest REQUEST = new MockHttpServletRequest("POST", "/people/Page");
+        REQUEST.setAsyncSupported(true);
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+        final DeferredResult<String> deferredResult = new DeferredResult<>();
+        final List<Map<String, Long>> stagesResult = new ArrayList<>();
+
+        serverTimingFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException {
+                securityTimings.record(SecurityTimings.TOKEN_PARSE, 1000);
+                stagesResult.add(securityTimings.getCurrent());
+                // same as a controller returning a DeferredResult
+                final WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+                asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+                try {
+                    asyncManager.startDeferredResultProcessing(deferredResult);
+                } catch (Exception e) {
+                    throw new ServletException(e);
+                }
+            }
+        }));
+
+        assertNull(securityTimings.getCurrent());
+        assertNull(RESPONSE.getHeader(ServerTimingFilter.HEADER));
+
+        // the async task creates the new token with the stages of the request
+        final Thread TASK = new Thread(() -> {
+            securityTimings.attach(stagesResult.get(0));
+            securityTimings.record(SecurityTimings.TOKEN_REFRESH, 2000);
+            securityTimings.stop();
+            deferredResult.setResult("test");
+        });
+        TASK.start();
+        TASK.join();
+        REQUEST.setAsyncStarted(false);
+        REQUEST.setDispatcherType(DispatcherType.ASYNC);
+        serverTimingFilter.doFilter(REQUEST, RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write("{}");
+            }
+        }));
+
+        assertEquals("token_parse;dur=0.001, token_refresh;dur=0.002", RESPONSE.getHeader(ServerTimingFilter.HEADER));
+        assertNull(securityTimings.getCurrent());
+    }
+
+    /**
+     * Should not add the header when no stage ran
+     */
+    @Test
+    public void serverTimingWhenNotStages() throws Exception {
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        serverTimingFilter.doFilter(new MockHttpServletRequest("GET", "/info"), RESPONSE, new MockFilterChain());
+
+        assertNull(RESPONSE.getHeader(ServerTimingFilter.HEADER));
+    }
+
+    /**
+     * Should not add the header when it's disabled
+     */
+    @Test
+    public void serverTimingWhenNotEnabled() throws Exception {
+        ReflectionTestUtils.setField(serverTimingFilter, "enabled", false);
+        final MockHttpServletResponse RESPONSE = new MockHttpServletResponse();
+
+        serverTimingFilter.doFilter(new MockHttpServletRequest("GET", "/people"), RESPONSE, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                securityTimings.record(SecurityTimings.TOKEN_PARSE, 1000);
+            }
+        }));
+
+        assertNull(RESPONSE.getHeader(ServerTimingFilter.HEADER));
+        assertEquals(1, securityTimings.getStages().get(SecurityTimings.TOKEN_PARSE).getCount());
+    }
+
+    /**
+     * Should format nanoseconds as milliseconds without scientific notation
+     */
+    @Test
+    public void format() {
+        final Map<String, Long> STAGES = new LinkedHashMap<>();
+        STAGES.put(SecurityTimings.TOKEN_FILTER, 1L);
+        STAGES.put(SecurityTimings.AUTHORITIES, 12345678L);
+
+        final String formatResult = serverTimingFilter.format(STAGES);
+
+        assertEquals("token_filter;dur=0.000001, authorities;dur=12.345678", formatResult);
+    }
+}
@@ -173,6 +173,21 @@ public class AuthenticationCtrlIntegrationTest {
         assertNull(mapResult.get("metaData"));
     }
 
+    /**
+     * Should never write password in the response
+     */
+    @Test
+    public void listWhenPasswordHidden() throws Exception {
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + BOTH));
+        final List<Map> authenticationsResult = (List<Map>) mapResult.get("data");
+
+        assertEquals(dbAuthentications.size(), authenticationsResult.size());
+        authenticationsResult.forEach(a -> {
+            assertFalse(a.containsKey("password"));
+            assertTrue(a.containsKey("username"));
+        });
+    }
+
     /**
      * Should return a NOT_FOUND error response
      */
@@ -267,8 +282,9 @@ public class AuthenticationCtrlIntegrationTest {
     public void createWhenUsernameDuplicated() throws Exception {
         final String ERROR_EXPECTED = "Username 'user2' is already used by another user.";
 
+        // valid relations, so the insert only fails by the username unique constraint
         final Authentication a = new Authentication("user2", "new pass",
-                new AuthProvider(), new Person());
+                new AuthProvider(dbAuthProviders.get(1).getId()), new Person(dbPeople.get(0).getId()));
         final String requestJson = mapper.writeValueAsString(a);
 
         final Map mapResult = integrationTest.getBadRequestResponse(
@@ -634,7 +650,7 @@ public class AuthenticationCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson), 4);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -657,7 +673,7 @@ public class AuthenticationCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE).content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE).content(requestJson), 6);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -680,7 +696,7 @@ public class AuthenticationCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS).content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS).content(requestJson), 6);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -703,7 +719,7 @@ public class AuthenticationCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + "").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + "").content(requestJson), 6);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -0,0 +1,118 @@
+package app.integration_test;
+
+import app.filters.Bulkhead;
+import app.pojos.pages.PageDataRequest;
+import app.security.pojos.LoggedUser;
+import app.security.services.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BulkheadIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Bulkhead readBulkhead;
+
+    @Autowired
+    private Bulkhead pageBulkhead;
+
+    @MockBean
+    private TokenService tokenService;
+
+    private final String VIEW_USERS_TOKEN = "users";
+
+    @Before
+    public void setup() throws Exception {
+        given(tokenService.getLoggedUser(VIEW_USERS_TOKEN)).willReturn(
+                new LoggedUser("ID", null, null, new HashSet<>(Arrays.asList("VIEW_USERS"))));
+    }
+
+    /**
+     * Should keep the permit of an async page until its response is written
+     */
+    @Test
+    public void asyncPage() throws Exception {
+        final MvcResult result = mvc.perform(MockMvcRequestBuilders.post("/people/Page")
+                .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(new PageDataRequest(0, 10, null, null, null))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(1, pageBulkhead.getActive());
+        assertEquals(0, readBulkhead.getActive());
+
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertEquals(0, pageBulkhead.getActive());
+    }
+
+    /**
+     * Should reject reads with SERVICE_UNAVAILABLE when their group is full while ping, login and pages keep working
+     */
+    @Test
+    public void rejectWhenFull() throws Exception {
+        final long REJECTED = readBulkhead.getRejected() + readBulkhead.getTimeouts();
+        for (int i = 0; i < readBulkhead.getLimit(); i++) {
+            readBulkhead.acquire();
+        }
+
+        final String bodyResult;
+        try {
+            bodyResult = mvc.perform(MockMvcRequestBuilders.get("/people/123").header("Authorization", "Bearer " + VIEW_USERS_TOKEN))
+                    .andExpect(status().isServiceUnavailable())
+                    .andReturn().getResponse().getContentAsString();
+            mvc.perform(MockMvcRequestBuilders.get("/ping").header("Authorization", "Bearer " + VIEW_USERS_TOKEN))
+                    .andExpect(status().isOk());
+            // unknown user, but it reaches the controller
+            mvc.perform(MockMvcRequestBuilders.post("/login").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"invalid\",\"password\":\"invalid\"}"))
+                    .andExpect(status().isNotFound());
+            final MvcResult PAGE = mvc.perform(MockMvcRequestBuilders.post("/people/Page")
+                    .header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(mapper.writeValueAsString(new PageDataRequest(0, 10, null, null, null))))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(asyncDispatch(PAGE)).andExpect(status().isOk());
+        } finally {
+            for (int i = 0; i < readBulkhead.getLimit(); i++) {
+                readBulkhead.release();
+            }
+        }
+        final Map errorResult = (Map) mapper.readValue(bodyResult, Map.class).get("error");
+
+        assertEquals("Server is busy, try again later.", errorResult.get("message"));
+        assertEquals(REJECTED + 1, readBulkhead.getRejected() + readBulkhead.getTimeouts());
+        assertEquals(0, readBulkhead.getActive());
+    }
+}
@@ -0,0 +1,69 @@
+package app.integration_test;
+
+import app.DataGenerator;
+import app.DataLoader;
+import app.models.Authentication;
+import app.repositories.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("generator")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:generator", "generator.permissions=30", "generator.roles=10",
+        "generator.people=1200", "generator.authentications=1000", "generator.batch-size=500"})
+public class DataGeneratorIntegrationTest {
+
+    @Autowired
+    private DataLoader dataLoader;
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    /**
+     * Should insert default and generated values after the application started and skip them the next time
+     */
+    @Test
+    @Transactional
+    public void generate() throws Exception {
+        final long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!dataLoader.isReady() && System.nanoTime() < limit) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(dataLoader.isReady());
+        assertEquals(1, authProviderRepository.count());
+        assertEquals(7 + 30, permissionRepository.count());
+        assertEquals(2 + 10, roleRepository.count());
+        assertEquals(3 + 1200, personRepository.count());
+        final List<Authentication> authentications = authenticationRepository.findAll();
+        assertEquals(3 + 1000, authentications.size());
+        authentications.forEach(a -> assertFalse(a.getPerson().getRoles().isEmpty()));
+        assertNotNull(authenticationRepository.findByUsername("generated0000999"));
+        assertEquals(0, dataGenerator.generate());
+    }
+}
@@ -0,0 +1,65 @@
+package app.integration_test;
+
+import app.DataLoader;
+import app.models.Authentication;
+import app.repositories.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"data-loader=true", "spring.datasource.url=jdbc:h2:mem:seeding"})
+public class DataLoaderIntegrationTest {
+
+    @Autowired
+    private DataLoader dataLoader;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    /**
+     * Should insert default values with their relations after the application started
+     */
+    @Test
+    @Transactional
+    public void setupDatabase() throws Exception {
+        final long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!dataLoader.isReady() && System.nanoTime() < limit) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(dataLoader.isReady());
+        assertNotNull(dataLoader.snapshot().getSeedingTime());
+        assertEquals(1, authProviderRepository.count());
+        assertEquals(7, permissionRepository.count());
+        assertEquals(2, roleRepository.count());
+        assertEquals(3, personRepository.count());
+        final List<Authentication> authentications = authenticationRepository.findAll();
+        assertEquals(3, authentications.size());
+        authentications.forEach(a -> {
+            assertNotNull(a.getPerson().getId());
+            assertFalse(a.getPerson().getRoles().isEmpty());
+        });
+        assertEquals(7, roleRepository.findByName("ADMIN").getPermissions().size());
+    }
+}
@@ -0,0 +1,209 @@
+package app.integration_test;
+
+import app.EncodingConfig;
+import app.models.Permission;
+import app.repositories.*;
+import app.security.pojos.LoggedUser;
+import app.security.services.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EncodingIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    private List<Permission> dbPermissions;
+
+    private final String BASE_URL = "/permissions";
+
+    private final String TOKEN = "user with roles permissions";
+
+    @Before
+    public void setup() throws Exception {
+        given(tokenService.getLoggedUser(TOKEN)).willReturn(new LoggedUser("ID", "FN", "R",
+                new HashSet<>(Arrays.asList("VIEW_ROLES", "CREATE_ROLES"))));
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+
+        // big enough to be over compression.min-response-size
+        dbPermissions = IntStream.range(0, 40).mapToObj(i -> new Permission("PERMISSION_" + i, "Description of permission " + i))
+                .collect(Collectors.toList());
+        permissionRepository.save(dbPermissions);
+    }
+
+    /**
+     * Should return JSON when client accepts any media type
+     */
+    @Test
+    public void jsonWhenAnyAccepted() throws Exception {
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL).accept(MediaType.ALL));
+
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        assertEquals(getNames(dbPermissions), getNames(mapper.readValue(response.getContentAsByteArray(), HashMap.class)));
+    }
+
+    /**
+     * Should return Smile with the same data than JSON
+     */
+    @Test
+    public void smile() throws Exception {
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL).accept(EncodingConfig.APPLICATION_SMILE));
+        final Map mapResult = new ObjectMapper(new SmileFactory()).readValue(response.getContentAsByteArray(), HashMap.class);
+
+        assertTrue(EncodingConfig.APPLICATION_SMILE.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        assertEquals(getNames(dbPermissions), getNames(mapResult));
+    }
+
+    /**
+     * Should return CBOR with the same data than JSON
+     */
+    @Test
+    public void cbor() throws Exception {
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL).accept(EncodingConfig.APPLICATION_CBOR));
+        final Map mapResult = new ObjectMapper(new CBORFactory()).readValue(response.getContentAsByteArray(), HashMap.class);
+
+        assertTrue(EncodingConfig.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        assertEquals(getNames(dbPermissions), getNames(mapResult));
+    }
+
+    /**
+     * Should read a Smile request body
+     */
+    @Test
+    public void smileRequestBody() throws Exception {
+        final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        final Permission PERMISSION = new Permission("NEW", "New permission");
+
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.post(BASE_URL)
+                .contentType(EncodingConfig.APPLICATION_SMILE).accept(EncodingConfig.APPLICATION_SMILE)
+                .content(smileMapper.writeValueAsBytes(PERMISSION)));
+        final Map data = (Map) smileMapper.readValue(response.getContentAsByteArray(), HashMap.class).get("data");
+
+        assertEquals(PERMISSION.getName(), data.get("name"));
+        assertEquals(PERMISSION.getDescription(), data.get("description"));
+        assertNotNull(permissionRepository.findOne((String) data.get("id")));
+    }
+
+    /**
+     * Should return gzip JSON when client accepts it and response is bigger than min-response-size
+     */
+    @Test
+    public void gzip() throws Exception {
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL)
+                .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip"));
+        final byte[] body = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        // the list is versioned, so it already varies on Accept-Encoding
+        assertEquals(Collections.singletonList("Accept, Accept-Encoding"), response.getHeaders(HttpHeaders.VARY));
+        assertEquals(getNames(dbPermissions), getNames(mapper.readValue(body, HashMap.class)));
+    }
+
+    /**
+     * Should return deflate JSON when client only accepts deflate
+     */
+    @Test
+    public void deflate() throws Exception {
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"));
+        final byte[] body = StreamUtils.copyToByteArray(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+
+        assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(getNames(dbPermissions), getNames(mapper.readValue(body, HashMap.class)));
+    }
+
+    /**
+     * Should not compress responses smaller than min-response-size
+     */
+    @Test
+    public void notCompressedWhenSmall() throws Exception {
+        final Permission permission = dbPermissions.get(0);
+
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL + "/" + permission.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        final Map data = (Map) mapper.readValue(response.getContentAsByteArray(), HashMap.class).get("data");
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        assertEquals(permission.getName(), data.get("name"));
+    }
+
+    /**
+     * Should not compress media types that aren't in mime-types
+     */
+    @Test
+    public void notCompressedWhenSmile() throws Exception {
+        final MockHttpServletResponse response = perform(MockMvcRequestBuilders.get(BASE_URL)
+                .accept(EncodingConfig.APPLICATION_SMILE).header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        final Map mapResult = new ObjectMapper(new SmileFactory()).readValue(response.getContentAsByteArray(), HashMap.class);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(getNames(dbPermissions), getNames(mapResult));
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder builder) throws Exception {
+        return mvc.perform(builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private List<String> getNames(List<Permission> permissions) {
+        return permissions.stream().map(Permission::getName).sorted().collect(Collectors.toList());
+    }
+
+    private List<String> getNames(Map response) {
+        return ((List<?>) response.get("data")).stream().map(p -> (String) ((Map) p).get("name")).sorted().collect(Collectors.toList());
+    }
+}
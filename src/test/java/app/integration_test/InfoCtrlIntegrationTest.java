@@ -53,4 +53,18 @@ public class InfoCtrlIntegrationTest {
         assertEquals(VERSION, mapResult.get("data"));
         assertNull(mapResult.get("metaData"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Should be ready when data-loader is false
+     */
+    @Test
+    public void ready() throws Exception {
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + "/ready"));
+        final Map data = (Map) mapResult.get("data");
+
+        assertEquals(true, data.get("ready"));
+        assertNull(data.get("seedingTime"));
+        assertEquals(data.get("startupTime"), data.get("readyTime"));
+        assertTrue(((Number) data.get("startupTime")).longValue() > 0);
+    }
+}
@@ -1,5 +1,7 @@
 package app.integration_test;
 
+import app.filters.QueryCountFilter;
+import app.metrics.QueryCounter;
 import app.models.*;
 import app.pojos.pages.FilterRequest;
 import app.pojos.pages.PageDataRequest;
@@ -12,7 +14,11 @@ import app.security.services.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -25,6 +31,7 @@ import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.mockito.internal.verification.VerificationModeFactory.atLeast;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class IntegrationTest {
@@ -124,6 +131,16 @@ public class IntegrationTest {
         return getErrorResponse(builder, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Should return a PRECONDITION_FAILED error response mocking authentication with an user with all permissions
+     *
+     * @param builder request to be called (header and contentType are going to be created internally)
+     * @return generated response
+     */
+    public Map getPreconditionFailedResponse(MockHttpServletRequestBuilder builder) throws Exception {
+        return getErrorResponse(builder, HttpStatus.PRECONDITION_FAILED);
+    }
+
     /**
      * Should return an INTERNAL_SERVER_ERROR error response mocking authentication with an user with all permissions
      *
@@ -148,17 +165,22 @@ public class IntegrationTest {
         String bodyResult = null;
         switch (status) {
             case BAD_REQUEST:
-                bodyResult = mvc.perform(builder)
+                bodyResult = perform(builder)
                         .andExpect(status().isBadRequest())
                         .andReturn().getResponse().getContentAsString();
                 break;
             case NOT_FOUND:
-                bodyResult = mvc.perform(builder)
+                bodyResult = perform(builder)
                         .andExpect(status().isNotFound())
                         .andReturn().getResponse().getContentAsString();
                 break;
+            case PRECONDITION_FAILED:
+                bodyResult = perform(builder)
+                        .andExpect(status().isPreconditionFailed())
+                        .andReturn().getResponse().getContentAsString();
+                break;
             case INTERNAL_SERVER_ERROR:
-                bodyResult = mvc.perform(builder)
+                bodyResult = perform(builder)
                         .andExpect(status().isInternalServerError())
                         .andReturn().getResponse().getContentAsString();
                 break;
@@ -179,12 +201,25 @@ public class IntegrationTest {
      * @return generated response
      */
     public Map getOKResponse(MockHttpServletRequestBuilder builder) throws Exception {
+        return getOKResponse(builder, null);
+    }
+
+    /**
+     * Should return an OK response running no more queries than budget mocking authentication with an user with all permissions
+     *
+     * @param builder     request to be called (header and contentType are going to be created internally)
+     * @param queryBudget max SQL statements and Mongo commands the request can run or null if they aren't checked
+     * @return generated response
+     */
+    public Map getOKResponse(MockHttpServletRequestBuilder builder, Integer queryBudget) throws Exception {
         builder = builder.header("Authorization", "Bearer " + ALL_PERMISSIONS_TOKEN)
                 .contentType(MediaType.APPLICATION_JSON);
 
-        final String bodyResult = mvc.perform(builder)
-                .andExpect(status().isOk())
-                .andReturn().getResponse().getContentAsString();
+        final ResultActions actions = perform(builder).andExpect(status().isOk());
+        if (queryBudget != null) {
+            actions.andExpect(queryBudget(queryBudget));
+        }
+        final String bodyResult = actions.andReturn().getResponse().getContentAsString();
 
         final Map mapResult = mapper.readValue(bodyResult, HashMap.class);
 
@@ -195,6 +230,65 @@ public class IntegrationTest {
         return mapResult;
     }
 
+    /**
+     * Should return a NOT_MODIFIED response without body mocking authentication with an user with all permissions
+     *
+     * @param builder request to be called (header and contentType are going to be created internally)
+     * @return generated ETag header
+     */
+    public String getNotModifiedResponse(MockHttpServletRequestBuilder builder) throws Exception {
+        builder = builder.header("Authorization", "Bearer " + ALL_PERMISSIONS_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        final MockHttpServletResponse response = perform(builder)
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+
+        assertEquals("", response.getContentAsString());
+        // same Vary as the OK response, so caches keep a copy per content type and encoding
+        assertEquals("Accept, Accept-Encoding", response.getHeader("Vary"));
+        verify(tokenService, times(1)).getLoggedUser(ALL_PERMISSIONS_TOKEN);
+        verify(tokenService, never()).refreshToken();
+        return response.getHeader("ETag");
+    }
+
+    /**
+     * Should perform a request, when it's handled by an async endpoint the response is written by the async dispatch
+     *
+     * @param builder request to be called
+     * @return final result
+     */
+    private ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception {
+        final ResultActions actions = mvc.perform(builder);
+        final MvcResult result = actions.andReturn();
+        if (!result.getRequest().isAsyncStarted()) {
+            return actions;
+        }
+
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    /**
+     * Should run no more queries than budget, otherwise the test fails with the request counts (like an N+1 in the relations).
+     * Every request with a budget reads the database, so no queries means they weren't counted (like in an async task)
+     *
+     * @param budget max SQL statements and Mongo commands the request can run
+     * @return matcher to be used with andExpect
+     */
+    public static ResultMatcher queryBudget(int budget) {
+        return result -> {
+            final QueryCounter counter = (QueryCounter) result.getRequest().getAttribute(QueryCountFilter.ATTRIBUTE);
+
+            assertNotNull("Query counter is disabled.", counter);
+            assertTrue(String.format("%s %s didn't count any query.", result.getRequest().getMethod(), result.getRequest().getRequestURI()),
+                    counter.getTotal() > 0);
+            assertTrue(String.format("%s %s ran %d queries (%d SQL, %d Mongo) but its budget is %d, most repeated (%d times): %s",
+                    result.getRequest().getMethod(), result.getRequest().getRequestURI(), counter.getTotal(),
+                    counter.getSqlCount(), counter.getMongoCount(), budget, counter.getMostRepeatedCount(), counter.getMostRepeated()),
+                    counter.getTotal() <= budget);
+        };
+    }
+
     /**
      * Clean all database entries
      */
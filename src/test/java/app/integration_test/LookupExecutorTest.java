@@ -0,0 +1,101 @@
+package app.integration_test;
+
+import app.models.Permission;
+import app.models.Person;
+import app.models.Role;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import app.repositories.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class LookupExecutorTest {
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Before
+    public void setup() {
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+        // hibernate flushes inserts before deletes, so deletes must be flushed before inserting the same unique values
+        permissionRepository.flush();
+
+        final List<Permission> permissions = permissionRepository.save(Arrays.asList(new Permission("P1", "D1"), new Permission("P2", "D2")));
+        final List<Role> roles = roleRepository.save(Arrays.asList(
+                new Role("R1", "D1", new HashSet<>(permissions)),
+                new Role("R2", "D2", new HashSet<>(Collections.singletonList(permissions.get(0))))
+        ));
+        personRepository.save(Arrays.asList(
+                new Person("N1", "L1", LocalDate.of(1986, 4, 1), 1, Person.SEX.M, null, new HashSet<>(roles)),
+                new Person("N2", "L2", LocalDate.of(1986, 4, 2), 2, Person.SEX.F, null, new HashSet<>(Collections.singletonList(roles.get(1)))),
+                new Person("N3", "L3", LocalDate.of(1986, 4, 3), 3, Person.SEX.M, null, null)
+        ));
+    }
+
+    /**
+     * Should get the same entities and relations than findAll
+     */
+    @Test
+    public void findAllLookup() {
+        final List<Person> PEOPLE_EXPECTED = personRepository.findAll();
+
+        final List<Person> peopleResult = personRepository.findAllLookup();
+
+        assertNotSame(PEOPLE_EXPECTED, peopleResult);
+        assertEquals(PEOPLE_EXPECTED, peopleResult);
+        assertEquals(getRoleNames(PEOPLE_EXPECTED), getRoleNames(peopleResult));
+    }
+
+    /**
+     * Should get the same page and relations than page
+     */
+    @Test
+    public void pageLookup() {
+        final PageDataRequest PAGE_DATA_REQUEST = new PageDataRequest(0, 2, "DESC", Collections.singletonList("name"),
+                Collections.singletonList(new FilterRequest("name", "N", "STARTSWITH")));
+        final Page<Person> PAGE_EXPECTED = personRepository.page(PAGE_DATA_REQUEST);
+
+        final Page<Person> pageResult = personRepository.pageLookup(PAGE_DATA_REQUEST);
+
+        assertNotSame(PAGE_EXPECTED, pageResult);
+        assertEquals(PAGE_EXPECTED.getTotalElements(), pageResult.getTotalElements());
+        assertEquals(PAGE_EXPECTED.getContent(), pageResult.getContent());
+        assertEquals(getRoleNames(PAGE_EXPECTED.getContent()), getRoleNames(pageResult.getContent()));
+    }
+
+    private List<List<String>> getRoleNames(List<Person> people) {
+        return people.stream().map(p -> p.getRoles() == null ? Collections.<String>emptyList()
+                : p.getRoles().stream().map(Role::getName).sorted().collect(Collectors.toList())).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,113 @@
+package app.integration_test;
+
+import app.security.pojos.LoggedUser;
+import app.security.services.TokenService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsCtrlIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private TokenService tokenService;
+
+    private final String VIEW_METRICS_TOKEN = "metrics";
+
+    /**
+     * Should count served and rejected requests by route template and status
+     */
+    @Test
+    public void scrape() throws Exception {
+        given(tokenService.getLoggedUser(VIEW_METRICS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_METRICS"))));
+        mvc.perform(MockMvcRequestBuilders.get("/info/version")).andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/info/version")).andExpect(status().isOk());
+        mvc.perform(MockMvcRequestBuilders.get("/people/123")).andExpect(status().isUnauthorized());
+
+        final String bodyResult = mvc.perform(MockMvcRequestBuilders.get("/metrics").header("Authorization", "Bearer " + VIEW_METRICS_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        final List<String> linesResult = Arrays.asList(bodyResult.split("\n"));
+
+        // other tests in the same context could have called the same routes
+        assertTrue(linesResult.stream().anyMatch(Pattern.compile(
+                "http_server_requests_seconds_count\\{method=\"GET\",route=\"/info/version\",status=\"200\"} ([2-9]|\\d{2,})")
+                .asPredicate()));
+        assertTrue(linesResult.stream().anyMatch(l -> l.startsWith(
+                "http_server_requests_seconds_count{method=\"GET\",route=\"unmatched\",status=\"401\"}")));
+        assertTrue(linesResult.contains("# TYPE hikari_connections_active gauge"));
+    }
+
+    /**
+     * Should time every security stage of a request and add them to Server-Timing header
+     */
+    @Test
+    public void securityStages() throws Exception {
+        final String VIEW_USERS_TOKEN = "users";
+        given(tokenService.getLoggedUser(VIEW_USERS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_USERS"))));
+        given(tokenService.getLoggedUser(VIEW_METRICS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_METRICS"))));
+
+        final String serverTimingResult = mvc.perform(MockMvcRequestBuilders.get("/people").header("Authorization", "Bearer " + VIEW_USERS_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Server-Timing");
+        final String bodyResult = mvc.perform(MockMvcRequestBuilders.get("/metrics").header("Authorization", "Bearer " + VIEW_METRICS_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        final List<String> STAGES = Arrays.asList("token_filter", "token_parse", "authorities", "pre_authorize", "token_refresh");
+        STAGES.forEach(stage -> {
+            assertTrue(serverTimingResult, Pattern.compile(stage + ";dur=[0-9.]+").matcher(serverTimingResult).find());
+            assertTrue(bodyResult.contains("security_stage_seconds_count{stage=\"" + stage + "\"}"));
+        });
+    }
+
+    /**
+     * Should add the security stages and queries of the async task when the async dispatch writes the response
+     */
+    @Test
+    public void securityStagesAsync() throws Exception {
+        final String VIEW_USERS_TOKEN = "users";
+        given(tokenService.getLoggedUser(VIEW_USERS_TOKEN)).willReturn(
+                new LoggedUser(null, null, null, new HashSet<>(Arrays.asList("VIEW_USERS"))));
+
+        final MvcResult RESULT = mvc.perform(MockMvcRequestBuilders.post("/people/Page").header("Authorization", "Bearer " + VIEW_USERS_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"page\": 0, \"size\": 2}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final MockHttpServletResponse responseResult = mvc.perform(asyncDispatch(RESULT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        final String serverTimingResult = responseResult.getHeader("Server-Timing");
+        assertTrue(serverTimingResult, Pattern.compile("token_refresh;dur=[0-9.]+").matcher(serverTimingResult).find());
+        assertTrue(responseResult.getHeader("X-Query-Count"), Pattern.compile("sql=[1-9]").matcher(responseResult.getHeader("X-Query-Count")).find());
+    }
+}
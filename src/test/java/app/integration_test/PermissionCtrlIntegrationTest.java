@@ -145,6 +145,67 @@ public class PermissionCtrlIntegrationTest {
         assertNull(mapResult.get("metaData"));
     }
 
+    /**
+     * Should return a NOT_MODIFIED response when If-None-Match matches collection version
+     */
+    @Test
+    public void listWhenNotModified() throws Exception {
+        final String ETAG_EXPECTED = "W/\"" + permissionRepository.findCollectionVersion() + "\"";
+
+        final String eTagResult = integrationTest.getNotModifiedResponse(MockMvcRequestBuilders.get(BASE_URL)
+                .header("If-None-Match", ETAG_EXPECTED));
+
+        assertEquals(ETAG_EXPECTED, eTagResult);
+    }
+
+    /**
+     * Should get permissions list when collection changed after If-None-Match was generated
+     */
+    @Test
+    public void listWhenModified() throws Exception {
+        final String OLD_VERSION = permissionRepository.findCollectionVersion();
+        permissionRepository.delete(dbPermissions.get(0));
+        final List<Permission> permissionsExpected = dbPermissions.subList(1, dbPermissions.size());
+        final String newVersion = permissionRepository.findCollectionVersion();
+
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + COMPLETE)
+                .header("If-None-Match", "\"" + OLD_VERSION + "\""));
+        final List<Permission> permissionsResult = IntegrationTest.getPermissions(mapResult.get("data"));
+
+        assertNotEquals(OLD_VERSION, newVersion);
+        assertNotSame(permissionsExpected, permissionsResult);
+        assertEquals(permissionsExpected, permissionsResult);
+    }
+
+    /**
+     * Should return a NOT_MODIFIED response when If-None-Match matches permission version
+     */
+    @Test
+    public void getWhenNotModified() throws Exception {
+        final Permission permission = dbPermissions.get(1);
+        final String ETAG_EXPECTED = "W/\"" + permission.getVersion() + "\"";
+
+        final String eTagResult = integrationTest.getNotModifiedResponse(MockMvcRequestBuilders.get(BASE_URL + "/" + permission.getId())
+                .header("If-None-Match", ETAG_EXPECTED));
+
+        assertEquals(ETAG_EXPECTED, eTagResult);
+    }
+
+    /**
+     * Should get permission when If-None-Match doesn't match permission version
+     */
+    @Test
+    public void getWhenModified() throws Exception {
+        final Permission permissionExpected = dbPermissions.get(1);
+
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + "/" + permissionExpected.getId() + COMPLETE)
+                .header("If-None-Match", "\"" + (permissionExpected.getVersion() + 1) + "\""));
+        final Permission permissionResult = IntegrationTest.getPermission(mapResult.get("data"));
+
+        assertNotSame(permissionExpected, permissionResult);
+        assertEquals(permissionExpected, permissionResult);
+    }
+
     /**
      * Should return a NOT_FOUND error response
      */
@@ -411,7 +472,7 @@ public class PermissionCtrlIntegrationTest {
         final List<Role> rolesExpected = Collections.EMPTY_LIST;
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles"));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles"), 2);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
 
         assertNotSame(rolesExpected, rolesResult);
@@ -429,7 +490,7 @@ public class PermissionCtrlIntegrationTest {
         rolesExpected.forEach(r -> r.setPermissions(null));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles"));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles"), 2);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
 
         assertNotSame(rolesExpected, rolesResult);
@@ -446,7 +507,7 @@ public class PermissionCtrlIntegrationTest {
         final List<Role> rolesExpected = Arrays.asList(dbRoles.get(0));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles" + COMPLETE + ""));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles" + COMPLETE + ""), 3);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
 
         assertNotSame(rolesExpected, rolesResult);
@@ -463,7 +524,7 @@ public class PermissionCtrlIntegrationTest {
         final List<Role> rolesExpected = Arrays.asList(dbRoles.get(0));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles" + ALL_RELATIONS + " "));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles" + ALL_RELATIONS + " "), 3);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
 
         assertNotSame(rolesExpected, rolesResult);
@@ -480,7 +541,7 @@ public class PermissionCtrlIntegrationTest {
         final List<Role> rolesExpected = Arrays.asList(dbRoles.get(0));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles" + BOTH + "  "));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/roles" + BOTH + "  "), 3);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
 
         assertNotSame(rolesExpected, rolesResult);
@@ -540,7 +601,7 @@ public class PermissionCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson), 2);
         final List<Permission> permissionsResult = IntegrationTest.getPermissions(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -562,7 +623,7 @@ public class PermissionCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE + "").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE + "").content(requestJson), 2);
         final List<Permission> permissionsResult = IntegrationTest.getPermissions(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -584,7 +645,7 @@ public class PermissionCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS + " ").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS + " ").content(requestJson), 2);
         final List<Permission> permissionsResult = IntegrationTest.getPermissions(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -606,7 +667,7 @@ public class PermissionCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + "  ").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + "  ").content(requestJson), 2);
         final List<Permission> permissionsResult = IntegrationTest.getPermissions(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -113,7 +113,7 @@ public class PersonCtrlIntegrationTest {
         final List<Person> peopleExpected = dbPeople;
         peopleExpected.forEach(p -> p.setRoles(null));
 
-        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL));
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL), 2);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -133,7 +133,7 @@ public class PersonCtrlIntegrationTest {
             p.setRoles(p.getRoles().stream().sorted(Comparator.comparing(Role::getId)).collect(Collectors.toSet()));
         });
 
-        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + COMPLETE));
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + COMPLETE), 7);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -148,7 +148,7 @@ public class PersonCtrlIntegrationTest {
     public void listWhenNotCompleteAndAllRelations() throws Exception {
         final List<Person> peopleExpected = dbPeople;
 
-        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + ALL_RELATIONS));
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + ALL_RELATIONS), 7);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -163,7 +163,7 @@ public class PersonCtrlIntegrationTest {
     public void listWhenCompleteAndAllRelations() throws Exception {
         final List<Person> peopleExpected = dbPeople;
 
-        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + BOTH + ""));
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + BOTH + ""), 7);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -196,7 +196,7 @@ public class PersonCtrlIntegrationTest {
         final String ID = personExpected.getId();
 
         final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(
-                BASE_URL + "/" + ID));
+                BASE_URL + "/" + ID), 1);
         final Person personResult = IntegrationTest.getPerson(mapResult.get("data"));
 
         assertNotSame(personExpected, personResult);
@@ -216,7 +216,7 @@ public class PersonCtrlIntegrationTest {
         final String ID = personExpected.getId();
 
         final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(
-                BASE_URL + "/" + ID + COMPLETE));
+                BASE_URL + "/" + ID + COMPLETE), 4);
         final Person personResult = IntegrationTest.getPerson(mapResult.get("data"));
 
         assertNotSame(personExpected, personResult);
@@ -233,7 +233,7 @@ public class PersonCtrlIntegrationTest {
         final String ID = personExpected.getId();
 
         final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(
-                BASE_URL + "/" + ID + ALL_RELATIONS));
+                BASE_URL + "/" + ID + ALL_RELATIONS), 4);
         final Person personResult = IntegrationTest.getPerson(mapResult.get("data"));
 
         assertNotSame(personExpected, personResult);
@@ -250,7 +250,7 @@ public class PersonCtrlIntegrationTest {
         final String ID = personExpected.getId();
 
         final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(
-                BASE_URL + "/" + ID + BOTH + ""));
+                BASE_URL + "/" + ID + BOTH + ""), 4);
         final Person personResult = IntegrationTest.getPerson(mapResult.get("data"));
 
         assertNotSame(personExpected, personResult);
@@ -589,6 +589,51 @@ public class PersonCtrlIntegrationTest {
         validateRolesNotEdited();
     }
 
+    /**
+     * Should return a PRECONDITION_FAILED error response when If-Match is not the current version
+     */
+    @Test
+    public void editWhenVersionMismatch() throws Exception {
+        final String ID = dbPeople.get(0).getId();
+        final String ERROR_EXPECTED = "Data was modified by another request.";
+        final Person p = new Person("new name", "new last name", LocalDate.now(), 1, "M", null, null);
+        final String requestJson = mapper.writeValueAsString(p);
+
+        final Map mapResult = integrationTest.getPreconditionFailedResponse(
+                MockMvcRequestBuilders.put(BASE_URL + "/" + ID).header("If-Match", "\"" + (dbPeople.get(0).getVersion() + 1) + "\"").content(requestJson));
+        final Map errorResult = (Map) mapResult.get("error");
+
+        assertNotSame(ERROR_EXPECTED, errorResult.get("message"));
+        assertEquals(ERROR_EXPECTED, errorResult.get("message"));
+        assertNull(errorResult.get("devMessage"));
+        assertNull(errorResult.get("nestedErrors"));
+
+        // not updated in data base
+        validatePeopleNotEdited();
+        validateRolesNotEdited();
+    }
+
+    /**
+     * Should update a Person and increase its version when If-Match is the current version
+     */
+    @Test
+    public void editWhenVersionMatch() throws Exception {
+        final String ID = dbPeople.get(0).getId();
+        final long VERSION = dbPeople.get(0).getVersion();
+        final Person p = new Person("new name", "new last name", LocalDate.now(), 1, "M", null, null);
+        final String requestJson = mapper.writeValueAsString(p);
+
+        final Map mapResult = integrationTest.getOKResponse(
+                MockMvcRequestBuilders.put(BASE_URL + "/" + ID).header("If-Match", "\"" + VERSION + "\"").content(requestJson));
+        final Map personResult = (Map) mapResult.get("data");
+
+        assertEquals(VERSION + 1, ((Number) personResult.get("version")).longValue());
+        assertEquals(VERSION + 1, personRepository.findOne(ID).getVersion());
+
+        // updated in data base
+        validatePeopleEdited();
+    }
+
     /**
      * Should update a Person
      */
@@ -653,6 +698,104 @@ public class PersonCtrlIntegrationTest {
         validateRolesNotEdited();
     }
 
+    /**
+     * Should return a BAD_REQUEST error response when a field can't be patched
+     */
+    @Test
+    public void patchWhenFieldNotAllowed() throws Exception {
+        final String ID = dbPeople.get(0).getId();
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("roles", Collections.EMPTY_LIST));
+
+        final Map mapResult = integrationTest.getBadRequestResponse(
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID).content(requestJson));
+        final Map errorResult = (Map) mapResult.get("error");
+        final List nestedErrorsResult = (List) errorResult.get("nestedErrors");
+
+        assertEquals("Some data aren't valid.", errorResult.get("message"));
+        assertEquals(1, nestedErrorsResult.size());
+
+        // not updated in data base
+        validatePeopleNotEdited();
+        validateRolesNotEdited();
+    }
+
+    /**
+     * Should return a NOT_FOUND error response
+     */
+    @Test
+    public void patchWhenNotFound() throws Exception {
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("name", "new name"));
+
+        final Map mapResult = integrationTest.getNotFoundResponse(
+                MockMvcRequestBuilders.patch(BASE_URL + "/123").content(requestJson));
+        final Map errorResult = (Map) mapResult.get("error");
+
+        assertNotSame(NOT_FOUND_ERROR, errorResult.get("message"));
+        assertEquals(NOT_FOUND_ERROR, errorResult.get("message"));
+        assertNull(errorResult.get("devMessage"));
+        assertNull(errorResult.get("nestedErrors"));
+
+        // not updated in data base
+        validatePeopleNotEdited();
+        validateRolesNotEdited();
+    }
+
+    /**
+     * Should return a PRECONDITION_FAILED error response when If-Match is not the current version
+     */
+    @Test
+    public void patchWhenVersionMismatch() throws Exception {
+        final String ID = dbPeople.get(0).getId();
+        final String ERROR_EXPECTED = "Data was modified by another request.";
+        final String requestJson = mapper.writeValueAsString(Collections.singletonMap("name", "new name"));
+
+        final Map mapResult = integrationTest.getPreconditionFailedResponse(
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID).header("If-Match", "\"" + (dbPeople.get(0).getVersion() + 1) + "\"").content(requestJson));
+        final Map errorResult = (Map) mapResult.get("error");
+
+        assertNotSame(ERROR_EXPECTED, errorResult.get("message"));
+        assertEquals(ERROR_EXPECTED, errorResult.get("message"));
+
+        // not updated in data base
+        validatePeopleNotEdited();
+        validateRolesNotEdited();
+    }
+
+    /**
+     * Should update only the sent fields of a Person and increase its version
+     */
+    @Test
+    public void patchWhenSuccess() throws Exception {
+        final Person DB_PERSON = dbPeople.get(2);
+        final String ID = DB_PERSON.getId();
+        final long VERSION = DB_PERSON.getVersion();
+        final LocalDate BIRTHDAY = LocalDate.of(1990, 5, 20);
+        final Map<String, Object> PATCH = new HashMap<>();
+        PATCH.put("name", "new name");
+        PATCH.put("birthday", BIRTHDAY.toString());
+        final String requestJson = mapper.writeValueAsString(PATCH);
+
+        final Map mapResult = integrationTest.getOKResponse(
+                MockMvcRequestBuilders.patch(BASE_URL + "/" + ID).header("If-Match", "\"" + VERSION + "\"").content(requestJson));
+        final Person personResult = IntegrationTest.getPerson(mapResult.get("data"));
+
+        assertEquals("new name", personResult.getName());
+        assertEquals(BIRTHDAY, personResult.getBirthday());
+        assertEquals(DB_PERSON.getLastName(), personResult.getLastName());
+        assertEquals(VERSION + 1, ((Number) ((Map) mapResult.get("data")).get("version")).longValue());
+        assertEquals(2, personResult.getRoles().size());
+
+        // updated in data base, relations untouched
+        final Person personDB = personRepository.findOne(ID);
+        assertEquals("new name", personDB.getName());
+        assertEquals(BIRTHDAY, personDB.getBirthday());
+        assertEquals(DB_PERSON.getLastName(), personDB.getLastName());
+        assertEquals(DB_PERSON.getCivilStatus(), personDB.getCivilStatus());
+        assertEquals(VERSION + 1, personDB.getVersion());
+        validatePeopleEdited();
+        validateRolesNotEdited();
+    }
+
     /**
      * Should return a NOT_FOUND error response
      */
@@ -740,7 +883,7 @@ public class PersonCtrlIntegrationTest {
         final List<Authentication> authenticationsExpected = Collections.EMPTY_LIST;
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications"));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications"), 2);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
 
         assertNotSame(authenticationsExpected, authenticationsResult);
@@ -766,7 +909,7 @@ public class PersonCtrlIntegrationTest {
         });
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications"));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications"), 2);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
 
         assertNotSame(authenticationsExpected, authenticationsResult);
@@ -794,7 +937,7 @@ public class PersonCtrlIntegrationTest {
         });
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications" + COMPLETE));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications" + COMPLETE), 4);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
 
         assertNotSame(authenticationsExpected, authenticationsResult);
@@ -818,7 +961,7 @@ public class PersonCtrlIntegrationTest {
         });
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications" + ALL_RELATIONS));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications" + ALL_RELATIONS), 4);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
 
         assertNotSame(authenticationsExpected, authenticationsResult);
@@ -843,7 +986,7 @@ public class PersonCtrlIntegrationTest {
         });
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications" + BOTH + ""));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/authentications" + BOTH + ""), 4);
         final List<Authentication> authenticationsResult = IntegrationTest.getAuthentications(mapResult.get("data"));
 
         assertNotSame(authenticationsExpected, authenticationsResult);
@@ -904,7 +1047,7 @@ public class PersonCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson), 2);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -931,7 +1074,7 @@ public class PersonCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE).content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE).content(requestJson), 4);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -953,7 +1096,7 @@ public class PersonCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS).content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS).content(requestJson), 4);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -975,7 +1118,7 @@ public class PersonCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + "").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + "").content(requestJson), 4);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -0,0 +1,109 @@
+package app.integration_test;
+
+import app.models.*;
+import app.repositories.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class RelationQueriesTest {
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    private List<Permission> dbPermissions;
+
+    private List<Role> dbRoles;
+
+    private List<Person> dbPeople;
+
+    @Before
+    public void setup() {
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+
+        dbPermissions = permissionRepository.save(Arrays.asList(new Permission("P1", "D1"), new Permission("P2", "D2")));
+        dbRoles = roleRepository.save(Arrays.asList(
+                new Role("R1", "D1", new HashSet<>(dbPermissions)),
+                new Role("R2", "D2", new HashSet<>(Collections.singletonList(dbPermissions.get(0))))
+        ));
+        dbPeople = personRepository.save(Arrays.asList(
+                new Person("N1", "L1", LocalDate.of(1986, 4, 1), 1, "M", null, new HashSet<>(dbRoles)),
+                new Person("N2", "L2", LocalDate.of(1986, 4, 2), 2, "F", null, new HashSet<>(Collections.singletonList(dbRoles.get(0)))),
+                new Person("N3", "L3", LocalDate.of(1986, 4, 3), 3, "M", null, null)
+        ));
+        final List<AuthProvider> authProviders = authProviderRepository.save(Arrays.asList(
+                new AuthProvider("N1", "D1", "U1", "AK1", "AS1"),
+                new AuthProvider("N2", "D2", "U2", "AK2", "AS2")
+        ));
+        authenticationRepository.save(Arrays.asList(
+                new Authentication("user1", "123", authProviders.get(0), dbPeople.get(0)),
+                new Authentication("user2", "123", authProviders.get(1), dbPeople.get(0))
+        ));
+    }
+
+    /**
+     * Should check and count the people associated with a role
+     */
+    @Test
+    public void peopleByRole() {
+        final Role ROLE_NOT_USED = roleRepository.save(new Role("R3", "D3", null));
+
+        assertTrue(personRepository.existsByRoles(dbRoles.get(0)));
+        assertTrue(personRepository.existsByRoles(dbRoles.get(1)));
+        assertFalse(personRepository.existsByRoles(ROLE_NOT_USED));
+        assertEquals(2, personRepository.countByRoles(dbRoles.get(0)));
+        assertEquals(1, personRepository.countByRoles(dbRoles.get(1)));
+        assertEquals(0, personRepository.countByRoles(ROLE_NOT_USED));
+    }
+
+    /**
+     * Should check and count the roles associated with a permission
+     */
+    @Test
+    public void rolesByPermission() {
+        final Permission PERMISSION_NOT_USED = permissionRepository.save(new Permission("P3", "D3"));
+
+        assertTrue(roleRepository.existsByPermissions(dbPermissions.get(0)));
+        assertTrue(roleRepository.existsByPermissions(dbPermissions.get(1)));
+        assertFalse(roleRepository.existsByPermissions(PERMISSION_NOT_USED));
+        assertEquals(2, roleRepository.countByPermissions(dbPermissions.get(0)));
+        assertEquals(1, roleRepository.countByPermissions(dbPermissions.get(1)));
+        assertEquals(0, roleRepository.countByPermissions(PERMISSION_NOT_USED));
+    }
+
+    /**
+     * Should check and count the authentications associated with a person
+     */
+    @Test
+    public void authenticationsByPerson() {
+        assertTrue(authenticationRepository.existsByPerson(dbPeople.get(0)));
+        assertFalse(authenticationRepository.existsByPerson(dbPeople.get(1)));
+        assertEquals(2, authenticationRepository.countByPerson(dbPeople.get(0)));
+        assertEquals(0, authenticationRepository.countByPerson(dbPeople.get(1)));
+    }
+}
@@ -158,6 +158,105 @@ public class RoleCtrlIntegrationTest {
         assertNull(mapResult.get("metaData"));
     }
 
+    /**
+     * Should return a NOT_MODIFIED response when If-None-Match matches collection version
+     */
+    @Test
+    public void listWhenNotModified() throws Exception {
+        final String ETAG_EXPECTED = "W/\"" + roleRepository.findCollectionVersion() + "\"";
+
+        final String eTagResult = integrationTest.getNotModifiedResponse(MockMvcRequestBuilders.get(BASE_URL)
+                .header("If-None-Match", ETAG_EXPECTED));
+
+        assertEquals(ETAG_EXPECTED, eTagResult);
+    }
+
+    /**
+     * Should get roles list with the current permissions when relations are requested, even if If-None-Match matches collection version
+     */
+    @Test
+    public void listWhenNotModifiedWithRelations() throws Exception {
+        final String ETAG = "\"" + roleRepository.findCollectionVersion() + "\"";
+        final Permission PERMISSION = dbPermissions.get(1);
+        PERMISSION.setName("P2 RENAMED");
+        permissionRepository.save(PERMISSION);
+
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + COMPLETE)
+                .header("If-None-Match", ETAG));
+        final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
+
+        assertEquals(ETAG, "\"" + roleRepository.findCollectionVersion() + "\"");
+        assertEquals(dbRoles.size(), rolesResult.size());
+        assertTrue(rolesResult.stream().flatMap(r -> r.getPermissions().stream()).anyMatch(p -> p.getName().equals("P2 RENAMED")));
+    }
+
+    /**
+     * Should get roles list when collection changed after If-None-Match was generated
+     */
+    @Test
+    public void listWhenModified() throws Exception {
+        final String OLD_VERSION = roleRepository.findCollectionVersion();
+        roleRepository.delete(dbRoles.get(0));
+        final List<Role> rolesExpected = dbRoles.subList(1, dbRoles.size());
+        final String newVersion = roleRepository.findCollectionVersion();
+
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + COMPLETE)
+                .header("If-None-Match", "\"" + OLD_VERSION + "\""));
+        final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
+
+        assertNotEquals(OLD_VERSION, newVersion);
+        assertNotSame(rolesExpected, rolesResult);
+        assertEquals(rolesExpected, rolesResult);
+    }
+
+    /**
+     * Should return a NOT_MODIFIED response when If-None-Match matches role version
+     */
+    @Test
+    public void getWhenNotModified() throws Exception {
+        final Role role = dbRoles.get(1);
+        final String ETAG_EXPECTED = "W/\"" + role.getVersion() + "\"";
+
+        final String eTagResult = integrationTest.getNotModifiedResponse(MockMvcRequestBuilders.get(BASE_URL + "/" + role.getId())
+                .header("If-None-Match", ETAG_EXPECTED));
+
+        assertEquals(ETAG_EXPECTED, eTagResult);
+    }
+
+    /**
+     * Should get role with its current permissions when relations are requested, even if If-None-Match matches role version
+     */
+    @Test
+    public void getWhenNotModifiedWithRelations() throws Exception {
+        final Role ROLE = dbRoles.get(1);
+        final Permission PERMISSION = dbPermissions.get(1);
+        PERMISSION.setName("P2 RENAMED");
+        permissionRepository.save(PERMISSION);
+
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + "/" + ROLE.getId() + COMPLETE)
+                .header("If-None-Match", "\"" + ROLE.getVersion() + "\""));
+        final Role roleResult = IntegrationTest.getRole(mapResult.get("data"));
+
+        assertEquals(ROLE.getId(), roleResult.getId());
+        assertEquals(1, roleResult.getPermissions().size());
+        assertEquals("P2 RENAMED", roleResult.getPermissions().iterator().next().getName());
+    }
+
+    /**
+     * Should get role when If-None-Match doesn't match role version
+     */
+    @Test
+    public void getWhenModified() throws Exception {
+        final Role roleExpected = dbRoles.get(1);
+
+        final Map mapResult = integrationTest.getOKResponse(MockMvcRequestBuilders.get(BASE_URL + "/" + roleExpected.getId() + COMPLETE)
+                .header("If-None-Match", "\"" + (roleExpected.getVersion() + 1) + "\""));
+        final Role roleResult = IntegrationTest.getRole(mapResult.get("data"));
+
+        assertNotSame(roleExpected, roleResult);
+        assertEquals(roleExpected, roleResult);
+    }
+
     /**
      * Should return a NOT_FOUND error response
      */
@@ -669,7 +768,7 @@ public class RoleCtrlIntegrationTest {
         final List<Person> peopleExpected = Collections.EMPTY_LIST;
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people"));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people"), 2);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -687,7 +786,7 @@ public class RoleCtrlIntegrationTest {
         peopleExpected.forEach(p -> p.setRoles(null));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people"));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people"), 2);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -709,7 +808,7 @@ public class RoleCtrlIntegrationTest {
         });
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people" + COMPLETE));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people" + COMPLETE), 4);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -726,7 +825,7 @@ public class RoleCtrlIntegrationTest {
         final List<Person> peopleExpected = Arrays.asList(dbPeople.get(0));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people" + ALL_RELATIONS));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people" + ALL_RELATIONS), 4);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -743,7 +842,7 @@ public class RoleCtrlIntegrationTest {
         final List<Person> peopleExpected = Arrays.asList(dbPeople.get(0));
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people" + BOTH + ""));
+                MockMvcRequestBuilders.get(BASE_URL + "/" + ID + "/people" + BOTH + ""), 4);
         final List<Person> peopleResult = IntegrationTest.getPeople(mapResult.get("data"));
 
         assertNotSame(peopleExpected, peopleResult);
@@ -804,7 +903,7 @@ public class RoleCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page").content(requestJson), 2);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -826,7 +925,7 @@ public class RoleCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE).content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + COMPLETE).content(requestJson), 3);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -848,7 +947,7 @@ public class RoleCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS + "").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + ALL_RELATIONS + "").content(requestJson), 3);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -870,7 +969,7 @@ public class RoleCtrlIntegrationTest {
         final String requestJson = mapper.writeValueAsString(dataRequest);
 
         final Map mapResult = integrationTest.getOKResponse(
-                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + " ").content(requestJson));
+                MockMvcRequestBuilders.post(BASE_URL + "/Page" + BOTH + " ").content(requestJson), 3);
         final List<Role> rolesResult = IntegrationTest.getRoles(mapResult.get("data"));
         final PageDataResponse dataResponseResult = IntegrationTest.getPageDataResponse(mapResult.get("metaData"));
 
@@ -0,0 +1,83 @@
+package app.integration_test;
+
+import app.metrics.SlowQueryLog;
+import app.models.Person;
+import app.pojos.metrics.SlowQuerySnapshot;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import app.repositories.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "slow-query.threshold=0")
+public class SlowQueryIntegrationTest {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Before
+    public void setup() {
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+        personRepository.save(Arrays.asList(
+                new Person("N1", "L1", LocalDate.of(1986, 4, 1), 1, "M", null, null),
+                new Person("N2", "L2", LocalDate.of(1986, 4, 2), 2, "F", null, null),
+                new Person("N3", "L3", LocalDate.of(1986, 4, 3), 1, "M", null, null)
+        ));
+        slowQueryLog.clear();
+    }
+
+    /**
+     * Should keep the page query with the cleaned and normalized request, the generated SQL and the returned rows
+     */
+    @Test
+    public void page() {
+        final PageDataRequest PAGE_DATA_REQUEST = new PageDataRequest(-1, 2, "desc", Arrays.asList("name"), Arrays.asList(
+                new FilterRequest("sex", "M", "EQ"),
+                new FilterRequest("civilStatus", "1", "EQ")
+        ));
+
+        final Page<Person> pageResult = personRepository.page(PAGE_DATA_REQUEST);
+        final List<SlowQuerySnapshot> entriesResult = slowQueryLog.getEntries();
+
+        assertEquals(2, pageResult.getNumberOfElements());
+        assertEquals(1, entriesResult.size());
+        final SlowQuerySnapshot entry = entriesResult.get(0);
+        assertEquals("PersonRepositoryImpl", entry.getRepository());
+        assertEquals(new PageDataRequest(0, 2, "DESC", Arrays.asList("name"), Arrays.asList(
+                new FilterRequest("civilStatus", "1", "EQ"),
+                new FilterRequest("sex", "M", "EQ")
+        )), entry.getPageDataRequest());
+        assertEquals(2, entry.getRows());
+        assertTrue(entry.getLatency() > 0);
+        assertFalse(entry.getQueries().isEmpty());
+        assertTrue(entry.getQueries().get(0), entry.getQueries().get(0).startsWith("select"));
+        assertTrue(entry.getQueries().get(0), entry.getQueries().get(0).contains("from person"));
+    }
+}
@@ -0,0 +1,144 @@
+package app.integration_test;
+
+import app.exceptions.AppPreconditionFailedException;
+import app.models.*;
+import app.repositories.*;
+import app.services.SnapshotService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "snapshot.batch-size=10")
+public class SnapshotIntegrationTest {
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+    }
+
+    /**
+     * Should restore every table with the same ids, versions, dates and relations than the exported Data Base
+     */
+    @Test
+    public void exportAndRestore() throws Exception {
+        final AuthProvider AUTH_PROVIDER = authProviderRepository.save(new AuthProvider("LOCAL", "Local", "url", "key", "secret"));
+        final List<Permission> PERMISSIONS = permissionRepository.save(IntStream.range(0, 25)
+                .mapToObj(i -> new Permission("P" + i, "D" + i)).collect(Collectors.toList()));
+        final Role ROLE_1 = roleRepository.save(new Role("R1", "D1", new HashSet<>(PERMISSIONS.subList(0, 15))));
+        final Role ROLE_2 = roleRepository.save(new Role("R2", "D2", new HashSet<>(PERMISSIONS.subList(10, 25))));
+        final List<Person> PEOPLE = personRepository.save(IntStream.range(0, 12).mapToObj(i -> new Person("N" + i, "L" + i,
+                LocalDate.of(1990, 1, 1).plusDays(i), Person.CIVIL_STATUS.SINGLE, Person.SEX.F, i % 2 == 0 ? "p" + i + "@a.com" : null,
+                new HashSet<>(i % 3 == 0 ? Arrays.asList(ROLE_1, ROLE_2) : Collections.singletonList(ROLE_1))))
+                .collect(Collectors.toList()));
+        PEOPLE.get(0).setName("updated");
+        personRepository.save(PEOPLE.get(0));
+        authenticationRepository.save(PEOPLE.stream().map(p -> new Authentication("u" + p.getName(), "hash" + p.getName(), AUTH_PROVIDER, p))
+                .collect(Collectors.toList()));
+        final Map<String, String> EXPECTED = describe();
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshotService.export(outputStream);
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+        final Map<String, Long> restoredResult = snapshotService.restore(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(Long.valueOf(1), restoredResult.get("auth_provider"));
+        assertEquals(Long.valueOf(25), restoredResult.get("permission"));
+        assertEquals(Long.valueOf(2), restoredResult.get("role"));
+        assertEquals(Long.valueOf(30), restoredResult.get("role_permissions"));
+        assertEquals(Long.valueOf(12), restoredResult.get("person"));
+        assertEquals(Long.valueOf(16), restoredResult.get("person_roles"));
+        assertEquals(Long.valueOf(12), restoredResult.get("authentication"));
+        assertEquals(EXPECTED, describe());
+        assertEquals(1, personRepository.findOne(PEOPLE.get(0).getId()).getVersion());
+    }
+
+    /**
+     * Should export and restore an empty Data Base
+     */
+    @Test
+    public void exportAndRestoreEmpty() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshotService.export(outputStream);
+        final Map<String, Long> restoredResult = snapshotService.restore(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(7, restoredResult.size());
+        restoredResult.values().forEach(count -> assertEquals(Long.valueOf(0), count));
+    }
+
+    /**
+     * Should not insert anything when Data Base isn't empty
+     */
+    @Test
+    public void restoreNotEmpty() throws Exception {
+        permissionRepository.save(new Permission("P1", "D1"));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshotService.export(outputStream);
+
+        try {
+            snapshotService.restore(new ByteArrayInputStream(outputStream.toByteArray()));
+            fail("Exception expected");
+        } catch (AppPreconditionFailedException e) {
+            assertEquals("Data Base must be empty to restore a snapshot.", e.getMessage());
+        }
+
+        assertEquals(1, permissionRepository.count());
+    }
+
+    /**
+     * Describe every entity with its relations as they are read by jpa
+     *
+     * @return description by id
+     */
+    private Map<String, String> describe() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            final Map<String, String> descriptions = new TreeMap<>();
+            authProviderRepository.findAll().forEach(a -> descriptions.put(a.getId(), a.getVersion() + a.getName() + a.getUrl()
+                    + a.getAuthKey() + a.getAuthSecret() + a.getCreatedAt() + a.getUpdatedAt()));
+            permissionRepository.findAll().forEach(p -> descriptions.put(p.getId(), p.getVersion() + p.getName() + p.getCreatedAt()));
+            roleRepository.findAll().forEach(r -> descriptions.put(r.getId(), r.getVersion() + r.getName() + r.getCreatedAt()
+                    + r.getPermissions().stream().map(Permission::getId).sorted().collect(Collectors.toList())));
+            personRepository.findAll().forEach(p -> descriptions.put(p.getId(), p.getVersion() + p.getName() + p.getLastName()
+                    + p.getBirthday() + p.getCivilStatus() + p.getSex() + p.getEmail() + p.getCreatedAt() + p.getUpdatedAt()
+                    + p.getRoles().stream().map(Role::getId).sorted().collect(Collectors.toList())));
+            authenticationRepository.findAll().forEach(a -> descriptions.put(a.getId(), a.getVersion() + a.getUsername()
+                    + a.getPassword() + a.getAuthProvider().getId() + a.getPerson().getId() + a.getCreatedAt()));
+            return descriptions;
+        });
+    }
+}
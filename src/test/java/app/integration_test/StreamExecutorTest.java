@@ -0,0 +1,93 @@
+package app.integration_test;
+
+import app.models.Permission;
+import app.models.Person;
+import app.models.Role;
+import app.repositories.*;
+import app.services.PersonService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class StreamExecutorTest {
+
+    @Autowired
+    private AuthenticationRepository authenticationRepository;
+
+    @Autowired
+    private AuthProviderRepository authProviderRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PermissionRepository permissionRepository;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        IntegrationTest.cleanAllData(authenticationRepository, authProviderRepository, personRepository, roleRepository, permissionRepository);
+    }
+
+    /**
+     * Should stream more entities than the fetch size with the same data than findAll
+     */
+    @Test
+    public void streamAll() {
+        permissionRepository.save(IntStream.range(0, 250).mapToObj(i -> new Permission("P" + i, "D" + i)).collect(Collectors.toList()));
+        final List<String> NAMES_EXPECTED = permissionRepository.findAll().stream().map(Permission::getName).sorted().collect(Collectors.toList());
+
+        final List<String> namesResult = new ArrayList<>();
+        new TransactionTemplate(transactionManager).execute(status -> {
+            permissionRepository.streamAll(p -> namesResult.add(p.getName()));
+            return null;
+        });
+        Collections.sort(namesResult);
+
+        assertEquals(250, namesResult.size());
+        assertEquals(NAMES_EXPECTED, namesResult);
+    }
+
+    /**
+     * Should load lazy relations while every entity is consumed
+     */
+    @Test
+    public void streamAllRelations() {
+        final List<Permission> permissions = permissionRepository.save(Arrays.asList(new Permission("P1", "D1"), new Permission("P2", "D2")));
+        final Role role = roleRepository.save(new Role("R1", "D1", new HashSet<>(permissions)));
+        personRepository.save(Arrays.asList(
+                new Person("N1", "L1", LocalDate.of(1986, 4, 1), 1, Person.SEX.M, null, new HashSet<>(Collections.singletonList(role))),
+                new Person("N2", "L2", LocalDate.of(1986, 4, 2), 2, Person.SEX.F, null, null)
+        ));
+
+        final Map<String, Integer> permissionsByPerson = new HashMap<>();
+        personService.streamAll(p -> permissionsByPerson.put(p.getName(),
+                p.getRoles().stream().mapToInt(r -> r.getPermissions().size()).sum()));
+
+        assertEquals(2, permissionsByPerson.size());
+        assertEquals(2, (int) permissionsByPerson.get("N1"));
+        assertEquals(0, (int) permissionsByPerson.get("N2"));
+    }
+}
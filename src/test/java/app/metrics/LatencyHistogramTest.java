@@ -0,0 +1,97 @@
+package app.metrics;
+
+import app.pojos.metrics.LatencySnapshot;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    /**
+     * Should return zeros when nothing was recorded
+     */
+    @Test
+    public void snapshotEmpty() {
+        final LatencySnapshot snapshotResult = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshotResult.getCount());
+        assertEquals(0, snapshotResult.getMean(), 0);
+        assertEquals(0, snapshotResult.getP99(), 0);
+        assertEquals(0, snapshotResult.getMax(), 0);
+    }
+
+    /**
+     * Should return the sub-bucket upper bound as percentile (at most 1/16 higher than the recorded value)
+     */
+    @Test
+    public void getPercentile() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(3000));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(103, histogram.getPercentile(50));
+        assertEquals(103, histogram.getPercentile(90));
+        assertEquals(3000, histogram.getPercentile(99));
+    }
+
+    /**
+     * Should keep values under 16 microseconds exact and every sub-bucket upper bound in its own sub-bucket
+     */
+    @Test
+    public void getSubBucket() {
+        for (long micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.getSubBucket(micros));
+            assertEquals(micros, LatencyHistogram.getSubBucketUpperBound((int) micros));
+        }
+        for (long micros : new long[]{16, 17, 100, 1000, 1023, 1024, 3000, 1L << 40, Long.MAX_VALUE}) {
+            final long UPPER_BOUND = LatencyHistogram.getSubBucketUpperBound(LatencyHistogram.getSubBucket(micros));
+            assertTrue(UPPER_BOUND >= micros);
+            assertTrue(UPPER_BOUND - micros <= micros / 16);
+            assertEquals(LatencyHistogram.getSubBucket(micros), LatencyHistogram.getSubBucket(UPPER_BOUND));
+        }
+        assertEquals(LatencyHistogram.getSubBucket(1023) + 1, LatencyHistogram.getSubBucket(1024));
+    }
+
+    /**
+     * Should count every value in its power of 2 bucket and sum them in microseconds
+     */
+    @Test
+    public void getBucketCount() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(64));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(65));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(128));
+
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(6));
+        assertEquals(2, histogram.getBucketCount(7));
+        assertEquals(0, histogram.getBucketCount(8));
+        assertEquals(258, histogram.getSum());
+    }
+
+    /**
+     * Should summarize the recorded values in milliseconds
+     */
+    @Test
+    public void snapshot() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+        final LatencySnapshot snapshotResult = histogram.snapshot();
+
+        assertEquals(2, snapshotResult.getCount());
+        assertEquals(2, snapshotResult.getMean(), 0);
+        assertEquals(1.023, snapshotResult.getP50(), 0);
+        assertEquals(3, snapshotResult.getMax(), 0);
+    }
+}
@@ -0,0 +1,94 @@
+package app.metrics;
+
+import app.pojos.metrics.PoolSnapshot;
+import app.services.PermissionService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PoolMetricsTest {
+
+    @Autowired
+    private PoolMetrics poolMetrics;
+
+    @Autowired
+    private PermissionService permissionService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Should use HikariCP with metrics
+     */
+    @Test
+    public void dataSource() {
+        assertTrue(dataSource instanceof HikariDataSource);
+
+        permissionService.findAll();
+
+        final PoolSnapshot snapshotResult = poolMetrics.snapshot();
+        assertTrue(snapshotResult.getTotal() > 0);
+        assertTrue(snapshotResult.getConnections().getAcquire().getCount() > 0);
+    }
+
+    /**
+     * Should attribute the connection to the outer service method
+     */
+    @Test
+    public void callSite() {
+        permissionService.findAll();
+
+        final PoolSnapshot snapshotResult = poolMetrics.snapshot();
+
+        assertTrue(snapshotResult.getCallSites().get("PermissionServiceImpl.findAll").getAcquire().getCount() > 0);
+        assertTrue(snapshotResult.getCallSites().get("PermissionServiceImpl.findAll").getUsage().getCount() > 0);
+        assertNull(CallSiteAspect.getCallSite());
+    }
+
+    /**
+     * Should attribute to unattributed when not service is running
+     */
+    @Test
+    public void recordUnattributed() {
+        final PoolMetrics metrics = new PoolMetrics();
+
+        metrics.recordAcquire(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordUsage(5);
+        metrics.recordTimeout();
+
+        final PoolSnapshot snapshotResult = metrics.snapshot();
+        assertEquals(1, snapshotResult.getTimeouts());
+        assertEquals(1, snapshotResult.getConnections().getAcquire().getCount());
+        assertEquals(1, snapshotResult.getCallSites().get(PoolMetrics.UNATTRIBUTED).getUsage().getCount());
+        assertEquals(0, snapshotResult.getConnections().getLeaks());
+    }
+
+    /**
+     * Should count connections held longer than leak detection threshold
+     */
+    @Test
+    public void recordLeak() {
+        final PoolMetrics metrics = new PoolMetrics();
+        ReflectionTestUtils.setField(metrics, "leakDetectionThreshold", 100);
+
+        metrics.recordUsage(99);
+        metrics.recordUsage(100);
+        metrics.recordUsage(500);
+
+        final PoolSnapshot snapshotResult = metrics.snapshot();
+        assertEquals(2, snapshotResult.getConnections().getLeaks());
+        assertEquals(2, snapshotResult.getCallSites().get(PoolMetrics.UNATTRIBUTED).getLeaks());
+        assertEquals(100, snapshotResult.getLeakDetectionThreshold());
+    }
+}
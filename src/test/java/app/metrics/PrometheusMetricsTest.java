@@ -0,0 +1,176 @@
+package app.metrics;
+
+import app.filters.Bulkhead;
+import app.pojos.metrics.AsyncSnapshot;
+import app.pojos.metrics.PoolSnapshot;
+import app.pojos.metrics.ThreadPoolSnapshot;
+import app.services.AsyncService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class PrometheusMetricsTest {
+
+    private PrometheusMetrics prometheusMetrics;
+
+    private RequestMetrics requestMetrics;
+
+    private SecurityTimings securityTimings;
+
+    private ThreadPoolMetrics threadPoolMetrics;
+
+    private Bulkhead readBulkhead;
+
+    @Before
+    public void setup() {
+        requestMetrics = new RequestMetrics();
+        securityTimings = new SecurityTimings();
+        threadPoolMetrics = mock(ThreadPoolMetrics.class);
+        final PoolMetrics poolMetrics = mock(PoolMetrics.class);
+        given(poolMetrics.snapshot()).willReturn(new PoolSnapshot("app", 2, 8, 10, 1, 10, 3, 0, null, null));
+        final AsyncService asyncService = mock(AsyncService.class);
+        given(asyncService.snapshot()).willReturn(Arrays.asList(new AsyncSnapshot("page", 4, 4, 7, 3, 1), new AsyncSnapshot("relation", 0, 2, 0, 0, 0)));
+
+        prometheusMetrics = new PrometheusMetrics();
+        ReflectionTestUtils.setField(prometheusMetrics, "requestMetrics", requestMetrics);
+        ReflectionTestUtils.setField(prometheusMetrics, "securityTimings", securityTimings);
+        ReflectionTestUtils.setField(prometheusMetrics, "threadPoolMetrics", threadPoolMetrics);
+        ReflectionTestUtils.setField(prometheusMetrics, "poolMetrics", poolMetrics);
+        ReflectionTestUtils.setField(prometheusMetrics, "asyncService", asyncService);
+        readBulkhead = new Bulkhead("read", 2, 0, 0);
+        ReflectionTestUtils.setField(prometheusMetrics, "bulkheads", Arrays.asList(new Bulkhead("auth", 10, 20, 2000), readBulkhead));
+    }
+
+    /**
+     * Should write a cumulative histogram by route and status with sum and count in seconds
+     */
+    @Test
+    public void scrapeRequests() {
+        requestMetrics.record("GET", "/people/{id}", 200, TimeUnit.MICROSECONDS.toNanos(50));
+        requestMetrics.record("GET", "/people/{id}", 200, TimeUnit.MICROSECONDS.toNanos(100));
+        requestMetrics.record("GET", "/people/{id}", 200, TimeUnit.SECONDS.toNanos(20));
+        requestMetrics.record("POST", "/people", 500, TimeUnit.MILLISECONDS.toNanos(3));
+
+        final List<String> linesResult = Arrays.asList(prometheusMetrics.scrape().split("\n"));
+
+        final String LABELS = "method=\"GET\",route=\"/people/{id}\",status=\"200\"";
+        assertTrue(linesResult.contains("# TYPE http_server_requests_seconds histogram"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_bucket{" + LABELS + ",le=\"0.000064\"} 1"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_bucket{" + LABELS + ",le=\"0.000128\"} 2"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_bucket{" + LABELS + ",le=\"16.777216\"} 2"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_bucket{" + LABELS + ",le=\"+Inf\"} 3"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_sum{" + LABELS + "} 20.00015"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_count{" + LABELS + "} 3"));
+        assertTrue(linesResult.contains("http_server_requests_seconds_count{method=\"POST\",route=\"/people\",status=\"500\"} 1"));
+        assertEquals(2 * (PrometheusMetrics.MAX_BUCKET - PrometheusMetrics.MIN_BUCKET + 2),
+                linesResult.stream().filter(l -> l.startsWith("http_server_requests_seconds_bucket")).count());
+    }
+
+    /**
+     * Should write a histogram by security stage
+     */
+    @Test
+    public void scrapeSecurityStages() {
+        securityTimings.record(SecurityTimings.TOKEN_PARSE, TimeUnit.MICROSECONDS.toNanos(300));
+        securityTimings.record(SecurityTimings.TOKEN_PARSE, TimeUnit.MICROSECONDS.toNanos(100));
+        securityTimings.record(SecurityTimings.PRE_AUTHORIZE, TimeUnit.MICROSECONDS.toNanos(20));
+
+        final List<String> linesResult = Arrays.asList(prometheusMetrics.scrape().split("\n"));
+
+        assertTrue(linesResult.contains("# TYPE security_stage_seconds histogram"));
+        assertTrue(linesResult.contains("security_stage_seconds_bucket{stage=\"token_parse\",le=\"0.000128\"} 1"));
+        assertTrue(linesResult.contains("security_stage_seconds_bucket{stage=\"token_parse\",le=\"0.000512\"} 2"));
+        assertTrue(linesResult.contains("security_stage_seconds_sum{stage=\"token_parse\"} 0.0004"));
+        assertTrue(linesResult.contains("security_stage_seconds_count{stage=\"token_parse\"} 2"));
+        assertTrue(linesResult.contains("security_stage_seconds_bucket{stage=\"pre_authorize\",le=\"0.000064\"} 1"));
+        assertTrue(linesResult.contains("security_stage_seconds_count{stage=\"pre_authorize\"} 1"));
+    }
+
+    /**
+     * Should write Tomcat threads only when application runs in an embedded Tomcat
+     */
+    @Test
+    public void scrapeThreads() {
+        assertFalse(prometheusMetrics.scrape().contains("tomcat_threads"));
+
+        given(threadPoolMetrics.snapshot()).willReturn(new ThreadPoolSnapshot(5, 10, 200, 2));
+        final List<String> linesResult = Arrays.asList(prometheusMetrics.scrape().split("\n"));
+
+        assertTrue(linesResult.contains("# TYPE tomcat_threads_busy gauge"));
+        assertTrue(linesResult.contains("tomcat_threads_busy 5"));
+        assertTrue(linesResult.contains("tomcat_threads_current 10"));
+        assertTrue(linesResult.contains("tomcat_threads_max 200"));
+        assertTrue(linesResult.contains("tomcat_threads_queued 2"));
+    }
+
+    /**
+     * Should write connection pool state
+     */
+    @Test
+    public void scrapePool() {
+        final List<String> linesResult = Arrays.asList(prometheusMetrics.scrape().split("\n"));
+
+        assertTrue(linesResult.contains("hikari_connections_active 2"));
+        assertTrue(linesResult.contains("hikari_connections_idle 8"));
+        assertTrue(linesResult.contains("hikari_connections_pending 1"));
+        assertTrue(linesResult.contains("hikari_connections_max 10"));
+        assertTrue(linesResult.contains("# TYPE hikari_connections_timeout_total counter"));
+        assertTrue(linesResult.contains("hikari_connections_timeout_total 3"));
+    }
+
+    /**
+     * Should write the state of each async executor labeled by workload
+     */
+    @Test
+    public void scrapeAsyncExecutors() {
+        final List<String> linesResult = Arrays.asList(prometheusMetrics.scrape().split("\n"));
+
+        assertTrue(linesResult.contains("# TYPE async_threads_busy gauge"));
+        assertTrue(linesResult.contains("async_threads_busy{workload=\"page\"} 4"));
+        assertTrue(linesResult.contains("async_threads_busy{workload=\"relation\"} 0"));
+        assertTrue(linesResult.contains("async_threads_max{workload=\"relation\"} 2"));
+        assertTrue(linesResult.contains("async_queued{workload=\"page\"} 7"));
+        assertTrue(linesResult.contains("# TYPE async_rejected_total counter"));
+        assertTrue(linesResult.contains("async_rejected_total{workload=\"page\"} 3"));
+        assertTrue(linesResult.contains("async_timeout_total{workload=\"page\"} 1"));
+    }
+
+    /**
+     * Should write the state of each bulkhead labeled by group and the rejections by reason
+     */
+    @Test
+    public void scrapeBulkheads() throws Exception {
+        readBulkhead.acquire();
+        readBulkhead.acquire();
+        readBulkhead.acquire();
+
+        final List<String> linesResult = Arrays.asList(prometheusMetrics.scrape().split("\n"));
+
+        assertTrue(linesResult.contains("# TYPE bulkhead_active gauge"));
+        assertTrue(linesResult.contains("bulkhead_active{group=\"read\"} 2"));
+        assertTrue(linesResult.contains("bulkhead_active{group=\"auth\"} 0"));
+        assertTrue(linesResult.contains("bulkhead_waiting{group=\"read\"} 0"));
+        assertTrue(linesResult.contains("bulkhead_limit{group=\"auth\"} 10"));
+        assertTrue(linesResult.contains("# TYPE bulkhead_rejected_total counter"));
+        assertTrue(linesResult.contains("bulkhead_rejected_total{group=\"read\",reason=\"queue\"} 1"));
+        assertTrue(linesResult.contains("bulkhead_rejected_total{group=\"read\",reason=\"timeout\"} 0"));
+    }
+
+    /**
+     * Should escape quotes and backslashes in label values
+     */
+    @Test
+    public void scrapeEscape() {
+        requestMetrics.record("GET", "/a\"b\\c", 200, 1000);
+
+        assertTrue(prometheusMetrics.scrape().contains("route=\"/a\\\"b\\\\c\""));
+    }
+}
@@ -0,0 +1,76 @@
+package app.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryCountCommandListenerTest {
+
+    private final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @After
+    public void clean() {
+        QueryCounter.stop();
+    }
+
+    /**
+     * Should count the command with its collection
+     */
+    @Test
+    public void commandStarted() {
+        final QueryCounter counter = QueryCounter.start();
+
+        new QueryCountCommandListener().commandStarted(new CommandStartedEvent(1, CONNECTION, "app", "find",
+                new BsonDocument("find", new BsonString("person")).append("filter", new BsonDocument())));
+
+        assertEquals(1, counter.getMongoCount());
+        assertEquals(0, counter.getSqlCount());
+        assertEquals("find person", counter.getMostRepeated());
+        assertEquals("find person { }", counter.getQueries().get(0));
+    }
+
+    /**
+     * Should group the commands by collection and keep their filter
+     */
+    @Test
+    public void commandStartedWithFilter() {
+        final QueryCounter counter = QueryCounter.start();
+        final QueryCountCommandListener listener = new QueryCountCommandListener();
+
+        listener.commandStarted(new CommandStartedEvent(1, CONNECTION, "app", "find",
+                new BsonDocument("find", new BsonString("role")).append("filter", new BsonDocument("_id", new BsonString("R1")))));
+        listener.commandStarted(new CommandStartedEvent(2, CONNECTION, "app", "count",
+                new BsonDocument("count", new BsonString("role")).append("query", new BsonDocument("name", new BsonString("ADMIN")))));
+        listener.commandStarted(new CommandStartedEvent(3, CONNECTION, "app", "find",
+                new BsonDocument("find", new BsonString("role")).append("filter", new BsonDocument("_id", new BsonString("R2")))));
+
+        assertEquals(3, counter.getMongoCount());
+        assertEquals("find role", counter.getMostRepeated());
+        assertEquals(2, counter.getMostRepeatedCount());
+        assertEquals("find role { \"_id\" : \"R1\" }", counter.getQueries().get(0));
+        assertEquals("count role { \"name\" : \"ADMIN\" }", counter.getQueries().get(1));
+    }
+
+    /**
+     * Should count the command without collection
+     */
+    @Test
+    public void commandStartedWithoutCollection() {
+        final QueryCounter counter = QueryCounter.start();
+
+        new QueryCountCommandListener().commandStarted(new CommandStartedEvent(1, CONNECTION, "admin", "ping",
+                new BsonDocument("ping", new BsonInt32(1))));
+
+        assertEquals(1, counter.getMongoCount());
+        assertEquals("ping", counter.getMostRepeated());
+    }
+}
@@ -0,0 +1,29 @@
+package app.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueryCountInspectorTest {
+
+    @After
+    public void clean() {
+        QueryCounter.stop();
+    }
+
+    /**
+     * Should count the statement and return it without changes
+     */
+    @Test
+    public void inspect() {
+        final String SQL = "select * from person where id = ?";
+        final QueryCounter counter = QueryCounter.start();
+
+        final String sqlResult = new QueryCountInspector().inspect(SQL);
+
+        assertEquals(SQL, sqlResult);
+        assertEquals(1, counter.getSqlCount());
+        assertEquals(SQL, counter.getMostRepeated());
+    }
+}
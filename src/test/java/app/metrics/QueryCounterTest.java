@@ -0,0 +1,159 @@
+package app.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueryCounterTest {
+
+    @After
+    public void clean() {
+        QueryCounter.stop();
+    }
+
+    /**
+     * Should not count when the current thread isn't counting
+     */
+    @Test
+    public void recordWhenNotStarted() {
+        QueryCounter.recordSql("select 1");
+        QueryCounter.recordMongo("find person", "find person {}");
+
+        assertNull(QueryCounter.getCurrent());
+    }
+
+    /**
+     * Should count SQL statements and Mongo commands of the current thread
+     */
+    @Test
+    public void record() {
+        final QueryCounter counter = QueryCounter.start();
+
+        QueryCounter.recordSql("select 1");
+        QueryCounter.recordSql("select 2");
+        QueryCounter.recordMongo("find person", "find person {}");
+
+        assertSame(counter, QueryCounter.getCurrent());
+        assertEquals(2, counter.getSqlCount());
+        assertEquals(1, counter.getMongoCount());
+        assertEquals(3, counter.getTotal());
+    }
+
+    /**
+     * Should keep the statement repeated most times
+     */
+    @Test
+    public void mostRepeated() {
+        final QueryCounter counter = QueryCounter.start();
+
+        assertNull(counter.getMostRepeated());
+        assertEquals(0, counter.getMostRepeatedCount());
+
+        QueryCounter.recordSql("select person");
+        QueryCounter.recordSql("select roles where person = ?");
+        QueryCounter.recordSql("select roles where person = ?");
+        QueryCounter.recordSql("select roles where person = ?");
+        QueryCounter.recordMongo("find person", "find person {}");
+        QueryCounter.recordMongo("find person", "find person {}");
+
+        assertEquals("select roles where person = ?", counter.getMostRepeated());
+        assertEquals(3, counter.getMostRepeatedCount());
+    }
+
+    /**
+     * Should stop counting in the current thread
+     */
+    @Test
+    public void stop() {
+        final QueryCounter counter = QueryCounter.start();
+
+        QueryCounter.stop();
+        QueryCounter.recordSql("select 1");
+
+        assertNull(QueryCounter.getCurrent());
+        assertEquals(0, counter.getTotal());
+    }
+
+    /**
+     * Should count only the queries of the current thread
+     */
+    @Test
+    public void recordOtherThread() throws Exception {
+        final QueryCounter counter = QueryCounter.start();
+
+        final Thread THREAD = new Thread(() -> QueryCounter.recordSql("select 1"));
+        THREAD.start();
+        THREAD.join();
+
+        assertEquals(0, counter.getTotal());
+    }
+
+    /**
+     * Should count the queries of other threads while the counter is attached to them
+     */
+    @Test
+    public void recordAttached() throws Exception {
+        final QueryCounter counter = QueryCounter.start();
+        final List<QueryCounter> countersResult = new ArrayList<>();
+
+        final Thread THREAD = new Thread(() -> {
+            QueryCounter.attach(counter);
+            QueryCounter.recordSql("select person");
+            QueryCounter.recordMongo("find role", "find role {}");
+            QueryCounter.detach();
+            QueryCounter.recordSql("select 1");
+            countersResult.add(QueryCounter.getCurrent());
+        });
+        THREAD.start();
+        THREAD.join();
+        QueryCounter.recordSql("select count");
+
+        assertNull(countersResult.get(0));
+        assertSame(counter, QueryCounter.getCurrent());
+        assertEquals(2, counter.getSqlCount());
+        assertEquals(1, counter.getMongoCount());
+        assertEquals(Arrays.asList("select person", "find role {}", "select count"), counter.getQueries());
+    }
+
+    /**
+     * Should count the queries in the nested counter and in its parent
+     */
+    @Test
+    public void recordNested() {
+        final QueryCounter parent = QueryCounter.start();
+        QueryCounter.recordSql("select count");
+
+        final QueryCounter nested = QueryCounter.start();
+        QueryCounter.recordSql("select person");
+        QueryCounter.recordMongo("find person", "find person {\"name\": \"N1\"}");
+        QueryCounter.stop();
+        QueryCounter.recordSql("select roles");
+
+        assertSame(parent, QueryCounter.getCurrent());
+        assertEquals(2, nested.getTotal());
+        assertEquals(Arrays.asList("select person", "find person {\"name\": \"N1\"}"), nested.getQueries());
+        assertEquals(4, parent.getTotal());
+        assertEquals(Arrays.asList("select count", "select person", "find person {\"name\": \"N1\"}", "select roles"), parent.getQueries());
+    }
+
+    /**
+     * Should keep only the first MAX_QUERIES queries but count all of them
+     */
+    @Test
+    public void recordWhenTooManyQueries() {
+        final QueryCounter counter = QueryCounter.start();
+
+        for (int i = 0; i < QueryCounter.MAX_QUERIES + 5; i++) {
+            QueryCounter.recordSql("select " + i);
+        }
+
+        assertEquals(QueryCounter.MAX_QUERIES + 5, counter.getSqlCount());
+        assertEquals(QueryCounter.MAX_QUERIES, counter.getQueries().size());
+        assertEquals("select 0", counter.getQueries().get(0));
+    }
+}
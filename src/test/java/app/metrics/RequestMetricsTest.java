@@ -0,0 +1,42 @@
+package app.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestMetricsTest {
+
+    /**
+     * Should return nothing when no request was recorded
+     */
+    @Test
+    public void getRoutesEmpty() {
+        assertEquals(0, new RequestMetrics().getRoutes().size());
+    }
+
+    /**
+     * Should share a histogram by method, route and status and sort them by route, method and status
+     */
+    @Test
+    public void record() {
+        final RequestMetrics requestMetrics = new RequestMetrics();
+        requestMetrics.record("GET", "/people/{id}", 200, TimeUnit.MILLISECONDS.toNanos(1));
+        requestMetrics.record("GET", "/people/{id}", 200, TimeUnit.MILLISECONDS.toNanos(3));
+        requestMetrics.record("GET", "/people/{id}", 404, TimeUnit.MILLISECONDS.toNanos(2));
+        requestMetrics.record("DELETE", "/people/{id}", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        requestMetrics.record("GET", RequestMetrics.UNMATCHED, 401, TimeUnit.MILLISECONDS.toNanos(1));
+
+        final List<RequestMetrics.RouteMetrics> routesResult = requestMetrics.getRoutes();
+
+        assertEquals(4, routesResult.size());
+        assertEquals("DELETE /people/{id} 200, GET /people/{id} 200, GET /people/{id} 404, GET unmatched 401",
+                routesResult.stream().map(r -> r.getMethod() + " " + r.getRoute() + " " + r.getStatus()).collect(Collectors.joining(", ")));
+        assertEquals(2, routesResult.get(1).getLatency().getCount());
+        assertEquals(4000, routesResult.get(1).getLatency().getSum());
+        assertEquals(1, routesResult.get(2).getLatency().getCount());
+    }
+}
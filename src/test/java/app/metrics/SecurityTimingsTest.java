@@ -0,0 +1,95 @@
+package app.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SecurityTimingsTest {
+
+    private SecurityTimings securityTimings;
+
+    @Before
+    public void setup() {
+        securityTimings = new SecurityTimings();
+    }
+
+    /**
+     * Should record every stage in its histogram
+     */
+    @Test
+    public void record() {
+        securityTimings.record(SecurityTimings.TOKEN_REFRESH, TimeUnit.MICROSECONDS.toNanos(200));
+        securityTimings.record(SecurityTimings.TOKEN_PARSE, TimeUnit.MICROSECONDS.toNanos(300));
+        securityTimings.record(SecurityTimings.TOKEN_PARSE, TimeUnit.MICROSECONDS.toNanos(100));
+
+        final Map<String, LatencyHistogram> stagesResult = securityTimings.getStages();
+
+        assertEquals(Arrays.asList(SecurityTimings.TOKEN_PARSE, SecurityTimings.TOKEN_REFRESH), Arrays.asList(stagesResult.keySet().toArray()));
+        assertEquals(2, stagesResult.get(SecurityTimings.TOKEN_PARSE).getCount());
+        assertEquals(400, stagesResult.get(SecurityTimings.TOKEN_PARSE).getSum());
+        assertEquals(1, stagesResult.get(SecurityTimings.TOKEN_REFRESH).getCount());
+    }
+
+    /**
+     * Should keep the stages of the current request in the order they ran adding the repeated ones
+     */
+    @Test
+    public void recordWhenStarted() {
+        final Map<String, Long> stagesResult = securityTimings.start();
+
+        securityTimings.record(SecurityTimings.TOKEN_PARSE, 300);
+        securityTimings.record(SecurityTimings.PRE_AUTHORIZE, 20);
+        securityTimings.record(SecurityTimings.AUTHORITIES, 10);
+        securityTimings.record(SecurityTimings.PRE_AUTHORIZE, 30);
+        securityTimings.stop();
+        securityTimings.record(SecurityTimings.TOKEN_REFRESH, 200);
+
+        assertEquals(Arrays.asList(SecurityTimings.TOKEN_PARSE, SecurityTimings.PRE_AUTHORIZE, SecurityTimings.AUTHORITIES),
+                Arrays.asList(stagesResult.keySet().toArray()));
+        assertEquals(Long.valueOf(50), stagesResult.get(SecurityTimings.PRE_AUTHORIZE));
+        assertEquals(4, securityTimings.getStages().size());
+    }
+
+    /**
+     * Should keep only the stages of the current thread
+     */
+    @Test
+    public void recordOtherThread() throws Exception {
+        final Map<String, Long> stagesResult = securityTimings.start();
+
+        final Thread THREAD = new Thread(() -> securityTimings.record(SecurityTimings.TOKEN_PARSE, 300));
+        THREAD.start();
+        THREAD.join();
+        securityTimings.stop();
+
+        assertTrue(stagesResult.isEmpty());
+        assertEquals(1, securityTimings.getStages().get(SecurityTimings.TOKEN_PARSE).getCount());
+    }
+
+    /**
+     * Should keep the stages of other threads in the current request while they are attached to it
+     */
+    @Test
+    public void recordAttached() throws Exception {
+        final Map<String, Long> stagesResult = securityTimings.start();
+
+        final Thread THREAD = new Thread(() -> {
+            securityTimings.attach(stagesResult);
+            securityTimings.record(SecurityTimings.TOKEN_REFRESH, 200);
+            securityTimings.stop();
+            securityTimings.record(SecurityTimings.TOKEN_PARSE, 300);
+        });
+        THREAD.start();
+        THREAD.join();
+        securityTimings.stop();
+
+        assertEquals(Collections.singletonMap(SecurityTimings.TOKEN_REFRESH, 200L), stagesResult);
+        assertEquals(2, securityTimings.getStages().size());
+    }
+}
@@ -0,0 +1,123 @@
+package app.metrics;
+
+import app.pojos.metrics.SlowQuerySnapshot;
+import app.pojos.pages.FilterRequest;
+import app.pojos.pages.PageDataRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SlowQueryLogTest {
+
+    private SlowQueryLog slowQueryLog;
+
+    private final PageDataRequest PAGE_DATA_REQUEST = new PageDataRequest(0, 10, null, null, null);
+
+    @Before
+    public void setup() {
+        slowQueryLog = new SlowQueryLog();
+        ReflectionTestUtils.setField(slowQueryLog, "threshold", 100L);
+        ReflectionTestUtils.setField(slowQueryLog, "capacity", 3);
+    }
+
+    /**
+     * Should not keep queries faster than threshold
+     */
+    @Test
+    public void recordWhenFast() {
+        slowQueryLog.record("PersonRepositoryImpl", PAGE_DATA_REQUEST, Collections.singletonList("select"), 10, TimeUnit.MILLISECONDS.toNanos(99));
+
+        assertTrue(slowQueryLog.getEntries().isEmpty());
+    }
+
+    /**
+     * Should keep the query with its page request, queries, rows and latency
+     */
+    @Test
+    public void recordWhenSlow() {
+        final List<String> QUERIES = Arrays.asList("select person", "select count");
+
+        slowQueryLog.record("PersonRepositoryImpl", PAGE_DATA_REQUEST, QUERIES, 10, TimeUnit.MICROSECONDS.toNanos(150500));
+        final List<SlowQuerySnapshot> entriesResult = slowQueryLog.getEntries();
+
+        assertEquals(1, entriesResult.size());
+        assertNotNull(entriesResult.get(0).getTime());
+        assertEquals("PersonRepositoryImpl", entriesResult.get(0).getRepository());
+        assertNotSame(PAGE_DATA_REQUEST, entriesResult.get(0).getPageDataRequest());
+        assertEquals(PAGE_DATA_REQUEST, entriesResult.get(0).getPageDataRequest());
+        assertNotSame(QUERIES, entriesResult.get(0).getQueries());
+        assertEquals(QUERIES, entriesResult.get(0).getQueries());
+        assertEquals(10, entriesResult.get(0).getRows());
+        assertEquals(150.5, entriesResult.get(0).getLatency(), 0);
+    }
+
+    /**
+     * Should drop the oldest query when it's full and return them from newest to oldest
+     */
+    @Test
+    public void recordWhenFull() {
+        for (int i = 1; i <= 5; i++) {
+            slowQueryLog.record("R" + i, PAGE_DATA_REQUEST, Collections.emptyList(), i, TimeUnit.SECONDS.toNanos(1));
+        }
+
+        final List<SlowQuerySnapshot> entriesResult = slowQueryLog.getEntries();
+
+        assertEquals(3, entriesResult.size());
+        assertEquals("R5", entriesResult.get(0).getRepository());
+        assertEquals("R4", entriesResult.get(1).getRepository());
+        assertEquals("R3", entriesResult.get(2).getRepository());
+    }
+
+    /**
+     * Should not keep anything when capacity is 0
+     */
+    @Test
+    public void recordWhenNotCapacity() {
+        ReflectionTestUtils.setField(slowQueryLog, "capacity", 0);
+
+        slowQueryLog.record("PersonRepositoryImpl", PAGE_DATA_REQUEST, Collections.emptyList(), 10, TimeUnit.SECONDS.toNanos(1));
+
+        assertTrue(slowQueryLog.getEntries().isEmpty());
+    }
+
+    /**
+     * Should remove all kept queries
+     */
+    @Test
+    public void clear() {
+        slowQueryLog.record("PersonRepositoryImpl", PAGE_DATA_REQUEST, Collections.emptyList(), 10, TimeUnit.SECONDS.toNanos(1));
+
+        slowQueryLog.clear();
+
+        assertTrue(slowQueryLog.getEntries().isEmpty());
+    }
+
+    /**
+     * Should copy the page request with its filters sorted by field and operation
+     */
+    @Test
+    public void normalize() {
+        final PageDataRequest REQUEST = new PageDataRequest(2, 5, "DESC", Arrays.asList("name"), Arrays.asList(
+                new FilterRequest("name", "N", "LIKE"),
+                new FilterRequest("civilStatus", "1", "EQ"),
+                new FilterRequest("name", "M", "GT")
+        ));
+
+        final PageDataRequest normalizeResult = slowQueryLog.normalize(REQUEST);
+
+        assertNotSame(REQUEST, normalizeResult);
+        assertEquals(new PageDataRequest(2, 5, "DESC", Arrays.asList("name"), Arrays.asList(
+                new FilterRequest("civilStatus", "1", "EQ"),
+                new FilterRequest("name", "M", "GT"),
+                new FilterRequest("name", "N", "LIKE")
+        )), normalizeResult);
+        assertEquals("name", REQUEST.getFilters().get(0).getField());
+    }
+}
@@ -0,0 +1,88 @@
+package app.metrics;
+
+import app.pojos.metrics.ThreadPoolSnapshot;
+import org.junit.Test;
+import org.springframework.boot.context.embedded.EmbeddedServletContainer;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerInitializedEvent;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class ThreadPoolMetricsTest {
+
+    /**
+     * Should return null when application isn't running in an embedded Tomcat
+     */
+    @Test
+    public void snapshotNotTomcat() {
+        final ThreadPoolMetrics threadPoolMetrics = new ThreadPoolMetrics();
+        threadPoolMetrics.onContainerInitialized(new EmbeddedServletContainerInitializedEvent(
+                mock(EmbeddedWebApplicationContext.class), mock(EmbeddedServletContainer.class)));
+
+        assertNull(threadPoolMetrics.snapshot());
+    }
+
+    /**
+     * Should read the request threads of a started Tomcat
+     */
+    @Test
+    public void snapshotTomcat() throws Exception {
+        final TomcatEmbeddedServletContainerFactory FACTORY = new TomcatEmbeddedServletContainerFactory(0);
+        final EmbeddedServletContainer CONTAINER = FACTORY.getEmbeddedServletContainer();
+        try {
+            CONTAINER.start();
+            final ThreadPoolMetrics threadPoolMetrics = new ThreadPoolMetrics();
+            threadPoolMetrics.onContainerInitialized(new EmbeddedServletContainerInitializedEvent(mock(EmbeddedWebApplicationContext.class), CONTAINER));
+
+            final ThreadPoolSnapshot snapshotResult = threadPoolMetrics.snapshot();
+
+            assertNotNull(snapshotResult);
+            assertEquals(200, snapshotResult.getMax());
+            assertEquals(0, snapshotResult.getBusy());
+            assertEquals(0, snapshotResult.getQueued());
+            assertTrue(snapshotResult.getCurrent() > 0);
+        } finally {
+            CONTAINER.stop();
+        }
+    }
+
+    /**
+     * Should count busy threads and queued tasks when the pool is saturated
+     */
+    @Test
+    public void snapshotSaturated() throws Exception {
+        final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>());
+        final CountDownLatch LATCH = new CountDownLatch(1);
+        final ThreadPoolMetrics threadPoolMetrics = new ThreadPoolMetrics();
+        ReflectionTestUtils.setField(threadPoolMetrics, "executor", EXECUTOR);
+        try {
+            EXECUTOR.execute(() -> {
+                try {
+                    LATCH.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            EXECUTOR.execute(() -> {
+            });
+
+            final ThreadPoolSnapshot snapshotResult = threadPoolMetrics.snapshot();
+
+            assertEquals(1, snapshotResult.getBusy());
+            assertEquals(1, snapshotResult.getCurrent());
+            assertEquals(1, snapshotResult.getMax());
+            assertEquals(1, snapshotResult.getQueued());
+        } finally {
+            LATCH.countDown();
+            EXECUTOR.shutdown();
+        }
+    }
+}
@@ -159,15 +159,6 @@ public class AuthProviderTest {
         assertSame(AUTHENTICATION, authProvider.getAuthentications());
     }
 
-    /**
-     * Should not throw an exception
-     */
-    @Test
-    public void cleanRelations() {
-        final AuthProvider authProvider = new AuthProvider();
-        authProvider.cleanRelations(true);
-    }
-
     /**
      * Should get toString
      */
@@ -8,8 +8,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
 
 import static org.junit.Assert.*;
 
@@ -127,88 +125,6 @@ public class AuthenticationTest {
         assertSame(PERSON, authentication.getPerson());
     }
 
-    /**
-     * Should call cleanAuthData
-     */
-    @Test
-    public void cleanAuthDataWhenNull() {
-        final Authentication authentication = new Authentication("U", "P", null, new Person("P1"));
-
-        authentication.cleanAuthData();
-
-        assertNull(authentication.getPassword());
-        assertNull(authentication.getAuthProvider());
-    }
-
-    /**
-     * Should call cleanAuthData
-     */
-    @Test
-    public void cleanAuthDataWhenNotNull() {
-        final Authentication authentication = new Authentication("U", "P", new AuthProvider("N", "D", "U", "AK", "AS"), new Person("P1"));
-
-        authentication.cleanAuthData();
-
-        assertNull(authentication.getPassword());
-        assertNull(authentication.getAuthProvider().getUrl());
-        assertNull(authentication.getAuthProvider().getAuthKey());
-        assertNull(authentication.getAuthProvider().getAuthSecret());
-    }
-
-    /**
-     * Should not throw an exception
-     */
-    @Test
-    public void cleanRelationsWhenNull() {
-        final Authentication authentication = new Authentication();
-        authentication.cleanRelations(true);
-    }
-
-    /**
-     * Should clean all Relations not annotated with @JsonIgnore
-     */
-    @Test
-    public void cleanRelationsWhenNotNullAndCleanAll() {
-        final AuthProvider authProviderExpected = new AuthProvider("AP1");
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("AP1");
-        final Person personExpected = new Person("P1");
-        final Person PERSON = new Person("P1");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P"))))
-        )));
-        final Authentication authentication = new Authentication("U", "P", AUTH_PROVIDER, PERSON);
-        authentication.cleanRelations(true);
-
-        assertNotSame(authProviderExpected, authentication.getAuthProvider());
-        assertEquals(authProviderExpected, authentication.getAuthProvider());
-        assertNotSame(personExpected, authentication.getPerson());
-        assertEquals(personExpected, authentication.getPerson());
-    }
-
-    /**
-     * Should clean nested Relations not annotated with @JsonIgnore
-     */
-    @Test
-    public void cleanRelationsWhenNotNullAndNotCleanAll() {
-        final AuthProvider authProviderExpected = new AuthProvider("AP1");
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("AP1");
-        final Person personExpected = new Person("P1");
-        personExpected.setRoles(new HashSet<>(Arrays.asList(
-                new Role("N", "D", null)
-        )));
-        final Person PERSON = new Person("P1");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P"))))
-        )));
-        final Authentication authentication = new Authentication("U", "P", AUTH_PROVIDER, PERSON);
-        authentication.cleanRelations(false);
-
-        assertNotSame(authProviderExpected, authentication.getAuthProvider());
-        assertEquals(authProviderExpected, authentication.getAuthProvider());
-        assertNotSame(personExpected, authentication.getPerson());
-        assertEquals(personExpected, authentication.getPerson());
-    }
-
     /**
      * Should get toString
      */
@@ -111,15 +111,6 @@ public class PermissionTest {
         assertSame(ROLES, permission.getRoles());
     }
 
-    /**
-     * Should not throw an exception
-     */
-    @Test
-    public void cleanRelations() {
-        final Permission permission = new Permission();
-        permission.cleanRelations(false);
-    }
-
     /**
      * Should get toString
      */
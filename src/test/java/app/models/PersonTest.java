@@ -1,5 +1,6 @@
 package app.models;
 
+import app.exceptions.AppPreconditionFailedException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Test;
@@ -210,38 +211,6 @@ public class PersonTest {
         assertSame(AUTHENTICATIONS, person.getAuthentications());
     }
 
-    /**
-     * Should clean all Relations not annotated with @JsonIgnore
-     */
-    @Test
-    public void cleanRelationsWhenCleanAll() {
-        final Set<Role> ROLES = new HashSet<>(Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P"))))
-        ));
-        final Person person = new Person("N", "LN", LocalDate.now(), 0, "S", "E", ROLES);
-        person.cleanRelations(true);
-
-        assertNull(person.getRoles());
-    }
-
-    /**
-     * Should clean nested Relations not annotated with @JsonIgnore
-     */
-    @Test
-    public void cleanRelationsWhenNotCleanAll() {
-        final Set<Role> rolesExpected = new HashSet<>(Arrays.asList(
-                new Role("N", "D", null)
-        ));
-        final Set<Role> ROLES = new HashSet<>(Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P"))))
-        ));
-        final Person person = new Person("N", "LN", LocalDate.now(), 0, "S", "E", ROLES);
-        person.cleanRelations(false);
-
-        assertNotSame(rolesExpected, person.getRoles());
-        assertEquals(rolesExpected, person.getRoles());
-    }
-
     /**
      * Should get toString
      */
@@ -585,4 +554,27 @@ public class PersonTest {
         assertEquals(hashExpected, hashResult);
         assertEquals(0, personNull.hashCode());
     }
-}
\ No newline at end of file
+
+    /**
+     * Should allow any version or the current one
+     */
+    @Test
+    public void validateVersion() {
+        final Person person = new Person("ID");
+        person.setVersion(2L);
+
+        person.validateVersion(null);
+        person.validateVersion(2L);
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when version is not the current one
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void validateVersionMismatch() {
+        final Person person = new Person("ID");
+        person.setVersion(2L);
+
+        person.validateVersion(1L);
+    }
+}
@@ -129,30 +129,6 @@ public class RoleTest {
         assertSame(PEOPLE, role.getPeople());
     }
 
-    /**
-     * Should clean all Relations not annotated with @JsonIgnore
-     */
-    @Test
-    public void cleanRelationsWhenCleanAll() {
-        final Role role = new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P"))));
-        role.cleanRelations(true);
-
-        assertNull(role.getPermissions());
-    }
-
-    /**
-     * Should clean nested Relations not annotated with @JsonIgnore
-     */
-    @Test
-    public void cleanRelationsWhenNotCleanAll() {
-        final Set<Permission> permissionsExpected = new HashSet<>(Arrays.asList(new Permission("P")));
-        final Role role = new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P"))));
-        role.cleanRelations(false);
-
-        assertNotSame(permissionsExpected, role.getPermissions());
-        assertEquals(permissionsExpected, role.getPermissions());
-    }
-
     /**
      * Should get toString
      */
@@ -0,0 +1,93 @@
+package app.models.converters;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class UUIDBinaryTypeTest {
+
+    private final UUIDBinaryType type = new UUIDBinaryType();
+
+    /**
+     * Should map String to BINARY
+     */
+    @Test
+    public void types() {
+        assertArrayEquals(new int[]{Types.BINARY}, type.sqlTypes());
+        assertEquals(String.class, type.returnedClass());
+        assertFalse(type.isMutable());
+    }
+
+    /**
+     * Should convert a String UUID to 16 bytes and back
+     */
+    @Test
+    public void toBytesAndToUUID() {
+        final String UUID = "0162e4d8-3a1b-7c2d-8e3f-405162738495";
+        final byte[] BYTES = {0x01, 0x62, (byte) 0xe4, (byte) 0xd8, 0x3a, 0x1b, 0x7c, 0x2d,
+                (byte) 0x8e, 0x3f, 0x40, 0x51, 0x62, 0x73, (byte) 0x84, (byte) 0x95};
+
+        assertArrayEquals(BYTES, UUIDBinaryType.toBytes(UUID));
+        assertEquals(UUID, UUIDBinaryType.toUUID(BYTES));
+    }
+
+    /**
+     * Should use the String bytes when value isn't a UUID
+     */
+    @Test
+    public void toBytesNotUUID() {
+        final String ID = "abc";
+
+        assertArrayEquals(ID.getBytes(StandardCharsets.UTF_8), UUIDBinaryType.toBytes(ID));
+    }
+
+    /**
+     * Should return null when bytes are null
+     */
+    @Test
+    public void toUUIDNull() {
+        assertNull(UUIDBinaryType.toUUID(null));
+    }
+
+    /**
+     * Should throw IllegalArgumentException when bytes aren't 16 (e.g. a text UUID in a column that wasn't migrated)
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void toUUIDNotBinary() {
+        UUIDBinaryType.toUUID("0162e4d8-3a1b-7c2d-8e3f-405162738495".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Should read the column as String UUID
+     */
+    @Test
+    public void nullSafeGet() throws Exception {
+        final String UUID = "0162e4d8-3a1b-7c2d-8e3f-405162738495";
+        final ResultSet rs = mock(ResultSet.class);
+        given(rs.getBytes("id")).willReturn(UUIDBinaryType.toBytes(UUID));
+
+        assertEquals(UUID, type.nullSafeGet(rs, new String[]{"id"}, null, null));
+    }
+
+    /**
+     * Should write the String UUID as bytes
+     */
+    @Test
+    public void nullSafeSet() throws Exception {
+        final String UUID = "0162e4d8-3a1b-7c2d-8e3f-405162738495";
+        final PreparedStatement st = mock(PreparedStatement.class);
+
+        type.nullSafeSet(st, UUID, 1, null);
+        type.nullSafeSet(st, null, 2, null);
+
+        verify(st, times(1)).setBytes(1, UUIDBinaryType.toBytes(UUID));
+        verify(st, times(1)).setNull(2, Types.BINARY);
+    }
+}
@@ -0,0 +1,67 @@
+package app.models.generators;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class OrderedUUIDGeneratorTest {
+
+    /**
+     * Should generate a version 7 UUID with IETF variant
+     */
+    @Test
+    public void nextVersion() {
+        final UUID uuid = OrderedUUIDGenerator.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    /**
+     * Should generate the current time in the first 48 bits
+     */
+    @Test
+    public void nextTimestamp() {
+        final long BEFORE = System.currentTimeMillis();
+        final UUID uuid = OrderedUUIDGenerator.next();
+        final long AFTER = System.currentTimeMillis();
+
+        final long timestampResult = uuid.getMostSignificantBits() >>> 16;
+
+        assertTrue(timestampResult >= BEFORE);
+        assertTrue(timestampResult <= AFTER);
+    }
+
+    /**
+     * Should generate unique ids ordered by creation time
+     */
+    @Test
+    public void nextOrdered() throws InterruptedException {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(OrderedUUIDGenerator.next().toString());
+            Thread.sleep(2);
+        }
+        final List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(String::compareTo);
+
+        assertEquals(sorted, ids);
+        assertEquals(3, new HashSet<>(ids).size());
+    }
+
+    /**
+     * Should generate a String id
+     */
+    @Test
+    public void generate() {
+        final Object idResult = new OrderedUUIDGenerator().generate(null, null);
+
+        assertTrue(idResult instanceof String);
+        assertEquals(7, UUID.fromString((String) idResult).version());
+    }
+}
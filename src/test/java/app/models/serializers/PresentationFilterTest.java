@@ -0,0 +1,157 @@
+package app.models.serializers;
+
+import app.models.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PresentationFilterTest {
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    /**
+     * Should select the filter by flags
+     */
+    @Test
+    public void of() {
+        assertSame(PresentationFilter.WITHOUT_RELATIONS, PresentationFilter.of(false, false));
+        assertSame(PresentationFilter.FIRST_LEVEL_RELATIONS, PresentationFilter.of(true, false));
+        assertSame(PresentationFilter.ALL_RELATIONS, PresentationFilter.of(false, true));
+        assertSame(PresentationFilter.ALL_RELATIONS, PresentationFilter.of(true, true));
+    }
+
+    /**
+     * Should write relations as null without modifying the model
+     */
+    @Test
+    public void withoutRelations() throws IOException {
+        final Person PERSON = createPerson();
+
+        final Map personResult = write(PresentationFilter.WITHOUT_RELATIONS, PERSON);
+
+        assertEquals("N", personResult.get("name"));
+        assertTrue(personResult.containsKey("roles"));
+        assertNull(personResult.get("roles"));
+        assertEquals(1, PERSON.getRoles().size());
+        assertEquals(1, PERSON.getRoles().iterator().next().getPermissions().size());
+    }
+
+    /**
+     * Should write first level relations with their nested relations as null
+     */
+    @Test
+    public void firstLevelRelations() throws IOException {
+        final Person PERSON = createPerson();
+
+        final Map personResult = write(PresentationFilter.FIRST_LEVEL_RELATIONS, PERSON);
+
+        final List<Map> rolesResult = (List<Map>) personResult.get("roles");
+        assertEquals(1, rolesResult.size());
+        assertEquals("R", rolesResult.get(0).get("name"));
+        assertTrue(rolesResult.get(0).containsKey("permissions"));
+        assertNull(rolesResult.get(0).get("permissions"));
+        assertEquals(1, PERSON.getRoles().iterator().next().getPermissions().size());
+    }
+
+    /**
+     * Should write all nested relations
+     */
+    @Test
+    public void allRelations() throws IOException {
+        final Map personResult = write(PresentationFilter.ALL_RELATIONS, createPerson());
+
+        final List<Map> rolesResult = (List<Map>) personResult.get("roles");
+        final List<Map> permissionsResult = (List<Map>) rolesResult.get(0).get("permissions");
+        assertEquals(1, permissionsResult.size());
+        assertEquals("P", permissionsResult.get(0).get("name"));
+    }
+
+    /**
+     * Should not call the getter of a hidden relation (lazy relations aren't loaded)
+     */
+    @Test
+    public void withoutRelationsNotLoaded() throws IOException {
+        final Person PERSON = new Person("ID") {
+            @Override
+            public Set<Role> getRoles() {
+                throw new IllegalStateException("lazy relation loaded");
+            }
+        };
+
+        final Map personResult = write(PresentationFilter.WITHOUT_RELATIONS, PERSON);
+
+        assertEquals("ID", personResult.get("id"));
+        assertNull(personResult.get("roles"));
+    }
+
+    /**
+     * Should keep many to one relations and apply the depth to their nested relations
+     */
+    @Test
+    public void authenticationWithoutRelations() throws IOException {
+        final Authentication AUTHENTICATION = new Authentication("U", "P", new AuthProvider("N", "D", "U", "AK", "AS"), createPerson());
+
+        final Map authenticationResult = write(PresentationFilter.WITHOUT_RELATIONS, AUTHENTICATION);
+
+        assertEquals("U", authenticationResult.get("username"));
+        assertFalse(authenticationResult.containsKey("password"));
+        assertEquals("N", ((Map) authenticationResult.get("authProvider")).get("name"));
+        assertFalse(((Map) authenticationResult.get("authProvider")).containsKey("authKey"));
+        assertEquals("N", ((Map) authenticationResult.get("person")).get("name"));
+        assertNull(((Map) authenticationResult.get("person")).get("roles"));
+        assertEquals("P", AUTHENTICATION.getPassword());
+    }
+
+    /**
+     * Should hide secret fields even with all relations
+     */
+    @Test
+    public void allRelationsSecret() throws IOException {
+        final Map authenticationResult = write(PresentationFilter.ALL_RELATIONS, new Authentication("U", "P", null, null));
+
+        assertEquals("U", authenticationResult.get("username"));
+        assertFalse(authenticationResult.containsKey("password"));
+    }
+
+    /**
+     * Should write complete models outside a Response (e.g. Request bodies)
+     */
+    @Test
+    public void withoutFilter() throws IOException {
+        final Map authenticationResult = mapper.readValue(mapper.writeValueAsString(new Authentication("U", "P", null, createPerson())), Map.class);
+
+        assertEquals("P", authenticationResult.get("password"));
+        final List<Map> rolesResult = (List<Map>) ((Map) authenticationResult.get("person")).get("roles");
+        assertEquals(1, ((List) rolesResult.get(0).get("permissions")).size());
+    }
+
+    private Person createPerson() {
+        final Person person = new Person("N", "L", null, 1, Person.SEX.M, null, new HashSet<>(Arrays.asList(
+                new Role("R", "D", new HashSet<>(Arrays.asList(new Permission("P", "D"))))
+        )));
+        person.setId("ID");
+        return person;
+    }
+
+    private Map write(PresentationFilter filter, Model model) throws IOException {
+        final ObjectWriter writer = mapper.writer(new SimpleFilterProvider().addFilter(PresentationFilter.ID, filter));
+        return mapper.readValue(writer.writeValueAsString(model), Map.class);
+    }
+}
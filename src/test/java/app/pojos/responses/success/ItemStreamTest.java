@@ -0,0 +1,87 @@
+package app.pojos.responses.success;
+
+import app.models.Permission;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ItemStreamTest {
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    /**
+     * Should read all items from the source
+     */
+    @Test
+    public void toList() {
+        final List<String> ITEMS = Arrays.asList("A", "B", "C");
+        final ItemStream<String> stream = new ItemStream<>(ITEMS::forEach);
+
+        final List<String> itemsResult = stream.toList();
+
+        assertNotSame(ITEMS, itemsResult);
+        assertEquals(ITEMS, itemsResult);
+    }
+
+    /**
+     * Should read the source again every time
+     */
+    @Test
+    public void forEach() {
+        final List<String> ITEMS = Arrays.asList("A", "B");
+        final ItemStream<String> stream = new ItemStream<>(ITEMS::forEach);
+
+        final List<String> itemsResult = new ArrayList<>();
+        stream.forEach(itemsResult::add);
+        stream.forEach(itemsResult::add);
+
+        assertEquals(Arrays.asList("A", "B", "A", "B"), itemsResult);
+    }
+
+    /**
+     * Should serialize the items as an array inside the Success Response
+     */
+    @Test
+    public void serialize() throws IOException {
+        final Permission P1 = new Permission("ID1");
+        P1.setName("N1");
+        final Permission P2 = new Permission("ID2");
+        P2.setName("N2");
+        final SuccessResponse RESPONSE = new SuccessResponse(new ItemStream<>(c -> Arrays.asList(P1, P2).forEach(c)), "token");
+
+        final Map responseResult = mapper.readValue(mapper.writeValueAsString(RESPONSE), Map.class);
+
+        final List<Map> dataResult = (List<Map>) responseResult.get("data");
+        assertEquals(2, dataResult.size());
+        assertEquals("ID1", dataResult.get(0).get("id"));
+        assertEquals("N1", dataResult.get(0).get("name"));
+        assertEquals("ID2", dataResult.get(1).get("id"));
+        assertEquals("token", responseResult.get("newToken"));
+        assertFalse(responseResult.containsKey("metaData"));
+    }
+
+    /**
+     * Should stop the serialization when an item can't be written
+     */
+    @Test(expected = JsonMappingException.class)
+    public void serializeError() throws IOException {
+        final ItemStream<Object> stream = new ItemStream<>(c -> c.accept(new Object()));
+
+        mapper.writeValueAsString(stream);
+    }
+}
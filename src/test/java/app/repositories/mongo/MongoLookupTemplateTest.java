@@ -0,0 +1,207 @@
+package app.repositories.mongo;
+
+import app.factories.PageFactory;
+import app.models.*;
+import app.pojos.pages.PageDataRequest;
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MongoLookupTemplateTest {
+
+    private MongoLookupTemplate mongoLookupTemplate;
+
+    private MongoTemplate mongoTemplate;
+
+    private PageFactory pageFactory;
+
+    private final ObjectId PERSON_ID = new ObjectId();
+
+    private final ObjectId ROLE_ID = new ObjectId();
+
+    private final ObjectId PERMISSION_ID = new ObjectId();
+
+    private final ObjectId AUTH_PROVIDER_ID = new ObjectId();
+
+    @Before
+    public void setup() {
+        final MappingMongoConverter CONVERTER = new MappingMongoConverter(new DefaultDbRefResolver(mock(MongoDbFactory.class)), new MongoMappingContext());
+        CONVERTER.afterPropertiesSet();
+
+        mongoTemplate = mock(MongoTemplate.class);
+        pageFactory = mock(PageFactory.class);
+        given(mongoTemplate.getConverter()).willReturn(CONVERTER);
+        given(mongoTemplate.getCollectionName(any(Class.class))).willAnswer(invocation ->
+                ((Class<?>) invocation.getArguments()[0]).getSimpleName().toLowerCase());
+
+        mongoLookupTemplate = new MongoLookupTemplate();
+        ReflectionTestUtils.setField(mongoLookupTemplate, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(mongoLookupTemplate, "pageFactory", pageFactory);
+    }
+
+    /**
+     * Should join every @DBRef property with a $lookup stage on the DBRef id
+     */
+    @Test
+    public void findAllStages() {
+        final ArgumentCaptor<TypedAggregation> AGGREGATION = ArgumentCaptor.forClass(TypedAggregation.class);
+        given(mongoTemplate.aggregate(AGGREGATION.capture(), eq(DBObject.class))).willReturn(results());
+
+        mongoLookupTemplate.findAll(Authentication.class);
+
+        final List<DBObject> STAGES_EXPECTED = Arrays.asList(
+                lookup("authprovider", "authProvider.$id", "authProvider"),
+                lookup("person", "person.$id", "person")
+        );
+        assertEquals(new HashSet<>(STAGES_EXPECTED), new HashSet<>(getPipeline(AGGREGATION.getValue())));
+        assertEquals(2, getPipeline(AGGREGATION.getValue()).size());
+    }
+
+    /**
+     * Should filter, sort and page before the $lookup stages so only the returned documents are joined
+     */
+    @Test
+    public void pageStages() {
+        final PageDataRequest PAGE_DATA_REQUEST = new PageDataRequest(1, 2, "DESC", Collections.singletonList("name"), null);
+        final PageRequest PAGE_REQUEST = new PageRequest(1, 2, new Sort(Sort.Direction.DESC, "name"));
+        final ArgumentCaptor<TypedAggregation> AGGREGATION = ArgumentCaptor.forClass(TypedAggregation.class);
+        given(pageFactory.getCriteria(PAGE_DATA_REQUEST.getFilters(), Person.class)).willReturn(Criteria.where("name").is("N1"));
+        given(pageFactory.pageRequest(PAGE_DATA_REQUEST)).willReturn(PAGE_REQUEST);
+        given(mongoTemplate.aggregate(AGGREGATION.capture(), eq(DBObject.class))).willReturn(results());
+        given(mongoTemplate.count(any(Query.class), eq(Person.class))).willReturn(3L);
+
+        final Page<Person> pageResult = mongoLookupTemplate.page(Person.class, PAGE_DATA_REQUEST);
+
+        final List<DBObject> STAGES_EXPECTED = Arrays.asList(
+                new BasicDBObject("$match", new BasicDBObject("name", "N1")),
+                new BasicDBObject("$sort", new BasicDBObject("name", -1)),
+                new BasicDBObject("$skip", 2L),
+                new BasicDBObject("$limit", 2),
+                lookup("role", "roles.$id", "roles")
+        );
+        // compared as json because the stages mix numeric types
+        assertEquals(STAGES_EXPECTED.toString(), getPipeline(AGGREGATION.getValue()).toString());
+        assertEquals(3, pageResult.getTotalElements());
+        assertTrue(pageResult.getContent().isEmpty());
+    }
+
+    /**
+     * Should unwrap single references from the $lookup array and keep collection references as arrays
+     */
+    @Test
+    public void findAllUnwrapLookup() {
+        final DBObject AUTHENTICATION_1 = new BasicDBObject("_id", new ObjectId()).append("username", "U1")
+                .append("person", list(person())).append("authProvider", list(authProvider()));
+        final DBObject AUTHENTICATION_2 = new BasicDBObject("_id", new ObjectId()).append("username", "U2")
+                .append("person", list()).append("authProvider", list(authProvider()));
+        given(mongoTemplate.aggregate(any(TypedAggregation.class), eq(DBObject.class))).willReturn(results(AUTHENTICATION_1, AUTHENTICATION_2));
+        given(mongoTemplate.find(any(Query.class), eq(DBObject.class), eq("role"))).willReturn(Collections.singletonList(role()));
+        given(mongoTemplate.find(any(Query.class), eq(DBObject.class), eq("permission"))).willReturn(Collections.singletonList(permission()));
+
+        final List<Authentication> authenticationsResult = mongoLookupTemplate.findAll(Authentication.class);
+
+        assertEquals(2, authenticationsResult.size());
+        assertEquals("U1", authenticationsResult.get(0).getUsername());
+        assertEquals(AUTH_PROVIDER_ID.toString(), authenticationsResult.get(0).getAuthProvider().getId());
+        assertEquals("A1", authenticationsResult.get(0).getAuthProvider().getName());
+        assertEquals(PERSON_ID.toString(), authenticationsResult.get(0).getPerson().getId());
+        assertEquals("N1", authenticationsResult.get(0).getPerson().getName());
+        assertNull(authenticationsResult.get(1).getPerson());
+        assertEquals("A1", authenticationsResult.get(1).getAuthProvider().getName());
+
+        final Role roleResult = authenticationsResult.get(0).getPerson().getRoles().iterator().next();
+        assertEquals(1, authenticationsResult.get(0).getPerson().getRoles().size());
+        assertEquals(ROLE_ID.toString(), roleResult.getId());
+        assertEquals("R1", roleResult.getName());
+        assertEquals(1, roleResult.getPermissions().size());
+        assertEquals("P1", roleResult.getPermissions().iterator().next().getName());
+    }
+
+    /**
+     * Should resolve nested references with one $in query per relation
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findAllNestedReferences() {
+        final DBObject PERSON_1 = new BasicDBObject("_id", PERSON_ID).append("name", "N1").append("roles", list(role()));
+        final DBObject PERSON_2 = new BasicDBObject("_id", new ObjectId()).append("name", "N2").append("roles", list(role()));
+        final ArgumentCaptor<Query> QUERY = ArgumentCaptor.forClass(Query.class);
+        given(mongoTemplate.aggregate(any(TypedAggregation.class), eq(DBObject.class))).willReturn(results(PERSON_1, PERSON_2));
+        given(mongoTemplate.find(QUERY.capture(), eq(DBObject.class), eq("permission"))).willReturn(Collections.singletonList(permission()));
+
+        final List<Person> peopleResult = mongoLookupTemplate.findAll(Person.class);
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(DBObject.class), eq("permission"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(DBObject.class), eq("role"));
+        final Collection<Object> IDS = (Collection<Object>) ((DBObject) QUERY.getValue().getQueryObject().get("_id")).get("$in");
+        assertEquals(Collections.singletonList(PERMISSION_ID), new ArrayList<>(IDS));
+        assertEquals(2, peopleResult.size());
+        peopleResult.forEach(p -> {
+            assertEquals(1, p.getRoles().size());
+            assertEquals("P1", p.getRoles().iterator().next().getPermissions().iterator().next().getName());
+        });
+    }
+
+    private AggregationResults<DBObject> results(DBObject... documents) {
+        return new AggregationResults<>(Arrays.asList(documents), new BasicDBObject());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DBObject> getPipeline(TypedAggregation aggregation) {
+        return (List<DBObject>) aggregation.toDbObject("input", Aggregation.DEFAULT_CONTEXT).get("pipeline");
+    }
+
+    private DBObject lookup(String from, String localField, String as) {
+        return new BasicDBObject("$lookup", new BasicDBObject("from", from).append("localField", localField)
+                .append("foreignField", "_id").append("as", as));
+    }
+
+    private BasicDBList list(Object... values) {
+        final BasicDBList list = new BasicDBList();
+        list.addAll(Arrays.asList(values));
+        return list;
+    }
+
+    private DBObject person() {
+        return new BasicDBObject("_id", PERSON_ID).append("name", "N1").append("roles", list(new DBRef("role", ROLE_ID)));
+    }
+
+    private DBObject role() {
+        return new BasicDBObject("_id", ROLE_ID).append("name", "R1").append("permissions", list(new DBRef("permission", PERMISSION_ID)));
+    }
+
+    private DBObject permission() {
+        return new BasicDBObject("_id", PERMISSION_ID).append("name", "P1");
+    }
+
+    private DBObject authProvider() {
+        return new BasicDBObject("_id", AUTH_PROVIDER_ID).append("name", "A1");
+    }
+}
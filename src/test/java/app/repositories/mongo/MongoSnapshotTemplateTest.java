@@ -0,0 +1,159 @@
+package app.repositories.mongo;
+
+import app.models.AuthProvider;
+import app.models.Authentication;
+import app.models.Person;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class MongoSnapshotTemplateTest {
+
+    private MongoSnapshotTemplate mongoSnapshotTemplate;
+
+    private MongoTemplate mongoTemplate;
+
+    private MappingMongoConverter converter;
+
+    private DBCollection collection;
+
+    @Before
+    public void setup() {
+        converter = new MappingMongoConverter(new DefaultDbRefResolver(mock(MongoDbFactory.class)), new MongoMappingContext());
+        converter.afterPropertiesSet();
+
+        mongoTemplate = mock(MongoTemplate.class);
+        collection = mock(DBCollection.class);
+        given(mongoTemplate.getConverter()).willReturn(converter);
+        given(mongoTemplate.getCollection(any(String.class))).willReturn(collection);
+        given(mongoTemplate.getCollectionName(any(Class.class))).willAnswer(invocation ->
+                converter.getMappingContext().getPersistentEntity((Class<?>) invocation.getArguments()[0]).getCollection());
+
+        mongoSnapshotTemplate = new MongoSnapshotTemplate();
+        ReflectionTestUtils.setField(mongoSnapshotTemplate, "mongoTemplate", mongoTemplate);
+    }
+
+    /**
+     * Should save the ObjectId ids of a mongo snapshot as ObjectId so the repository query by id finds the document
+     */
+    @Test
+    public void importTableMongoIds() {
+        final String ID = new ObjectId().toString();
+
+        mongoSnapshotTemplate.importTable("person", Collections.singletonList(row("id", ID, "created_at", "2017-01-01T10:00",
+                "updated_at", "2017-01-01T10:00", "version", 1, "name", "N1", "last_name", "L1", "birthday", "1990-01-01",
+                "civil_status", 0, "sex", "F", "email", null)));
+
+        final DBObject DOCUMENT = getInserted().get(0);
+        final DBObject QUERY = new QueryMapper(converter).getMappedObject(Query.query(Criteria.where("id").is(ID)).getQueryObject(),
+                converter.getMappingContext().getPersistentEntity(Person.class));
+        assertEquals(new ObjectId(ID), DOCUMENT.get("_id"));
+        assertEquals(QUERY.get("_id"), DOCUMENT.get("_id"));
+
+        final Person personResult = converter.read(Person.class, DOCUMENT);
+        assertEquals(ID, personResult.getId());
+        assertEquals("N1", personResult.getName());
+        assertEquals("L1", personResult.getLastName());
+        assertEquals(1L, personResult.getVersion());
+    }
+
+    /**
+     * Should save the references of a mongo snapshot with the same DBRef the mapping layer writes
+     */
+    @Test
+    public void importTableMongoReferences() {
+        final Person PERSON = new Person(new ObjectId().toString());
+        final AuthProvider AUTH_PROVIDER = new AuthProvider(new ObjectId().toString());
+        final DBObject EXPECTED = new BasicDBObject();
+        converter.write(new Authentication("U1", "H1", AUTH_PROVIDER, PERSON), EXPECTED);
+
+        mongoSnapshotTemplate.importTable("authentication", Collections.singletonList(row("id", new ObjectId().toString(),
+                "version", 0, "username", "U1", "password", "H1", "auth_provider_id", AUTH_PROVIDER.getId(), "person_id", PERSON.getId())));
+
+        final DBObject DOCUMENT = getInserted().get(0);
+        assertEquals(EXPECTED.get("person"), DOCUMENT.get("person"));
+        assertEquals(EXPECTED.get("authProvider"), DOCUMENT.get("authProvider"));
+        assertEquals(EXPECTED.get("username"), DOCUMENT.get("username"));
+    }
+
+    /**
+     * Should push the join table rows of a mongo snapshot filtering the owner by ObjectId and with ObjectId DBRefs
+     */
+    @Test
+    public void importTableMongoJoinTable() {
+        final String PERSON_ID = new ObjectId().toString();
+        final String ROLE_ID_1 = new ObjectId().toString();
+        final String ROLE_ID_2 = new ObjectId().toString();
+        final BulkOperations BULK = mock(BulkOperations.class);
+        final ArgumentCaptor<Query> QUERY = ArgumentCaptor.forClass(Query.class);
+        final ArgumentCaptor<Update> UPDATE = ArgumentCaptor.forClass(Update.class);
+        given(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Person.class)).willReturn(BULK);
+        given(BULK.updateOne(QUERY.capture(), UPDATE.capture())).willReturn(BULK);
+
+        mongoSnapshotTemplate.importTable("person_roles", Arrays.asList(row("people_id", PERSON_ID, "roles_id", ROLE_ID_1),
+                row("people_id", PERSON_ID, "roles_id", ROLE_ID_2)));
+
+        verify(BULK).execute();
+        assertEquals(1, QUERY.getAllValues().size());
+        assertEquals(new ObjectId(PERSON_ID), QUERY.getValue().getQueryObject().get("_id"));
+        final Update.Modifiers PUSH = (Update.Modifiers) ((DBObject) UPDATE.getValue().getUpdateObject().get("$push")).get("roles");
+        assertEquals(Arrays.asList(new DBRef("role", new ObjectId(ROLE_ID_1)), new DBRef("role", new ObjectId(ROLE_ID_2))),
+                Arrays.asList((Object[]) PUSH.getModifiers().iterator().next().getValue()));
+    }
+
+    /**
+     * Should keep the UUID ids of a mysql snapshot as Strings
+     */
+    @Test
+    public void importTableMySQLIds() {
+        final String ID = UUID.randomUUID().toString();
+        final String PERSON_ID = UUID.randomUUID().toString();
+
+        mongoSnapshotTemplate.importTable("authentication", Collections.singletonList(row("id", ID, "version", 0,
+                "username", "U1", "password", "H1", "auth_provider_id", null, "person_id", PERSON_ID)));
+
+        final DBObject DOCUMENT = getInserted().get(0);
+        assertEquals(ID, DOCUMENT.get("_id"));
+        assertEquals(new DBRef("person", PERSON_ID), DOCUMENT.get("person"));
+        assertFalse(DOCUMENT.containsField("authProvider"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DBObject> getInserted() {
+        final ArgumentCaptor<List> DOCUMENTS = ArgumentCaptor.forClass(List.class);
+        verify(collection).insert(DOCUMENTS.capture());
+        return (List<DBObject>) DOCUMENTS.getValue();
+    }
+
+    private Map<String, Object> row(Object... values) {
+        final Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i += 2) {
+            row.put((String) values[i], values[i + 1]);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,109 @@
+package app.repositories.mongo;
+
+import app.models.Person;
+import app.models.Role;
+import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+
+public class MongoVersionTemplateTest {
+
+    private MongoVersionTemplate mongoVersionTemplate;
+
+    private MongoTemplate mongoTemplate;
+
+    @Before
+    public void setup() {
+        final MappingMongoConverter CONVERTER = new MappingMongoConverter(new DefaultDbRefResolver(mock(MongoDbFactory.class)), new MongoMappingContext());
+        CONVERTER.afterPropertiesSet();
+
+        mongoTemplate = mock(MongoTemplate.class);
+        given(mongoTemplate.getConverter()).willReturn(CONVERTER);
+
+        mongoVersionTemplate = new MongoVersionTemplate();
+        ReflectionTestUtils.setField(mongoVersionTemplate, "mongoTemplate", mongoTemplate);
+    }
+
+    /**
+     * Should $set the written fields, $unset the null ones and increase the version filtering by id and version
+     */
+    @Test
+    public void update() {
+        final Role ROLE = new Role(new ObjectId().toString());
+        final Person PERSON = new Person("N1", "L1", null, 1, Person.SEX.M, null, new HashSet<>(Collections.singletonList(ROLE)));
+        PERSON.setId(new ObjectId().toString());
+        PERSON.setVersion(2);
+        final ArgumentCaptor<Query> QUERY = ArgumentCaptor.forClass(Query.class);
+        final ArgumentCaptor<Update> UPDATE = ArgumentCaptor.forClass(Update.class);
+        given(mongoTemplate.findAndModify(QUERY.capture(), UPDATE.capture(), any(FindAndModifyOptions.class), eq(Person.class))).willReturn(PERSON);
+
+        final Person personResult = mongoVersionTemplate.update(PERSON);
+
+        final DBObject SET = (DBObject) UPDATE.getValue().getUpdateObject().get("$set");
+        final DBObject UNSET = (DBObject) UPDATE.getValue().getUpdateObject().get("$unset");
+        assertSame(PERSON, personResult);
+        assertEquals(PERSON.getId(), QUERY.getValue().getQueryObject().get("_id"));
+        assertEquals(2L, QUERY.getValue().getQueryObject().get("version"));
+        assertEquals("N1", SET.get("name"));
+        assertEquals("L1", SET.get("lastName"));
+        assertNotNull(SET.get("roles"));
+        assertFalse(SET.containsField("_id"));
+        assertFalse(SET.containsField("version"));
+        assertFalse(SET.containsField("_class"));
+        assertEquals(new HashSet<>(Arrays.asList("birthday", "email", "authentications", "createdAt", "updatedAt")), UNSET.keySet());
+        assertEquals(1, ((DBObject) UPDATE.getValue().getUpdateObject().get("$inc")).get("version"));
+    }
+
+    /**
+     * Should $unset a relation that was cleared
+     */
+    @Test
+    public void updateNullRelation() {
+        final Person PERSON = new Person("N1", "L1", LocalDate.of(1986, 4, 1), 1, Person.SEX.M, "a@a.com", null);
+        PERSON.setId(new ObjectId().toString());
+        final ArgumentCaptor<Update> UPDATE = ArgumentCaptor.forClass(Update.class);
+        given(mongoTemplate.findAndModify(any(Query.class), UPDATE.capture(), any(FindAndModifyOptions.class), eq(Person.class))).willReturn(PERSON);
+
+        mongoVersionTemplate.update(PERSON);
+
+        final DBObject UNSET = (DBObject) UPDATE.getValue().getUpdateObject().get("$unset");
+        assertTrue(UNSET.containsField("roles"));
+        assertFalse(UNSET.containsField("email"));
+        assertFalse(((DBObject) UPDATE.getValue().getUpdateObject().get("$set")).containsField("roles"));
+    }
+
+    /**
+     * Should throw OptimisticLockingFailureException when no document has the id and version
+     */
+    @Test(expected = OptimisticLockingFailureException.class)
+    public void updateWhenVersionChanged() {
+        final Person PERSON = new Person("N1", "L1", null, 1, Person.SEX.M, null, null);
+        PERSON.setId(new ObjectId().toString());
+        given(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Person.class))).willReturn(null);
+
+        mongoVersionTemplate.update(PERSON);
+    }
+}
@@ -0,0 +1,67 @@
+package app.repositories.mysql;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UUIDBinaryMigrationTest {
+
+    @Autowired
+    private UUIDBinaryMigration uuidBinaryMigration;
+
+    /**
+     * Should convert a not null column through a VARBINARY column
+     */
+    @Test
+    public void getStatementsNotNull() {
+        final List<String> STATEMENTS_EXPECTED = Arrays.asList(
+                "ALTER TABLE `person_roles` MODIFY `roles_id` VARBINARY(36) NOT NULL",
+                "UPDATE `person_roles` SET `roles_id` = UNHEX(REPLACE(`roles_id`, '-', '')) WHERE LENGTH(`roles_id`) = 36",
+                "ALTER TABLE `person_roles` MODIFY `roles_id` BINARY(16) NOT NULL"
+        );
+
+        final List<String> statementsResult = uuidBinaryMigration.getStatements("person_roles", "roles_id", false, false);
+
+        assertEquals(STATEMENTS_EXPECTED, statementsResult);
+    }
+
+    /**
+     * Should keep a nullable column nullable
+     */
+    @Test
+    public void getStatementsNullable() {
+        final List<String> STATEMENTS_EXPECTED = Arrays.asList(
+                "ALTER TABLE `a` MODIFY `b` VARBINARY(36)",
+                "UPDATE `a` SET `b` = UNHEX(REPLACE(`b`, '-', '')) WHERE LENGTH(`b`) = 36",
+                "ALTER TABLE `a` MODIFY `b` BINARY(16)"
+        );
+
+        final List<String> statementsResult = uuidBinaryMigration.getStatements("a", "b", true, false);
+
+        assertEquals(STATEMENTS_EXPECTED, statementsResult);
+    }
+
+    /**
+     * Should resume a column left as VARBINARY(36) converting only the values that are still text UUIDs
+     */
+    @Test
+    public void getStatementsVarbinary() {
+        final List<String> STATEMENTS_EXPECTED = Arrays.asList(
+                "UPDATE `a` SET `b` = UNHEX(REPLACE(`b`, '-', '')) WHERE LENGTH(`b`) = 36",
+                "ALTER TABLE `a` MODIFY `b` BINARY(16) NOT NULL"
+        );
+
+        final List<String> statementsResult = uuidBinaryMigration.getStatements("a", "b", false, true);
+
+        assertEquals(STATEMENTS_EXPECTED, statementsResult);
+    }
+}
@@ -0,0 +1,382 @@
+package app.services.implementations;
+
+import app.exceptions.AppDontFoundException;
+import app.exceptions.AppUnavailableException;
+import app.metrics.QueryCounter;
+import app.metrics.SecurityTimings;
+import app.pojos.metrics.AsyncSnapshot;
+import app.services.AsyncService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class AsyncServiceImplTest {
+
+    private AsyncService asyncService;
+
+    private ThreadPoolTaskExecutor pageExecutor;
+
+    private ThreadPoolTaskExecutor relationExecutor;
+
+    private PlatformTransactionManager transactionManager;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private SecurityTimings securityTimings;
+
+    @Before
+    public void setup() {
+        pageExecutor = createExecutor("page-", 1, 1);
+        relationExecutor = createExecutor("relation-", 1, 1);
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        given(transactionManager.getTransaction(any())).willReturn(mock(TransactionStatus.class));
+        given(entityManagerFactory.createEntityManager()).willAnswer(invocation -> {
+            final EntityManager ENTITY_MANAGER = mock(EntityManager.class);
+            given(ENTITY_MANAGER.isOpen()).willReturn(true);
+            return ENTITY_MANAGER;
+        });
+
+        securityTimings = new SecurityTimings();
+
+        asyncService = new AsyncServiceImpl();
+        ReflectionTestUtils.setField(asyncService, "timeout", 30000L);
+        ReflectionTestUtils.setField(asyncService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(asyncService, "entityManagerFactory", entityManagerFactory);
+        ReflectionTestUtils.setField(asyncService, "securityTimings", securityTimings);
+        ReflectionTestUtils.setField(asyncService, "pageExecutor", pageExecutor);
+        ReflectionTestUtils.setField(asyncService, "relationExecutor", relationExecutor);
+    }
+
+    @After
+    public void clean() {
+        pageExecutor.shutdown();
+        relationExecutor.shutdown();
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        QueryCounter.stop();
+        securityTimings.stop();
+    }
+
+    /**
+     * Should run the task in the executor of its workload and set its response
+     */
+    @Test
+    public void executeSuccess() throws Exception {
+        final ResponseEntity responseExpected = new ResponseEntity("test", HttpStatus.OK);
+        final List<String> threadsResult = new ArrayList<>();
+
+        final Object pageResult = await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            threadsResult.add(Thread.currentThread().getName());
+            return responseExpected;
+        }));
+        final Object relationResult = await(asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> {
+            threadsResult.add(Thread.currentThread().getName());
+            return responseExpected;
+        }));
+
+        assertSame(responseExpected, pageResult);
+        assertSame(responseExpected, relationResult);
+        assertTrue(threadsResult.get(0).startsWith("page-"));
+        assertTrue(threadsResult.get(1).startsWith("relation-"));
+    }
+
+    /**
+     * Should run the task with the security context and request of the caller (without its transaction resources) and clean them after it
+     */
+    @Test
+    public void executePropagateContext() throws Exception {
+        final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("user", null);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        final Object RESOURCE_KEY = new Object();
+        final Object resource = new Object();
+        SecurityContextHolder.setContext(new SecurityContextImpl());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        TransactionSynchronizationManager.bindResource(RESOURCE_KEY, resource);
+        final List<Object> contextResult = new ArrayList<>();
+
+        try {
+            await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+                contextResult.add(SecurityContextHolder.getContext().getAuthentication());
+                contextResult.add(TransactionSynchronizationManager.getResource(RESOURCE_KEY));
+                RequestContextHolder.getRequestAttributes().setAttribute("test", "value", RequestAttributes.SCOPE_REQUEST);
+                return null;
+            }));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(RESOURCE_KEY);
+        }
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            contextResult.add(SecurityContextHolder.getContext().getAuthentication());
+            contextResult.add(TransactionSynchronizationManager.getResource(RESOURCE_KEY));
+            contextResult.add(RequestContextHolder.getRequestAttributes());
+            return null;
+        }));
+
+        assertSame(authentication, contextResult.get(0));
+        assertNull(contextResult.get(1));
+        assertEquals("value", request.getAttribute("test"));
+        assertNull(contextResult.get(2));
+        assertNull(contextResult.get(3));
+        assertNull(contextResult.get(4));
+    }
+
+    /**
+     * Should count the queries and keep the security stages of the task in the ones of the caller and clean them after it
+     */
+    @Test
+    public void executePropagateMetrics() throws Exception {
+        final QueryCounter counter = QueryCounter.start();
+        final Map<String, Long> stages = securityTimings.start();
+        final List<Object> metricsResult = new ArrayList<>();
+
+        await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            QueryCounter.recordSql("select person");
+            QueryCounter.recordMongo("find role", "find role {}");
+            securityTimings.record(SecurityTimings.TOKEN_REFRESH, 1000);
+            return null;
+        }));
+        await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            metricsResult.add(QueryCounter.getCurrent());
+            metricsResult.add(securityTimings.getCurrent());
+            return null;
+        }));
+        QueryCounter.stop();
+        securityTimings.stop();
+        await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            metricsResult.add(QueryCounter.getCurrent());
+            metricsResult.add(securityTimings.getCurrent());
+            return null;
+        }));
+
+        assertEquals(1, counter.getSqlCount());
+        assertEquals(1, counter.getMongoCount());
+        assertEquals(Long.valueOf(1000), stages.get(SecurityTimings.TOKEN_REFRESH));
+        assertSame(counter, metricsResult.get(0));
+        assertSame(stages, metricsResult.get(1));
+        assertNull(metricsResult.get(2));
+        assertNull(metricsResult.get(3));
+    }
+
+    /**
+     * Should set the exception thrown by the task as error result
+     */
+    @Test
+    public void executeError() throws Exception {
+        final AppDontFoundException exception = new AppDontFoundException("Data don't found.");
+
+        final Object result = await(asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> {
+            throw exception;
+        }));
+
+        assertSame(exception, result);
+    }
+
+    /**
+     * Should run the task in its own read only transaction and EntityManager, closed when the task and the request finished
+     */
+    @Test
+    public void executeTransaction() throws Exception {
+        final ArgumentCaptor<TransactionDefinition> DEFINITION = ArgumentCaptor.forClass(TransactionDefinition.class);
+        final List<Object> entityManagersResult = new ArrayList<>();
+
+        final DeferredResult<ResponseEntity> result = asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            entityManagersResult.add(((EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory)).getEntityManager());
+            return null;
+        });
+        await(result);
+
+        final EntityManager ENTITY_MANAGER = (EntityManager) entityManagersResult.get(0);
+        verify(transactionManager).getTransaction(DEFINITION.capture());
+        verify(transactionManager).commit(any());
+        assertTrue(DEFINITION.getValue().isReadOnly());
+        assertFalse(TransactionSynchronizationManager.hasResource(entityManagerFactory));
+        // the response may still load lazy relations
+        verify(ENTITY_MANAGER, never()).close();
+
+        getInterceptor(result).afterCompletion(new ServletWebRequest(new MockHttpServletRequest()), result);
+
+        verify(ENTITY_MANAGER).close();
+    }
+
+    /**
+     * Should set an Error thrown by the task as error result
+     */
+    @Test
+    public void executeThrowable() throws Exception {
+        final StackOverflowError error = new StackOverflowError();
+
+        final Object result = await(asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> {
+            throw error;
+        }));
+
+        assertSame(error, result);
+        verify(transactionManager).rollback(any());
+    }
+
+    /**
+     * Should interrupt the task when the request times out and keep the timeout result
+     */
+    @Test
+    public void executeTimeout() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final ResponseEntity RESPONSE = new ResponseEntity("late", HttpStatus.OK);
+
+        final DeferredResult<ResponseEntity> result = asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return RESPONSE;
+        });
+        started.await();
+        getInterceptor(result).handleTimeout(new ServletWebRequest(new MockHttpServletRequest()), result);
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        // the executor is free again once the task returned
+        assertNull(await(asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> null)));
+        assertTrue(result.getResult() instanceof AppUnavailableException);
+        assertEquals(1, asyncService.snapshot().get(0).getTimeouts());
+    }
+
+    /**
+     * Should throw an AppUnavailableException when all threads are busy and the queue is full
+     */
+    @Test
+    public void executeRejected() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        try {
+            asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            started.await();
+            asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> null);
+            asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> null);
+            fail("Expected an AppUnavailableException to be thrown");
+        } catch (AppUnavailableException e) {
+            assertEquals("Server is busy, try again later.", e.getMessage());
+        } finally {
+            release.countDown();
+        }
+
+        // relation executor isn't affected
+        assertNull(await(asyncService.execute(AsyncService.WORKLOAD.RELATION, () -> null)));
+    }
+
+    /**
+     * Should return the state of each executor
+     */
+    @Test
+    public void snapshot() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final List<AsyncSnapshot> snapshotResult;
+        try {
+            asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            started.await();
+            asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> null);
+            try {
+                asyncService.execute(AsyncService.WORKLOAD.PAGE, () -> null);
+            } catch (AppUnavailableException ignored) {
+            }
+            snapshotResult = asyncService.snapshot();
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(2, snapshotResult.size());
+        assertEquals("page", snapshotResult.get(0).getWorkload());
+        assertEquals(1, snapshotResult.get(0).getBusy());
+        assertEquals(1, snapshotResult.get(0).getMax());
+        assertEquals(1, snapshotResult.get(0).getQueued());
+        assertEquals(1, snapshotResult.get(0).getRejected());
+        assertEquals(0, snapshotResult.get(0).getTimeouts());
+        assertEquals("relation", snapshotResult.get(1).getWorkload());
+        assertEquals(0, snapshotResult.get(1).getBusy());
+        assertEquals(0, snapshotResult.get(1).getRejected());
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(String prefix, int threads, int queue) {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queue);
+        executor.initialize();
+        return executor;
+    }
+
+    private DeferredResultProcessingInterceptor getInterceptor(DeferredResult<ResponseEntity> deferredResult) {
+        return ReflectionTestUtils.invokeMethod(deferredResult, "getInterceptor");
+    }
+
+    /**
+     * Wait until the task sets the result
+     *
+     * @param deferredResult result returned by execute
+     * @return response or exception set by the task
+     */
+    private Object await(DeferredResult<ResponseEntity> deferredResult) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        deferredResult.setResultHandler(result -> latch.countDown());
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        return deferredResult.getResult();
+    }
+}
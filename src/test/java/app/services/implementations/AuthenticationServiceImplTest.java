@@ -1,6 +1,7 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
 import app.models.AuthProvider;
 import app.models.Authentication;
@@ -14,12 +15,17 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
@@ -58,6 +64,60 @@ public class AuthenticationServiceImplTest {
         verify(authenticationRepository, times(1)).findAll();
     }
 
+    /**
+     * Should pass every streamed entity with its related data
+     */
+    @Test
+    public void streamAll() {
+        final List<Authentication> authenticationsMocked = Arrays.asList(
+                new Authentication("ID1"), new Authentication("ID2"), null, new Authentication("ID4"));
+        doAnswer(invocation -> {
+            authenticationsMocked.forEach((Consumer<Authentication>) invocation.getArguments()[0]);
+            return null;
+        }).when(authenticationRepository).streamAll(any());
+
+        final List<Authentication> authenticationsExpected = Arrays.asList(
+                new Authentication("ID1"), new Authentication("ID2"), null, new Authentication("ID4"));
+
+        final List<Authentication> authenticationsResult = new ArrayList<>();
+        authenticationService.streamAll(authenticationsResult::add);
+
+        assertNotSame(authenticationsExpected, authenticationsResult);
+        assertEquals(authenticationsExpected, authenticationsResult);
+        verify(authenticationRepository, times(1)).streamAll(any());
+    }
+
+    /**
+     * Should call findVersion function
+     */
+    @Test
+    public void findVersion() {
+        final String ID = "ID";
+        final Long VERSION_EXPECTED = 3L;
+        given(authenticationRepository.findVersion(ID)).willReturn(VERSION_EXPECTED);
+
+        final Long versionResult = authenticationService.findVersion(ID);
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(authenticationRepository, times(1)).findVersion(ID);
+        verify(authenticationRepository, never()).findOne(anyString());
+    }
+
+    /**
+     * Should call findCollectionVersion function
+     */
+    @Test
+    public void findCollectionVersion() {
+        final String VERSION_EXPECTED = "2-3-ID";
+        given(authenticationRepository.findCollectionVersion()).willReturn(VERSION_EXPECTED);
+
+        final String versionResult = authenticationService.findCollectionVersion();
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(authenticationRepository, times(1)).findCollectionVersion();
+        verify(authenticationRepository, never()).findAll();
+    }
+
     /**
      * Should call findOne function
      */
@@ -153,7 +213,7 @@ public class AuthenticationServiceImplTest {
     public void saveUsernameDuplicate() {
         final String USERNAME = "test";
         final Authentication authentication = new Authentication(USERNAME, null, null, null);
-        given(authenticationRepository.findByUsername(USERNAME)).willReturn(authentication);
+        given(authenticationRepository.saveNew(authentication)).willThrow(new DataIntegrityViolationException(Authentication.UNIQUE_USERNAME));
 
         authenticationService.save(authentication);
     }
@@ -166,7 +226,21 @@ public class AuthenticationServiceImplTest {
         final AuthProvider AUTHPROVIDER = new AuthProvider("AP1");
         final Person PERSON = new Person("P1");
         final Authentication authentication = new Authentication(null, null, AUTHPROVIDER, PERSON);
-        given(authenticationRepository.findByAuthProviderAndPerson(AUTHPROVIDER, PERSON)).willReturn(authentication);
+        final Authentication duplicated = new Authentication(null, null, new AuthProvider("N", "D", "U", "AK", "AS"),
+                new Person("N", "LN", null, null, null, null, null));
+        given(authenticationRepository.saveNew(authentication)).willThrow(new DataIntegrityViolationException(Authentication.UNIQUE_PROVIDER_PERSON));
+        given(authenticationRepository.findByAuthProviderAndPerson(AUTHPROVIDER, PERSON)).willReturn(duplicated);
+
+        authenticationService.save(authentication);
+    }
+
+    /**
+     * Should throw the original exception when another constraint is violated
+     */
+    @Test(expected = DataIntegrityViolationException.class)
+    public void saveOtherConstraint() {
+        final Authentication authentication = new Authentication(null, null, null, null);
+        given(authenticationRepository.saveNew(authentication)).willThrow(new DataIntegrityViolationException("other"));
 
         authenticationService.save(authentication);
     }
@@ -182,10 +256,8 @@ public class AuthenticationServiceImplTest {
         final AuthProvider AUTHPROVIDER = new AuthProvider("AP1");
         final Person PERSON = new Person("P1");
         final Authentication authentication = new Authentication(USERNAME, PASSWORD, AUTHPROVIDER, PERSON);
-        given(authenticationRepository.findByUsername(USERNAME)).willReturn(null);
-        given(authenticationRepository.findByAuthProviderAndPerson(AUTHPROVIDER, PERSON)).willReturn(null);
         given(securityService.hashValue(PASSWORD)).willReturn(PASSWORD_HASH);
-        given(authenticationRepository.save(authentication)).willReturn(authentication);
+        given(authenticationRepository.saveNew(authentication)).willReturn(authentication);
 
         final Authentication authenticationExpected = new Authentication(USERNAME, PASSWORD_HASH, AUTHPROVIDER, PERSON);
 
@@ -194,10 +266,10 @@ public class AuthenticationServiceImplTest {
         assertSame(authentication, authenticationResult);
         assertNotSame(authenticationExpected, authenticationResult);
         assertEquals(authenticationExpected, authenticationResult);
-        verify(authenticationRepository, times(1)).findByUsername(USERNAME);
-        verify(authenticationRepository, times(1)).findByAuthProviderAndPerson(AUTHPROVIDER, PERSON);
+        verify(authenticationRepository, never()).findByUsername(any());
+        verify(authenticationRepository, never()).findByAuthProviderAndPerson(any(), any());
         verify(securityService, times(1)).hashValue(PASSWORD);
-        verify(authenticationRepository, times(1)).save(authentication);
+        verify(authenticationRepository, times(1)).saveNew(authentication);
     }
 
     /**
@@ -212,6 +284,20 @@ public class AuthenticationServiceImplTest {
         authenticationService.update(authentication);
     }
 
+    /**
+     * Should throw AppPreconditionFailedException when authentication was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void updateVersionMismatch() {
+        final String ID = "ID";
+        final Authentication authentication = new Authentication(ID);
+        final Authentication authenticationOriginal = new Authentication(ID);
+        authenticationOriginal.setVersion(2L);
+        given(authenticationRepository.findOne(ID)).willReturn(authenticationOriginal);
+
+        authenticationService.update(authentication, 1L);
+    }
+
     /**
      * Should return an authentication when update successfully
      */
@@ -236,7 +322,7 @@ public class AuthenticationServiceImplTest {
         authenticationMocked.setId(ID);
         given(authenticationRepository.findOne(ID)).willReturn(authenticationOriginal);
         given(securityService.hashValue(PASSWORD_AUTHENTICATION)).willReturn(PASSWORD_HASH);
-        given(authenticationRepository.save(authenticationOriginal)).willReturn(authenticationMocked);
+        given(authenticationRepository.updateVersioned(authenticationOriginal)).willReturn(authenticationMocked);
 
         final Authentication authenticationExpected = new Authentication(USERNAME_ORIGINAL, PASSWORD_HASH, AUTHPROVIDER_ORIGINAL, PERSON_ORIGINAL);
         authenticationExpected.setId(ID);
@@ -250,7 +336,61 @@ public class AuthenticationServiceImplTest {
         assertEquals(authenticationExpected, authenticationResult);
         verify(authenticationRepository, times(1)).findOne(ID);
         verify(securityService, times(1)).hashValue(PASSWORD_AUTHENTICATION);
-        verify(authenticationRepository, times(1)).save(authenticationOriginal);
+        verify(authenticationRepository, times(1)).updateVersioned(authenticationOriginal);
+    }
+
+    /**
+     * Should throw AppValidationException when a field can't be patched
+     */
+    @Test(expected = AppValidationException.class)
+    public void patchFieldNotAllowed() {
+        authenticationService.patch("ID", Collections.singletonMap("id", "other"), null);
+    }
+
+    /**
+     * Should throw AppDontFoundException when authentication doesn't exist
+     */
+    @Test(expected = AppDontFoundException.class)
+    public void patchDontFound() {
+        final String ID = "ID";
+        given(authenticationRepository.patch(any(), any(), any())).willReturn(0L);
+        given(authenticationRepository.exists(ID)).willReturn(false);
+
+        authenticationService.patch(ID, Collections.singletonMap("password", "new password"), null);
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when authentication was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void patchVersionMismatch() {
+        final String ID = "ID";
+        given(authenticationRepository.patch(any(), any(), any())).willReturn(0L);
+        given(authenticationRepository.exists(ID)).willReturn(true);
+
+        authenticationService.patch(ID, Collections.singletonMap("password", "new password"), 1L);
+    }
+
+    /**
+     * Should hash the password and return an authentication when patch successfully
+     */
+    @Test
+    public void patchSuccessfully() {
+        final String ID = "ID";
+        final Long VERSION = 3L;
+        final String PASSWORD = "new password";
+        final String PASSWORD_HASH = "hash";
+        final Authentication authenticationMocked = new Authentication(ID);
+        given(securityService.hashValue(PASSWORD)).willReturn(PASSWORD_HASH);
+        given(authenticationRepository.patch(ID, VERSION, Collections.singletonMap("password", PASSWORD_HASH))).willReturn(1L);
+        given(authenticationRepository.findOne(ID)).willReturn(authenticationMocked);
+
+        final Authentication authenticationResult = authenticationService.patch(ID, Collections.singletonMap("password", PASSWORD), VERSION);
+
+        assertSame(authenticationMocked, authenticationResult);
+        verify(securityService, times(1)).hashValue(PASSWORD);
+        verify(authenticationRepository, times(1)).patch(ID, VERSION, Collections.singletonMap("password", PASSWORD_HASH));
+        verify(authenticationRepository, times(1)).findOne(ID);
     }
 
     /**
@@ -1,6 +1,7 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
 import app.models.Permission;
 import app.models.Role;
@@ -15,13 +16,17 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
@@ -72,6 +77,69 @@ public class PermissionServiceImplTest {
         assertEquals(permissionsMocked.get(3), captor.getAllValues().get(0));
     }
 
+    /**
+     * Should pass every streamed entity with its related data
+     */
+    @Test
+    public void streamAll() {
+        final List<Permission> permissionsMocked = Arrays.asList(
+                new Permission("ID1"), new Permission("ID2"), null, new Permission("ID4"));
+        permissionsMocked.get(0).setRoles(Arrays.asList(new Role("ROLE1")));
+        permissionsMocked.get(1).setRoles(Collections.EMPTY_LIST);
+        doAnswer(invocation -> {
+            permissionsMocked.forEach((Consumer<Permission>) invocation.getArguments()[0]);
+            return null;
+        }).when(permissionRepository).streamAll(any());
+        given(roleRepository.findByPermissions(any(Permission.class)))
+                .willReturn(Arrays.asList(new Role("ROLE2"), new Role("ROLE3")));
+
+        final List<Permission> permissionsExpected = Arrays.asList(
+                new Permission("ID1"), new Permission("ID2"), null, new Permission("ID4"));
+        permissionsExpected.get(0).setRoles(Arrays.asList(new Role("ROLE1")));
+        permissionsExpected.get(1).setRoles(Collections.EMPTY_LIST);
+        permissionsExpected.get(3).setRoles(Arrays.asList(new Role("ROLE2"), new Role("ROLE3")));
+
+        final List<Permission> permissionsResult = new ArrayList<>();
+        permissionService.streamAll(permissionsResult::add);
+
+        assertNotSame(permissionsExpected, permissionsResult);
+        assertEquals(permissionsExpected, permissionsResult);
+        verify(permissionRepository, times(1)).streamAll(any());
+        verify(roleRepository, times(1)).findByPermissions(captor.capture());
+        assertEquals(permissionsMocked.get(3), captor.getAllValues().get(0));
+    }
+
+    /**
+     * Should call findVersion function
+     */
+    @Test
+    public void findVersion() {
+        final String ID = "ID";
+        final Long VERSION_EXPECTED = 3L;
+        given(permissionRepository.findVersion(ID)).willReturn(VERSION_EXPECTED);
+
+        final Long versionResult = permissionService.findVersion(ID);
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(permissionRepository, times(1)).findVersion(ID);
+        verify(permissionRepository, never()).findOne(anyString());
+    }
+
+    /**
+     * Should call findCollectionVersion function
+     */
+    @Test
+    public void findCollectionVersion() {
+        final String VERSION_EXPECTED = "2-3-ID";
+        given(permissionRepository.findCollectionVersion()).willReturn(VERSION_EXPECTED);
+
+        final String versionResult = permissionService.findCollectionVersion();
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(permissionRepository, times(1)).findCollectionVersion();
+        verify(permissionRepository, never()).findAll();
+    }
+
     /**
      * Should call findOne function
      */
@@ -159,8 +227,18 @@ public class PermissionServiceImplTest {
     public void saveDuplicate() {
         final String NAME = "test";
         final Permission permission = new Permission(NAME, null);
-        given(permissionRepository.findByName(NAME)).willReturn(permission);
-        given(roleRepository.findByPermissions(permission)).willReturn(null);
+        given(permissionRepository.saveNew(permission)).willThrow(new DataIntegrityViolationException(Permission.UNIQUE_NAME));
+
+        permissionService.save(permission);
+    }
+
+    /**
+     * Should throw the original exception when another constraint is violated
+     */
+    @Test(expected = DataIntegrityViolationException.class)
+    public void saveOtherConstraint() {
+        final Permission permission = new Permission("test", null);
+        given(permissionRepository.saveNew(permission)).willThrow(new DataIntegrityViolationException("other"));
 
         permissionService.save(permission);
     }
@@ -173,8 +251,7 @@ public class PermissionServiceImplTest {
         final String NAME = "test";
         final String DESC = "desc";
         final Permission permission = new Permission(NAME, DESC);
-        given(permissionRepository.findByName(NAME)).willReturn(null);
-        given(permissionRepository.save(permission)).willReturn(permission);
+        given(permissionRepository.saveNew(permission)).willReturn(permission);
 
         final Permission permissionExpected = new Permission(NAME, DESC);
 
@@ -183,8 +260,8 @@ public class PermissionServiceImplTest {
         assertSame(permission, permissionResult);
         assertNotSame(permissionExpected, permissionResult);
         assertEquals(permissionExpected, permissionResult);
-        verify(permissionRepository, times(1)).findByName(NAME);
-        verify(permissionRepository, times(1)).save(permission);
+        verify(permissionRepository, never()).findByName(any());
+        verify(permissionRepository, times(1)).saveNew(permission);
     }
 
     /**
@@ -199,6 +276,20 @@ public class PermissionServiceImplTest {
         permissionService.update(permission);
     }
 
+    /**
+     * Should throw AppPreconditionFailedException when permission was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void updateVersionMismatch() {
+        final String ID = "ID";
+        final Permission permission = new Permission(ID);
+        final Permission permissionOriginal = new Permission(ID);
+        permissionOriginal.setVersion(2L);
+        given(permissionRepository.findOne(ID)).willReturn(permissionOriginal);
+
+        permissionService.update(permission, 1L);
+    }
+
     /**
      * Should return a permission when update successfully
      */
@@ -222,7 +313,7 @@ public class PermissionServiceImplTest {
         permissionMocked.setId(ID);
         permissionMocked.setRoles(ROLES_ORIGINAL);
         given(permissionRepository.findOne(ID)).willReturn(permissionOriginal);
-        given(permissionRepository.save(permissionOriginal)).willReturn(permissionMocked);
+        given(permissionRepository.updateVersioned(permissionOriginal)).willReturn(permissionMocked);
 
         final Permission permissionExpected = new Permission(NAME_ORIGINAL, DESC_PERMISSION);
         permissionExpected.setId(ID);
@@ -236,7 +327,58 @@ public class PermissionServiceImplTest {
         assertNotSame(permissionExpected, permissionResult);
         assertEquals(permissionExpected, permissionResult);
         verify(permissionRepository, times(1)).findOne(ID);
-        verify(permissionRepository, times(1)).save(permissionOriginal);
+        verify(permissionRepository, times(1)).updateVersioned(permissionOriginal);
+    }
+
+    /**
+     * Should throw AppValidationException when a field can't be patched
+     */
+    @Test(expected = AppValidationException.class)
+    public void patchFieldNotAllowed() {
+        permissionService.patch("ID", Collections.singletonMap("id", "other"), null);
+    }
+
+    /**
+     * Should throw AppDontFoundException when permission doesn't exist
+     */
+    @Test(expected = AppDontFoundException.class)
+    public void patchDontFound() {
+        final String ID = "ID";
+        given(permissionRepository.patch(any(), any(), any())).willReturn(0L);
+        given(permissionRepository.exists(ID)).willReturn(false);
+
+        permissionService.patch(ID, Collections.singletonMap("description", "new description"), null);
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when permission was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void patchVersionMismatch() {
+        final String ID = "ID";
+        given(permissionRepository.patch(any(), any(), any())).willReturn(0L);
+        given(permissionRepository.exists(ID)).willReturn(true);
+
+        permissionService.patch(ID, Collections.singletonMap("description", "new description"), 1L);
+    }
+
+    /**
+     * Should return a permission when patch successfully
+     */
+    @Test
+    public void patchSuccessfully() {
+        final String ID = "ID";
+        final Long VERSION = 3L;
+        final Map<String, Object> PATCH = Collections.singletonMap("description", "new description");
+        final Permission permissionMocked = new Permission(ID);
+        given(permissionRepository.patch(ID, VERSION, PATCH)).willReturn(1L);
+        given(permissionRepository.findOne(ID)).willReturn(permissionMocked);
+
+        final Permission permissionResult = permissionService.patch(ID, PATCH, VERSION);
+
+        assertSame(permissionMocked, permissionResult);
+        verify(permissionRepository, times(1)).patch(ID, VERSION, PATCH);
+        verify(permissionRepository, times(1)).findOne(ID);
     }
 
     /**
@@ -260,8 +402,8 @@ public class PermissionServiceImplTest {
         final String DESC = "desc";
         final Permission permission = new Permission(NAME, DESC);
         permission.setId(ID);
-        permission.setRoles(Arrays.asList(new Role("ID1")));
         given(permissionRepository.findOne(ID)).willReturn(permission);
+        given(roleRepository.existsByPermissions(permission)).willReturn(true);
 
         permissionService.delete(ID);
     }
@@ -277,7 +419,7 @@ public class PermissionServiceImplTest {
         final Permission permission = new Permission(NAME, DESC);
         permission.setId(ID);
         given(permissionRepository.findOne(ID)).willReturn(permission);
-        given(roleRepository.findByPermissions(permission)).willReturn(null);
+        given(roleRepository.existsByPermissions(permission)).willReturn(false);
         doNothing().when(permissionRepository).delete(permission);
 
         final Permission permissionExpected = new Permission(NAME, DESC);
@@ -289,7 +431,8 @@ public class PermissionServiceImplTest {
         assertNotSame(permissionExpected, permissionResult);
         assertEquals(permissionExpected, permissionResult);
         verify(permissionRepository, times(1)).findOne(ID);
-        verify(roleRepository, times(1)).findByPermissions(permission);
+        verify(roleRepository, times(1)).existsByPermissions(permission);
+        verify(roleRepository, never()).findByPermissions(any());
         verify(permissionRepository, times(1)).delete(permission);
     }
 
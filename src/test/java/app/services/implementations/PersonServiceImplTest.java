@@ -1,6 +1,7 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
 import app.models.Authentication;
 import app.models.Person;
@@ -22,6 +23,7 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
@@ -76,6 +78,73 @@ public class PersonServiceImplTest {
         assertEquals(peopleMocked.get(3), captor.getAllValues().get(0));
     }
 
+    /**
+     * Should pass every streamed entity with its related data
+     */
+    @Test
+    public void streamAll() {
+        final List<Person> peopleMocked = Arrays.asList(
+                new Person("ID1"), new Person("ID2"), null, new Person("ID4"));
+        peopleMocked.get(0).setAuthentications(Arrays.asList(new Authentication("A1")));
+        peopleMocked.get(0).setRoles(new HashSet<>(Arrays.asList(new Role("R1"), new Role("R2"))));
+        peopleMocked.get(1).setAuthentications(Collections.EMPTY_LIST);
+        peopleMocked.get(1).setRoles(new HashSet<>());
+        doAnswer(invocation -> {
+            peopleMocked.forEach((Consumer<Person>) invocation.getArguments()[0]);
+            return null;
+        }).when(personRepository).streamAll(any());
+        given(authenticationRepository.findByPerson(any(Person.class)))
+                .willReturn(Arrays.asList(new Authentication("A2"), new Authentication("A3")));
+
+        final List<Person> peopleExpected = Arrays.asList(
+                new Person("ID1"), new Person("ID2"), null, new Person("ID4"));
+        peopleExpected.get(0).setAuthentications(Arrays.asList(new Authentication("A1")));
+        peopleExpected.get(0).setRoles(new HashSet<>(Arrays.asList(new Role("R1"), new Role("R2"))));
+        peopleExpected.get(1).setAuthentications(Collections.EMPTY_LIST);
+        peopleExpected.get(1).setRoles(new HashSet<>());
+        peopleExpected.get(3).setAuthentications(Arrays.asList(new Authentication("A2"), new Authentication("A3")));
+
+        final List<Person> peopleResult = new ArrayList<>();
+        personService.streamAll(peopleResult::add);
+
+        assertNotSame(peopleExpected, peopleResult);
+        assertEquals(peopleExpected, peopleResult);
+        verify(personRepository, times(1)).streamAll(any());
+        verify(authenticationRepository, times(1)).findByPerson(captor.capture());
+        assertEquals(peopleMocked.get(3), captor.getAllValues().get(0));
+    }
+
+    /**
+     * Should call findVersion function
+     */
+    @Test
+    public void findVersion() {
+        final String ID = "ID";
+        final Long VERSION_EXPECTED = 3L;
+        given(personRepository.findVersion(ID)).willReturn(VERSION_EXPECTED);
+
+        final Long versionResult = personService.findVersion(ID);
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(personRepository, times(1)).findVersion(ID);
+        verify(personRepository, never()).findOne(anyString());
+    }
+
+    /**
+     * Should call findCollectionVersion function
+     */
+    @Test
+    public void findCollectionVersion() {
+        final String VERSION_EXPECTED = "2-3-ID";
+        given(personRepository.findCollectionVersion()).willReturn(VERSION_EXPECTED);
+
+        final String versionResult = personService.findCollectionVersion();
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(personRepository, times(1)).findCollectionVersion();
+        verify(personRepository, never()).findAll();
+    }
+
     /**
      * Should call findOne function
      */
@@ -220,6 +289,22 @@ public class PersonServiceImplTest {
         personService.update(person);
     }
 
+    /**
+     * Should throw AppPreconditionFailedException when person was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void updateVersionMismatch() {
+        final String ID = "ID";
+        final Person person = new Person(ID);
+        person.setCivilStatus(Person.CIVIL_STATUS.SINGLE);
+        person.setSex(Person.SEX.M);
+        final Person personOriginal = new Person(ID);
+        personOriginal.setVersion(2L);
+        given(personRepository.findOne(ID)).willReturn(personOriginal);
+
+        personService.update(person, 1L);
+    }
+
     /**
      * Should return a person when update successfully
      */
@@ -253,7 +338,7 @@ public class PersonServiceImplTest {
         personMocked.setId(ID);
         personMocked.setAuthentications(AUTHENTICATIONS_ORIGINAL);
         given(personRepository.findOne(ID)).willReturn(personOriginal);
-        given(personRepository.save(personOriginal)).willReturn(personMocked);
+        given(personRepository.updateVersioned(personOriginal)).willReturn(personMocked);
 
         final Person personExpected = new Person(NAME_PERSON, LAST_NAME_PERSON, BIRTHDAY_PERSON, CIVIL_STATUS_PERSON, SEX_PERSON, EMAIL_PERSON, ROLES_PERSON);
         personExpected.setId(ID);
@@ -267,7 +352,66 @@ public class PersonServiceImplTest {
         assertNotSame(personExpected, personResult);
         assertEquals(personExpected, personResult);
         verify(personRepository, times(1)).findOne(ID);
-        verify(personRepository, times(1)).save(personOriginal);
+        verify(personRepository, times(1)).updateVersioned(personOriginal);
+    }
+
+    /**
+     * Should throw AppValidationException when Civil Status is invalid
+     */
+    @Test(expected = AppValidationException.class)
+    public void patchCivilStatusInvalid() {
+        personService.patch("ID", Collections.singletonMap("civilStatus", -1), null);
+    }
+
+    /**
+     * Should throw AppValidationException when a field can't be patched
+     */
+    @Test(expected = AppValidationException.class)
+    public void patchFieldNotAllowed() {
+        personService.patch("ID", Collections.singletonMap("id", "other"), null);
+    }
+
+    /**
+     * Should throw AppDontFoundException when person doesn't exist
+     */
+    @Test(expected = AppDontFoundException.class)
+    public void patchDontFound() {
+        final String ID = "ID";
+        given(personRepository.patch(any(), any(), any())).willReturn(0L);
+        given(personRepository.exists(ID)).willReturn(false);
+
+        personService.patch(ID, Collections.singletonMap("name", "new name"), null);
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when person was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void patchVersionMismatch() {
+        final String ID = "ID";
+        given(personRepository.patch(any(), any(), any())).willReturn(0L);
+        given(personRepository.exists(ID)).willReturn(true);
+
+        personService.patch(ID, Collections.singletonMap("name", "new name"), 1L);
+    }
+
+    /**
+     * Should return a person when patch successfully
+     */
+    @Test
+    public void patchSuccessfully() {
+        final String ID = "ID";
+        final Long VERSION = 3L;
+        final Map<String, Object> PATCH = Collections.singletonMap("name", "new name");
+        final Person personMocked = new Person(ID);
+        given(personRepository.patch(ID, VERSION, PATCH)).willReturn(1L);
+        given(personRepository.findOne(ID)).willReturn(personMocked);
+
+        final Person personResult = personService.patch(ID, PATCH, VERSION);
+
+        assertSame(personMocked, personResult);
+        verify(personRepository, times(1)).patch(ID, VERSION, PATCH);
+        verify(personRepository, times(1)).findOne(ID);
     }
 
     /**
@@ -288,8 +432,8 @@ public class PersonServiceImplTest {
     public void deleteUsed() {
         final String ID = "ID";
         final Person person = new Person(ID);
-        person.setAuthentications(Arrays.asList(new Authentication("A1")));
         given(personRepository.findOne(ID)).willReturn(person);
+        given(authenticationRepository.existsByPerson(person)).willReturn(true);
 
         personService.delete(ID);
     }
@@ -310,7 +454,7 @@ public class PersonServiceImplTest {
         final Person person = new Person(NAME, LAST_NAME, BIRTHDAY, CIVIL_STATUS, SEX, EMAIL, ROLES);
         person.setId(ID);
         given(personRepository.findOne(ID)).willReturn(person);
-        given(authenticationRepository.findByPerson(person)).willReturn(null);
+        given(authenticationRepository.existsByPerson(person)).willReturn(false);
         doNothing().when(personRepository).delete(person);
 
         final Person personExpected = new Person(NAME, LAST_NAME, BIRTHDAY, CIVIL_STATUS, SEX, EMAIL, null);
@@ -322,7 +466,8 @@ public class PersonServiceImplTest {
         assertNotSame(personExpected, personResult);
         assertEquals(personExpected, personResult);
         verify(personRepository, times(1)).findOne(ID);
-        verify(authenticationRepository, times(1)).findByPerson(person);
+        verify(authenticationRepository, times(1)).existsByPerson(person);
+        verify(authenticationRepository, never()).findByPerson(any());
         verify(personRepository, times(1)).delete(person);
     }
 
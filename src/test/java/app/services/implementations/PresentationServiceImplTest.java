@@ -1,20 +1,28 @@
 package app.services.implementations;
 
-import app.models.*;
+import app.models.Model;
+import app.models.Permission;
+import app.models.Person;
+import app.models.Role;
+import app.models.serializers.PresentationFilter;
 import app.services.PresentationService;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -23,6 +31,19 @@ public class PresentationServiceImplTest {
     @Autowired
     private PresentationService presentationService;
 
+    private MockHttpServletRequest request;
+
+    @Before
+    public void setup() {
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @After
+    public void clean() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
     /**
      * Should not throw an Exception when list null
      */
@@ -30,6 +51,8 @@ public class PresentationServiceImplTest {
     public void prepareListWhenNull() {
         final List<Model> models = null;
         presentationService.prepare(models, false, false);
+
+        assertSame(PresentationFilter.WITHOUT_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
@@ -38,129 +61,48 @@ public class PresentationServiceImplTest {
     @Test
     public void prepareListWhenEmpty() {
         presentationService.prepare(Collections.EMPTY_LIST, true, true);
+
+        assertSame(PresentationFilter.ALL_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
-     * Should not clean any relationship
+     * Should select all relations
      */
     @Test
     public void prepareListWhenCompleteAndAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Person PERSON_2 = new Person("PE");
-        PERSON_2.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final List<Model> modelsResult = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", "P", AUTH_PROVIDER, PERSON)
-        );
-        final List<Model> modelsExpected = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2)
-        );
+        presentationService.prepare(Arrays.asList(new Role("R1"), null), true, true);
 
-        presentationService.prepare(modelsResult, true, true);
-
-        assertNotSame(modelsExpected, modelsResult);
-        assertEquals(modelsExpected, modelsResult);
+        assertSame(PresentationFilter.ALL_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
-     * Should not clean any relationship
+     * Should select all relations
      */
     @Test
     public void prepareListWhenNotCompleteAndAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Person PERSON_2 = new Person("PE");
-        PERSON_2.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final List<Model> modelsResult = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", "P", AUTH_PROVIDER, PERSON)
-        );
-        final List<Model> modelsExpected = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2)
-        );
+        presentationService.prepare(Arrays.asList(new Role("R1"), null), false, true);
 
-        presentationService.prepare(modelsResult, false, true);
-
-        assertNotSame(modelsExpected, modelsResult);
-        assertEquals(modelsExpected, modelsResult);
+        assertSame(PresentationFilter.ALL_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
-     * Should load only first level relationship
+     * Should select first level relations
      */
     @Test
     public void prepareListWhenCompleteAndNotAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Person PERSON_2 = new Person("PE");
-        PERSON_2.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", null)
-        )));
-        final List<Model> modelsResult = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", "P", AUTH_PROVIDER, PERSON)
-        );
-        final List<Model> modelsExpected = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2)
-        );
+        presentationService.prepare(Arrays.asList(new Role("R1"), null), true, false);
 
-        presentationService.prepare(modelsResult, true, false);
-
-        assertNotSame(modelsExpected, modelsResult);
-        assertEquals(modelsExpected, modelsResult);
+        assertSame(PresentationFilter.FIRST_LEVEL_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
-     * Should load without any relationship
+     * Should select without relations
      */
     @Test
     public void prepareListWhenNotCompleteAndNotAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(new Role("R"))));
-        final Person PERSON_2 = new Person("PE");
-        final List<Model> modelsResult = Arrays.asList(
-                new Role("N", "D", new HashSet<>(Arrays.asList(new Permission("P")))),
-                null,
-                new Authentication("U", "P", AUTH_PROVIDER, PERSON)
-        );
-        final List<Model> modelsExpected = Arrays.asList(
-                new Role("N", "D", null),
-                null,
-                new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2)
-        );
+        presentationService.prepare(Arrays.asList(new Role("R1"), null), false, false);
 
-        presentationService.prepare(modelsResult, false, false);
-
-        assertNotSame(modelsExpected, modelsResult);
-        assertEquals(modelsExpected, modelsResult);
+        assertSame(PresentationFilter.WITHOUT_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
@@ -169,97 +111,37 @@ public class PresentationServiceImplTest {
     @Test
     public void prepareWhenNull() {
         final Model model = null;
-        presentationService.prepare(model, false, false);
-    }
+        presentationService.prepare(model, true, false);
 
-    /**
-     * Should not clean any relationship
-     */
-    @Test
-    public void prepareWhenCompleteAndAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Person PERSON_2 = new Person("PE");
-        PERSON_2.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Authentication authenticationResult = new Authentication("U", "P", AUTH_PROVIDER, PERSON);
-        final Authentication authenticationExpected = new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2);
-
-        presentationService.prepare(authenticationResult, true, true);
-
-        assertNotSame(authenticationExpected, authenticationResult);
-        assertEquals(authenticationExpected, authenticationResult);
+        assertSame(PresentationFilter.FIRST_LEVEL_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
-     * Should not clean any relationship
+     * Should not modify the model
      */
     @Test
-    public void prepareWhenNotCompleteAndAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
+    public void prepareNotModify() {
         final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Person PERSON_2 = new Person("PE");
-        PERSON_2.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Authentication authenticationResult = new Authentication("U", "P", AUTH_PROVIDER, PERSON);
-        final Authentication authenticationExpected = new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2);
+        PERSON.setRoles(new HashSet<>(Arrays.asList(new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1")))))));
+        final Person personExpected = new Person("PE");
+        personExpected.setRoles(new HashSet<>(Arrays.asList(new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1")))))));
 
-        presentationService.prepare(authenticationResult, false, true);
+        presentationService.prepare(PERSON, false, false);
 
-        assertNotSame(authenticationExpected, authenticationResult);
-        assertEquals(authenticationExpected, authenticationResult);
+        assertNotSame(personExpected, PERSON);
+        assertEquals(personExpected, PERSON);
+        assertSame(PresentationFilter.WITHOUT_RELATIONS, request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
 
     /**
-     * Should load only first level relationship
+     * Should not throw an Exception when there isn't a Request
      */
     @Test
-    public void prepareWhenCompleteAndNotAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", new HashSet<>(Arrays.asList(new Permission("P1"))))
-        )));
-        final Person PERSON_2 = new Person("PE");
-        PERSON_2.setRoles(new HashSet<>(Arrays.asList(
-                new Role("R1", "DR1", null)
-        )));
-        final Authentication authenticationResult = new Authentication("U", "P", AUTH_PROVIDER, PERSON);
-        final Authentication authenticationExpected = new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2);
-
-        presentationService.prepare(authenticationResult, true, false);
-
-        assertNotSame(authenticationExpected, authenticationResult);
-        assertEquals(authenticationExpected, authenticationResult);
-    }
-
-    /**
-     * Should load without any relationship
-     */
-    @Test
-    public void prepareWhenNotCompleteAndNotAllRelations() {
-        final AuthProvider AUTH_PROVIDER = new AuthProvider("N", "D", "U", "AK", "AS");
-        final AuthProvider AUTH_PROVIDER_2 = new AuthProvider("N", "D", null, null, null);
-        final Person PERSON = new Person("PE");
-        PERSON.setRoles(new HashSet<>(Arrays.asList(new Role("R"))));
-        final Person PERSON_2 = new Person("PE");
-        final Authentication authenticationResult = new Authentication("U", "P", AUTH_PROVIDER, PERSON);
-        final Authentication authenticationExpected = new Authentication("U", null, AUTH_PROVIDER_2, PERSON_2);
+    public void prepareWithoutRequest() {
+        RequestContextHolder.resetRequestAttributes();
 
-        presentationService.prepare(authenticationResult, false, false);
+        presentationService.prepare(new Person("PE"), false, false);
 
-        assertNotSame(authenticationExpected, authenticationResult);
-        assertEquals(authenticationExpected, authenticationResult);
+        assertNull(request.getAttribute(PresentationFilter.ATTRIBUTE));
     }
-}
\ No newline at end of file
+}
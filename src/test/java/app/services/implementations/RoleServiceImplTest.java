@@ -1,6 +1,7 @@
 package app.services.implementations;
 
 import app.exceptions.AppDontFoundException;
+import app.exceptions.AppPreconditionFailedException;
 import app.exceptions.AppValidationException;
 import app.models.Permission;
 import app.models.Person;
@@ -16,11 +17,13 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.given;
@@ -75,6 +78,73 @@ public class RoleServiceImplTest {
         assertEquals(rolesMocked.get(3), captor.getAllValues().get(0));
     }
 
+    /**
+     * Should pass every streamed entity with its related data
+     */
+    @Test
+    public void streamAll() {
+        final List<Role> rolesMocked = Arrays.asList(
+                new Role("ID1"), new Role("ID2"), null, new Role("ID4"));
+        rolesMocked.get(0).setPeople(Arrays.asList(new Person("Per1")));
+        rolesMocked.get(0).setPermissions(new HashSet<>(Arrays.asList(new Permission("P1"), new Permission("P2"))));
+        rolesMocked.get(1).setPeople(Collections.EMPTY_LIST);
+        rolesMocked.get(1).setPermissions(new HashSet<>());
+        doAnswer(invocation -> {
+            rolesMocked.forEach((Consumer<Role>) invocation.getArguments()[0]);
+            return null;
+        }).when(roleRepository).streamAll(any());
+        given(personRepository.findByRoles(any(Role.class)))
+                .willReturn(Arrays.asList(new Person("Per2"), new Person("Per3")));
+
+        final List<Role> rolesExpected = Arrays.asList(
+                new Role("ID1"), new Role("ID2"), null, new Role("ID4"));
+        rolesExpected.get(0).setPeople(Arrays.asList(new Person("Per1")));
+        rolesExpected.get(0).setPermissions(new HashSet<>(Arrays.asList(new Permission("P1"), new Permission("P2"))));
+        rolesExpected.get(1).setPeople(Collections.EMPTY_LIST);
+        rolesExpected.get(1).setPermissions(new HashSet<>());
+        rolesExpected.get(3).setPeople(Arrays.asList(new Person("Per2"), new Person("Per3")));
+
+        final List<Role> rolesResult = new ArrayList<>();
+        roleService.streamAll(rolesResult::add);
+
+        assertNotSame(rolesExpected, rolesResult);
+        assertEquals(rolesExpected, rolesResult);
+        verify(roleRepository, times(1)).streamAll(any());
+        verify(personRepository, times(1)).findByRoles(captor.capture());
+        assertEquals(rolesMocked.get(3), captor.getAllValues().get(0));
+    }
+
+    /**
+     * Should call findVersion function
+     */
+    @Test
+    public void findVersion() {
+        final String ID = "ID";
+        final Long VERSION_EXPECTED = 3L;
+        given(roleRepository.findVersion(ID)).willReturn(VERSION_EXPECTED);
+
+        final Long versionResult = roleService.findVersion(ID);
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(roleRepository, times(1)).findVersion(ID);
+        verify(roleRepository, never()).findOne(anyString());
+    }
+
+    /**
+     * Should call findCollectionVersion function
+     */
+    @Test
+    public void findCollectionVersion() {
+        final String VERSION_EXPECTED = "2-3-ID";
+        given(roleRepository.findCollectionVersion()).willReturn(VERSION_EXPECTED);
+
+        final String versionResult = roleService.findCollectionVersion();
+
+        assertEquals(VERSION_EXPECTED, versionResult);
+        verify(roleRepository, times(1)).findCollectionVersion();
+        verify(roleRepository, never()).findAll();
+    }
+
     /**
      * Should call findOne function
      */
@@ -166,8 +236,18 @@ public class RoleServiceImplTest {
     public void saveDuplicate() {
         final String NAME = "test";
         final Role role = new Role(NAME, null, null);
-        given(roleRepository.findByName(NAME)).willReturn(role);
-        given(personRepository.findByRoles(role)).willReturn(null);
+        given(roleRepository.saveNew(role)).willThrow(new DataIntegrityViolationException(Role.UNIQUE_NAME));
+
+        roleService.save(role);
+    }
+
+    /**
+     * Should throw the original exception when another constraint is violated
+     */
+    @Test(expected = DataIntegrityViolationException.class)
+    public void saveOtherConstraint() {
+        final Role role = new Role("test", null, null);
+        given(roleRepository.saveNew(role)).willThrow(new DataIntegrityViolationException("other"));
 
         roleService.save(role);
     }
@@ -181,8 +261,7 @@ public class RoleServiceImplTest {
         final String DESC = "desc";
         final Set<Permission> PERMISSIONS = new HashSet<>(Arrays.asList(new Permission("P1"), new Permission("P2")));
         final Role role = new Role(NAME, DESC, PERMISSIONS);
-        given(roleRepository.findByName(NAME)).willReturn(null);
-        given(roleRepository.save(role)).willReturn(role);
+        given(roleRepository.saveNew(role)).willReturn(role);
 
         final Role roleExpected = new Role(NAME, DESC, PERMISSIONS);
 
@@ -191,8 +270,8 @@ public class RoleServiceImplTest {
         assertSame(role, roleResult);
         assertNotSame(roleExpected, roleResult);
         assertEquals(roleExpected, roleResult);
-        verify(roleRepository, times(1)).findByName(NAME);
-        verify(roleRepository, times(1)).save(role);
+        verify(roleRepository, never()).findByName(any());
+        verify(roleRepository, times(1)).saveNew(role);
     }
 
     /**
@@ -207,6 +286,20 @@ public class RoleServiceImplTest {
         roleService.update(role);
     }
 
+    /**
+     * Should throw AppPreconditionFailedException when role was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void updateVersionMismatch() {
+        final String ID = "ID";
+        final Role role = new Role(ID);
+        final Role roleOriginal = new Role(ID);
+        roleOriginal.setVersion(2L);
+        given(roleRepository.findOne(ID)).willReturn(roleOriginal);
+
+        roleService.update(role, 1L);
+    }
+
     /**
      * Should return a role when update successfully
      */
@@ -232,7 +325,7 @@ public class RoleServiceImplTest {
         roleMocked.setId(ID);
         roleMocked.setPeople(PEOPLE_ORIGINAL);
         given(roleRepository.findOne(ID)).willReturn(roleOriginal);
-        given(roleRepository.save(roleOriginal)).willReturn(roleMocked);
+        given(roleRepository.updateVersioned(roleOriginal)).willReturn(roleMocked);
 
         final Role roleExpected = new Role(NAME_ORIGINAL, DESC_ROLE, PERMISSIONS_ROLE);
         roleExpected.setId(ID);
@@ -246,7 +339,58 @@ public class RoleServiceImplTest {
         assertNotSame(roleExpected, roleResult);
         assertEquals(roleExpected, roleResult);
         verify(roleRepository, times(1)).findOne(ID);
-        verify(roleRepository, times(1)).save(roleOriginal);
+        verify(roleRepository, times(1)).updateVersioned(roleOriginal);
+    }
+
+    /**
+     * Should throw AppValidationException when a field can't be patched
+     */
+    @Test(expected = AppValidationException.class)
+    public void patchFieldNotAllowed() {
+        roleService.patch("ID", Collections.singletonMap("id", "other"), null);
+    }
+
+    /**
+     * Should throw AppDontFoundException when role doesn't exist
+     */
+    @Test(expected = AppDontFoundException.class)
+    public void patchDontFound() {
+        final String ID = "ID";
+        given(roleRepository.patch(any(), any(), any())).willReturn(0L);
+        given(roleRepository.exists(ID)).willReturn(false);
+
+        roleService.patch(ID, Collections.singletonMap("description", "new description"), null);
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when role was modified since the given version
+     */
+    @Test(expected = AppPreconditionFailedException.class)
+    public void patchVersionMismatch() {
+        final String ID = "ID";
+        given(roleRepository.patch(any(), any(), any())).willReturn(0L);
+        given(roleRepository.exists(ID)).willReturn(true);
+
+        roleService.patch(ID, Collections.singletonMap("description", "new description"), 1L);
+    }
+
+    /**
+     * Should return a role when patch successfully
+     */
+    @Test
+    public void patchSuccessfully() {
+        final String ID = "ID";
+        final Long VERSION = 3L;
+        final Map<String, Object> PATCH = Collections.singletonMap("description", "new description");
+        final Role roleMocked = new Role(ID);
+        given(roleRepository.patch(ID, VERSION, PATCH)).willReturn(1L);
+        given(roleRepository.findOne(ID)).willReturn(roleMocked);
+
+        final Role roleResult = roleService.patch(ID, PATCH, VERSION);
+
+        assertSame(roleMocked, roleResult);
+        verify(roleRepository, times(1)).patch(ID, VERSION, PATCH);
+        verify(roleRepository, times(1)).findOne(ID);
     }
 
     /**
@@ -267,8 +411,8 @@ public class RoleServiceImplTest {
     public void deleteUsed() {
         final String ID = "ID";
         final Role role = new Role(ID);
-        role.setPeople(Arrays.asList(new Person("Per1")));
         given(roleRepository.findOne(ID)).willReturn(role);
+        given(personRepository.existsByRoles(role)).willReturn(true);
 
         roleService.delete(ID);
     }
@@ -285,7 +429,7 @@ public class RoleServiceImplTest {
         final Role role = new Role(NAME, DESC, PERMISSIONS);
         role.setId(ID);
         given(roleRepository.findOne(ID)).willReturn(role);
-        given(personRepository.findByRoles(role)).willReturn(null);
+        given(personRepository.existsByRoles(role)).willReturn(false);
         doNothing().when(roleRepository).delete(role);
 
         //clean permissions
@@ -298,7 +442,8 @@ public class RoleServiceImplTest {
         assertNotSame(roleExpected, roleResult);
         assertEquals(roleExpected, roleResult);
         verify(roleRepository, times(1)).findOne(ID);
-        verify(personRepository, times(1)).findByRoles(role);
+        verify(personRepository, times(1)).existsByRoles(role);
+        verify(personRepository, never()).findByRoles(any());
         verify(roleRepository, times(1)).delete(role);
     }
 
@@ -0,0 +1,185 @@
+package app.services.implementations;
+
+import app.exceptions.AppPreconditionFailedException;
+import app.exceptions.AppValidationException;
+import app.repositories.*;
+import app.repositories.mongo.MongoSnapshotTemplate;
+import app.repositories.mysql.JpaSnapshotTemplate;
+import app.services.SnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "snapshot.batch-size=2")
+public class SnapshotServiceImplTest {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @MockBean
+    private AuthProviderRepository authProviderRepository;
+
+    @MockBean
+    private AuthenticationRepository authenticationRepository;
+
+    @MockBean
+    private PersonRepository personRepository;
+
+    @MockBean
+    private RoleRepository roleRepository;
+
+    @MockBean
+    private PermissionRepository permissionRepository;
+
+    @MockBean
+    private JpaSnapshotTemplate jpaSnapshotTemplate;
+
+    @MockBean
+    private MongoSnapshotTemplate mongoSnapshotTemplate;
+
+    /**
+     * Should write one gzip NDJSON line per row with all tables in insert order
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void export() throws Exception {
+        final Map<String, Object> PERMISSION_1 = row("id", "P1", "name", "N1");
+        final Map<String, Object> PERMISSION_2 = row("id", "P2", "name", "N2");
+        final Map<String, Object> ROLE_PERMISSION = row("roles_id", "R1", "permissions_id", "P1");
+        willAnswer(invocation -> {
+            final Consumer<Map<String, Object>> consumer = (Consumer<Map<String, Object>>) invocation.getArguments()[1];
+            final String table = (String) invocation.getArguments()[0];
+            if (table.equals("permission")) {
+                consumer.accept(PERMISSION_1);
+                consumer.accept(PERMISSION_2);
+            } else if (table.equals("role_permissions")) {
+                consumer.accept(ROLE_PERMISSION);
+            }
+            return null;
+        }).given(jpaSnapshotTemplate).exportTable(anyString(), any());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshotService.export(outputStream);
+        final List<String> linesResult = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray())), StandardCharsets.UTF_8))
+                .lines().collect(Collectors.toList());
+
+        final ObjectMapper mapper = new ObjectMapper();
+        assertEquals(3, linesResult.size());
+        assertEquals(line("permission", PERMISSION_1), mapper.readValue(linesResult.get(0), Map.class));
+        assertEquals(line("permission", PERMISSION_2), mapper.readValue(linesResult.get(1), Map.class));
+        assertEquals(line("role_permissions", ROLE_PERMISSION), mapper.readValue(linesResult.get(2), Map.class));
+        verify(jpaSnapshotTemplate, times(7)).exportTable(anyString(), any());
+        verifyZeroInteractions(mongoSnapshotTemplate);
+    }
+
+    /**
+     * Should insert rows in batches of the same table and return the number of inserted rows by table
+     */
+    @Test
+    public void restore() throws Exception {
+        final Map<String, Object> PERMISSION_1 = row("id", "P1", "name", "N1");
+        final Map<String, Object> PERMISSION_2 = row("id", "P2", "name", "N2");
+        final Map<String, Object> PERMISSION_3 = row("id", "P3", "name", "N3");
+        final Map<String, Object> ROLE = row("id", "R1", "name", "N1");
+        final Map<String, Object> ROLE_PERMISSION = row("roles_id", "R1", "permissions_id", "P1");
+        final InputStream SNAPSHOT = snapshot(line("permission", PERMISSION_1), line("permission", PERMISSION_2),
+                line("permission", PERMISSION_3), line("role", ROLE), line("role_permissions", ROLE_PERMISSION));
+
+        final Map<String, Long> restoredResult = snapshotService.restore(SNAPSHOT);
+
+        final Map<String, Long> RESTORED_EXPECTED = new LinkedHashMap<>();
+        RESTORED_EXPECTED.put("auth_provider", 0L);
+        RESTORED_EXPECTED.put("permission", 3L);
+        RESTORED_EXPECTED.put("role", 1L);
+        RESTORED_EXPECTED.put("role_permissions", 1L);
+        RESTORED_EXPECTED.put("person", 0L);
+        RESTORED_EXPECTED.put("person_roles", 0L);
+        RESTORED_EXPECTED.put("authentication", 0L);
+        assertEquals(RESTORED_EXPECTED, restoredResult);
+        assertEquals(new ArrayList<>(RESTORED_EXPECTED.keySet()), new ArrayList<>(restoredResult.keySet()));
+        verify(jpaSnapshotTemplate, times(1)).importTable("permission", Arrays.asList(PERMISSION_1, PERMISSION_2));
+        verify(jpaSnapshotTemplate, times(1)).importTable("permission", Collections.singletonList(PERMISSION_3));
+        verify(jpaSnapshotTemplate, times(1)).importTable("role", Collections.singletonList(ROLE));
+        verify(jpaSnapshotTemplate, times(1)).importTable("role_permissions", Collections.singletonList(ROLE_PERMISSION));
+        verify(jpaSnapshotTemplate, times(4)).importTable(anyString(), anyList());
+        verifyZeroInteractions(mongoSnapshotTemplate);
+    }
+
+    /**
+     * Should throw AppPreconditionFailedException when Data Base isn't empty
+     */
+    @Test
+    public void restoreNotEmpty() throws Exception {
+        given(personRepository.count()).willReturn(1L);
+
+        try {
+            snapshotService.restore(snapshot(line("permission", row("id", "P1", "name", "N1"))));
+            fail("Exception expected");
+        } catch (AppPreconditionFailedException e) {
+            assertEquals("Data Base must be empty to restore a snapshot.", e.getMessage());
+        }
+
+        verify(jpaSnapshotTemplate, never()).importTable(anyString(), anyList());
+    }
+
+    /**
+     * Should throw AppValidationException when snapshot has an unknown table
+     */
+    @Test
+    public void restoreUnknownTable() throws Exception {
+        try {
+            snapshotService.restore(snapshot(line("permission", row("id", "P1", "name", "N1")), line("users", row("id", "U1"))));
+            fail("Exception expected");
+        } catch (AppValidationException e) {
+            assertEquals("Snapshot has an unknown table 'users'.", e.getMessage());
+        }
+
+        verify(jpaSnapshotTemplate, never()).importTable(anyString(), anyList());
+    }
+
+    private Map<String, Object> row(Object... values) {
+        final Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i += 2) {
+            row.put((String) values[i], values[i + 1]);
+        }
+        return row;
+    }
+
+    private Map<String, Object> line(String table, Map<String, Object> row) {
+        final Map<String, Object> line = new LinkedHashMap<>();
+        line.put("table", table);
+        line.put("row", row);
+        return line;
+    }
+
+    @SafeVarargs
+    private final InputStream snapshot(Map<String, Object>... lines) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(outputStream), StandardCharsets.UTF_8)) {
+            for (Map<String, Object> line : lines) {
+                writer.write(mapper.writeValueAsString(line) + "\n");
+            }
+        }
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+}